@@ -0,0 +1,73 @@
+package mybook.mymarket.benchmark;
+
+import mybook.mymarket.domain.OrderStatus;
+import mybook.mymarket.query.ParentChildAssembler;
+import mybook.mymarket.repository.order.query.OrderItemQueryDto;
+import mybook.mymarket.repository.order.query.OrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 DTO 에 주문상품 DTO 를 붙이는 비용 (DB 제외, 메모리 안에서 합치는 부분만)
+ * - groupingBy: 예전 방식 => stream 으로 id 목록 + Collectors.groupingBy(Map<Long, List>)
+ * - assembler: LongIndex + 평평한 배열 + 정확한 크기 리스트 (ParentChildAssembler)
+ * 할당량은 gc.alloc.rate.norm (B/op) 으로 비교
+ * ./gradlew jmh -Pjmh.includes=OrderAssemblyBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class OrderAssemblyBenchmark {
+    @Param({"100", "1000"})
+    int orders;
+
+    @Param({"3"})
+    int itemsPerOrder;
+
+    private List<OrderQueryDto> result;
+    private List<OrderItemQueryDto> orderItems;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        result = new ArrayList<>(orders);
+        orderItems = new ArrayList<>(orders * itemsPerOrder);
+        for (long orderId = 1; orderId <= orders; orderId++) {
+            result.add(new OrderQueryDto(orderId, 1L, "member", LocalDateTime.now(), OrderStatus.ORDER, null, null, null));
+            for (int i = 0; i < itemsPerOrder; i++)
+                orderItems.add(new OrderItemQueryDto(orderId, 2L, orderId * 10 + i, "book", "seller", 10000, 1));
+        }
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> groupingBy() {
+        List<Long> orderIds = result.stream()
+                .map(OrderQueryDto::getOrderId)
+                .collect(Collectors.toList());
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
+                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
+
+        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+
+        return orderIds.isEmpty() ? null : result;
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> assembler() {
+        List<Long> orderIds = new ArrayList<>(result.size());
+        for (OrderQueryDto o : result)
+            orderIds.add(o.getOrderId());
+
+        ParentChildAssembler<OrderQueryDto, OrderItemQueryDto> assembler = new ParentChildAssembler<>(
+                result, OrderQueryDto::getOrderId, OrderItemQueryDto::getOrderId);
+        assembler.accept(orderItems);
+        assembler.assemble(OrderQueryDto::setOrderItems);
+
+        return orderIds.isEmpty() ? null : result;
+    }
+}
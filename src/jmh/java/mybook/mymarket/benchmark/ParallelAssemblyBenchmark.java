@@ -0,0 +1,67 @@
+package mybook.mymarket.benchmark;
+
+import mybook.mymarket.MymarketApplication;
+import mybook.mymarket.dataset.DatasetScale;
+import mybook.mymarket.dataset.MarketDataGenerator;
+import mybook.mymarket.repository.OrderSearch;
+import mybook.mymarket.repository.order.query.OrderQueryDto;
+import mybook.mymarket.repository.order.query.OrderQueryRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * v4 주문 조회: 직렬(parallel=false) vs 병렬 조립(parallel=true)
+ * - ordersV4: 주문 쿼리와 주문상품 쿼리를 동시에 (전체 조회)
+ * - ordersV4Search: 주문 쿼리 다음 주문상품 in 절을 덩어리(in-list.max-chunk-size)로 나눠서 동시에
+ * 컨트롤러처럼 트랜잭션 밖에서 호출 (트랜잭션 안이면 병렬을 안 씀), 검색 캐시/조회 합치기는 끄고 측정
+ * 코어 수, DB 가 다른 서버인지(네트워크 왕복)에 따라 결과가 크게 달라짐 => 운영과 비슷한 환경에서 볼 것
+ * ./gradlew jmh -Pjmh.includes=ParallelAssemblyBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ParallelAssemblyBenchmark {
+    @Param({"false", "true"})
+    boolean parallel;
+
+    @Param({"5000"})
+    int orders;
+
+    private ConfigurableApplicationContext context;
+    private OrderQueryRepository orderQueryRepository;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        context = new SpringApplicationBuilder(MymarketApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .properties("market.query.parallel.enabled=" + parallel,
+                        "market.query.in-list.max-chunk-size=256",
+                        "market.cache.search.enabled=false",
+                        "market.coalesce.enabled=false")
+                .run();
+
+        context.getBean(MarketDataGenerator.class).generate(DatasetScale.of(500, 2500, orders));
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> ordersV4() {
+        return orderQueryRepository.findAllByDto_optimization();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> ordersV4Search() {
+        return orderQueryRepository.findAllByStringByDto_optimization(new OrderSearch());   // 최대 1000건 => 4 덩어리
+    }
+}
@@ -0,0 +1,84 @@
+package mybook.mymarket.benchmark;
+
+import mybook.mymarket.MymarketApplication;
+import mybook.mymarket.dataset.DatasetScale;
+import mybook.mymarket.dataset.MarketDataGenerator;
+import mybook.mymarket.domain.Order;
+import mybook.mymarket.domain.OrderStatus;
+import mybook.mymarket.query.ReadOnlyQueries;
+import mybook.mymarket.repository.OrderRepository;
+import mybook.mymarket.repository.OrderSearch;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 검색(회원 한 명 => 결과 몇 건) 한 번의 비용: 쿼리 모양 캐시 vs loadgraph 힌트
+ * - shape: DynamicQuery => 모양별로 만들어 둔 JPQL(그래프는 fetch join 으로 펼침) => Hibernate 플랜 캐시 hit
+ * - hint: 같은 조건을 loadgraph 힌트로 => Hibernate 5.4 는 실행할 때마다 HQL 을 다시 파싱, SQL 로 변환
+ * 결과가 작을수록 변환 비용이 요청 비용의 대부분
+ * ./gradlew jmh -Pjmh.includes=QueryShapeBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class QueryShapeBenchmark {
+    @Param({"shape", "hint"})
+    String mode;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate tx;
+    private EntityManager em;
+    private OrderRepository orderRepository;
+    private OrderSearch search;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        context = new SpringApplicationBuilder(MymarketApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run();
+
+        context.getBean(MarketDataGenerator.class).generate(DatasetScale.of(100, 500, 1000));
+
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.setReadOnly(true);
+        em = context.getBean(EntityManager.class);
+        orderRepository = context.getBean(OrderRepository.class);
+
+        search = new OrderSearch();
+        search.setNickName("member7");
+        search.setOrderStatus(OrderStatus.ORDER);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Order> search() {
+        return tx.execute(status -> "shape".equals(mode)
+                ? orderRepository.findOrders(search, Order.WITH_MEMBER_DEAL)
+                : withHint());
+    }
+
+    private List<Order> withHint() {
+        TypedQuery<Order> query = ReadOnlyQueries.readOnly(em.createQuery("select o from Order o join o.member m join o.deal d " +
+                        "where o.status = :status and m.nickName like :name", Order.class))
+                .setHint("javax.persistence.loadgraph", em.getEntityGraph(Order.WITH_MEMBER_DEAL))
+                .setParameter("status", search.getOrderStatus())
+                .setParameter("name", search.getNickName())
+                .setMaxResults(1000);
+
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,162 @@
+package mybook.mymarket.benchmark;
+
+import mybook.mymarket.MymarketApplication;
+import mybook.mymarket.dataset.DatasetScale;
+import mybook.mymarket.dataset.MarketDataGenerator;
+import mybook.mymarket.domain.Order;
+import mybook.mymarket.domain.Register;
+import mybook.mymarket.repository.OrderRepository;
+import mybook.mymarket.repository.OrderSearch;
+import mybook.mymarket.repository.RegisterRepository;
+import mybook.mymarket.repository.RegisterSearch;
+import mybook.mymarket.repository.order.query.OrderQueryRepository;
+import mybook.mymarket.repository.register.query.RegisterQueryRepository;
+import mybook.mymarket.service.dto.OrderDto;
+import mybook.mymarket.service.dto.RegisterDto;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * v2 (일반 join + Lazy 로딩), v3 (Fetch join + default_batch_fetch_size), v4 (Dto 직접 조회) 비교
+ * - 지연시간: AverageTime (us/op)
+ * - 할당률: -prof gc (gc.alloc.rate.norm, B/op)
+ * - 쿼리 개수: statements / calls (Hibernate Statistics 의 prepareStatementCount)
+ * ./gradlew jmh -Pjmh.includes=QueryStrategyBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class QueryStrategyBenchmark {
+    @Param({"100"})
+    int members;
+
+    @Param({"500"})
+    int registers;
+
+    @Param({"1000"})
+    int orders;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTx;
+    private Statistics statistics;
+
+    private OrderRepository orderRepository;
+    private OrderQueryRepository orderQueryRepository;
+    private RegisterRepository registerRepository;
+    private RegisterQueryRepository registerQueryRepository;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        context = new SpringApplicationBuilder(MymarketApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run();
+
+        context.getBean(MarketDataGenerator.class).generate(DatasetScale.of(members, registers, orders));
+
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);   // 서비스 계층의 @Transactional(readOnly = true) 와 같은 조건
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        orderRepository = context.getBean(OrderRepository.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        registerRepository = context.getBean(RegisterRepository.class);
+        registerQueryRepository = context.getBean(RegisterQueryRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        context.close();
+    }
+
+    /**
+     * 호출 1번 당 쿼리 개수 = statements / calls
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StatementCounter {
+        public long statements;
+        public long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            calls = 0;
+        }
+    }
+
+    /**
+     * 전체 주문 조회
+     */
+    @Benchmark
+    public List<OrderDto> ordersV2(StatementCounter counter) {
+        return measure(counter, () -> orderRepository.findOrders(null).stream()
+                .map(o -> new OrderDto(o))
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<OrderDto> ordersV3(StatementCounter counter) {
+        return measure(counter, () -> orderRepository.findOrders(null, Order.WITH_MEMBER_DEAL).stream()
+                .map(o -> new OrderDto(o))
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public Object ordersV4(StatementCounter counter) {
+        return measure(counter, () -> orderQueryRepository.findAllByDto_optimization());
+    }
+
+    @Benchmark
+    public Object ordersWeb(StatementCounter counter) {   // Web Layer 주문 목록 (엔티티 Fetch join -> Dto)
+        return measure(counter, () -> orderQueryRepository.findAllByString_optimization(new OrderSearch()));
+    }
+
+    /**
+     * 전체 (등록)상품 조회
+     */
+    @Benchmark
+    public List<RegisterDto> registersV2(StatementCounter counter) {
+        return measure(counter, () -> registerRepository.findRegisters(null).stream()
+                .map(r -> new RegisterDto(r))
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<RegisterDto> registersV3(StatementCounter counter) {
+        return measure(counter, () -> registerRepository.findRegisters(null, Register.WITH_MEMBER_ITEM).stream()
+                .map(r -> new RegisterDto(r))
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public Object registersV4(StatementCounter counter) {
+        return measure(counter, () -> registerQueryRepository.findAllByDto());
+    }
+
+    @Benchmark
+    public Object registersV4Search(StatementCounter counter) {
+        return measure(counter, () -> registerQueryRepository.findAllByDto_search(new RegisterSearch()));
+    }
+
+    private <T> T measure(StatementCounter counter, Supplier<T> query) {
+        long before = statistics.getPrepareStatementCount();
+        T result = readOnlyTx.execute(status -> query.get());   // 트랜잭션 안에서 Lazy 로딩까지 포함
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        counter.calls++;
+
+        return result;
+    }
+}
@@ -0,0 +1,129 @@
+package mybook.mymarket.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mybook.mymarket.ratelimit.RateLimitFilter;
+import mybook.mymarket.ratelimit.RateLimitProperties;
+import mybook.mymarket.ratelimit.RateLimiter;
+import mybook.mymarket.ratelimit.TokenBucket;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 토큰 버킷 요청 제한 비용 (목표: 요청 당 1us 미만)
+ * - hotKey: 한 회원이 계속 요청 (맵 조회 + CAS)
+ * - hotKeyContended: 4 스레드가 같은 버킷에 CAS 경쟁
+ * - manyKeys: 10만 회원이 골고루 요청 (맵 크기 = max-keys)
+ * - rejected: 토큰이 없는 버킷 (공격 중인 계정)
+ * - filterLimited: 필터 전체 (application.yml 규칙, 경로 매칭 + 경로 변수 회원 키 + 회원/IP 버킷 + 먼저 걸리는 쪽 헤더 3개)
+ * - filterUnmatched: 규칙에 없는 경로 (모든 규칙과 경로 매칭만 하고 통과)
+ * ./gradlew jmh -Pjmh.includes=RateLimiterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+    private static final int KEYS = 100_000;
+
+    private RateLimiter open;       // 사실상 항상 허용
+    private RateLimiter exhausted;  // 항상 거절
+    private String[] keys;
+    private RateLimitFilter filter;
+    private MockHttpServletRequest limitedRequest;
+    private MockHttpServletRequest unmatchedRequest;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        open = new RateLimiter(1_000_000, Duration.ofMillis(1), KEYS);
+        exhausted = new RateLimiter(1, Duration.ofHours(1), KEYS);
+
+        keys = new String[KEYS];
+        long now = System.nanoTime();
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = String.valueOf(i + 1);    // 회원 id 문자열 (세션 값과 같은 형태)
+            open.bucket(keys[i], now).tryAcquire(now);
+        }
+        exhausted.bucket("1", now).tryAcquire(now);
+
+        filter = new RateLimitFilter(filterProperties(), new SimpleMeterRegistry());
+        limitedRequest = new MockHttpServletRequest("POST", "/api/order/42");
+        unmatchedRequest = new MockHttpServletRequest("GET", "/api/v4/orders");
+        response = new MockHttpServletResponse();
+    }
+
+    /**
+     * application.yml 의 규칙 (토큰은 사실상 무제한 => 항상 허용)
+     */
+    private static RateLimitProperties filterProperties() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRules().put("order", rule(List.of("POST /api/order/{memberId}", "POST /order"), true));
+        properties.getRules().put("register", rule(List.of("POST /api/register/{memberId}", "POST /register"), true));
+        properties.getRules().put("login", rule(List.of("POST /api/login", "POST /login"), false));
+
+        return properties;
+    }
+
+    private static RateLimitProperties.Rule rule(List<String> routes, boolean member) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(1_000_000);
+        limit.setPeriod(Duration.ofMillis(1));
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setRoutes(routes);
+        rule.setIp(limit);
+        if (member)
+            rule.setMember(limit);
+
+        return rule;
+    }
+
+    @Benchmark
+    public long hotKey() {
+        long now = System.nanoTime();
+        return open.bucket("42", now).tryAcquire(now);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long hotKeyContended() {
+        long now = System.nanoTime();
+        return open.bucket("42", now).tryAcquire(now);
+    }
+
+    @Benchmark
+    public long manyKeys(Cursor cursor) {
+        String key = keys[cursor.next++ % KEYS];
+        long now = System.nanoTime();
+        TokenBucket bucket = open.bucket(key, now);
+        return bucket.tryAcquire(now);
+    }
+
+    @Benchmark
+    public long rejected() {
+        long now = System.nanoTime();
+        return exhausted.bucket("1", now).tryAcquire(now);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterLimited() throws Exception {
+        filter.doFilter(limitedRequest, response, chain);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterUnmatched() throws Exception {
+        filter.doFilter(unmatchedRequest, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,114 @@
+package mybook.mymarket.benchmark;
+
+import mybook.mymarket.MymarketApplication;
+import mybook.mymarket.dataset.DatasetScale;
+import mybook.mymarket.dataset.MarketDataGenerator;
+import mybook.mymarket.domain.Order;
+import mybook.mymarket.domain.Register;
+import mybook.mymarket.repository.OrderRepository;
+import mybook.mymarket.repository.RegisterRepository;
+import mybook.mymarket.service.dto.OrderDto;
+import mybook.mymarket.service.dto.RegisterDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 목록 조회(Fetch join 엔티티 -> Dto) 읽기 전용 힌트 유무 비교 (ReadOnlyQueries)
+ * - 쓰기 트랜잭션 안에서 조회 + 커밋(flush) => 트랜잭션 없는 OSIV 조회나 쓰기 서비스 안의 목록 조회와 같은 조건
+ * - hints=false: 같은 JPQL 을 힌트 없이 => 엔티티마다 스냅샷, 커밋 때 dirty checking
+ * - 할당량: -prof gc (gc.alloc.rate.norm, B/op) => 스냅샷 배열은 어차피 만들어지므로(hydrate) 비슷함,
+ *   차이는 요청이 끝날 때까지 잡고 있는 메모리(스냅샷 참조)와 flush 비용
+ * - flush 비용: flushNanos / calls (커밋 전 em.flush() 만 따로 잰 시간)
+ * ./gradlew jmh -Pjmh.includes=ReadOnlyListBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ReadOnlyListBenchmark {
+    @Param({"true", "false"})
+    boolean hints;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate tx;
+    private EntityManager em;
+    private OrderRepository orderRepository;
+    private RegisterRepository registerRepository;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        context = new SpringApplicationBuilder(MymarketApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("bench")
+                .run();
+
+        context.getBean(MarketDataGenerator.class).generate(DatasetScale.of(100, 500, 1000));
+
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        em = context.getBean(EntityManager.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        registerRepository = context.getBean(RegisterRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        context.close();
+    }
+
+    /**
+     * 호출 1번 당 flush 시간 = flushNanos / calls
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FlushCounter {
+        public long flushNanos;
+        public long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            flushNanos = 0;
+            calls = 0;
+        }
+    }
+
+    @Benchmark
+    public List<OrderDto> orders(FlushCounter counter) {
+        return tx.execute(status -> {
+            List<Order> orders = hints ? orderRepository.findOrders(null, Order.WITH_MEMBER_DEAL)
+                    : em.createQuery("select o from Order o join fetch o.member m join fetch o.deal d", Order.class)
+                    .getResultList();
+
+            List<OrderDto> result = orders.stream().map(o -> new OrderDto(o)).collect(Collectors.toList());
+            flush(counter);
+            return result;
+        });
+    }
+
+    @Benchmark
+    public List<RegisterDto> registers(FlushCounter counter) {
+        return tx.execute(status -> {
+            List<Register> registers = hints ? registerRepository.findRegisters(null, Register.WITH_MEMBER_ITEM)
+                    : em.createQuery("select r from Register r join fetch r.member m join fetch r.item i", Register.class)
+                    .getResultList();
+
+            List<RegisterDto> result = registers.stream().map(r -> new RegisterDto(r)).collect(Collectors.toList());
+            flush(counter);
+            return result;
+        });
+    }
+
+    private void flush(FlushCounter counter) {
+        long start = System.nanoTime();
+        em.flush();
+        counter.flushNanos += System.nanoTime() - start;
+        counter.calls++;
+    }
+}
@@ -0,0 +1,76 @@
+package mybook.mymarket.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 엔드포인트 하나의 지연시간 분포(HdrHistogram)와 성공/실패 수, 대상이 없어서 못 보낸 수
+ * 지연시간은 "보내려고 했던 시각"부터 잰다 => 서버가 밀려서 늦게 보낸 시간까지 포함 (coordinated omission 보정)
+ */
+class EndpointStats {
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    private final String name;
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY, 3);   // us, 유효숫자 3자리
+    private final LongAdder success = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();    // 4xx
+    private final LongAdder serverErrors = new LongAdder();    // 5xx, 연결 실패
+    private final LongAdder skipped = new LongAdder();         // 보내지 않음 => count, 지연시간에 X
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long intendedStartNanos, int status) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos);
+        latency.recordValue(Math.min(micros, MAX_LATENCY));
+
+        if (status >= 200 && status < 300)
+            success.increment();
+        else if (status >= 400 && status < 500)
+            clientErrors.increment();
+        else
+            serverErrors.increment();
+    }
+
+    void skip() {
+        skipped.increment();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    long total() {
+        return latency.getTotalCount();
+    }
+
+    long successes() {
+        return success.sum();
+    }
+
+    long errors() {
+        return clientErrors.sum() + serverErrors.sum();
+    }
+
+    String format(double seconds) {
+        long total = total();
+        return String.format("%-10s %8d %9.1f %9.1f %7.2f%% %6d %6d %7d %9.2f %9.2f %9.2f %9.2f %9.2f",
+                name, total, total / seconds, successes() / seconds,
+                total == 0 ? 0.0 : 100.0 * errors() / total, clientErrors.sum(), serverErrors.sum(), skipped.sum(),
+                ms(latency.getValueAtPercentile(50)), ms(latency.getValueAtPercentile(90)),
+                ms(latency.getValueAtPercentile(99)), ms(latency.getValueAtPercentile(99.9)), ms(latency.getMaxValue()));
+    }
+
+    static String header() {
+        return String.format("%-10s %8s %9s %9s %8s %6s %6s %7s %9s %9s %9s %9s %9s",
+                "endpoint", "count", "tput/s", "goodput/s", "errors", "4xx", "5xx", "skipped", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+}
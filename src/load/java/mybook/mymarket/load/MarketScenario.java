@@ -0,0 +1,140 @@
+package mybook.mymarket.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 구매자/판매자 행동 => 실제 HTTP API 요청
+ * - browse: 전체 등록상품 조회 (GET /api/v4/registers)
+ * - search: 등록상품 검색 (POST /api/v4/registers)
+ * - order: 상품 주문 (POST /api/order/{memberId})
+ * - cancel: 주문 취소 (GET /api/orders/cancel/{orderId})
+ * - complete: 거래 완료 (GET /api/orders/complete/{orderId})
+ * - restock: 재고 추가 (POST /api/registers/edit/{itemId})
+ */
+class MarketScenario {
+    enum Action {
+        BROWSE, SEARCH, ORDER, CANCEL, COMPLETE, RESTOCK;
+
+        /** --mix, 결과 출력에 쓰는 이름 (browse, search ...) */
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        static Action of(String key) {
+            for (Action action : values()) {
+                if (action.key().equals(key))
+                    return action;
+            }
+            throw new IllegalArgumentException("unknown action: " + key);
+        }
+    }
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final List<Long> memberIds;
+    private final List<String> nickNames;
+    private final List<Map<String, Object>> registers;  // register_id, item_id, name, author, price
+    private final List<Long> orderIds;  // 시드 주문 + 실행 중에 생긴 주문
+
+    MarketScenario(String baseUrl, ObjectMapper objectMapper, JdbcTemplate jdbcTemplate) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.memberIds = jdbcTemplate.queryForList("select member_id from member", Long.class);
+        this.nickNames = jdbcTemplate.queryForList("select nick_name from member", String.class);
+        this.registers = jdbcTemplate.queryForList(
+                "select r.register_id, i.item_id, i.name, i.author, i.price from register r join item i on r.item_id = i.item_id");
+        this.orderIds = new CopyOnWriteArrayList<>(jdbcTemplate.queryForList("select order_id from orders", Long.class));
+    }
+
+    /**
+     * @return 대상이 없으면 null (주문이 없는데 취소/거래완료, 등록상품이 없는데 검색/주문/재고 추가 ...)
+     */
+    HttpRequest request(Action action) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        switch (action) {
+            case BROWSE:
+                return get("/api/v4/registers");
+            case SEARCH:
+                if (nickNames.isEmpty() && registers.isEmpty())
+                    return null;
+                return post("/api/v4/registers", registers.isEmpty() || (!nickNames.isEmpty() && random.nextBoolean())
+                        ? Map.of("nickName", pick(nickNames))
+                        : Map.of("itemName", pick(registers).get("name")));
+            case ORDER:
+                if (memberIds.isEmpty() || registers.isEmpty())
+                    return null;
+                return post("/api/order/" + pick(memberIds), Map.of(
+                        "registerId", pick(registers).get("register_id"),
+                        "count", 1 + random.nextInt(2),
+                        "type", random.nextBoolean() ? "DELIVERY" : "DIRECT"));
+            case CANCEL:
+                return orderIds.isEmpty() ? null : get("/api/orders/cancel/" + pick(orderIds));
+            case COMPLETE:
+                return orderIds.isEmpty() ? null : get("/api/orders/complete/" + pick(orderIds));
+            case RESTOCK:
+                if (registers.isEmpty())
+                    return null;
+                Map<String, Object> register = pick(registers);
+                return post("/api/registers/edit/" + register.get("item_id"), Map.of(
+                        "name", register.get("name"),
+                        "author", register.get("author"),
+                        "price", register.get("price"),
+                        "stockQuantity", 20 + random.nextInt(80)));
+            default:
+                throw new IllegalArgumentException(action.key());
+        }
+    }
+
+    /**
+     * 주문 응답에서 orderId 를 꺼내서 취소/거래완료 대상에 추가
+     */
+    void onResponse(Action action, int status, String body) {
+        if (action != Action.ORDER || status != 200)
+            return;
+
+        try {
+            JsonNode orderId = objectMapper.readTree(body).path("data").path("orderId");
+            if (orderId.isNumber())
+                orderIds.add(orderId.asLong());
+        } catch (Exception ignored) {
+            // 응답 형식이 달라도 부하 발생에는 영향 X
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, Map<String, ?> body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
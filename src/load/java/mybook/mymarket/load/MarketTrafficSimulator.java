@@ -0,0 +1,174 @@
+package mybook.mymarket.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mybook.mymarket.MymarketApplication;
+import mybook.mymarket.dataset.DatasetScale;
+import mybook.mymarket.dataset.MarketDataGenerator;
+import mybook.mymarket.load.MarketScenario.Action;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * 시장 트래픽 시뮬레이터
+ * - 실제 Spring Boot 앱을 같은 프로세스에서 띄우고(빈 포트), 합성 데이터를 적재한 뒤 HTTP API 로 부하를 줌
+ * - open model: 요청 도착 간격은 포아송 과정(지수 분포)으로 미리 정해지고, 응답을 기다리지 않고 보냄
+ *   => closed loop 처럼 서버가 느려지면 부하도 같이 줄어드는 착시가 없음
+ * - 단계별 도착률(rates)마다 엔드포인트별 처리량, 에러율, 지연시간 백분위수를 출력 => 곡선의 무릎(knee) 확인
+ *
+ * --rates=50,100,200 --duration=30 --mix=browse:50,search:20,order:15,cancel:5,complete:5,restock:5
+ * --members=1000 --registers=5000 --orders=20000 --profiles=load
+ */
+public class MarketTrafficSimulator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int[] rates = parseInts(options.getOrDefault("rates", "50,100,200"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        Map<Action, Integer> mix = parseMix(options.getOrDefault("mix", "browse:50,search:20,order:15,cancel:5,complete:5,restock:5"));
+        String[] profiles = options.getOrDefault("profiles", "load").split(",");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MymarketApplication.class)
+                .profiles(profiles)
+                .run();
+        try {
+            context.getBean(MarketDataGenerator.class).generate(DatasetScale.of(
+                    Integer.parseInt(options.getOrDefault("members", "1000")),
+                    Integer.parseInt(options.getOrDefault("registers", "5000")),
+                    Integer.parseInt(options.getOrDefault("orders", "20000"))));
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            MarketScenario scenario = new MarketScenario(baseUrl, context.getBean(ObjectMapper.class), context.getBean(JdbcTemplate.class));
+
+            System.out.printf("profiles=%s, duration=%ds/step, mix=%s%n", String.join(",", profiles), duration,
+                    mix.entrySet().stream().map(e -> e.getKey().key() + ":" + e.getValue()).collect(Collectors.joining(",")));
+            for (int rate : rates) {
+                run(scenario, mix, rate, duration);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * 도착률 rate(req/s)로 duration 초 동안 요청을 보냄
+     */
+    private static void run(MarketScenario scenario, Map<Action, Integer> mix, int rate, int duration) throws InterruptedException {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(executor)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+
+        Map<Action, EndpointStats> stats = new EnumMap<>(Action.class);
+        mix.keySet().forEach(action -> stats.put(action, new EndpointStats(action.key())));
+        Action[] wheel = toWheel(mix);  // 가중치만큼 반복해서 넣어둔 배열 => 무작위로 뽑으면 mix 비율
+
+        AtomicLong inFlight = new AtomicLong(1);    // 응답을 기다리는 요청 수 + 보내는 쪽(1) => 0 이 되면 drained
+        CountDownLatch drained = new CountDownLatch(1);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(duration);
+        long next = start;
+        double meanIntervalNanos = 1e9 / rate;
+
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);    // 늦었으면 기다리지 않고 바로 보냄 (지연시간은 next 부터 측정)
+
+            long intendedStart = next;
+            Action action = wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+            EndpointStats endpoint = stats.get(action);
+            HttpRequest request = scenario.request(action);
+            if (request == null) {
+                endpoint.skip();    // 보낼 대상이 없음 (예: 아직 주문이 없는데 취소) => 도착 간격은 그대로
+            } else {
+                inFlight.incrementAndGet();
+                client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((response, error) -> {
+                            int status = error == null ? response.statusCode() : 599;
+                            endpoint.record(intendedStart, status);
+                            if (error == null)
+                                scenario.onResponse(action, status, response.body());
+                            if (inFlight.decrementAndGet() == 0)
+                                drained.countDown();
+                        });
+            }
+
+            next += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos); // 지수 분포
+        }
+
+        if (inFlight.decrementAndGet() != 0)    // 남은 응답까지 기다림
+            drained.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        report(rate, seconds, stats);
+    }
+
+    private static void report(int rate, double seconds, Map<Action, EndpointStats> stats) {
+        long total = 0, success = 0, errors = 0;
+        System.out.printf("%n=== offered rate %d req/s (%.1fs) ===%n", rate, seconds);
+        System.out.println(EndpointStats.header());
+        for (EndpointStats endpoint : stats.values()) {
+            System.out.println(endpoint.format(seconds));
+            total += endpoint.total();
+            success += endpoint.successes();
+            errors += endpoint.errors();
+        }
+        System.out.printf("total: %.1f req/s, goodput %.1f req/s, errors %.2f%%%n",
+                total / seconds, success / seconds, total == 0 ? 0.0 : 100.0 * errors / total);
+    }
+
+    private static Action[] toWheel(Map<Action, Integer> mix) {
+        return mix.entrySet().stream()
+                .flatMap(e -> Collections.nCopies(e.getValue(), e.getKey()).stream())
+                .toArray(Action[]::new);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    private static int[] parseInts(String csv) {
+        String[] values = csv.split(",");
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++)
+            result[i] = Integer.parseInt(values[i].trim());
+
+        return result;
+    }
+
+    private static Map<Action, Integer> parseMix(String csv) {
+        Map<Action, Integer> mix = new EnumMap<>(Action.class);
+        for (String entry : csv.split(",")) {
+            String[] kv = entry.split(":");
+            mix.put(Action.of(kv[0].trim()), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+}
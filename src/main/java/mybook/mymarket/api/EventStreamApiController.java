@@ -0,0 +1,26 @@
+package mybook.mymarket.api;
+
+import lombok.RequiredArgsConstructor;
+import mybook.mymarket.events.EventStreamHub;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequiredArgsConstructor
+public class EventStreamApiController {
+    private final EventStreamHub eventStreamHub;
+
+    /**
+     * 변경 알림 스트림 (Server-Sent Events) => 새로고침 없이
+     * - stock, sold-out, restock: 모든 회원 (등록상품 목록의 재고, 품절/재입고)
+     * - order: 내 등록상품에 들어온 새 주문 / deal: 내 주문(구매, 판매)의 거래 상태
+     * 연결하면 ready => 끊긴 동안 놓친 변경은 /api/v4/my-orders/{id}/changes, /api/v4/my-registers/{id}/changes 로
+     */
+    @GetMapping(value = "/api/v4/members/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable("id") Long memberId) {
+        return eventStreamHub.subscribe(memberId);
+    }
+}
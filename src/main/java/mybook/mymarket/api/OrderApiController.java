@@ -4,25 +4,27 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
-import mybook.mymarket.controller.dto.OrderDto;
-import mybook.mymarket.domain.*;
-import mybook.mymarket.repository.OrderRepository;
+import mybook.mymarket.domain.Order;
 import mybook.mymarket.repository.OrderSearch;
 import mybook.mymarket.repository.order.query.OrderQueryDto;
 import mybook.mymarket.repository.order.query.OrderQueryRepository;
+import mybook.mymarket.service.ChangeFeedService;
 import mybook.mymarket.service.OrderService;
+import mybook.mymarket.service.dto.ChangeFeedDto;
+import mybook.mymarket.service.dto.OrderDto;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController // @RestController == @Controller + @ResponseBody
 // @ResponseBody : data 자체를 바로 Json 이나 XML 로 바로 보내기 위해
-@RequiredArgsConstructor // final 키워드를 가진 필드(orderRepository)로 생성자를 만들어줌
+@RequiredArgsConstructor // final 키워드를 가진 필드(orderService)로 생성자를 만들어줌
+// open-in-view: false => 엔티티 -> Dto 변환(지연 로딩)은 트랜잭션 안에서 끝냄, JSON 변환은 커넥션 반납 후
+// 컨트롤러는 트랜잭션 X => 변경은 서비스 트랜잭션, 결과 조회(v2, v3)는 서비스의 읽기 전용 트랜잭션에서 Dto 로 받음
 public class OrderApiController {
-    private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
     private final OrderService orderService;
+    private final ChangeFeedService changeFeedService;
 
     /**
      * 상품 주문
@@ -35,9 +37,8 @@ public class OrderApiController {
         // 상품을 몇 개 주문, 거래정보는 어떻게 할 것인지(직거래, 배송)
         Long orderId = orderService.order(memberId, request.registerId, request.count, request.type);
 
-        // Json 데이터를 보여주기 위한 로직
-        Order order = orderRepository.findOrderMember(orderId);
-        OrderDto orderDto = new OrderDto(order);
+        // Json 데이터를 보여주기 위한 로직 => 읽기 전용 트랜잭션에서 Dto 로 변환까지
+        OrderDto orderDto = orderService.findOrderDto(orderId);
 
         // 등록하여 반환된 registerDto 를 Json 형식으로 보여줌
         return new ResponseData<>(orderDto);
@@ -59,9 +60,8 @@ public class OrderApiController {
         // => NotCorrectAccess("올바른 접근이 아닙니다.") 예외 발생
 
         // 쿼리: 그 후에 별도로 쿼리를 짠다
-        // Json 데이터를 보여주기 위한 로직
-        Order order = orderRepository.findOrderMember(orderId);
-        OrderDto orderDto = new OrderDto(order);
+        // Json 데이터를 보여주기 위한 로직 => 읽기 전용 트랜잭션에서 Dto 로 변환까지
+        OrderDto orderDto = orderService.findOrderDto(orderId);
 
         // 등록하여 반환된 registerDto 를 Json 형식으로 보여줌
         return new ResponseData<>(orderDto);
@@ -81,15 +81,8 @@ public class OrderApiController {
         // => NotCorrectAccess("올바른 접근이 아닙니다.") 예외 발생
 
         // 쿼리: 그 후에 별도로 쿼리를 짠다
-        // Json 데이터를 보여주기 위한 로직
-        /**
-         * 특정 주문과 관련된 주문상품, 상품, 등록, 회원 정보를 가져옴
-         * => OI - I (ToOne 관계), I - R (ToOne 관계), R - M (ToOne 관계)
-         * => Fetch join: 엔티티 영속화
-         */
-        orderRepository.findOrderItems_fetch(orderId);
-        Order order = orderRepository.findOrderMember(orderId);
-        OrderDto orderDto = new OrderDto(order);
+        // Json 데이터를 보여주기 위한 로직 => 읽기 전용 트랜잭션에서 Dto 로 변환까지
+        OrderDto orderDto = orderService.findOrderDto(orderId);
 
         // 등록하여 반환된 registerDto 를 Json 형식으로 보여줌
         return new ResponseData<>(orderDto);
@@ -134,12 +127,7 @@ public class OrderApiController {
         // => 상당히 많은 쿼리가 나감 => 최적화 필요 => Fetch join
         // => 컬렉션인 경우 Fetch join 할 때 고민해야할 포인트가 많음 => V3
         // 엔티티를 조회해옴 => 실무에선 페이징으로 처리
-        List<Order> orders = orderRepository.findAllWithMemberDeal();
-
-        // 엔티티 List -> Dto List
-        List<OrderDto> result = orders.stream()
-                .map(o -> new OrderDto(o))
-                .collect(Collectors.toList());
+        List<OrderDto> result = orderService.findOrderDtos(null);
 
         return new Result<>(result.size(), result);
     }
@@ -157,12 +145,7 @@ public class OrderApiController {
         // => 상당히 많은 쿼리가 나감 => 최적화 필요 => Fetch join
         // => 컬렉션인 경우 Fetch join 할 때 고민해야할 포인트가 많음 => V3
         // 엔티티를 조회해옴 => 실무에선 페이징으로 처리
-        List<Order> orders = orderRepository.findAllWithMemberDealByString(orderSearch);
-
-        // 엔티티 List -> Dto List
-        List<OrderDto> result = orders.stream()
-                .map(o -> new OrderDto(o))
-                .collect(Collectors.toList());
+        List<OrderDto> result = orderService.findOrderDtos(orderSearch);
 
         return new Result<>(result.size(), result);
     }
@@ -187,11 +170,7 @@ public class OrderApiController {
      */
     @GetMapping("/api/v3/orders")
     public Result<List<OrderDto>> ordersV3() {
-        List<Order> orders = orderRepository.findAllWithMemberDeal_fetch();
-
-        List<OrderDto> result = orders.stream()
-                .map(o -> new OrderDto(o))
-                .collect(Collectors.toList());
+        List<OrderDto> result = orderService.findOrderDtos(null, Order.WITH_MEMBER_DEAL);
         // Object 타입 {...}으로 반환, Result 라는 껍데기를 씌어서 data 필드의 값은 List 가 나가게됨
         // Object 타입으로 반환하지 않으면 배열타입 [...] 으로 나가게됨 => 확장성, 유연성 X
         return new Result<>(result.size(), result);
@@ -199,11 +178,7 @@ public class OrderApiController {
 
     @PostMapping("/api/v3/orders")
     public Result<List<OrderDto>> ordersV3(@RequestBody OrderSearch orderSearch) {
-        List<Order> orders = orderRepository.findAllWithMemberDealByString_fetch(orderSearch);
-
-        List<OrderDto> result = orders.stream()
-                .map(o -> new OrderDto(o))
-                .collect(Collectors.toList());
+        List<OrderDto> result = orderService.findOrderDtos(orderSearch, Order.WITH_MEMBER_DEAL);
         // Object 타입 {...}으로 반환, Result 라는 껍데기를 씌어서 data 필드의 값은 List 가 나가게됨
         // Object 타입으로 반환하지 않으면 배열타입 [...] 으로 나가게됨 => 확장성, 유연성 X
         return new Result<>(result.size(), result);
@@ -260,22 +235,14 @@ public class OrderApiController {
      */
     @GetMapping("/api/v2/my-orders/{id}")
     public Result<List<OrderDto>> myOrdersV2(@PathVariable("id") Long memberId) {
-        List<Order> myOrders = orderRepository.findMyOrders(memberId);
-
-        List<OrderDto> result = myOrders.stream()
-                .map(o -> new OrderDto(o))
-                .collect(Collectors.toList());
+        List<OrderDto> result = orderService.findMyOrderDtos(memberId);
 
         return new Result<>(result.size(), result);
     }
 
     @GetMapping("/api/v3/my-orders/{id}")
     public Result<List<OrderDto>> myOrdersV3(@PathVariable("id") Long memberId) {
-        List<Order> myOrders = orderRepository.findMyOrders_fetch(memberId);
-
-        List<OrderDto> result = myOrders.stream()
-                .map(o -> new OrderDto(o))
-                .collect(Collectors.toList());
+        List<OrderDto> result = orderService.findMyOrderDtos(memberId, Order.WITH_MEMBER_DEAL);
 
         return new Result<>(result.size(), result);
     }
@@ -287,6 +254,16 @@ public class OrderApiController {
         return new Result<>(myAllByDtoOptimization.size(), myAllByDtoOptimization);
     }
 
+    /**
+     * 나의 주문 델타 동기화 => cursor 이후에 추가, 취소, 거래 확정된 주문만
+     * cursor 없이 부르면 전체 목록(full) + cursor, 이후에는 받은 cursor 를 그대로 넘김
+     */
+    @GetMapping("/api/v4/my-orders/{id}/changes")
+    public ChangeFeedDto<OrderQueryDto> myOrderChanges(@PathVariable("id") Long memberId,
+                                                       @RequestParam(value = "cursor", required = false) String cursor) {
+        return changeFeedService.myOrderChanges(memberId, cursor);
+    }
+
     @Data
     @AllArgsConstructor // 필드 값을 전부 포함하는 생성자를 만들어줌
     static class Result<T> {    // Object 타입, 한 번 감싸서 반환
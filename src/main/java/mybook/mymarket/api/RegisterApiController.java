@@ -4,31 +4,33 @@ package mybook.mymarket.api;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import mybook.mymarket.controller.dto.RegisterDto;
 import mybook.mymarket.controller.form.ItemForm;
 import mybook.mymarket.domain.Register;
-import mybook.mymarket.repository.RegisterRepository;
 import mybook.mymarket.repository.RegisterSearch;
 import mybook.mymarket.repository.register.query.RegisterQueryDto;
 import mybook.mymarket.repository.register.query.RegisterQueryRepository;
+import mybook.mymarket.service.ChangeFeedService;
 import mybook.mymarket.service.ItemService;
+import mybook.mymarket.service.dto.ChangeFeedDto;
+import mybook.mymarket.service.dto.RegisterDto;
 import mybook.mymarket.service.dto.RegisterItemDto;
 import mybook.mymarket.service.RegisterService;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.util.List;
-import java.util.stream.Collectors;
 
 
 @RestController // @RestController == @Controller + @ResponseBody
 // @ResponseBody : data 자체를 바로 Json 이나 XML 로 바로 보내기 위해
 @RequiredArgsConstructor // final 키워드를 가진 필드(memberService)로 생성자를 만들어줌
+// open-in-view: false => 엔티티 -> Dto 변환(지연 로딩)은 트랜잭션 안에서 끝냄, JSON 변환은 커넥션 반납 후
+// 컨트롤러는 트랜잭션 X => 변경은 서비스 트랜잭션, 결과 조회(v2, v3)는 서비스의 읽기 전용 트랜잭션에서 Dto 로 받음
 public class RegisterApiController {
-    private final RegisterRepository registerRepository;
     private final RegisterQueryRepository registerQueryRepository;
     private final RegisterService registerService;
     private final ItemService itemService;
+    private final ChangeFeedService changeFeedService;
 
     /**
      * 상품 등록
@@ -41,9 +43,8 @@ public class RegisterApiController {
         // 등록 수량 <= 0 이면 NotEnoughStockException("need more stock") 발생
         Long registerId = registerService.register(memberId, itemDto);
 
-        // Json 데이터를 보여주기 위한 로직
-        Register register = registerRepository.findOne(registerId); // 단권 조회
-        RegisterDto registerDto = new RegisterDto(register);    // 엔티티 -> Dto
+        // Json 데이터를 보여주기 위한 로직 => 읽기 전용 트랜잭션에서 엔티티 -> Dto
+        RegisterDto registerDto = registerService.findRegisterDto(registerId);
 
         // 등록하여 반환된 registerDto 를 Json 형식으로 보여줌
         return new ResponseData<>(registerDto);
@@ -70,9 +71,8 @@ public class RegisterApiController {
         itemService.updateItem(itemId, form.getName(), form.getPrice(), form.getStockQuantity());   // 변경감지
 
         // 쿼리: 그 후에 별도로 쿼리를 짠다
-        // Json 데이터를 보여주기 위한 로직
-        Register register = registerRepository.findOneByItem(itemId);
-        RegisterDto registerDto = new RegisterDto(register);
+        // Json 데이터를 보여주기 위한 로직 => 읽기 전용 트랜잭션에서 엔티티 -> Dto
+        RegisterDto registerDto = registerService.findRegisterDtoByItem(itemId);
 
         // 등록하여 반환된 registerDto 를 Json 형식으로 보여줌
         return new ResponseData<>(registerDto);
@@ -88,10 +88,8 @@ public class RegisterApiController {
         // 등록을 취소하게 되면 상품 재고가 0, 등록 상태는 CANCEL
         // 등록 상태가 CANCEL 이면 주문 불가
 
-        // Json 데이터를 보여주기 위한 로직
-        // 특정 등록과 관련된 상품, 회원 찾기 (fetch join, ToOne 관계)
-        Register register = registerRepository.findRegisterItemMember(registerId);
-        RegisterDto registerDto = new RegisterDto(register);
+        // Json 데이터를 보여주기 위한 로직 => 읽기 전용 트랜잭션에서 엔티티 -> Dto
+        RegisterDto registerDto = registerService.findRegisterDto(registerId);
 
         // 등록하여 반환된 registerDto 를 Json 형식으로 보여줌
         return new ResponseData<>(registerDto);
@@ -114,11 +112,7 @@ public class RegisterApiController {
      */
     @GetMapping("/api/v2/registers")
     public Result<List<RegisterDto>> registersV2() {
-        List<Register> registers = registerRepository.findAllByRegister();
-
-        List<RegisterDto> result = registers.stream()
-                .map(r -> new RegisterDto(r))
-                .collect(Collectors.toList());
+        List<RegisterDto> result = registerService.findRegisterDtos(null);
 
         return new Result<>(result.size(), result);
     }
@@ -130,11 +124,7 @@ public class RegisterApiController {
      */
     @PostMapping("/api/v2/registers")
     public Result<List<RegisterDto>> registersV2(@RequestBody RegisterSearch registerSearch) {
-        List<Register> registers = registerRepository.findAllByString(registerSearch);
-
-        List<RegisterDto> result = registers.stream()
-                .map(r -> new RegisterDto(r))
-                .collect(Collectors.toList());
+        List<RegisterDto> result = registerService.findRegisterDtos(registerSearch);
 
         return new Result<>(result.size(), result);
     }
@@ -153,11 +143,7 @@ public class RegisterApiController {
      */
     @GetMapping("/api/v3/registers")
     public Result<List<RegisterDto>> registersV3() {
-        List<Register> registers = registerRepository.findAllWithMemberItem_fetch();
-
-        List<RegisterDto> result = registers.stream()
-                .map(r -> new RegisterDto(r))
-                .collect(Collectors.toList());
+        List<RegisterDto> result = registerService.findRegisterDtos(null, Register.WITH_MEMBER_ITEM);
 
         // Object 타입 {...}으로 반환, Result 라는 껍데기를 씌어서 data 필드의 값은 List 가 나가게됨
         // Object 타입으로 반환하지 않으면 배열타입 [...] 으로 나가게됨 => 확장성, 유연성 X
@@ -166,11 +152,7 @@ public class RegisterApiController {
 
     @PostMapping("/api/v3/registers")
     public Result<List<RegisterDto>> registersV3(@RequestBody RegisterSearch registerSearch) {
-        List<Register> registers = registerRepository.findAllWithMemberItem_fetch(registerSearch);
-
-        List<RegisterDto> result = registers.stream()
-                .map(r -> new RegisterDto(r))
-                .collect(Collectors.toList());
+        List<RegisterDto> result = registerService.findRegisterDtos(registerSearch, Register.WITH_MEMBER_ITEM);
 
         // Object 타입 {...}으로 반환, Result 라는 껍데기를 씌어서 data 필드의 값은 List 가 나가게됨
         // Object 타입으로 반환하지 않으면 배열타입 [...] 으로 나가게됨 => 확장성, 유연성 X
@@ -228,22 +210,14 @@ public class RegisterApiController {
      */
     @GetMapping("/api/v2/my-registers/{id}")
     public Result<List<RegisterDto>> myRegistersV2(@PathVariable("id") Long memberId) {
-        List<Register> myRegisters = registerRepository.findMyRegisters(memberId);
-
-        List<RegisterDto> result = myRegisters.stream()
-                .map(r -> new RegisterDto(r))
-                .collect(Collectors.toList());
+        List<RegisterDto> result = registerService.findMyRegisterDtos(memberId);
 
         return new Result<>(result.size(), result);
     }
 
     @GetMapping("/api/v3/my-registers/{id}")
     public Result<List<RegisterDto>> myRegistersV3(@PathVariable("id") Long memberId) {
-        List<Register> myRegisters = registerRepository.findMyRegisters_fetch(memberId);
-
-        List<RegisterDto> result = myRegisters.stream()
-                .map(r -> new RegisterDto(r))
-                .collect(Collectors.toList());
+        List<RegisterDto> result = registerService.findMyRegisterDtos(memberId, Register.WITH_MEMBER_ITEM);
 
         return new Result<>(result.size(), result);
     }
@@ -255,6 +229,15 @@ public class RegisterApiController {
         return new Result<>(myAllByDto.size(), myAllByDto);
     }
 
+    /**
+     * 나의 등록상품 델타 동기화 => cursor 이후에 등록, 수정, 취소, 재고가 바뀐 등록상품만
+     */
+    @GetMapping("/api/v4/my-registers/{id}/changes")
+    public ChangeFeedDto<RegisterQueryDto> myRegisterChanges(@PathVariable("id") Long memberId,
+                                                             @RequestParam(value = "cursor", required = false) String cursor) {
+        return changeFeedService.myRegisterChanges(memberId, cursor);
+    }
+
     @Data
     @AllArgsConstructor
     static class ResponseData<T> {
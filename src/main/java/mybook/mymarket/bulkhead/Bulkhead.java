@@ -0,0 +1,60 @@
+package mybook.mymarket.bulkhead;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 세마포어 벌크헤드 => 요청 종류(쓰기, 무거운 조회)마다 서블릿 스레드와 커넥션을 나눠 씀
+ * 한 종류가 몰려도 다른 종류가 쓸 자리는 남아있음 (예: v2 주문 목록 폭주 중에도 주문은 처리)
+ * 현재 요청의 벌크헤드는 ThreadLocal => ReadWriteRoutingDataSource 가 읽기 벌크헤드를 읽기 풀로 보낼 때 사용
+ */
+@Getter
+public class Bulkhead {
+    private static final ThreadLocal<Bulkhead> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final int maxConcurrent;
+    private final Duration maxWait;
+    private final Duration retryAfter;
+    private final Semaphore permits;
+
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait, Duration retryAfter) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+        this.retryAfter = retryAfter;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * 현재 요청이 들어와 있는 벌크헤드 이름 (없으면 null)
+     */
+    public static String currentName() {
+        Bulkhead bulkhead = CURRENT.get();
+        return bulkhead != null ? bulkhead.name : null;
+    }
+
+    /**
+     * 자리 얻기 => 실패하면 false (max-wait 까지만 기다림)
+     */
+    public boolean tryEnter() throws InterruptedException {
+        boolean acquired = maxWait.isZero() ? permits.tryAcquire()
+                : permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        if (acquired)
+            CURRENT.set(this);
+
+        return acquired;
+    }
+
+    public void exit() {
+        CURRENT.remove();
+        permits.release();
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
@@ -0,0 +1,87 @@
+package mybook.mymarket.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import mybook.mymarket.route.RouteMatcher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 요청을 벌크헤드에 배정하고, 자리가 없으면 DB 까지 가지 않고 바로 503 + Retry-After
+ * 메트릭 (bulkhead 태그)
+ * - market.bulkhead.active / market.bulkhead.max: 사용 중 / 최대
+ * - market.bulkhead.saturation: active / max (1 이면 포화)
+ * - market.bulkhead.rejected: 거절 수
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)     // SQL 예산 필터 다음, 나머지 필터보다 먼저
+public class BulkheadFilter extends OncePerRequestFilter {
+    private final boolean enabled;
+    private final RouteMatcher<Bulkhead> routes = new RouteMatcher<>();
+    private final Map<String, Counter> rejected = new HashMap<>();
+
+    public BulkheadFilter(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        properties.getPools().forEach((name, pool) -> {
+            Bulkhead bulkhead = new Bulkhead(name, pool.getMaxConcurrent(), pool.getMaxWait(), pool.getRetryAfter());
+            pool.getRoutes().forEach(route -> routes.add(route, bulkhead));
+
+            Gauge.builder("market.bulkhead.active", bulkhead, Bulkhead::getActive)
+                    .tag("bulkhead", name).register(meterRegistry);
+            Gauge.builder("market.bulkhead.max", bulkhead, Bulkhead::getMaxConcurrent)
+                    .tag("bulkhead", name).register(meterRegistry);
+            Gauge.builder("market.bulkhead.saturation", bulkhead, b -> (double) b.getActive() / b.getMaxConcurrent())
+                    .tag("bulkhead", name).register(meterRegistry);
+            rejected.put(name, meterRegistry.counter("market.bulkhead.rejected", "bulkhead", name));
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Bulkhead bulkhead = routes.find(request);
+        if (bulkhead == null) {     // 벌크헤드 밖 (정적 리소스, 로그인 등)
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean entered;
+        try {
+            entered = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+
+        if (!entered) {
+            rejected.get(bulkhead.getName()).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, bulkhead.getRetryAfter().getSeconds())));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Bulkhead " + bulkhead.getName() + " is full");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkhead.exit();
+        }
+    }
+}
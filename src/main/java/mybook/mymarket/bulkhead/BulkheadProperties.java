@@ -0,0 +1,35 @@
+package mybook.mymarket.bulkhead;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 벌크헤드 설정 => market.bulkhead.pools.<이름>.*
+ * - max-concurrent: 동시에 처리할 요청 수
+ * - max-wait: 자리가 없을 때 기다리는 시간 (0: 바로 503)
+ * - retry-after: 503 응답의 Retry-After
+ * - routes: "메소드 경로패턴" 목록 (메소드 자리에 * 는 모든 메소드) => 위에서부터 처음 맞는 벌크헤드
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.bulkhead")
+public class BulkheadProperties {
+    private boolean enabled = true;
+    private Map<String, Pool> pools = new LinkedHashMap<>();
+
+    @Getter @Setter
+    public static class Pool {
+        private int maxConcurrent = 20;
+        private Duration maxWait = Duration.ZERO;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private List<String> routes = new ArrayList<>();
+    }
+}
@@ -0,0 +1,46 @@
+package mybook.mymarket.cache;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 캐시된 결과 하나에 들어있는 회원, 상품, 주문 id => 변경이 이 결과에 영향을 주는지 판단할 때 사용
+ */
+public class Footprint {
+    private final Set<Long> memberIds = new HashSet<>();
+    private final Set<Long> itemIds = new HashSet<>();
+    private final Set<Long> orderIds = new HashSet<>();
+
+    public Footprint member(Long memberId) {
+        if (memberId != null)
+            memberIds.add(memberId);
+        return this;
+    }
+
+    public Footprint item(Long itemId) {
+        if (itemId != null)
+            itemIds.add(itemId);
+        return this;
+    }
+
+    public Footprint order(Long orderId) {
+        if (orderId != null)
+            orderIds.add(orderId);
+        return this;
+    }
+
+    /**
+     * id 를 모르면(null) 들어있을 수도 있으므로 true
+     */
+    public boolean containsMember(Long memberId) {
+        return memberId == null || memberIds.contains(memberId);
+    }
+
+    public boolean containsItem(Long itemId) {
+        return itemId == null || itemIds.contains(itemId);
+    }
+
+    public boolean containsOrder(Long orderId) {
+        return orderId == null || orderIds.contains(orderId);
+    }
+}
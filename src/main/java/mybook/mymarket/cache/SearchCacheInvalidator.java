@@ -0,0 +1,273 @@
+package mybook.mymarket.cache;
+
+import mybook.mymarket.domain.Deal;
+import mybook.mymarket.domain.DealStatus;
+import mybook.mymarket.domain.Member;
+import mybook.mymarket.domain.Order;
+import mybook.mymarket.domain.OrderStatus;
+import mybook.mymarket.domain.Register;
+import mybook.mymarket.domain.RegisterStatus;
+import mybook.mymarket.coalesce.QueryCoalescer;
+import mybook.mymarket.domain.item.Item;
+import mybook.mymarket.repository.OrderSearch;
+import mybook.mymarket.repository.RegisterSearch;
+import mybook.mymarket.repository.order.query.OrderQueryRepository;
+import mybook.mymarket.repository.register.query.RegisterQueryRepository;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * 커밋된 엔티티 변경 => 그 변경이 들어있거나(footprint) 새로 들어갈 수 있는(검색 조건) 결과만 캐시에서 버림
+ * - Register 추가: 그 상품이 들어있는 결과 + 조건(상태, 닉네임, 상품명)에 맞는 결과 / 상태 변경: 상태 조건이 있는 결과만 조건 검사
+ * - Item 이름 변경: 그 상품이 들어있는 결과 + 상품명 조건에 맞는 결과 / 가격, 재고 변경: 그 상품이 들어있는 등록 DTO 결과만
+ * - Member 닉네임 변경: 그 회원이 들어있는 결과 + 닉네임 조건에 맞는 결과
+ * - Order 추가: 그 주문이 들어있는 결과 + 조건(주문 상태, 거래 상태, 닉네임)에 맞는 결과
+ * - Order 취소, Deal 상태 변경: 그 주문이 들어있는 결과 + 바뀐 상태로 조건에 맞는 결과
+ * 바뀐 값과 관계없는 조건은 이미 결과에 반영되어 있으므로 바뀐 값이 걸린 조건만 다시 검사
+ * 판단에 필요한 값이 지연 로딩 전이라 모르면 맞는 것으로 봄 => 덜 버리는 일은 없음
+ * 등록상품 카탈로그(QueryCoalescer 의 registerCatalog 결과)는 결과가 하나뿐 => Register, Item, 닉네임 변경이면 통째로 버림
+ * 검색은 QueryCoalescer 로 합쳐서 조회 => 캐시보다 먼저 그 그룹의 진행 중인 조회를 버림
+ *   (커밋 전에 시작된 조회에 합류한 요청은 무효화 전의 stamp 를 가지므로 그 결과를 캐시하지 못함)
+ * Hibernate post-commit 리스너 => 롤백된 변경으로는 버리지 않음, JDBC 로 직접 쓴 변경은 expire-after-write 로
+ */
+@Component
+public class SearchCacheInvalidator implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+    private final EntityManagerFactory emf;
+    private final SearchCaches searchCaches;
+    private final QueryCoalescer queryCoalescer;
+    private final PersistenceUnitUtil persistenceUnitUtil;
+
+    public SearchCacheInvalidator(EntityManagerFactory emf, SearchCaches searchCaches, QueryCoalescer queryCoalescer) {
+        this.emf = emf;
+        this.searchCaches = searchCaches;
+        this.queryCoalescer = queryCoalescer;
+        this.persistenceUnitUtil = emf.getPersistenceUnitUtil();
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    @Override
+    @Deprecated     // Hibernate 5.4 에서는 아직 abstract => 새 메서드로
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getEntity(), null, true);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changed(event.getEntity(), dirtyProperties(event), false);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getEntity(), null, false);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    /**
+     * @param dirty 바뀐 필드 이름 (null: 전부 바뀐 것으로)
+     */
+    private void changed(Object entity, Set<String> dirty, boolean inserted) {
+        if (entity instanceof Register)
+            registerChanged((Register) entity, inserted);
+        else if (entity instanceof Item && !inserted)   // 상품 추가는 Register 추가로 처리
+            itemChanged((Item) entity, dirty);
+        else if (entity instanceof Member && !inserted) // 새 회원은 아직 어느 결과에도 없음
+            memberChanged((Member) entity, dirty);
+        else if (entity instanceof Order)
+            orderChanged((Order) entity, inserted);
+        else if (entity instanceof Deal && !inserted)   // 거래 추가는 Order 추가로 처리
+            dealChanged((Deal) entity);
+    }
+
+    private void registerChanged(Register register, boolean inserted) {
+        Long itemId = idOf(register.getItem());
+        String nickName = loaded(register.getMember()) ? register.getMember().getNickName() : null;
+        String itemName = loaded(register.getItem()) ? register.getItem().getName() : null;
+        RegisterStatus status = register.getStatus();
+
+        queryCoalescer.invalidate(RegisterQueryRepository.CATALOG);
+        // 수정은 상태만 바뀜 => 상태 조건이 있는 결과에만 새로 들어갈 수 있음
+        invalidateRegisters((search, footprint) -> footprint.containsItem(itemId)
+                || ((inserted || search.getRegisterStatus() != null) && mayMatch(search, nickName, itemName, status)), true);
+    }
+
+    private void itemChanged(Item item, Set<String> dirty) {
+        Long itemId = idOf(item);
+        if (dirty == null || dirty.contains("name") || dirty.contains("price") || dirty.contains("stockQuantity"))
+            queryCoalescer.invalidate(RegisterQueryRepository.CATALOG);  // 카탈로그에 보이는 값
+        if (dirty == null || dirty.contains("name")) {
+            Register register = loaded(item.getRegister()) ? item.getRegister() : null;
+            String nickName = register != null && loaded(register.getMember()) ? register.getMember().getNickName() : null;
+            RegisterStatus status = register != null ? register.getStatus() : null;
+
+            // 이름이 바뀌어 새로 들어갈 수 있는 건 상품명 조건이 있는 결과뿐
+            invalidateRegisters((search, footprint) -> footprint.containsItem(itemId)
+                    || (search.getItemName() != null && mayMatch(search, nickName, item.getName(), status)), true);
+            invalidateOrders((search, footprint) -> footprint.containsItem(itemId));
+        } else if (dirty.contains("price") || dirty.contains("stockQuantity")) {
+            // 등록 DTO 결과에만 보이는 값, 엔티티 결과(registerIds)는 어차피 다시 조회
+            invalidateRegisters((search, footprint) -> footprint.containsItem(itemId), false);
+        }
+    }
+
+    private void memberChanged(Member member, Set<String> dirty) {
+        if (dirty != null && !dirty.contains("nickName"))
+            return;     // 목록에 보이는 회원 정보는 닉네임뿐
+
+        Long memberId = idOf(member);
+        String nickName = member.getNickName();
+        queryCoalescer.invalidate(RegisterQueryRepository.CATALOG);
+        invalidateRegisters((search, footprint) -> footprint.containsMember(memberId)
+                || (search.getNickName() != null && like(search.getNickName(), nickName)), true);
+        invalidateOrders((search, footprint) -> footprint.containsMember(memberId)
+                || (search.getNickName() != null && like(search.getNickName(), nickName)));
+    }
+
+    private void orderChanged(Order order, boolean inserted) {
+        Long orderId = idOf(order);
+        String nickName = loaded(order.getMember()) ? order.getMember().getNickName() : null;
+        DealStatus dealStatus = loaded(order.getDeal()) ? order.getDeal().getStatus() : null;
+        OrderStatus status = order.getStatus();
+
+        invalidateOrders((search, footprint) -> footprint.containsOrder(orderId)
+                || ((inserted || search.getOrderStatus() != null) && mayMatch(search, nickName, status, dealStatus)));
+    }
+
+    private void dealChanged(Deal deal) {
+        Order order = loaded(deal.getOrder()) ? deal.getOrder() : null;
+        Long orderId = order != null ? idOf(order) : null;
+        String nickName = order != null && loaded(order.getMember()) ? order.getMember().getNickName() : null;
+        OrderStatus status = order != null ? order.getStatus() : null;
+
+        invalidateOrders((search, footprint) -> footprint.containsOrder(orderId)
+                || (search.getDealStatus() != null && mayMatch(search, nickName, status, deal.getStatus())));
+    }
+
+    private void invalidateRegisters(BiPredicate<RegisterSearch, Footprint> affected, boolean ids) {
+        queryCoalescer.invalidate(RegisterQueryRepository.SEARCH);     // 캐시 generation 보다 먼저
+        searchCaches.invalidated("registerSearch", searchCaches.getRegisterSearch().invalidateIf(affected));
+        if (ids)
+            searchCaches.invalidated("registerIds", searchCaches.getRegisterIds().invalidateIf(affected));
+    }
+
+    private void invalidateOrders(BiPredicate<OrderSearch, Footprint> affected) {
+        queryCoalescer.invalidate(OrderQueryRepository.SEARCH);        // 캐시 generation 보다 먼저
+        searchCaches.invalidated("orderSearch", searchCaches.getOrderSearch().invalidateIf(affected));
+    }
+
+    /**
+     * 값(null: 모름)이 검색 조건에 맞을 수 있는지
+     */
+    private static boolean mayMatch(RegisterSearch search, String nickName, String itemName, RegisterStatus status) {
+        return (search.getRegisterStatus() == null || status == null || search.getRegisterStatus() == status)
+                && like(search.getNickName(), nickName)
+                && like(search.getItemName(), itemName);
+    }
+
+    private static boolean mayMatch(OrderSearch search, String nickName, OrderStatus status, DealStatus dealStatus) {
+        return (search.getOrderStatus() == null || status == null || search.getOrderStatus() == status)
+                && (search.getDealStatus() == null || dealStatus == null || search.getDealStatus() == dealStatus)
+                && like(search.getNickName(), nickName);
+    }
+
+    /**
+     * JPQL like 를 흉내냄 (%: 여러 글자, _: 한 글자)
+     * DB collation 에 따라 대소문자를 안 가릴 수도 있으므로 대소문자 무시 => 넉넉하게 버림
+     */
+    static boolean like(String pattern, String value) {
+        if (pattern == null || value == null)
+            return true;
+
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                literal.append(pattern.charAt(++i));
+                continue;
+            }
+            if (c != '%' && c != '_') {
+                literal.append(c);
+                continue;
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+            }
+            regex.append(c == '%' ? ".*" : ".");
+        }
+        if (literal.length() > 0)
+            regex.append(Pattern.quote(literal.toString()));
+
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL)
+                .matcher(value).matches();
+    }
+
+    private Long idOf(Object entity) {
+        return entity != null ? (Long) persistenceUnitUtil.getIdentifier(entity) : null;
+    }
+
+    private static boolean loaded(Object entity) {
+        return entity != null && Hibernate.isInitialized(entity);
+    }
+
+    private static Set<String> dirtyProperties(PostUpdateEvent event) {
+        int[] indexes = event.getDirtyProperties();
+        if (indexes == null)
+            return null;
+
+        String[] names = event.getPersister().getPropertyNames();
+        Set<String> dirty = new HashSet<>();
+        for (int index : indexes)
+            dirty.add(names[index]);
+
+        return dirty;
+    }
+}
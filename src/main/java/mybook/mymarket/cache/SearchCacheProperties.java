@@ -0,0 +1,22 @@
+package mybook.mymarket.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 검색 결과 캐시 설정 => market.cache.search.*
+ * - max-weight: 캐시마다 들고 있을 결과 row 수 상한 (결과 하나의 무게 = row 수 + 1)
+ * - expire-after-write: 무효화를 놓친 변경(JDBC 직접 쓰기 등)이 있어도 이 시간 뒤에는 다시 조회
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.cache.search")
+public class SearchCacheProperties {
+    private boolean enabled = true;
+    private long maxWeight = 100_000;
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
@@ -0,0 +1,87 @@
+package mybook.mymarket.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import mybook.mymarket.coalesce.QueryCoalescer;
+import mybook.mymarket.repository.OrderSearch;
+import mybook.mymarket.repository.RegisterSearch;
+import mybook.mymarket.repository.order.query.OrderQueryDto;
+import mybook.mymarket.repository.register.query.RegisterQueryDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 검색 결과 캐시 모음 (키: 정규화된 검색 조건)
+ * - registerSearch: RegisterQueryRepository.findRegisters_search (DTO)
+ * - registerIds: RegisterRepository.findRegisters(RegisterSearch, graph)
+ *   => 엔티티는 요청(영속성 컨텍스트)끼리 같이 쓰면 안 되므로 결과의 id 만 캐시하고 엔티티는 id 로 다시 조회
+ * - orderSearch: OrderQueryRepository.findAllByStringByDto_optimization (DTO)
+ * 무효화는 SearchCacheInvalidator (커밋된 엔티티 변경)
+ * 메트릭: cache.gets, cache.puts, cache.evictions ... (cache 태그), market.cache.search.invalidated
+ */
+@Component
+public class SearchCaches {
+    @Getter private final SearchResultCache<RegisterSearch, List<RegisterQueryDto>> registerSearch;
+    @Getter private final SearchResultCache<RegisterSearch, List<Long>> registerIds;
+    @Getter private final SearchResultCache<OrderSearch, List<OrderQueryDto>> orderSearch;
+    private final boolean enabled;
+    private final QueryCoalescer queryCoalescer;
+    private final MeterRegistry meterRegistry;
+
+    public SearchCaches(SearchCacheProperties properties, QueryCoalescer queryCoalescer, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.queryCoalescer = queryCoalescer;
+        this.meterRegistry = meterRegistry;
+        this.registerSearch = create("registerSearch", properties);
+        this.registerIds = create("registerIds", properties);
+        this.orderSearch = create("orderSearch", properties);
+    }
+
+    private <K, V> SearchResultCache<K, V> create(String name, SearchCacheProperties properties) {
+        SearchResultCache<K, V> cache = new SearchResultCache<>(properties.getMaxWeight(), properties.getExpireAfterWrite());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.getCache(), name);
+
+        return cache;
+    }
+
+    /**
+     * 캐시를 써도 되는지 => 쓰기 트랜잭션 안이나 방금 쓴 회원이면 DB 에서 (QueryCoalescer.canShare)
+     */
+    public boolean isUsable() {
+        return enabled && queryCoalescer.canShare();
+    }
+
+    /**
+     * 전부 버림 => 무효화를 거치지 않은 변경(JDBC 직접 쓰기) 뒤에
+     */
+    public void invalidateAll() {
+        registerSearch.invalidateAll();
+        registerIds.invalidateAll();
+        orderSearch.invalidateAll();
+    }
+
+    public static Footprint registerFootprint(List<RegisterQueryDto> registers) {
+        Footprint footprint = new Footprint();
+        registers.forEach(r -> footprint.member(r.getMemberId()).item(r.getItemId()));
+
+        return footprint;
+    }
+
+    public static Footprint orderFootprint(List<OrderQueryDto> orders) {
+        Footprint footprint = new Footprint();
+        for (OrderQueryDto order : orders) {
+            footprint.order(order.getOrderId()).member(order.getMemberId());
+            if (order.getOrderItems() != null)
+                order.getOrderItems().forEach(oi -> footprint.item(oi.getItemId()).member(oi.getRegisterMemberId()));
+        }
+
+        return footprint;
+    }
+
+    void invalidated(String cache, int count) {
+        if (count > 0)
+            meterRegistry.counter("market.cache.search.invalidated", "cache", cache).increment(count);
+    }
+}
@@ -0,0 +1,104 @@
+package mybook.mymarket.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 정규화된 검색 조건 -> 결과 캐시 (Caffeine, W-TinyLFU)
+ * - 무게(결과 row 수 + 1) 합이 maxWeight 를 넘으면 자주 안 쓰이는 결과부터 밀려남
+ * - 무효화는 조건(invalidateIf)에 맞는 결과만 => 전체 비우기 X
+ * - 조회 중에 무효화가 있었으면(generation 변경) 그 결과는 넣지 않음
+ *   => 커밋 전에 읽은 옛날 결과가 무효화 뒤에 캐시되는 것 방지
+ *   loader 가 QueryCoalescer 로 다른 요청의 조회에 합류한다면 무효화할 때 그 그룹을 먼저 버려야 함
+ *   (그래야 무효화 뒤에 받은 stamp 로는 커밋 전에 시작된 조회에 합류할 수 없음, SearchCacheInvalidator)
+ */
+public class SearchResultCache<K, V> {
+    private final Cache<K, Entry<V>> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchResultCache(long maxWeight, Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((K key, Entry<V> entry) -> entry.weight)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    Cache<K, Entry<V>> getCache() {
+        return cache;
+    }
+
+    public V getIfPresent(K key) {
+        Entry<V> entry = cache.getIfPresent(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * 조회 전에 받아두고 put 에 넘김
+     */
+    public long stamp() {
+        return generation.get();
+    }
+
+    public void put(K key, V value, Footprint footprint, int rows, long stamp) {
+        if (generation.get() != stamp)
+            return;
+
+        cache.put(key, new Entry<>(value, footprint, rows + 1));
+        if (generation.get() != stamp)      // 확인과 put 사이에 무효화가 끼어든 경우
+            cache.invalidate(key);
+    }
+
+    public V get(K key, Supplier<V> loader, Function<V, Footprint> footprint, Function<V, Integer> rows) {
+        V value = getIfPresent(key);
+        if (value != null)
+            return value;
+
+        long stamp = stamp();
+        value = loader.get();
+        put(key, value, footprint.apply(value), rows.apply(value), stamp);
+
+        return value;
+    }
+
+    /**
+     * 조건(검색 키, 결과에 들어있는 id)에 맞는 결과만 버림 => 버린 수
+     */
+    public int invalidateIf(BiPredicate<K, Footprint> affected) {
+        generation.incrementAndGet();
+
+        int[] removed = {0};
+        cache.asMap().entrySet().removeIf(e -> {
+            boolean remove = affected.test(e.getKey(), e.getValue().footprint);
+            if (remove)
+                removed[0]++;
+            return remove;
+        });
+
+        return removed[0];
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    static class Entry<V> {
+        final V value;
+        final Footprint footprint;
+        final int weight;
+
+        Entry(V value, Footprint footprint, int weight) {
+            this.value = value;
+            this.footprint = footprint;
+            this.weight = weight;
+        }
+    }
+}
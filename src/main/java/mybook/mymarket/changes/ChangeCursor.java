@@ -0,0 +1,43 @@
+package mybook.mymarket.changes;
+
+import mybook.mymarket.exception.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * 클라이언트에 넘기는 cursor <=> 변경 기록 seq
+ * 버전 1 바이트 + seq 8 바이트를 base64url 로 => 클라이언트는 받은 그대로 돌려주기만 (형식이 바뀌어도 버전으로 구분)
+ */
+public final class ChangeCursor {
+    private static final byte VERSION = 1;
+
+    private ChangeCursor() {
+    }
+
+    public static String encode(long seq) {
+        ByteBuffer buffer = ByteBuffer.allocate(9).put(VERSION).putLong(seq);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws InvalidCursorException 이 서버가 만든 cursor 가 아니면
+     */
+    public static long decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("잘못된 cursor: " + cursor, e);
+        }
+        if (bytes.length != 9 || bytes[0] != VERSION)
+            throw new InvalidCursorException("잘못된 cursor: " + cursor);
+
+        long seq = ByteBuffer.wrap(bytes, 1, 8).getLong();
+        if (seq < 0)
+            throw new InvalidCursorException("잘못된 cursor: " + cursor);
+
+        return seq;
+    }
+}
@@ -0,0 +1,22 @@
+package mybook.mymarket.changes;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 델타 동기화 => market.changes.*
+ * - page-size: 한 번에 돌려주는 변경 수 (넘으면 hasMore => 받은 cursor 로 이어서)
+ * - settle: 기록된 지 이 시간이 안 된 변경은 보내긴 하지만 cursor 는 그 앞에서 멈춤
+ *   => seq 를 먼저 받고 늦게 커밋된 트랜잭션의 변경을 건너뛰지 않음 (대신 다음에 한 번 더 받을 수 있음)
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.changes")
+public class ChangeFeedProperties {
+    private int pageSize = 100;
+    private Duration settle = Duration.ofSeconds(5);
+}
@@ -0,0 +1,153 @@
+package mybook.mymarket.changes;
+
+import mybook.mymarket.domain.ChangeLog;
+import mybook.mymarket.domain.ChangeType;
+import mybook.mymarket.domain.Deal;
+import mybook.mymarket.domain.Order;
+import mybook.mymarket.domain.Register;
+import mybook.mymarket.domain.item.Item;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 주문, 거래, 등록, 상품의 추가/수정 => 받을 회원의 변경 기록(ChangeLog)
+ * - Order 추가, 취소 / Deal 상태 변경 => 주문한 회원의 ORDER
+ * - Register 추가, 상태 변경 / Item 이름, 가격, 재고 변경 => 등록한 회원의 REGISTER
+ * flush 때 바뀐 엔티티를 세션별로 모아두고 커밋 직전(flush 다음)에 한 번에 저장 => 같은 트랜잭션, 같은 커넥션
+ * => 트랜잭션 안에서 같은 엔티티가 여러 번 바뀌어도 한 줄, 롤백되면 기록도 없음
+ * JDBC 로 직접 쓴 변경(MarketDataGenerator)과 회원 닉네임 변경은 기록 X => 처음 동기화(전체 조회)로 받음
+ */
+@Component
+public class ChangeLogRecorder implements PostInsertEventListener, PostUpdateEventListener {
+    private final EntityManagerFactory emf;
+    private final PersistenceUnitUtil persistenceUnitUtil;
+    private final Map<SharedSessionContractImplementor, ChangeBatch> batches = new ConcurrentHashMap<>();
+
+    public ChangeLogRecorder(EntityManagerFactory emf) {
+        this.emf = emf;
+        this.persistenceUnitUtil = emf.getPersistenceUnitUtil();
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    @Deprecated     // Hibernate 5.4 에서는 아직 abstract => 새 메서드로
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getSession(), event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changed(event.getSession(), event.getEntity());
+    }
+
+    private void changed(EventSource session, Object entity) {
+        if (entity instanceof Order) {
+            Order order = (Order) entity;
+            record(session, ChangeType.ORDER, idOf(order), idOf(order.getMember()));
+        } else if (entity instanceof Deal) {    // 주문 쪽(mappedBy) OneToOne => 프록시가 아니라 이미 로딩돼 있음
+            Order order = ((Deal) entity).getOrder();
+            if (order != null)
+                record(session, ChangeType.ORDER, idOf(order), idOf(order.getMember()));
+        } else if (entity instanceof Register) {
+            Register register = (Register) entity;
+            record(session, ChangeType.REGISTER, idOf(register), idOf(register.getMember()));
+        } else if (entity instanceof Item) {
+            Register register = ((Item) entity).getRegister();
+            if (register != null)
+                record(session, ChangeType.REGISTER, idOf(register), idOf(register.getMember()));
+        }
+    }
+
+    private void record(EventSource session, ChangeType type, Long entityId, Long memberId) {
+        if (entityId == null || memberId == null)
+            return;
+
+        batches.computeIfAbsent(session, s -> {
+            ChangeBatch batch = new ChangeBatch();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) batch);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) batch);
+            return batch;
+        }).add(type, entityId, memberId);
+    }
+
+    private Long idOf(Object entity) {
+        return entity != null ? (Long) persistenceUnitUtil.getIdentifier(entity) : null;
+    }
+
+    /**
+     * 한 세션(트랜잭션)에서 바뀐 것 => 커밋 직전에 저장, 커밋/롤백 후 정리
+     */
+    private class ChangeBatch implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+        private final Map<String, Change> changes = new LinkedHashMap<>();
+
+        void add(ChangeType type, Long entityId, Long memberId) {
+            changes.putIfAbsent(type + ":" + entityId, new Change(type, entityId, memberId));
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            LocalDateTime now = LocalDateTime.now();    // seq 를 받는 시점 => 커밋까지 짧음 (ChangeFeedProperties.settle)
+            List<Change> recorded = new ArrayList<>(changes.values());
+            changes.clear();
+            for (Change change : recorded)
+                session.persist(new ChangeLog(change.memberId, change.type, change.entityId, now));
+            session.flush();
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            batches.remove(session);
+        }
+    }
+
+    private static class Change {
+        final ChangeType type;
+        final Long entityId;
+        final Long memberId;
+
+        Change(ChangeType type, Long entityId, Long memberId) {
+            this.type = type;
+            this.entityId = entityId;
+            this.memberId = memberId;
+        }
+    }
+}
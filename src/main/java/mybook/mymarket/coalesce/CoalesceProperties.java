@@ -0,0 +1,30 @@
+package mybook.mymarket.coalesce;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 같은 조회 합치기(single-flight) 설정 => market.coalesce.*
+ * - ttl: 끝난 결과를 더 들고 있을 시간 (0: 동시에 들어온 것만 합침)
+ * - groups: 그룹별 ttl (없으면 ttl)
+ * - max-entries: 그룹마다 들고 있을 결과 수 상한
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.coalesce")
+public class CoalesceProperties {
+    private boolean enabled = true;
+    private Duration ttl = Duration.ZERO;
+    private int maxEntries = 1000;
+    private Map<String, Duration> groups = new HashMap<>();
+
+    public Duration ttlOf(String group) {
+        return groups.getOrDefault(group, ttl);
+    }
+}
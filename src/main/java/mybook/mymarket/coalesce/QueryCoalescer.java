@@ -0,0 +1,93 @@
+package mybook.mymarket.coalesce;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import mybook.mymarket.datasource.ReadYourWrites;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 이름(그룹)별 SingleFlight 모음 => 조회 repository 에서 사용
+ * 합치지 않고 바로 실행하는 경우
+ * - 쓰기 트랜잭션 안: 아직 커밋 안 된 내 변경이 보여야 하므로
+ * - 방금 쓴 회원(ReadYourWrites 고정 구간): 쓰기 전에 시작된 결과를 받으면 안 되므로
+ * 메트릭 (group 태그)
+ * - market.coalesce.calls (result=load|shared|cached): 실제 실행 / 진행 중인 조회에 합류 / ttl 결과 재사용
+ * - market.coalesce.entries: 진행 중 + 들고 있는 결과 수
+ */
+@Component
+public class QueryCoalescer {
+    private final CoalesceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<ReadYourWrites> readYourWrites;   // replica 설정이 있을 때만 빈
+    private final ConcurrentHashMap<String, SingleFlight<Object, Object>> groups = new ConcurrentHashMap<>();
+
+    public QueryCoalescer(CoalesceProperties properties, MeterRegistry meterRegistry,
+                          ObjectProvider<ReadYourWrites> readYourWrites) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * key 는 equals/hashCode 가 조건 값 기준이어야 함 (정규화된 검색 조건)
+     * 결과는 여러 호출이 같이 쓰므로 바꾸지 않는 값(읽기 전용 리스트, DTO)만
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String group, Object key, Supplier<V> loader) {
+        if (!properties.isEnabled() || !canShare())
+            return loader.get();
+
+        return (V) groups.computeIfAbsent(group, this::createGroup)
+                .execute(key, (Supplier<Object>) loader);
+    }
+
+    /**
+     * 그룹의 결과와 진행 중인 조회 전부 버림 => 커밋 뒤의 호출은 새로 조회
+     */
+    public void invalidate(String group) {
+        SingleFlight<Object, Object> flight = groups.get(group);
+        if (flight != null)
+            flight.invalidateAll();
+    }
+
+    /**
+     * 모든 그룹의 결과와 진행 중인 조회 버림 (JDBC 로 직접 바꾼 뒤 등)
+     */
+    public void invalidateAll() {
+        groups.values().forEach(SingleFlight::invalidateAll);
+    }
+
+    /**
+     * 지금 호출이 다른 요청과 결과를 같이 써도 되는지 (검색 결과 캐시도 같은 기준)
+     */
+    public boolean canShare() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+            return false;
+
+        ReadYourWrites ryw = readYourWrites.getIfAvailable();
+        return ryw == null || !ryw.isSticky();
+    }
+
+    private SingleFlight<Object, Object> createGroup(String group) {
+        SingleFlight<Object, Object> flight =
+                new SingleFlight<>(properties.ttlOf(group).toNanos(), properties.getMaxEntries());
+
+        FunctionCounter.builder("market.coalesce.calls", flight, SingleFlight::getLoads)
+                .tags("group", group, "result", "load").register(meterRegistry);
+        FunctionCounter.builder("market.coalesce.calls", flight, SingleFlight::getShared)
+                .tags("group", group, "result", "shared").register(meterRegistry);
+        FunctionCounter.builder("market.coalesce.calls", flight, SingleFlight::getCached)
+                .tags("group", group, "result", "cached").register(meterRegistry);
+        Gauge.builder("market.coalesce.entries", flight, SingleFlight::size)
+                .tag("group", group).register(meterRegistry);
+
+        return flight;
+    }
+}
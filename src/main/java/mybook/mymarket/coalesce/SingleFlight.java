@@ -0,0 +1,158 @@
+package mybook.mymarket.coalesce;
+
+import mybook.mymarket.deadline.QueryTimeouts;
+import mybook.mymarket.deadline.RequestDeadline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * single-flight => 같은 키로 동시에 들어온 호출은 한 번만 실행하고 결과를 같이 씀
+ * - 처음 온 호출(leader)이 자기 스레드에서 loader 실행, 나머지(follower)는 그 결과를 기다림
+ * - ttl > 0 이면 끝난 결과를 ttl 동안 더 들고 있음 => 짧은 마이크로 캐시
+ * - 예외도 기다리던 호출 전부에게 그대로 던짐 (예외는 캐시하지 않음)
+ *   단 시간 초과(leader 의 마감, statement timeout)는 leader 의 사정 => follower 는 자기 마감 안에서 다시 시도
+ * - follower 는 자기 요청의 마감(RequestDeadline)까지만 기다림 => 지나면 QueryTimeoutException
+ * - 캐시된 결과가 maxEntries 를 넘으면 만료된 것부터 정리, 그래도 넘으면 새 결과는 캐시하지 않음
+ * - invalidateAll: 진행 중인 조회도 버림 => 커밋 전에 시작된 조회에 새 호출이 합류하지 않게
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final LongAdder loads = new LongAdder();    // 실제로 loader 를 실행한 수
+    private final LongAdder shared = new LongAdder();   // 진행 중인 호출에 합류한 수
+    private final LongAdder cached = new LongAdder();   // ttl 안의 결과를 그대로 쓴 수
+
+    public SingleFlight(long ttlNanos, int maxEntries) {
+        this.ttlNanos = Math.max(0, ttlNanos);
+        this.maxEntries = maxEntries;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        while (true) {
+            Flight<V> flight = flights.get(key);
+            if (flight != null) {
+                if (!flight.future.isDone()) {
+                    shared.increment();
+                    awaitDone(flight);
+                    if (flight.timedOut)    // leader 는 이미 flights 에서 뺐음
+                        continue;
+                    return await(flight);
+                }
+                if (flight.expiresAt - System.nanoTime() > 0) {
+                    cached.increment();
+                    return await(flight);
+                }
+                flights.remove(key, flight);    // 만료
+            }
+
+            Flight<V> mine = new Flight<>();
+            if (flights.putIfAbsent(key, mine) == null)
+                return load(key, mine, loader);
+            // 그 사이 다른 스레드가 leader 가 됨 => 다시 확인
+        }
+    }
+
+    private V load(K key, Flight<V> flight, Supplier<V> loader) {
+        loads.increment();
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.timedOut = QueryTimeouts.isTimeout(e);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+
+        flight.expiresAt = System.nanoTime() + ttlNanos;
+        flight.future.complete(value);
+        if (ttlNanos == 0 || !makeRoom())
+            flights.remove(key, flight);
+
+        return value;
+    }
+
+    private boolean makeRoom() {
+        if (flights.size() <= maxEntries)
+            return true;
+
+        long now = System.nanoTime();
+        flights.values().removeIf(f -> f.future.isDone() && f.expiresAt - now <= 0);
+        return flights.size() <= maxEntries;
+    }
+
+    /**
+     * leader 가 끝날 때까지 => 마감이 있는 요청이면 남은 시간만큼만
+     */
+    private void awaitDone(Flight<V> flight) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            flight.future.handle((value, e) -> null).join();
+            return;
+        }
+
+        while (!flight.future.isDone()) {
+            deadline.check();   // 마감이 지났으면 예외
+            try {
+                flight.future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // 시간 초과 => 다시 check(), 예외 => 끝남
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a shared query", e);
+            }
+        }
+    }
+
+    private V await(Flight<V> flight) {
+        try {
+            return flight.future.join();
+        } catch (CompletionException e) {    // leader 가 던진 예외를 그대로
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw e;
+        }
+    }
+
+    /**
+     * 끝난 결과와 진행 중인 조회를 전부 버림 => 이후 호출은 새로 조회
+     * 진행 중이던 leader 는 끝나도 flights 에 다시 넣지 않음 (이미 기다리던 follower 만 그 결과를 받음)
+     */
+    public void invalidateAll() {
+        flights.clear();
+    }
+
+    public int size() {
+        return flights.size();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getShared() {
+        return shared.sum();
+    }
+
+    public long getCached() {
+        return cached.sum();
+    }
+
+    private static class Flight<V> {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        volatile long expiresAt;
+        volatile boolean timedOut;  // completeExceptionally 전에 씀
+    }
+}
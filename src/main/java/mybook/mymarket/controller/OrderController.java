@@ -7,13 +7,13 @@ import mybook.mymarket.domain.Member;
 import mybook.mymarket.domain.Register;
 import mybook.mymarket.repository.order.query.OrderQueryRepository;
 import mybook.mymarket.service.dto.MemberDto;
-import mybook.mymarket.controller.dto.RegisterDto;
 import mybook.mymarket.repository.OrderRepository;
 import mybook.mymarket.repository.OrderSearch;
 import mybook.mymarket.repository.order.query.OrderQueryDto;
 import mybook.mymarket.service.MemberService;
 import mybook.mymarket.service.OrderService;
 import mybook.mymarket.service.RegisterService;
+import mybook.mymarket.service.dto.RegisterDto;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
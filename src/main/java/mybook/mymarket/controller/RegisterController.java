@@ -5,10 +5,10 @@ import lombok.RequiredArgsConstructor;
 import mybook.mymarket.controller.form.ItemForm;
 import mybook.mymarket.controller.form.ItemTypeForm;
 import mybook.mymarket.domain.Register;
-import mybook.mymarket.controller.dto.RegisterDto;
 import mybook.mymarket.domain.item.Item;
 import mybook.mymarket.repository.RegisterSearch;
 import mybook.mymarket.service.ItemService;
+import mybook.mymarket.service.dto.RegisterDto;
 import mybook.mymarket.service.dto.RegisterItemDto;
 import mybook.mymarket.service.RegisterService;
 import org.springframework.stereotype.Controller;
@@ -0,0 +1,34 @@
+package mybook.mymarket.dataset;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 합성 데이터 규모
+ * - members: 회원 수 (N)
+ * - registers: 등록상품 수 (M) => Novel, Magazine, Reference 로 나뉨
+ * - orders: 주문 수 (K)
+ * - hotItemSkew: 인기 상품 쏠림 정도 (Zipf 지수, 0 이면 균등)
+ * - sellerSkew: 판매자 쏠림 정도 (Zipf 지수, 0 이면 균등)
+ * - cancelRate: 주문 취소 비율, completeRate: 거래 완료 비율
+ */
+@Getter @Setter
+public class DatasetScale {
+    private int members = 1_000;
+    private int registers = 5_000;
+    private int orders = 20_000;
+    private double hotItemSkew = 1.1;
+    private double sellerSkew = 0.8;
+    private double cancelRate = 0.1;
+    private double completeRate = 0.4;
+    private long seed = 42L;   // 같은 seed => 같은 데이터
+
+    public static DatasetScale of(int members, int registers, int orders) {
+        DatasetScale scale = new DatasetScale();
+        scale.setMembers(members);
+        scale.setRegisters(registers);
+        scale.setOrders(orders);
+
+        return scale;
+    }
+}
@@ -0,0 +1,158 @@
+package mybook.mymarket.dataset;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 용량 테스트용 합성 데이터 생성기
+ * - 엔티티 persist 가 아닌 JDBC batch insert => 영속성 컨텍스트, 변경감지 비용 X
+ * - seed 가 같으면 항상 같은 데이터 (id 는 hibernate_sequence 의 현재 값부터 이어서 사용)
+ * - 인기 상품, 큰 판매자 쏠림은 Zipf 분포, 일부 주문은 취소/거래완료 상태
+ * - 재고는 취소되지 않은 주문 수량만큼 빠지고, 재고가 0 이면 등록 상태는 CANCEL (도메인 규칙과 동일)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MarketDataGenerator {
+    private static final int BATCH_SIZE = 1_000;
+    private static final String[] ITEM_TYPES = {"소설", "잡지", "참고서"};     // @DiscriminatorValue
+    private static final String[] ETC_COLUMNS = {"genre", "theme", "subject"};
+    private static final String[] ETC_VALUES = {"판타지", "패션", "프로그래밍", "영어", "추리", "경제"};
+    private static final String[] TITLES = {"JPA", "스프링", "알고리즘", "토익스피킹", "자료구조", "네트워크", "운영체제", "데이터베이스"};
+    private static final String[] CITIES = {"서울", "천안", "부산", "대전", "광주", "인천"};
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void generate(DatasetScale scale) {
+        Random random = new Random(scale.getSeed());
+        int memberCount = scale.getMembers(), registerCount = scale.getRegisters(), orderCount = scale.getOrders();
+
+        // 1. 등록상품 (판매자 쏠림, 상품 타입, 가격, 초기 재고)
+        ZipfSampler sellers = new ZipfSampler(memberCount, scale.getSellerSkew());
+        int[] seller = new int[registerCount], type = new int[registerCount], price = new int[registerCount], stock = new int[registerCount];
+        for (int r = 0; r < registerCount; r++) {
+            seller[r] = sellers.next(random);
+            type[r] = random.nextInt(ITEM_TYPES.length);
+            price[r] = 1_000 * (1 + random.nextInt(30));
+            stock[r] = 5 + random.nextInt(96);
+        }
+
+        // 2. 주문 (인기 상품 쏠림, 취소/거래완료 비율) => 취소되지 않은 주문만 재고 차감
+        ZipfSampler hotItems = new ZipfSampler(registerCount, scale.getHotItemSkew());
+        int[] buyer = new int[orderCount], ordered = new int[orderCount], count = new int[orderCount];
+        boolean[] canceled = new boolean[orderCount], completed = new boolean[orderCount];
+        int orders = 0;
+        for (int k = 0; k < orderCount; k++) {
+            int r = hotItems.next(random);
+            if (stock[r] == 0)  // 재고 소진된 등록상품은 주문 불가 => 건너뜀
+                continue;
+
+            int b = random.nextInt(memberCount);
+            if (b == seller[r])     // 자기 상품은 주문하지 않음
+                b = (b + 1) % memberCount;
+
+            buyer[orders] = b;
+            ordered[orders] = r;
+            count[orders] = Math.min(1 + random.nextInt(3), stock[r]);
+            canceled[orders] = random.nextDouble() < scale.getCancelRate();
+            completed[orders] = !canceled[orders] && random.nextDouble() < scale.getCompleteRate();
+            if (!canceled[orders])
+                stock[r] -= count[orders];
+            orders++;
+        }
+
+        // 3. id 할당 => 엔티티 전체가 hibernate_sequence 하나를 공유하므로 구간을 잘라서 사용
+        long memberBase = jdbcTemplate.queryForObject("select next value for hibernate_sequence", Long.class);
+        long itemBase = memberBase + memberCount;
+        long registerBase = itemBase + registerCount;
+        long dealBase = registerBase + registerCount;
+        long orderBase = dealBase + orders;
+        long orderItemBase = orderBase + orders;
+        jdbcTemplate.execute("alter sequence hibernate_sequence restart with " + (orderItemBase + orders));
+
+        // 4. batch insert (FK 순서: member -> item -> register -> deal -> orders -> order_item)
+        Batch members = new Batch("insert into member (member_id, nick_name, password, user_name, city, street, zipcode) values (?, ?, ?, ?, ?, ?, ?)");
+        for (int m = 0; m < memberCount; m++) {
+            members.add(memberBase + m, "member" + m, "1234", "user" + m, city(m), "street" + m, String.valueOf(10_000 + m));
+        }
+        members.flush();
+
+        for (int t = 0; t < ITEM_TYPES.length; t++) {   // 타입마다 etc 컬럼이 다름 (SINGLE_TABLE)
+            Batch items = new Batch("insert into item (dtype, item_id, name, author, price, stock_quantity, " + ETC_COLUMNS[t] + ") values (?, ?, ?, ?, ?, ?, ?)");
+            for (int r = 0; r < registerCount; r++) {
+                if (type[r] == t)
+                    items.add(ITEM_TYPES[t], itemBase + r, TITLES[r % TITLES.length] + "-" + r, "author" + r % 97,
+                            price[r], stock[r], ETC_VALUES[r % ETC_VALUES.length]);
+            }
+            items.flush();
+        }
+
+        Batch registers = new Batch("insert into register (register_id, member_id, item_id, register_date, status) values (?, ?, ?, ?, ?)");
+        for (int r = 0; r < registerCount; r++) {
+            registers.add(registerBase + r, memberBase + seller[r], itemBase + r,
+                    Timestamp.valueOf(BASE_TIME.plusMinutes(r)), stock[r] == 0 ? "CANCEL" : "REGISTER");
+        }
+        registers.flush();
+
+        Batch deals = new Batch("insert into deal (deal_id, type, status, city, street, zipcode) values (?, ?, ?, ?, ?, ?)");
+        for (int o = 0; o < orders; o++) {
+            boolean delivery = random.nextBoolean();    // 배송 => 구매자 주소, 직거래 => 판매자 주소
+            int addressOwner = delivery ? buyer[o] : seller[ordered[o]];
+            deals.add(dealBase + o, delivery ? "DELIVERY" : "DIRECT", completed[o] ? "COMP" : "WAIT",
+                    city(addressOwner), "street" + addressOwner, String.valueOf(10_000 + addressOwner));
+        }
+        deals.flush();
+
+        Batch orderRows = new Batch("insert into orders (order_id, member_id, deal_id, order_date, status) values (?, ?, ?, ?, ?)");
+        Batch orderItems = new Batch("insert into order_item (order_item_id, order_id, item_id, order_price, count) values (?, ?, ?, ?, ?)");
+        for (int o = 0; o < orders; o++) {
+            orderRows.add(orderBase + o, memberBase + buyer[o], dealBase + o,
+                    Timestamp.valueOf(BASE_TIME.plusMinutes(registerCount + o)), canceled[o] ? "CANCEL" : "ORDER");
+            orderItems.add(orderItemBase + o, orderBase + o, itemBase + ordered[o], price[ordered[o]], count[o]);
+        }
+        orderRows.flush();
+        orderItems.flush();
+
+        log.info("dataset generated: members={}, registers={}, orders={} (seed={})", memberCount, registerCount, orders, scale.getSeed());
+    }
+
+    private static String city(int member) {
+        return CITIES[member % CITIES.length];
+    }
+
+    /**
+     * BATCH_SIZE 만큼 모아서 한 번에 전송
+     */
+    private class Batch {
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        Batch(String sql) {
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == BATCH_SIZE)
+                flush();
+        }
+
+        void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+}
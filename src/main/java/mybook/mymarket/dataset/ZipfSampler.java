@@ -0,0 +1,28 @@
+package mybook.mymarket.dataset;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 0 ~ n-1 사이의 값을 Zipf 분포로 뽑음 => 앞 번호일수록 자주 뽑힘 (인기 상품, 큰 판매자)
+ * 누적 가중치를 미리 계산해두고 이진 탐색 => O(log n)
+ */
+class ZipfSampler {
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);  // exponent == 0 => 균등 분포
+            cumulative[rank] = sum;
+        }
+    }
+
+    int next(Random random) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, target);
+
+        return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,5 @@
+package mybook.mymarket.datasource;
+
+public enum DataSourceType {
+    PRIMARY, REPLICA    // 쓰기(원본), 읽기(복제본)
+}
@@ -0,0 +1,50 @@
+package mybook.mymarket.datasource;
+
+import lombok.RequiredArgsConstructor;
+import mybook.mymarket.bulkhead.Bulkhead;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+
+/**
+ * 트랜잭션 속성으로 커넥션을 고름
+ * - @Transactional(readOnly = true) => REPLICA (단, read-your-writes 고정 중인 회원, 쓰기를 커밋한 요청은 PRIMARY)
+ * - 읽기 벌크헤드(replicaBulkheads) 요청의 트랜잭션 밖 조회 (컨트롤러의 Dto 직접 조회 등) => REPLICA
+ *   => 목록 API 폭주가 쓰기용 커넥션 풀을 다 쓰지 못함
+ * - 그 외 (쓰기, 트랜잭션 밖) => PRIMARY
+ * readOnly 플래그는 트랜잭션 시작(doBegin) 이후에 세팅되므로 LazyConnectionDataSourceProxy 로 감싸서
+ * 첫 statement 시점에 커넥션을 가져와야 함 (RoutingDataSourceConfig)
+ */
+@RequiredArgsConstructor
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReadYourWrites readYourWrites;
+    private final Set<String> replicaBulkheads;
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !readYourWrites.isSticky())
+            return DataSourceType.REPLICA;
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                && replicaBulkheads.contains(Bulkhead.currentName()) && !readYourWrites.isSticky())
+            return DataSourceType.REPLICA;
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Long memberId = readYourWrites.getCurrentMember();
+            if (memberId != null || readYourWrites.isInRequest()) {     // 쓰기 트랜잭션이 커밋되면 이 회원(요청)은 잠시 PRIMARY 고정
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        readYourWrites.markWrite(memberId);
+                    }
+                });
+            }
+        }
+
+        return DataSourceType.PRIMARY;
+    }
+}
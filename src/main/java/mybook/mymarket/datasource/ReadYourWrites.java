@@ -0,0 +1,115 @@
+package mybook.mymarket.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * read-your-writes 고정(sticky)
+ * 회원이 쓰기 트랜잭션을 커밋하면 window 동안 그 회원의 읽기 전용 트랜잭션도 원본(PRIMARY)으로 보냄
+ * => 복제 지연 때문에 방금 한 주문/등록이 목록에 안 보이는 문제 방지
+ * 현재 회원은 요청마다 ReadYourWritesFilter 가 세션(memberId)에서 꺼내 ThreadLocal 에 넣어줌
+ * 로그인하지 않은 요청(API)도 그 요청 안에서 쓰기를 커밋했으면 남은 읽기는 PRIMARY
+ * => 쓰기 후 결과를 읽기 전용 트랜잭션으로 다시 조회하는 API
+ */
+public class ReadYourWrites {
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final ThreadLocal<Long> currentMember = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> requestWrote = new ThreadLocal<>();  // null: 요청 밖
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();   // 회원 id -> 만료 시각(nanoTime)
+    private final long windowNanos;
+
+    public ReadYourWrites(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void setCurrentMember(Long memberId) {
+        currentMember.set(memberId);
+    }
+
+    public Long getCurrentMember() {
+        return currentMember.get();
+    }
+
+    /**
+     * 요청 시작 (ReadYourWritesFilter) => 이 요청의 쓰기 커밋을 기억
+     */
+    public void startRequest() {
+        requestWrote.set(Boolean.FALSE);
+    }
+
+    public boolean isInRequest() {
+        return requestWrote.get() != null;
+    }
+
+    public void clear() {
+        currentMember.remove();
+        requestWrote.remove();
+    }
+
+    /**
+     * 현재 스레드의 회원, 요청 상태 => 다른 스레드(병렬 조회)에서 attach 로 이어서
+     */
+    public State current() {
+        return new State(currentMember.get(), requestWrote.get());
+    }
+
+    /**
+     * @return 원래 상태 => 끝나면 다시 attach
+     */
+    public State attach(State state) {
+        State previous = current();
+        set(currentMember, state.member);
+        set(requestWrote, state.requestWrote);
+
+        return previous;
+    }
+
+    private static <T> void set(ThreadLocal<T> local, T value) {
+        if (value != null)
+            local.set(value);
+        else
+            local.remove();
+    }
+
+    /**
+     * 쓰기 커밋 => 해당 회원 고정 시작
+     */
+    public void markWrite(Long memberId) {
+        if (isInRequest())
+            requestWrote.set(Boolean.TRUE);
+        if (memberId == null || windowNanos <= 0)
+            return;
+
+        long now = System.nanoTime();
+        stickyUntil.put(memberId, now + windowNanos);
+        if (stickyUntil.size() > CLEANUP_THRESHOLD)     // 만료된 회원 정리 => 맵이 계속 커지지 않게
+            stickyUntil.values().removeIf(until -> until - now < 0);
+    }
+
+    /**
+     * 현재 요청이 쓰기를 커밋했거나 현재 회원이 고정 구간 안에 있는지
+     */
+    public boolean isSticky() {
+        if (Boolean.TRUE.equals(requestWrote.get()))
+            return true;
+
+        Long memberId = currentMember.get();
+        if (memberId == null)
+            return false;
+
+        Long until = stickyUntil.get(memberId);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    public static final class State {
+        private final Long member;
+        private final Boolean requestWrote;
+
+        private State(Long member, Boolean requestWrote) {
+            this.member = member;
+            this.requestWrote = requestWrote;
+        }
+    }
+}
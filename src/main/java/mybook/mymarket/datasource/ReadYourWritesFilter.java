@@ -0,0 +1,35 @@
+package mybook.mymarket.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+
+/**
+ * 세션의 로그인 회원(memberId)을 ReadYourWrites 에 넣어줌 + 요청 시작 표시 (요청이 끝나면 정리)
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private final ReadYourWrites readYourWrites;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);    // 세션이 없으면 만들지 않음
+        Object memberId = session != null ? session.getAttribute("memberId") : null;
+        readYourWrites.startRequest();
+        if (memberId != null)
+            readYourWrites.setCurrentMember(Long.valueOf(memberId.toString()));
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readYourWrites.clear();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package mybook.mymarket.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 읽기/쓰기 DataSource 분리 => market.datasource.replica.jdbc-url 이 있을 때만 켜짐 (없으면 기존 단일 DataSource)
+ * - primaryDataSource: spring.datasource.* (+ spring.datasource.hikari.*)
+ * - replicaDataSource: market.datasource.replica.* (Hikari 설정 그대로: jdbc-url, username, maximum-pool-size ...)
+ * - routingDataSource(@Primary): LazyConnectionDataSourceProxy(ReadWriteRoutingDataSource)
+ * 두 풀은 각각 빈이므로 p6spy 데코레이터(SQL 예산, 느린 쿼리)와 Hikari 메트릭이 풀마다 붙음
+ * routingDataSource 는 중복 집계를 막기 위해 데코레이터에서 제외 (decorator.datasource.exclude-beans)
+ * 같은 DB 를 가리키는 replica 를 두면 복제본 없이도 읽기/쓰기 커넥션 풀이 분리됨 (벌크헤드)
+ * 두 풀은 @Lazy 로 주입 => DataSource 초기화(DataSourceInitializerInvoker)와의 순환 참조 방지
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "market.datasource.replica", name = "jdbc-url")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("market.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${market.datasource.read-your-writes:3s}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWrites readYourWrites) {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter(readYourWrites));
+    }
+
+    @Bean
+    @Primary
+    public DataSource routingDataSource(@Lazy @Qualifier("primaryDataSource") DataSource primary,
+                                        @Lazy @Qualifier("replicaDataSource") DataSource replica,
+                                        ReadYourWrites readYourWrites,
+                                        @Value("${market.datasource.replica-bulkheads:read}") Set<String> replicaBulkheads) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(DataSourceType.PRIMARY, primary);
+        targets.put(DataSourceType.REPLICA, replica);
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(readYourWrites, replicaBulkheads);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        // 기본값을 직접 주지 않으면 생성 시점에 커넥션을 하나 열어서 확인함 => 풀 생성이 앞당겨짐
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(routing);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.afterPropertiesSet();
+
+        return proxy;
+    }
+}
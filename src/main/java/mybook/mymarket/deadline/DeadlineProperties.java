@@ -0,0 +1,33 @@
+package mybook.mymarket.deadline;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 요청 시간 예산 => market.deadline.*
+ * - default-timeout: 어느 예산에도 맞지 않는 요청
+ * - budgets.<이름>.timeout: 요청이 시작된 뒤 이 시간이 지나면 쿼리 취소
+ * - budgets.<이름>.routes: "메소드 경로패턴" (메소드 자리에 * 는 모든 메소드) => 위에서부터 처음 맞는 예산
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.deadline")
+public class DeadlineProperties {
+    private boolean enabled = true;
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+    private Map<String, Budget> budgets = new LinkedHashMap<>();
+
+    @Getter @Setter
+    public static class Budget {
+        private Duration timeout = Duration.ofSeconds(10);
+        private List<String> routes = new ArrayList<>();
+    }
+}
@@ -0,0 +1,54 @@
+package mybook.mymarket.deadline;
+
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.transaction.TransactionSystemException;
+
+import javax.persistence.TypedQuery;
+import java.sql.SQLTimeoutException;
+
+/**
+ * 요청의 남은 시간 => 쿼리 timeout 힌트 (javax.persistence.query.timeout)
+ * - 마감이 지났으면 쿼리를 만들지 않고 예외 (QueryTimeoutException)
+ * - 쿼리를 실행할 세션을 마감에 등록 => 마감이 되면 실행 중인 쿼리 취소
+ * - Hibernate 는 ms 를 초로 반올림(JDBC setQueryTimeout 은 초 단위, 0 은 무제한)
+ *   => 1초 단위로 올려서 넘김, 1초보다 세밀한 마감은 watchdog 이 맞춤
+ * 요청 밖(마감 없음)에서는 아무것도 하지 않음
+ */
+public final class QueryTimeouts {
+
+    private QueryTimeouts() {
+    }
+
+    public static <T> TypedQuery<T> timed(TypedQuery<T> query) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null)
+            return query;
+
+        deadline.check();
+        deadline.register((SharedSessionContractImplementor)
+                query.unwrap(org.hibernate.query.Query.class).getProducer());
+
+        long seconds = Math.max(1, (deadline.remainingMillis() + 999) / 1000);
+        return query.setHint(QueryHints.TIMEOUT_JPA, (int) (seconds * 1000));
+    }
+
+    /**
+     * JPA, Hibernate, Spring, JDBC 어느 단계에서 감싸졌든 원인 중에 시간 초과가 있으면
+     * 시간 초과된 커넥션은 Hikari 가 버림 => 롤백 실패(TransactionSystemException)가 원래 예외를 덮으므로 그 안도 봄
+     */
+    public static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof javax.persistence.QueryTimeoutException
+                    || cause instanceof org.hibernate.QueryTimeoutException
+                    || cause instanceof org.springframework.dao.QueryTimeoutException
+                    || cause instanceof SQLTimeoutException)
+                return true;
+            if (cause instanceof TransactionSystemException
+                    && ((TransactionSystemException) cause).getApplicationException() != null)
+                return isTimeout(((TransactionSystemException) cause).getApplicationException());
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+package mybook.mymarket.deadline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.lang.Nullable;
+
+import javax.persistence.QueryTimeoutException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 하나의 마감 시각 => 요청 스레드(와 그 요청의 병렬 조회 작업 스레드)의 ThreadLocal
+ * - 쿼리마다 남은 시간을 statement timeout 으로 (QueryTimeouts) => 마감이 지나면 새 쿼리는 시작하지 않음
+ * - 마감이 되면 watchdog(RequestDeadlines)이 이 요청이 쓰던 세션의 실행 중인 쿼리를 취소 (Session.cancelQuery 와 같음)
+ *   => JDBC timeout 은 초 단위라 남은 시간이 1초보다 짧으면 watchdog 이 먼저
+ * 취소, 시간 초과는 모두 javax.persistence.QueryTimeoutException 으로 올라옴
+ */
+@Slf4j
+public final class RequestDeadline {
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final Set<SharedSessionContractImplementor> sessions = ConcurrentHashMap.newKeySet();
+    private volatile boolean expired;
+    private volatile boolean closed;
+    private volatile Future<?> watchdog;
+
+    RequestDeadline(long timeoutNanos) {
+        this.deadlineNanos = System.nanoTime() + timeoutNanos;
+    }
+
+    /**
+     * 현재 스레드의 마감 (null: 요청 밖 => 배치, 테스트, 초기화)
+     */
+    @Nullable
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 다른 스레드에 마감을 넘김 => 이전 값을 돌려주므로 작업이 끝나면 다시 attach
+     */
+    @Nullable
+    public static RequestDeadline attach(@Nullable RequestDeadline deadline) {
+        RequestDeadline previous = CURRENT.get();
+        if (deadline != null)
+            CURRENT.set(deadline);
+        else
+            CURRENT.remove();
+
+        return previous;
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(remainingNanos());
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * 마감이 지나서 취소됐는지 (statement timeout 으로 끝난 쿼리는 false)
+     */
+    public boolean isExpired() {
+        return expired;
+    }
+
+    /**
+     * 새 쿼리를 시작하기 전 => 마감이 지났으면 DB 까지 가지 않고 예외
+     */
+    public void check() {
+        if (expired || deadlineNanos - System.nanoTime() <= 0) {
+            expired = true;
+            throw new QueryTimeoutException("Request deadline exceeded");
+        }
+    }
+
+    void register(SharedSessionContractImplementor session) {
+        if (!closed)
+            sessions.add(session);
+    }
+
+    void watchdog(Future<?> watchdog) {
+        this.watchdog = watchdog;
+    }
+
+    /**
+     * 마감 => 실행 중인 쿼리 취소 (watchdog 스레드)
+     */
+    void expire() {
+        expired = true;
+        for (SharedSessionContractImplementor session : sessions) {
+            if (closed)
+                return;
+            try {
+                if (session.isOpen())
+                    session.getJdbcCoordinator().cancelLastQuery();
+            } catch (HibernateException e) {    // 이미 끝난 statement
+                log.debug("Query cancel failed", e);
+            }
+        }
+    }
+
+    void close() {
+        closed = true;
+        Future<?> watchdog = this.watchdog;
+        if (watchdog != null)
+            watchdog.cancel(false);
+        sessions.clear();
+        if (CURRENT.get() == this)
+            CURRENT.remove();
+    }
+
+    static void start(RequestDeadline deadline) {
+        CURRENT.set(deadline);
+    }
+}
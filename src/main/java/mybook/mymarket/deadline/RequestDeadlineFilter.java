@@ -0,0 +1,93 @@
+package mybook.mymarket.deadline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import mybook.mymarket.route.RouteMatcher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 요청마다 예산(DeadlineProperties)만큼 마감을 걸고, 쿼리 시간 초과로 끝난 요청은 503
+ * 벌크헤드, 적응형 제한에서 기다린 시간도 예산에 포함 => 클라이언트가 기다리는 시간 기준
+ * 마감으로만 취소함 => 클라이언트가 연결을 끊어도 쿼리는 마감까지 계속 (블로킹 서블릿은 응답을 쓰기 전에는 알 수 없음)
+ * 메트릭: market.query.timeouts (budget, uri, reason 태그)
+ * - reason=deadline: 요청 마감이 지나서 취소 / 새 쿼리를 시작하지 않음 (마감 뒤에 실패한 요청은 원인과 상관없이)
+ * - reason=statement: 마감 전에 statement timeout (JDBC)
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 13)     // 처리율 제한 다음, 적응형 제한과 벌크헤드보다 먼저
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+    private static final String DEFAULT_BUDGET = "default";
+
+    private final boolean enabled;
+    private final Duration defaultTimeout;
+    private final RouteMatcher<Budget> routes = new RouteMatcher<>();
+    private final RequestDeadlines deadlines;
+    private final MeterRegistry meterRegistry;
+
+    public RequestDeadlineFilter(DeadlineProperties properties, RequestDeadlines deadlines, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.defaultTimeout = properties.getDefaultTimeout();
+        this.deadlines = deadlines;
+        this.meterRegistry = meterRegistry;
+        properties.getBudgets().forEach((name, budget) -> {
+            Budget matched = new Budget(name, budget.getTimeout());
+            budget.getRoutes().forEach(route -> routes.add(route, matched));
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Budget budget = routes.find(request);
+        RequestDeadline deadline = deadlines.start(budget != null ? budget.timeout : defaultTimeout);
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | IOException | RuntimeException e) {
+            if (!deadline.isExpired() && !QueryTimeouts.isTimeout(e))
+                throw e;
+
+            timedOut(request, response, budget != null ? budget.name : DEFAULT_BUDGET, deadline);
+        } finally {
+            deadlines.stop(deadline);
+        }
+    }
+
+    private void timedOut(HttpServletRequest request, HttpServletResponse response, String budget,
+                          RequestDeadline deadline) throws IOException {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        meterRegistry.counter("market.query.timeouts",
+                "budget", budget,
+                "uri", pattern != null ? pattern.toString() : "UNKNOWN",
+                "reason", deadline.isExpired() ? "deadline" : "statement")
+                .increment();
+
+        if (!response.isCommitted())
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Query timed out");
+    }
+
+    private static class Budget {
+        private final String name;
+        private final Duration timeout;
+
+        Budget(String name, Duration timeout) {
+            this.name = name;
+            this.timeout = timeout;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package mybook.mymarket.deadline;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 마감 시작/종료 + watchdog (스레드 하나가 모든 요청의 마감을 예약)
+ * 제 시간에 끝난 요청은 예약을 취소하고 큐에서 바로 지움 => 요청 수만큼 예약이 쌓이지 않음
+ */
+@Component
+public class RequestDeadlines {
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    public RequestDeadlines() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("deadline-");
+        threadFactory.setDaemon(true);
+        this.watchdog = new ScheduledThreadPoolExecutor(1, threadFactory);
+        this.watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * 현재 스레드에 마감을 걸고 마감 시각에 취소 예약
+     */
+    public RequestDeadline start(Duration timeout) {
+        RequestDeadline deadline = new RequestDeadline(timeout.toNanos());
+        deadline.watchdog(watchdog.schedule(deadline::expire, timeout.toNanos(), TimeUnit.NANOSECONDS));
+        RequestDeadline.start(deadline);
+
+        return deadline;
+    }
+
+    public void stop(RequestDeadline deadline) {
+        deadline.close();
+    }
+}
@@ -0,0 +1,45 @@
+package mybook.mymarket.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 변경 기록 => 델타 동기화 (나의 주문/등록상품 중 cursor 이후에 바뀐 것만)
+ * 커밋 직전에 ChangeLogRecorder 가 트랜잭션에서 바뀐 주문/등록마다 한 줄씩 남김 => 롤백되면 같이 사라짐
+ * seq: DB 시퀀스 (allocationSize 1) => 서버가 여러 대여도 DB 에서 받은 순서대로 증가
+ * 변경 내용은 남기지 않음 => 조회할 때 현재 상태를 읽음 (같은 엔티티가 여러 번 바뀌어도 한 번만)
+ */
+@Entity
+@Getter
+@Table(name = "change_log", indexes = @Index(name = "idx_change_log_member_type_seq", columnList = "member_id, type, seq"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ChangeLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_seq")
+    @SequenceGenerator(name = "change_seq", sequenceName = "change_seq", allocationSize = 1)
+    private Long seq;
+
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;  // 이 변경을 받을 회원 (주문한 회원 / 등록한 회원)
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeType type;
+
+    @Column(nullable = false)
+    private Long entityId;  // 주문 id / 등록 id
+
+    @Column(nullable = false)
+    private LocalDateTime recordedAt;
+
+    public ChangeLog(Long memberId, ChangeType type, Long entityId, LocalDateTime recordedAt) {
+        this.memberId = memberId;
+        this.type = type;
+        this.entityId = entityId;
+        this.recordedAt = recordedAt;
+    }
+}
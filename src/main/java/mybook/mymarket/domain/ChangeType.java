@@ -0,0 +1,5 @@
+package mybook.mymarket.domain;
+
+public enum ChangeType {
+    ORDER, REGISTER // 나의 주문 (주문 + 거래), 나의 등록상품 (등록 + 상품)
+}
@@ -4,6 +4,11 @@ package mybook.mymarket.domain;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import mybook.mymarket.domain.event.DealCompleted;
+import mybook.mymarket.domain.event.DomainEvents;
+import mybook.mymarket.domain.event.OrderCancelled;
+import mybook.mymarket.domain.event.OrderPlaced;
+import mybook.mymarket.monitoring.jfr.OrderCancelledEvent;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -15,9 +20,14 @@ import static javax.persistence.FetchType.LAZY;
 @Entity
 @Getter
 @Table(name = "orders")
+// 페치 플랜: 주문 목록 화면(v3, Web Layer)이 그리는 회원 닉네임 + 거래 상태/주소 => 한 방 쿼리
+@NamedEntityGraph(name = Order.WITH_MEMBER_DEAL, attributeNodes = {
+        @NamedAttributeNode("member"), @NamedAttributeNode("deal")})
 // protected Order() { } => 다른 곳에서 생성자를 제약시키고, 생성 메소드 이용하라고 알리기 위해
 @NoArgsConstructor(access = AccessLevel.PROTECTED)  // JPA 에서 protected 는 생성자 사용하지 말라는 뜻
 public class Order {
+    public static final String WITH_MEMBER_DEAL = "Order.withMemberDeal";
+
     @Id @GeneratedValue
     @Column(name = "order_id")
     private Long id;
@@ -78,6 +88,7 @@ public class Order {
 
         order.setStatus(OrderStatus.ORDER);
         order.setOrderDate(LocalDateTime.now());
+        DomainEvents.raise(new OrderPlaced(order));
 
         return order;
     }
@@ -87,12 +98,30 @@ public class Order {
      */
     public void completeDeal() {    // 거래 완료
         this.deal.setStatus(DealStatus.COMP);   // 변경감지
+        DomainEvents.raise(new DealCompleted(this));
     }
 
     public void cancel() {
+        OrderCancelledEvent event = OrderCancelledEvent.beginIfEnabled();  // JFR: 취소 연쇄 측정 (기록 중일 때만)
+
         this.setStatus(OrderStatus.CANCEL); // 취소
-        for (OrderItem orderItem : orderItems)  // 해당 주문의 상품 리스트들
+        for (OrderItem orderItem : orderItems) {    // 해당 주문의 상품 리스트들
+            boolean soldOut = orderItem.getItem().getStockQuantity() == 0;
             orderItem.cancel(); // 전부 취소
+
+            if (event != null) {
+                event.restoredStock += orderItem.getCount();
+                if (soldOut && orderItem.getItem().getStockQuantity() > 0)  // 재고 0 -> 다시 등록 상태
+                    event.reactivatedRegisters++;
+            }
+        }
+
+        if (event != null && event.shouldCommit()) {
+            event.orderId = this.id != null ? this.id : 0;
+            event.orderItems = orderItems.size();
+            event.commit();
+        }
+        DomainEvents.raise(new OrderCancelled(this));
     }
 
     /**
@@ -12,8 +12,16 @@ import static javax.persistence.FetchType.LAZY;
 
 @Entity
 @Getter
+// 페치 플랜: 주문상품 => 상품 => 등록 => 판매 회원 (전부 ToOne => row 수 그대로), 주문 취소와 주문 목록 화면에서 사용
+@NamedEntityGraph(name = OrderItem.WITH_ITEM_REGISTER_MEMBER,
+        attributeNodes = @NamedAttributeNode(value = "item", subgraph = "item"),
+        subgraphs = {
+                @NamedSubgraph(name = "item", attributeNodes = @NamedAttributeNode(value = "register", subgraph = "register")),
+                @NamedSubgraph(name = "register", attributeNodes = @NamedAttributeNode("member"))})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class OrderItem {
+    public static final String WITH_ITEM_REGISTER_MEMBER = "OrderItem.withItemRegisterMember";
+
     @Id @GeneratedValue
     @Column(name = "order_item_id")
     private Long id;
@@ -0,0 +1,48 @@
+package mybook.mymarket.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 도메인 이벤트 outbox => 이벤트를 일으킨 변경과 같은 트랜잭션에 저장 (OutboxRecorder), 커밋 후 OutboxRelay 가 전달
+ * id: DB 시퀀스 (allocationSize 1) => consumer 별 offset 은 이 id 까지 받았다는 뜻
+ * payload: JSON (DomainEvent.getPayload)
+ */
+@Entity
+@Getter
+@Table(name = "outbox_event")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false)
+    private String type;    // OrderPlaced, OrderCancelled, DealCompleted, RegisterCreated, RegisterCancelled, ItemChanged
+
+    @Column(nullable = false)
+    private String aggregateType;   // Order, Register, Item
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime recordedAt;
+
+    public OutboxEvent(String type, String aggregateType, Long aggregateId, String payload, LocalDateTime recordedAt) {
+        this.type = type;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.payload = payload;
+        this.recordedAt = recordedAt;
+    }
+}
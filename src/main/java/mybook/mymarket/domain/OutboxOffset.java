@@ -0,0 +1,34 @@
+package mybook.mymarket.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * consumer 별로 받은 마지막 outbox id => 재시작해도 그 다음부터 (처리 후 저장하므로 최소 한 번)
+ * 서버마다 따로 받는 consumer 는 "이름@서버" 로 서버마다 한 줄 (OutboxConsumer.isNodeLocal)
+ * 값은 update 쿼리로만 앞으로 옮김 (OutboxRepository.saveOffset)
+ */
+@Entity
+@Getter
+@Table(name = "outbox_offset")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxOffset {
+    @Id
+    private String consumer;
+
+    @Column(nullable = false)
+    private Long lastId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public OutboxOffset(String consumer, Long lastId, LocalDateTime updatedAt) {
+        this.consumer = consumer;
+        this.lastId = lastId;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -3,6 +3,9 @@ package mybook.mymarket.domain;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import mybook.mymarket.domain.event.DomainEvents;
+import mybook.mymarket.domain.event.RegisterCancelled;
+import mybook.mymarket.domain.event.RegisterCreated;
 import mybook.mymarket.domain.item.Item;
 
 import javax.persistence.*;
@@ -12,9 +15,14 @@ import static javax.persistence.FetchType.LAZY;
 
 @Entity
 @Getter
+// 페치 플랜: 등록 목록 화면(v3, Web Layer)이 그리는 회원 닉네임 + 상품 => 한 방 쿼리
+@NamedEntityGraph(name = Register.WITH_MEMBER_ITEM, attributeNodes = {
+        @NamedAttributeNode("member"), @NamedAttributeNode("item")})
 // protected Registration() { } => 다른 곳에서 생성자를 제약시키고, 생성 메소드 이용하라고 알리기 위해
 @NoArgsConstructor(access = AccessLevel.PROTECTED)  // JPA 에서 protected 는 생성자 사용하지 말라는 뜻
 public class Register {
+    public static final String WITH_MEMBER_ITEM = "Register.withMemberItem";
+
     @Id @GeneratedValue
     @Column(name = "register_id")
     private Long id;
@@ -63,6 +71,7 @@ public class Register {
 
         register.setStatus(RegisterStatus.REGISTER);
         register.setRegisterDate(LocalDateTime.now());
+        DomainEvents.raise(new RegisterCreated(register));
 
         return register;
     }
@@ -73,6 +82,7 @@ public class Register {
     public void cancel() {  // 등록 취소
         this.setStatus(RegisterStatus.CANCEL);  // 취소
         item.cancel();
+        DomainEvents.raise(new RegisterCancelled(this));
     }
 
     // Setter
@@ -0,0 +1,37 @@
+package mybook.mymarket.domain.event;
+
+import mybook.mymarket.domain.Order;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 거래 확정 (Order.completeDeal)
+ */
+public class DealCompleted extends DomainEvent {
+    private final Order order;
+
+    public DealCompleted(Order order) {
+        this.order = order;
+    }
+
+    @Override
+    public String getAggregateType() {
+        return "Order";
+    }
+
+    @Override
+    public Long getAggregateId() {
+        return order.getId();
+    }
+
+    @Override
+    public Map<String, Object> getPayload() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("memberId", order.getMember().getId());
+        payload.put("dealStatus", order.getDeal().getStatus());
+
+        return payload;
+    }
+}
@@ -0,0 +1,20 @@
+package mybook.mymarket.domain.event;
+
+import java.util.Map;
+
+/**
+ * 엔티티의 비지니스 로직에서 일어난 일 => DomainEvents.raise 로 알림, 같은 트랜잭션에서 outbox 에 저장
+ * 만들 때는 엔티티만 들고 있다가 커밋 직전에 값을 읽음
+ * => 생성 메소드에서 알린 이벤트도 저장 후의 id, 트랜잭션의 마지막 상태로 남음
+ */
+public abstract class DomainEvent {
+    public String getType() {
+        return getClass().getSimpleName();
+    }
+
+    public abstract String getAggregateType();
+
+    public abstract Long getAggregateId();
+
+    public abstract Map<String, Object> getPayload();
+}
@@ -0,0 +1,78 @@
+package mybook.mymarket.domain.event;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 엔티티에서 도메인 이벤트 알림 => 현재 트랜잭션에 모아두고 커밋 직전에 Sink(OutboxRecorder)로
+ * 트랜잭션 밖에서 알린 이벤트(엔티티 단위 테스트 등)는 남길 곳이 없으므로 버림, 롤백되면 같이 사라짐
+ */
+public final class DomainEvents {
+    private static final List<Sink> sinks = new CopyOnWriteArrayList<>();
+
+    private DomainEvents() {
+    }
+
+    public static void raise(DomainEvent event) {
+        if (sinks.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(DomainEvents.class);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(DomainEvents.class, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    public static void register(Sink sink) {
+        sinks.add(sink);
+    }
+
+    public static void unregister(Sink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * 이벤트를 저장할 곳 => 현재 트랜잭션이 자기 것(같은 EntityManagerFactory)인 sink 가 받음
+     */
+    public interface Sink {
+        boolean isActive();
+
+        void record(List<DomainEvent> events);  // 커밋 직전, 같은 트랜잭션
+
+        void committed();   // 커밋 후
+    }
+
+    private static class Pending implements TransactionSynchronization {
+        private final List<DomainEvent> events = new ArrayList<>();
+        private Sink sink;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            for (Sink candidate : sinks) {
+                if (candidate.isActive()) {
+                    sink = candidate;
+                    sink.record(events);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            if (sink != null)
+                sink.committed();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DomainEvents.class);
+        }
+    }
+}
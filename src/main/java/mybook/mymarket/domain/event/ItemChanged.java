@@ -0,0 +1,38 @@
+package mybook.mymarket.domain.event;
+
+import mybook.mymarket.domain.item.Item;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 상품 수정 (Item.changeItem) => 이름, 가격, 재고
+ */
+public class ItemChanged extends DomainEvent {
+    private final Item item;
+
+    public ItemChanged(Item item) {
+        this.item = item;
+    }
+
+    @Override
+    public String getAggregateType() {
+        return "Item";
+    }
+
+    @Override
+    public Long getAggregateId() {
+        return item.getId();
+    }
+
+    @Override
+    public Map<String, Object> getPayload() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("itemId", item.getId());
+        payload.put("name", item.getName());
+        payload.put("price", item.getPrice());
+        payload.put("stockQuantity", item.getStockQuantity());
+
+        return payload;
+    }
+}
@@ -0,0 +1,37 @@
+package mybook.mymarket.domain.event;
+
+import mybook.mymarket.domain.Order;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 주문 취소 (Order.cancel) => 주문상품의 재고 원복
+ */
+public class OrderCancelled extends DomainEvent {
+    private final Order order;
+
+    public OrderCancelled(Order order) {
+        this.order = order;
+    }
+
+    @Override
+    public String getAggregateType() {
+        return "Order";
+    }
+
+    @Override
+    public Long getAggregateId() {
+        return order.getId();
+    }
+
+    @Override
+    public Map<String, Object> getPayload() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("memberId", order.getMember().getId());
+        payload.put("orderItems", OrderPlaced.orderItems(order));
+
+        return payload;
+    }
+}
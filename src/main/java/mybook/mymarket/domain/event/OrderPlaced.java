@@ -0,0 +1,54 @@
+package mybook.mymarket.domain.event;
+
+import mybook.mymarket.domain.Order;
+import mybook.mymarket.domain.OrderItem;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 주문 (Order.createOrder)
+ */
+public class OrderPlaced extends DomainEvent {
+    private final Order order;
+
+    public OrderPlaced(Order order) {
+        this.order = order;
+    }
+
+    @Override
+    public String getAggregateType() {
+        return "Order";
+    }
+
+    @Override
+    public Long getAggregateId() {
+        return order.getId();
+    }
+
+    @Override
+    public Map<String, Object> getPayload() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("memberId", order.getMember().getId());
+        payload.put("dealType", order.getDeal().getType());
+        payload.put("orderItems", orderItems(order));
+
+        return payload;
+    }
+
+    static List<Map<String, Object>> orderItems(Order order) {
+        List<Map<String, Object>> orderItems = new ArrayList<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("itemId", orderItem.getItem().getId());
+            item.put("orderPrice", orderItem.getOrderPrice());
+            item.put("count", orderItem.getCount());
+            orderItems.add(item);
+        }
+
+        return orderItems;
+    }
+}
@@ -0,0 +1,37 @@
+package mybook.mymarket.domain.event;
+
+import mybook.mymarket.domain.Register;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 등록 취소 (Register.cancel) => 상품 재고 0
+ */
+public class RegisterCancelled extends DomainEvent {
+    private final Register register;
+
+    public RegisterCancelled(Register register) {
+        this.register = register;
+    }
+
+    @Override
+    public String getAggregateType() {
+        return "Register";
+    }
+
+    @Override
+    public Long getAggregateId() {
+        return register.getId();
+    }
+
+    @Override
+    public Map<String, Object> getPayload() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("registerId", register.getId());
+        payload.put("memberId", register.getMember().getId());
+        payload.put("itemId", register.getItem().getId());
+
+        return payload;
+    }
+}
@@ -0,0 +1,40 @@
+package mybook.mymarket.domain.event;
+
+import mybook.mymarket.domain.Register;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 상품 등록 (Register.createRegister)
+ */
+public class RegisterCreated extends DomainEvent {
+    private final Register register;
+
+    public RegisterCreated(Register register) {
+        this.register = register;
+    }
+
+    @Override
+    public String getAggregateType() {
+        return "Register";
+    }
+
+    @Override
+    public Long getAggregateId() {
+        return register.getId();
+    }
+
+    @Override
+    public Map<String, Object> getPayload() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("registerId", register.getId());
+        payload.put("memberId", register.getMember().getId());
+        payload.put("itemId", register.getItem().getId());
+        payload.put("name", register.getItem().getName());
+        payload.put("price", register.getItem().getPrice());
+        payload.put("stockQuantity", register.getItem().getStockQuantity());
+
+        return payload;
+    }
+}
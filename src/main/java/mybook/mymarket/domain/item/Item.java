@@ -4,7 +4,10 @@ package mybook.mymarket.domain.item;
 import lombok.Getter;
 import mybook.mymarket.domain.Register;
 import mybook.mymarket.domain.RegisterStatus;
+import mybook.mymarket.domain.event.DomainEvents;
+import mybook.mymarket.domain.event.ItemChanged;
 import mybook.mymarket.exception.NotEnoughStockException;
+import mybook.mymarket.monitoring.jfr.StockExhaustedEvent;
 
 import javax.persistence.*;
 
@@ -39,9 +42,21 @@ public abstract class Item {
         this.stockQuantity += quantity;     // 현재 수량 갱신
     }
 
-    public void removeStock(int quantity) {
+    public void removeStock(int quantity) {     // 주문 => 재고 감소
         int resStock = this.stockQuantity - quantity;
 
+        if (resStock <= 0) {    // JFR: 주문으로 재고 소진(0) 또는 부족(< 0)
+            StockExhaustedEvent.emit(this.id, quantity, this.stockQuantity, resStock < 0);
+        }
+
+        updateStock(resStock);
+    }
+
+    public void cancel() {  // 등록 취소 => 상품 재고 원복 (재고 소진 이벤트 X)
+        updateStock(0);
+    }
+
+    private void updateStock(int resStock) {
         if (resStock == 0) {    // 재고 소진 시 등록 취소
             this.register.setStatus(RegisterStatus.CANCEL);
         }
@@ -53,15 +68,12 @@ public abstract class Item {
         this.stockQuantity = resStock;  // 현재수량을 남은수량으로 갱신
     }
 
-    public void cancel() {  // 등록 취소 => 상품 재고 원복
-        this.removeStock(stockQuantity);
-    }
-
     /** 변경감지에서 update 값 세팅 */
     public void changeItem(String name, int price, int stockQuantity) {
         this.name = name;
         this.price = price;
         this.stockQuantity = stockQuantity;
+        DomainEvents.raise(new ItemChanged(this));
     }
 
     // Setter
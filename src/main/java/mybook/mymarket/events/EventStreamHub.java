@@ -0,0 +1,203 @@
+package mybook.mymarket.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import mybook.mymarket.exception.TooManyConnectionsException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 변경 알림(MarketEventBus) => 구독 중인 회원의 SSE 연결로
+ * - 연결은 서블릿 비동기(SseEmitter) => 요청 스레드, DB 커넥션을 잡지 않고 idle 연결 수천 개
+ * - 커밋한 스레드는 보낼 알림을 쌓아두기만, 스레드 하나가 coalesce-window 마다 모아서 전송
+ *   => 그 사이 같은 key(예: 같은 상품 재고)가 여러 번 바뀌면 마지막 것만, JSON 변환은 알림마다 한 번
+ * - 받을 연결이 없는 회원의 알림은 쌓지 않음
+ * 연결이 끊긴 동안의 알림은 다시 보내지 않음 => 클라이언트는 ready 를 받으면 델타 동기화(/changes)로 따라잡음
+ * 메트릭: market.events.connections, market.events.sent, market.events.coalesced
+ */
+@Slf4j
+@Component
+public class EventStreamHub {
+    private static final String BROADCAST = "*";
+
+    private final EventStreamProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Deque<Connection>> memberConnections = new ConcurrentHashMap<>();
+    private Map<String, MarketEvent> pending = new LinkedHashMap<>();   // "받는 회원/key" => 마지막 알림 (this 로 보호)
+    private final ScheduledThreadPoolExecutor sender;
+    private final Counter sent;
+    private final Counter coalesced;
+
+    public EventStreamHub(EventStreamProperties properties, MarketEventBus bus, ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.sent = meterRegistry.counter("market.events.sent");
+        this.coalesced = meterRegistry.counter("market.events.coalesced");
+        Gauge.builder("market.events.connections", connections, Set::size)
+                .description("열려 있는 SSE 연결 수")
+                .register(meterRegistry);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sse-");
+        threadFactory.setDaemon(true);
+        this.sender = new ScheduledThreadPoolExecutor(1, threadFactory);
+        long window = properties.getCoalesceWindow().toMillis();
+        long heartbeat = properties.getHeartbeat().toMillis();
+        sender.scheduleWithFixedDelay(this::flush, window, window, TimeUnit.MILLISECONDS);
+        sender.scheduleWithFixedDelay(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+
+        bus.subscribe(this::enqueue);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        connections.forEach(connection -> connection.emitter.complete());
+    }
+
+    /**
+     * 회원의 연결 하나 => 회원별 상한을 넘으면 가장 오래된 연결을 닫음 (새 탭이 이김)
+     */
+    public SseEmitter subscribe(Long memberId) {
+        if (connections.size() >= properties.getMaxConnections())
+            throw new TooManyConnectionsException("too many event streams");
+
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Connection connection = new Connection(memberId, emitter);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        connections.add(connection);
+        Deque<Connection> mine = memberConnections.compute(memberId, (id, deque) -> {
+            if (deque == null)
+                deque = new ConcurrentLinkedDeque<>();
+            deque.add(connection);
+            return deque;
+        });
+        while (mine.size() > properties.getMaxConnectionsPerMember()) {
+            Connection oldest = mine.poll();
+            if (oldest == null)
+                break;
+            remove(oldest);
+            oldest.emitter.complete();
+        }
+
+        send(connection, SseEmitter.event().name("ready").reconnectTime(properties.getReconnectTime().toMillis()).data(""));
+        return emitter;
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    private void enqueue(List<MarketEvent> events) {
+        if (connections.isEmpty())
+            return;
+
+        synchronized (this) {
+            for (MarketEvent event : events) {
+                if (!event.isBroadcast() && !memberConnections.containsKey(event.getMemberId()))
+                    continue;
+
+                String key = (event.isBroadcast() ? BROADCAST : event.getMemberId().toString()) + "/" + event.getKey();
+                if (pending.remove(key) != null)    // 뒤로 보냄 => 전송 순서는 마지막으로 바뀐 순서
+                    coalesced.increment();
+                pending.put(key, event);
+            }
+        }
+    }
+
+    /**
+     * 쌓인 알림 전송 (sender 스레드)
+     * 연결마다 블로킹 write => 느린 클라이언트는 소켓 write timeout 까지 다음 연결을 늦출 수 있음
+     */
+    void flush() {
+        Collection<MarketEvent> events;
+        synchronized (this) {
+            if (pending.isEmpty())
+                return;
+            events = pending.values();
+            pending = new LinkedHashMap<>();
+        }
+
+        try {
+            for (MarketEvent event : events) {
+                String json = objectMapper.writeValueAsString(event.getData());
+                Collection<Connection> targets = event.isBroadcast() ? connections : memberConnections(event.getMemberId());
+                for (Connection connection : targets) {
+                    if (send(connection, SseEmitter.event().name(event.getName()).data(json, MediaType.APPLICATION_JSON)))
+                        sent.increment();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("market event serialization failed", e);
+        } catch (RuntimeException e) {     // 스케줄이 멈추지 않게
+            log.warn("market event flush failed", e);
+        }
+    }
+
+    private Collection<Connection> memberConnections(Long memberId) {
+        Deque<Connection> mine = memberConnections.get(memberId);
+        return mine != null ? mine : Collections.emptyList();
+    }
+
+    private void heartbeat() {
+        for (Connection connection : new ArrayList<>(connections))
+            send(connection, SseEmitter.event().comment("ping"));
+    }
+
+    /**
+     * 실패한 연결은 정리 => 클라이언트가 다시 연결
+     */
+    private boolean send(Connection connection, SseEmitter.SseEventBuilder event) {
+        try {
+            connection.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            remove(connection);
+            connection.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void remove(Connection connection) {
+        connections.remove(connection);
+        memberConnections.computeIfPresent(connection.memberId, (id, deque) -> {
+            deque.remove(connection);
+            return deque.isEmpty() ? null : deque;
+        });
+    }
+
+    private static class Connection {
+        private final Long memberId;
+        private final SseEmitter emitter;
+
+        Connection(Long memberId, SseEmitter emitter) {
+            this.memberId = memberId;
+            this.emitter = emitter;
+        }
+    }
+}
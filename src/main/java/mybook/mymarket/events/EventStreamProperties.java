@@ -0,0 +1,28 @@
+package mybook.mymarket.events;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 변경 알림 스트림(SSE) => market.events.*
+ * - coalesce-window: 이 시간 동안 같은 key 로 들어온 알림은 마지막 것만 보냄 (모아서 한 번에 전송)
+ * - heartbeat: 보낼 게 없어도 이 주기로 주석 한 줄 => 끊긴 연결 정리, 프록시 idle timeout 방지
+ * - timeout: 연결 최대 유지 시간 => 끝나면 클라이언트(EventSource)가 reconnect-time 뒤에 다시 연결
+ * - max-connections: 전체 연결 수 상한 (넘으면 503) => Tomcat max-connections(기본 8192)보다 작게
+ * - max-connections-per-member: 회원별 상한 (넘으면 가장 오래된 연결을 닫음)
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.events")
+public class EventStreamProperties {
+    private Duration coalesceWindow = Duration.ofMillis(250);
+    private Duration heartbeat = Duration.ofSeconds(20);
+    private Duration timeout = Duration.ofMinutes(30);
+    private Duration reconnectTime = Duration.ofSeconds(3);
+    private int maxConnections = 5000;
+    private int maxConnectionsPerMember = 3;
+}
@@ -0,0 +1,38 @@
+package mybook.mymarket.events;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 커밋된 변경 하나 => 구독한 회원에게 보낼 알림
+ * - name: SSE 이벤트 이름 (stock, sold-out, restock, order, deal)
+ * - key: 같은 key 는 짧은 시간 안에 여러 번 바뀌면 마지막 것만 보냄 (예: stock:상품id)
+ * - memberId: 받을 회원 (null: 구독한 모든 회원)
+ */
+@Getter
+public class MarketEvent {
+    private final String name;
+    private final String key;
+    private final Long memberId;
+    private final Map<String, Object> data;
+
+    private MarketEvent(String name, String key, Long memberId, Map<String, Object> data) {
+        this.name = name;
+        this.key = key;
+        this.memberId = memberId;
+        this.data = data;
+    }
+
+    public static MarketEvent broadcast(String name, String key, Map<String, Object> data) {
+        return new MarketEvent(name, key, null, data);
+    }
+
+    public static MarketEvent to(Long memberId, String name, String key, Map<String, Object> data) {
+        return new MarketEvent(name, key, memberId, data);
+    }
+
+    public boolean isBroadcast() {
+        return memberId == null;
+    }
+}
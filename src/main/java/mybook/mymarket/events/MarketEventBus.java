@@ -0,0 +1,39 @@
+package mybook.mymarket.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 커밋된 변경 알림(MarketEvent)의 단일 통로
+ * 커밋한 스레드에서 바로 구독자에게 넘김 => 구독자는 오래 걸리는 일(전송)을 직접 하지 말고 쌓아두기만
+ * 한 구독자의 실패가 다른 구독자나 이미 끝난 커밋에 영향을 주지 않음
+ */
+@Slf4j
+@Component
+public class MarketEventBus {
+    private final List<Consumer<List<MarketEvent>>> subscribers = new CopyOnWriteArrayList<>();
+
+    public void subscribe(Consumer<List<MarketEvent>> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * 한 트랜잭션의 알림 묶음
+     */
+    public void publish(List<MarketEvent> events) {
+        if (events.isEmpty())
+            return;
+
+        for (Consumer<List<MarketEvent>> subscriber : subscribers) {
+            try {
+                subscriber.accept(events);
+            } catch (RuntimeException e) {
+                log.warn("market event subscriber failed: {}", subscriber, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package mybook.mymarket.events;
+
+import mybook.mymarket.domain.Deal;
+import mybook.mymarket.domain.Order;
+import mybook.mymarket.domain.OrderItem;
+import mybook.mymarket.domain.Register;
+import mybook.mymarket.domain.item.Item;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 엔티티 변경 => 알림(MarketEvent), 커밋에 성공한 트랜잭션의 알림만 MarketEventBus 로
+ * - Item 재고 변경 => 모든 회원에게 stock, 0 이 되면 sold-out, 0 에서 늘면 restock
+ * - Order 추가 => 주문된 상품을 등록한 회원(판매자)에게 order
+ * - Deal 상태 변경 => 주문한 회원과 판매자에게 deal (판매자는 커밋 직전에 한 번 조회)
+ * flush 때 세션별로 모아두고 커밋 후에 한 번에 => 롤백된 변경은 알리지 않음
+ * JDBC 로 직접 쓴 변경은 알리지 않음 => 다시 연결한 클라이언트는 델타 동기화(/changes)로 따라잡음
+ */
+@Component
+public class MarketEventRecorder implements PostInsertEventListener, PostUpdateEventListener {
+    private final EntityManagerFactory emf;
+    private final PersistenceUnitUtil persistenceUnitUtil;
+    private final MarketEventBus bus;
+    private final Map<SharedSessionContractImplementor, EventBatch> batches = new ConcurrentHashMap<>();
+
+    public MarketEventRecorder(EntityManagerFactory emf, MarketEventBus bus) {
+        this.emf = emf;
+        this.persistenceUnitUtil = emf.getPersistenceUnitUtil();
+        this.bus = bus;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    @Deprecated     // Hibernate 5.4 에서는 아직 abstract => 새 메서드로
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Order)
+            orderPlaced(event.getSession(), (Order) event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Item) {
+            int index = dirtyIndex(event, "stockQuantity");
+            if (index >= 0)
+                stockChanged(event.getSession(), (Item) event.getEntity(), (Integer) event.getOldState()[index]);
+        } else if (event.getEntity() instanceof Deal) {
+            if (dirtyIndex(event, "status") >= 0)
+                dealChanged(event.getSession(), (Deal) event.getEntity());
+        }
+    }
+
+    private void stockChanged(EventSource session, Item item, Integer before) {
+        Long itemId = idOf(item);
+        Long registerId = idOf(item.getRegister());
+        int stock = item.getStockQuantity();
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("registerId", registerId);
+        data.put("itemId", itemId);
+        data.put("stockQuantity", stock);
+        EventBatch batch = batch(session);
+        batch.add(MarketEvent.broadcast("stock", "stock:" + itemId, data));
+
+        if (before == null)     // 이전 값을 모름 (merge) => 전환 여부 판단 X
+            return;
+        Map<String, Object> availability = new LinkedHashMap<>();
+        availability.put("registerId", registerId);
+        availability.put("itemId", itemId);
+        if (before > 0 && stock <= 0)
+            batch.add(MarketEvent.broadcast("sold-out", "availability:" + itemId, availability));
+        else if (before <= 0 && stock > 0)
+            batch.add(MarketEvent.broadcast("restock", "availability:" + itemId, availability));
+    }
+
+    private void orderPlaced(EventSource session, Order order) {
+        Long orderId = idOf(order);
+        for (OrderItem orderItem : order.getOrderItems()) {     // 방금 만든 주문 => 메모리에 있음
+            Item item = orderItem.getItem();
+            Register register = item != null ? item.getRegister() : null;
+            Long sellerId = register != null ? idOf(register.getMember()) : null;
+            if (sellerId == null)
+                continue;
+
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("orderId", orderId);
+            data.put("registerId", idOf(register));
+            data.put("itemId", idOf(item));
+            data.put("count", orderItem.getCount());
+            batch(session).add(MarketEvent.to(sellerId, "order", "order:" + orderId, data));
+        }
+    }
+
+    private void dealChanged(EventSource session, Deal deal) {
+        Order order = deal.getOrder();     // 주문 쪽(mappedBy) OneToOne => 이미 로딩돼 있음
+        if (order == null)
+            return;
+
+        batch(session).deal(idOf(order), idOf(order.getMember()), deal);
+    }
+
+    private EventBatch batch(EventSource session) {
+        return batches.computeIfAbsent(session, s -> {
+            EventBatch batch = new EventBatch();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) batch);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) batch);
+            return batch;
+        });
+    }
+
+    private Long idOf(Object entity) {
+        return entity != null ? (Long) persistenceUnitUtil.getIdentifier(entity) : null;
+    }
+
+    /**
+     * 바뀐 필드의 위치 (바뀌지 않았거나 모르면 -1)
+     */
+    private static int dirtyIndex(PostUpdateEvent event, String property) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null || event.getOldState() == null)
+            return -1;
+
+        String[] names = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            if (names[index].equals(property))
+                return index;
+        }
+
+        return -1;
+    }
+
+    /**
+     * 한 세션(트랜잭션)의 알림 => 커밋 직전에 거래 알림 받을 판매자 조회, 커밋 후 발행
+     */
+    private class EventBatch implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+        private final List<MarketEvent> events = new ArrayList<>();
+        private final Map<Long, Map<String, Object>> deals = new LinkedHashMap<>();  // 주문 id => 거래 알림
+
+        void add(MarketEvent event) {
+            events.add(event);
+        }
+
+        void deal(Long orderId, Long buyerId, Deal deal) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("orderId", orderId);
+            data.put("dealStatus", deal.getStatus());
+            deals.put(orderId, data);
+            if (buyerId != null)
+                events.add(MarketEvent.to(buyerId, "deal", "deal:" + orderId, data));
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (deals.isEmpty())
+                return;
+
+            // 주문상품 -> 상품 -> 등록은 거래 확정 때 로딩하지 않음 => 판매자만 한 번에 조회
+            List<Object[]> sellers = session.createQuery(
+                    "select distinct oi.order.id, r.member.id from OrderItem oi" +
+                            " join oi.item i" +
+                            " join i.register r" +
+                            " where oi.order.id in :orderIds", Object[].class)
+                    .setParameter("orderIds", new ArrayList<>(deals.keySet()))
+                    .getResultList();
+            for (Object[] row : sellers) {
+                Long orderId = (Long) row[0];
+                events.add(MarketEvent.to((Long) row[1], "deal", "deal:" + orderId, deals.get(orderId)));
+            }
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            batches.remove(session);
+            if (success)
+                bus.publish(events);
+        }
+    }
+}
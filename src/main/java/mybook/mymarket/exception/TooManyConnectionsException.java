@@ -0,0 +1,20 @@
+package mybook.mymarket.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TooManyConnectionsException extends RuntimeException {
+    public TooManyConnectionsException() {
+        super();
+    }
+    public TooManyConnectionsException(String message) {
+        super(message);
+    }
+    public TooManyConnectionsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+    public TooManyConnectionsException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,73 @@
+package mybook.mymarket.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import mybook.mymarket.route.RouteMatcher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 주문 API 앞의 적응형 동시성 제한 (POST /api/order/{id}, POST /order)
+ * 한도(GradientLimiter)를 넘으면 DB 에 가기 전에 바로 429 => 부하가 용량을 넘어도 처리 중인 주문의 지연은 유지
+ * 메트릭 (limiter=order)
+ * - market.limiter.limit: 현재 한도
+ * - market.limiter.inflight: 처리 중
+ * - market.limiter.rejected: 거절 수
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)     // 벌크헤드보다 먼저
+public class AdaptiveLimiterFilter extends OncePerRequestFilter {
+    private final AdaptiveLimiterProperties properties;
+    private final RouteMatcher<Boolean> routes = new RouteMatcher<>();
+    private final GradientLimiter limiter;
+    private final Counter rejected;
+
+    public AdaptiveLimiterFilter(AdaptiveLimiterProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limiter = new GradientLimiter(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getSmoothing(), properties.getRttTolerance());
+        properties.getRoutes().forEach(route -> routes.add(route, Boolean.TRUE));
+
+        Gauge.builder("market.limiter.limit", limiter, GradientLimiter::getLimit)
+                .tag("limiter", "order").register(meterRegistry);
+        Gauge.builder("market.limiter.inflight", limiter, GradientLimiter::getInFlight)
+                .tag("limiter", "order").register(meterRegistry);
+        this.rejected = meterRegistry.counter("market.limiter.rejected", "limiter", "order");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || routes.find(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = limiter.acquire();
+        if (start < 0) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Order limit exceeded");
+            return;
+        }
+
+        boolean dropped = false;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();  // 뒤쪽 벌크헤드가 꽉 참
+        } finally {
+            limiter.release(start, dropped);
+        }
+    }
+}
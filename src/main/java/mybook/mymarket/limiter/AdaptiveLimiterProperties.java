@@ -0,0 +1,31 @@
+package mybook.mymarket.limiter;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문 API 적응형 동시성 제한 설정 => market.limiter.order.*
+ * - initial-limit, min-limit, max-limit: 동시 처리 한도의 시작값, 하한, 상한
+ * - smoothing: 새 한도를 얼마나 빨리 반영할지 (0 ~ 1)
+ * - rtt-tolerance: 최근 지연이 평소(장기 평균)의 몇 배까지는 정상으로 볼지
+ * - routes: "메소드 경로패턴" 목록
+ * 기본은 꺼짐 => 시뮬레이터(부하 발생기와 같은 호스트)에서는 모든 부하 구간에서 처리량(goodput)이 오히려 줄었음,
+ *   부하 발생기를 다른 호스트에 두고 포화 이후에도 처리량이 유지되는 걸 확인한 뒤에 켤 것
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.limiter.order")
+public class AdaptiveLimiterProperties {
+    private boolean enabled = false;
+    private int initialLimit = 20;
+    private int minLimit = 10;
+    private int maxLimit = 200;
+    private double smoothing = 0.2;
+    private double rttTolerance = 1.5;
+    private List<String> routes = new ArrayList<>();
+}
@@ -0,0 +1,92 @@
+package mybook.mymarket.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 지연시간 기울기(gradient) 기반 동시성 한도
+ * - 장기 RTT(평소 지연, 느린 지수평균)와 단기 RTT(최근 지연, 빠른 지수평균)를 비교
+ *   gradient = clamp(rttTolerance * 장기 / 단기, 0.5, 1.0)
+ *   => 최근 지연이 평소보다 길어지면(큐가 쌓이면) 한도를 줄이고, 같으면 sqrt(limit) 만큼 늘림
+ * - 한도를 다 쓰고 있을 때만 늘림 (요청이 적어서 한도에 못 미치면 그대로)
+ * - 뒤쪽에서 과부하로 거절(dropped)되면 곱셈 감소 (0.9 배)
+ * 재고 부족 같은 비지니스 예외는 과부하 신호가 아니므로 지연만 반영
+ * 요청마다 acquire() -> release(startNanos, dropped) 로 호출
+ */
+public class GradientLimiter {
+    private static final double LONG_RTT_WEIGHT = 1.0 / 600;  // 약 600 샘플 평균
+    private static final double SHORT_RTT_WEIGHT = 1.0 / 10;  // 약 10 샘플 평균
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double longRtt;     // 아래 값들은 synchronized update() 안에서만 사용
+    private double shortRtt;
+
+    public GradientLimiter(int initialLimit, int minLimit, int maxLimit, double smoothing, double rttTolerance) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+    }
+
+    /**
+     * 자리가 있으면 시작 시각(nanoTime), 없으면 -1 => 거절
+     */
+    public long acquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit)
+                return -1;
+            if (inFlight.compareAndSet(current, current + 1))
+                return System.nanoTime();
+        }
+    }
+
+    public void release(long startNanos, boolean dropped) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        update(System.nanoTime() - startNanos, inFlightAtRelease, dropped);
+    }
+
+    /**
+     * 요청 하나의 결과 반영 (테스트에서는 지연을 직접 넣음)
+     * @param inFlightAtRelease 끝날 때 처리 중이던 요청 수 (자기 포함)
+     */
+    synchronized void update(long rttNanos, int inFlightAtRelease, boolean dropped) {
+        double newLimit;
+        if (dropped) {
+            newLimit = limit * DROP_BACKOFF;
+        } else {
+            if (longRtt == 0) {     // 첫 샘플
+                longRtt = rttNanos;
+                shortRtt = rttNanos;
+            }
+            longRtt += (rttNanos - longRtt) * LONG_RTT_WEIGHT;
+            shortRtt += (rttNanos - shortRtt) * SHORT_RTT_WEIGHT;
+            if (longRtt / shortRtt > 2)     // 장기 평균이 너무 높게 남아있으면 (부하가 빠진 뒤) 따라 내려감
+                longRtt *= 0.95;
+
+            if (inFlightAtRelease < limit / 2)  // 한도까지 쓰지도 않았음 => 판단 근거 없음
+                return;
+
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+            newLimit = limit * gradient + Math.sqrt(limit);
+        }
+
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,40 @@
+package mybook.mymarket.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import mybook.mymarket.exception.NotCorrectAccess;
+import mybook.mymarket.exception.NotEnoughStockException;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * 비지니스 예외 카운터
+ * 서비스 계층 밖으로 던져진 재고 부족(NotEnoughStockException), 잘못된 접근(NotCorrectAccess)
+ * => market.business.exceptions (exception, method 태그)
+ * 서비스끼리는 서로 호출하지 않으므로 예외 하나당 한 번만 카운트 됨
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class BusinessExceptionMetrics {
+    private final MeterRegistry meterRegistry;
+
+    @AfterThrowing(pointcut = "within(mybook.mymarket.service..*)", throwing = "e")
+    public void notEnoughStock(JoinPoint joinPoint, NotEnoughStockException e) {
+        increment(joinPoint, e);
+    }
+
+    @AfterThrowing(pointcut = "within(mybook.mymarket.service..*)", throwing = "e")
+    public void notCorrectAccess(JoinPoint joinPoint, NotCorrectAccess e) {
+        increment(joinPoint, e);
+    }
+
+    private void increment(JoinPoint joinPoint, RuntimeException e) {
+        meterRegistry.counter("market.business.exceptions",
+                "exception", e.getClass().getSimpleName(),
+                "method", joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName())
+                .increment();
+    }
+}
@@ -0,0 +1,62 @@
+package mybook.mymarket.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 단위 커넥션 보유 시간
+ * - db.connection.hold: 요청 동안 커넥션을 잡고 있던 시간 (method, uri)
+ * - db.connection.checkouts: 요청 당 커넥션을 가져온 횟수
+ * - db.connection.held.at.render: 렌더링이 시작될 때 커넥션을 잡고 있던 요청 수 => OSIV 가 꺼져 있으면 0 이어야 함
+ * hikaricp.connections.usage 는 커넥션 한 번 단위라 어느 요청인지, 렌더링 중이었는지 알 수 없음
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 11)
+@RequiredArgsConstructor
+public class ConnectionHoldFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ConnectionHoldTracker.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            record(request, ConnectionHoldTracker.stop());
+        }
+    }
+
+    private void record(HttpServletRequest request, ConnectionHoldStats stats) {
+        if (stats.getCheckouts() == 0)
+            return;     // DB 를 안 쓴 요청 (정적 리소스 등)
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        meterRegistry.timer("db.connection.hold", tags).record(stats.getHeldNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("db.connection.checkouts").baseUnit("connections").tags(tags).register(meterRegistry)
+                .record(stats.getCheckouts());
+        if (stats.isHeldAtRender()) {
+            meterRegistry.counter("db.connection.held.at.render", tags).increment();
+            log.debug("Connection held while rendering: {} {} {}", request.getMethod(), uri, stats);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package mybook.mymarket.monitoring;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 컨트롤러가 끝나고 화면 렌더링이 시작되는 시점(postHandle)을 ConnectionHoldTracker 에 알림
+ * (@ResponseBody 는 이미 응답을 쓴 뒤에 불림)
+ */
+@Configuration
+public class ConnectionHoldInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        ConnectionHoldTracker.rendering();
+    }
+}
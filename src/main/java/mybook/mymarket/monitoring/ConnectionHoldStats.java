@@ -0,0 +1,108 @@
+package mybook.mymarket.monitoring;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 요청 하나에서 DB 커넥션을 잡고 있던 통계
+ * - checkouts: 커넥션을 가져온 횟수 (OSIV 가 없으면 트랜잭션/조회마다 짧게 여러 번)
+ * - heldNanos: 커넥션을 하나라도 잡고 있던 시간 (겹치는 구간은 한 번만)
+ * - heldAtRender: 화면 렌더링(postHandle)이 시작될 때 아직 잡고 있었는지
+ * 병렬 조회 작업 스레드는 따로 세서 workers 에 넣음 => finish 때 요청 스레드에서 합침
+ * (잡고 있던 구간을 합쳐서 겹치는 시간은 한 번만)
+ */
+@Getter
+public class ConnectionHoldStats {
+    private int checkouts;
+    private long heldNanos;
+    private boolean heldAtRender;
+    private int open;
+    private long openedAt;
+    @Getter(AccessLevel.NONE)
+    private final List<long[]> periods = new ArrayList<>(2);   // 잡고 있던 구간 [시작, 끝]
+    @Getter(AccessLevel.NONE)
+    private final Queue<ConnectionHoldStats> workers = new ConcurrentLinkedQueue<>();
+
+    void acquired(long now) {
+        checkouts++;
+        if (open++ == 0)
+            openedAt = now;
+    }
+
+    void released(long now) {
+        if (open == 0)
+            return;     // 측정 시작 전에 가져온 커넥션
+        if (--open == 0)
+            close(now);
+    }
+
+    void rendering() {
+        if (open > 0)
+            heldAtRender = true;
+    }
+
+    /**
+     * 끝난 작업 스레드의 통계 (작업 스레드에서 finish 한 뒤 호출)
+     */
+    void addWorker(ConnectionHoldStats worker) {
+        workers.add(worker);
+    }
+
+    /**
+     * 아직 닫히지 않은 커넥션은 지금까지 잡은 시간으로
+     * 작업 스레드가 있으면 구간을 합쳐서 다시 계산
+     */
+    void finish(long now) {
+        if (open > 0) {
+            close(now);
+            open = 0;
+        }
+
+        ConnectionHoldStats worker;
+        boolean merged = false;
+        while ((worker = workers.poll()) != null) {
+            checkouts += worker.checkouts;
+            periods.addAll(worker.periods);
+            merged = true;
+        }
+        if (merged)
+            heldNanos = union(periods);
+    }
+
+    private void close(long now) {
+        heldNanos += now - openedAt;
+        periods.add(new long[]{openedAt, now});
+    }
+
+    private static long union(List<long[]> periods) {
+        periods.sort(Comparator.comparingLong(period -> period[0]));
+        long total = 0;
+        long start = 0;
+        long end = Long.MIN_VALUE;
+        for (long[] period : periods) {
+            if (period[0] > end) {
+                if (end != Long.MIN_VALUE)
+                    total += end - start;
+                start = period[0];
+                end = period[1];
+            } else if (period[1] > end) {
+                end = period[1];
+            }
+        }
+        if (end != Long.MIN_VALUE)
+            total += end - start;
+
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "checkouts=" + checkouts + ", held=" + heldNanos / 1_000_000 + "ms, heldAtRender=" + heldAtRender;
+    }
+}
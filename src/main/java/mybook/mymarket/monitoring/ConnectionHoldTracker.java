@@ -0,0 +1,91 @@
+package mybook.mymarket.monitoring;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 리스너 => 현재 스레드에서 측정 중이면 커넥션을 가져오고(getConnection) 닫는(close) 시점을 기록
+ * 측정 구간은 ThreadLocal (SqlStatementCounter 와 같은 방식) => 요청 단위 집계
+ * 병렬 조회(ParallelQueries) 작업 스레드는 attach/detach 로 이어서 측정 => 요청의 통계에 합쳐짐
+ */
+@Component
+public class ConnectionHoldTracker extends SimpleJdbcEventListener {
+    private static final ThreadLocal<ConnectionHoldStats> CURRENT = new ThreadLocal<>();
+
+    public static ConnectionHoldStats start() {
+        ConnectionHoldStats stats = new ConnectionHoldStats();
+        CURRENT.set(stats);
+
+        return stats;
+    }
+
+    public static ConnectionHoldStats stop() {
+        ConnectionHoldStats stats = CURRENT.get();
+        CURRENT.remove();
+        if (stats == null)
+            return new ConnectionHoldStats();
+
+        stats.finish(System.nanoTime());
+        return stats;
+    }
+
+    /**
+     * 지금 측정 중인 통계 (없으면 null) => 다른 스레드로 넘길 때
+     */
+    public static ConnectionHoldStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 다른 스레드에서 parent 측정을 이어서 => 이 스레드는 따로 세고 detach 할 때 parent 에 넘김
+     * @return 이 스레드의 이전 측정 (detach 에 그대로 넘김)
+     */
+    public static ConnectionHoldStats attach(ConnectionHoldStats parent) {
+        ConnectionHoldStats previous = CURRENT.get();
+        if (parent != null)
+            CURRENT.set(new ConnectionHoldStats());
+        else
+            CURRENT.remove();
+
+        return previous;
+    }
+
+    public static void detach(ConnectionHoldStats parent, ConnectionHoldStats previous) {
+        ConnectionHoldStats worker = CURRENT.get();
+        if (parent != null && worker != null) {
+            worker.finish(System.nanoTime());
+            parent.addWorker(worker);
+        }
+
+        if (previous != null)
+            CURRENT.set(previous);
+        else
+            CURRENT.remove();
+    }
+
+    /**
+     * 화면 렌더링 시작 => 이때 커넥션을 잡고 있으면 렌더링 동안 커넥션을 들고 있는 것 (OSIV)
+     */
+    public static void rendering() {
+        ConnectionHoldStats stats = CURRENT.get();
+        if (stats != null)
+            stats.rendering();
+    }
+
+    @Override
+    public void onAfterGetConnection(ConnectionInformation connectionInformation, SQLException e) {
+        ConnectionHoldStats stats = CURRENT.get();
+        if (stats != null && e == null)
+            stats.acquired(System.nanoTime());
+    }
+
+    @Override
+    public void onAfterConnectionClose(ConnectionInformation connectionInformation, SQLException e) {
+        ConnectionHoldStats stats = CURRENT.get();
+        if (stats != null)
+            stats.released(System.nanoTime());
+    }
+}
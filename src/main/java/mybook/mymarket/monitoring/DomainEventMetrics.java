@@ -0,0 +1,31 @@
+package mybook.mymarket.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import mybook.mymarket.domain.OutboxEvent;
+import mybook.mymarket.outbox.OutboxConsumer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 커밋된 도메인 이벤트 카운터 (outbox consumer)
+ * => market.domain.events (type 태그: OrderPlaced, OrderCancelled, DealCompleted, RegisterCreated ...)
+ * 최소 한 번 전달이므로 재시작 직후에는 몇 건 더 셀 수 있음
+ */
+@Component
+@RequiredArgsConstructor
+public class DomainEventMetrics implements OutboxConsumer {
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public String getName() {
+        return "metrics";
+    }
+
+    @Override
+    public void accept(List<OutboxEvent> events) {
+        for (OutboxEvent event : events)
+            meterRegistry.counter("market.domain.events", "type", event.getType()).increment();
+    }
+}
@@ -0,0 +1,176 @@
+package mybook.mymarket.monitoring;
+
+import lombok.Data;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.AttributeNode;
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Subgraph;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 페치 플랜 보고서 => /actuator/fetchplans
+ * - 엔드포인트별: 실행한 플랜(DynamicQuery 의 그래프 이름), 요청 수, 요청당 평균/최대 statement 수, 평균 row 수
+ * - 선언된 엔티티 그래프와 그래프에 들어있는 연관관계
+ * 플랜은 요청 스레드의 ThreadLocal 에 모았다가 SqlBudgetFilter 가 요청이 끝날 때 statement 통계와 같이 넘김
+ * => 병렬 조회(ParallelQueries) 작업 스레드에서 쓴 플랜은 빠짐 (statement 수는 요청에 합쳐짐)
+ */
+@Component
+@Endpoint(id = "fetchplans")
+public class FetchPlanReport {
+    private static final ThreadLocal<Set<String>> CURRENT = new ThreadLocal<>();
+
+    private final EntityManagerFactory emf;
+    private final ConcurrentHashMap<String, EndpointPlans> endpoints = new ConcurrentHashMap<>();
+
+    public FetchPlanReport(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    /**
+     * 요청 시작 => 이 스레드에서 쓰는 플랜을 모음
+     */
+    public static void start() {
+        CURRENT.set(new TreeSet<>());
+    }
+
+    /**
+     * 요청 종료 => 모은 플랜 반환
+     */
+    public static Set<String> stop() {
+        Set<String> plans = CURRENT.get();
+        CURRENT.remove();
+
+        return plans != null ? plans : Collections.emptySet();
+    }
+
+    public static void used(String plan) {
+        Set<String> plans = CURRENT.get();
+        if (plans != null)
+            plans.add(plan);
+    }
+
+    public void record(String endpoint, Set<String> plans, SqlStatementStats stats) {
+        if (plans.isEmpty() && stats.getStatements() == 0)
+            return;     // DB 를 안 쓰는 요청 (정적 리소스 등)
+
+        endpoints.computeIfAbsent(endpoint, k -> new EndpointPlans()).add(plans, stats);
+    }
+
+    @ReadOperation
+    public FetchPlanReportDto report() {
+        List<EndpointPlanDto> result = endpoints.entrySet().stream()
+                .map(e -> new EndpointPlanDto(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparing(EndpointPlanDto::getEndpoint))
+                .collect(Collectors.toList());
+
+        FetchPlanReportDto dto = new FetchPlanReportDto();
+        dto.setGraphs(declaredGraphs());
+        dto.setEndpoints(result);
+
+        return dto;
+    }
+
+    /**
+     * 집계 초기화 (측정 구간을 새로 시작할 때)
+     */
+    @DeleteOperation
+    public void clear() {
+        endpoints.clear();
+    }
+
+    /**
+     * 그래프 이름 => 연관관계 (하위 그래프는 괄호), 예) OrderItem.withItemRegisterMember => [item(register(member))]
+     */
+    Map<String, List<String>> declaredGraphs() {
+        Map<String, List<String>> graphs = new TreeMap<>();
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (EntityType<?> entity : em.getMetamodel().getEntities()) {
+                for (EntityGraph<?> graph : em.getEntityGraphs(entity.getJavaType())) {
+                    if (graph.getName() != null)
+                        graphs.putIfAbsent(graph.getName(), describe(graph.getAttributeNodes()));
+                }
+            }
+        } finally {
+            em.close();
+        }
+
+        return graphs;
+    }
+
+    private static List<String> describe(List<AttributeNode<?>> nodes) {
+        List<String> result = new ArrayList<>(nodes.size());
+        for (AttributeNode<?> node : nodes) {
+            List<String> children = new ArrayList<>();
+            for (Subgraph<?> subgraph : node.getSubgraphs().values())
+                children.addAll(describe(subgraph.getAttributeNodes()));
+
+            result.add(children.isEmpty() ? node.getAttributeName()
+                    : node.getAttributeName() + "(" + String.join(", ", children) + ")");
+        }
+        Collections.sort(result);   // 선언 순서는 보장되지 않음
+
+        return result;
+    }
+
+    private static class EndpointPlans {
+        final Set<String> plans = new ConcurrentSkipListSet<>();
+        final LongAdder requests = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+
+        void add(Set<String> used, SqlStatementStats stats) {
+            plans.addAll(used);
+            requests.increment();
+            statements.add(stats.getStatements());
+            rows.add(stats.getRows());
+            maxStatements.accumulate(stats.getStatements());
+        }
+    }
+
+    @Data
+    public static class FetchPlanReportDto {
+        private Map<String, List<String>> graphs;
+        private List<EndpointPlanDto> endpoints;
+    }
+
+    @Data
+    public static class EndpointPlanDto {
+        private String endpoint;
+        private List<String> plans;
+        private long requests;
+        private double avgStatements;
+        private long maxStatements;
+        private double avgRows;
+
+        EndpointPlanDto(String endpoint, EndpointPlans plans) {
+            long requests = plans.requests.sum();
+            this.endpoint = endpoint;
+            this.plans = new ArrayList<>(plans.plans);
+            this.requests = requests;
+            this.avgStatements = requests == 0 ? 0 : (double) plans.statements.sum() / requests;
+            this.maxStatements = plans.maxStatements.get();
+            this.avgRows = requests == 0 ? 0 : (double) plans.rows.sum() / requests;
+        }
+    }
+}
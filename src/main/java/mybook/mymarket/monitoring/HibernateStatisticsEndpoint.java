@@ -0,0 +1,140 @@
+package mybook.mymarket.monitoring;
+
+import lombok.Data;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.query.spi.QueryPlanCache;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Hibernate Statistics 관리자 엔드포인트 => /actuator/hibernate
+ * - 전역: 엔티티 load/fetch, flush, statement, 2차 캐시, 쿼리 플랜 캐시 hit/miss
+ * - 쿼리 문자열별: 실행 횟수, 평균/최대 시간, row 수, 플랜 캐시 hit/miss
+ * 조건을 붙여 조립하는 동적 검색(DynamicQuery)은 조건 조합마다 다른 JPQL => 다른 플랜
+ * => 통계 구간 안에서 컴파일된 쿼리 수(compiledQueries)와 두 번 이상 컴파일된 쿼리(thrashingPlans, 캐시에서 밀려났다가 다시 컴파일)를 같이 보여줌
+ * 주의: hibernate.generate_statistics: true (stats 프로필) 일 때만 값이 쌓임
+ */
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+    private final Statistics statistics;
+    private final int planCacheMaxSize;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        Object maxSize = emf.getProperties().get(AvailableSettings.QUERY_PLAN_CACHE_MAX_SIZE);
+        this.planCacheMaxSize = maxSize != null ? Integer.parseInt(maxSize.toString())
+                : QueryPlanCache.DEFAULT_QUERY_PLAN_MAX_COUNT;
+    }
+
+    /**
+     * 전체 통계 + 쿼리별 통계 (총 실행 시간 내림차순, limit 개)
+     */
+    @ReadOperation
+    public HibernateStatisticsDto statistics(@Nullable Integer limit) {
+        List<QueryStatisticsDto> queries = Arrays.stream(statistics.getQueries())
+                .map(query -> new QueryStatisticsDto(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingLong(QueryStatisticsDto::getTotalTimeMs).reversed())
+                .collect(Collectors.toList());
+
+        HibernateStatisticsDto dto = new HibernateStatisticsDto();
+        dto.setEnabled(statistics.isStatisticsEnabled());
+        dto.setEntityLoadCount(statistics.getEntityLoadCount());
+        dto.setEntityFetchCount(statistics.getEntityFetchCount());
+        dto.setCollectionLoadCount(statistics.getCollectionLoadCount());
+        dto.setCollectionFetchCount(statistics.getCollectionFetchCount());
+        dto.setFlushCount(statistics.getFlushCount());
+        dto.setPrepareStatementCount(statistics.getPrepareStatementCount());
+        dto.setQueryExecutionCount(statistics.getQueryExecutionCount());
+        dto.setQueryExecutionMaxTimeMs(statistics.getQueryExecutionMaxTime());
+        dto.setSlowestQuery(statistics.getQueryExecutionMaxTimeQueryString());
+        dto.setSecondLevelCacheHitRatio(ratio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+        dto.setQueryCacheHitRatio(ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        dto.setPlanCacheHitCount(statistics.getQueryPlanCacheHitCount());
+        dto.setPlanCacheMissCount(statistics.getQueryPlanCacheMissCount());
+        dto.setPlanCacheHitRatio(ratio(statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount()));
+        dto.setPlanCacheMaxSize(planCacheMaxSize);
+        dto.setCompiledQueries(queries.stream().filter(q -> q.getPlanCacheMissCount() > 0).count());
+        dto.setThrashingPlans(queries.stream()
+                .filter(q -> q.getPlanCacheMissCount() > 1)
+                .map(QueryStatisticsDto::getQuery)
+                .collect(Collectors.toList()));
+        dto.setQueries(limit != null ? queries.stream().limit(limit).collect(Collectors.toList()) : queries);
+
+        return dto;
+    }
+
+    /**
+     * 통계 초기화 (측정 구간을 새로 시작할 때)
+     */
+    @DeleteOperation
+    public void clear() {
+        statistics.clear();
+    }
+
+    private static double ratio(long hit, long miss) {
+        return hit + miss == 0 ? 0 : (double) hit / (hit + miss);
+    }
+
+    @Data
+    public static class HibernateStatisticsDto {
+        private boolean enabled;
+        private long entityLoadCount;
+        private long entityFetchCount;
+        private long collectionLoadCount;
+        private long collectionFetchCount;
+        private long flushCount;
+        private long prepareStatementCount;
+        private long queryExecutionCount;
+        private long queryExecutionMaxTimeMs;
+        private String slowestQuery;
+        private double secondLevelCacheHitRatio;
+        private double queryCacheHitRatio;
+        private long planCacheHitCount;
+        private long planCacheMissCount;
+        private double planCacheHitRatio;
+        private int planCacheMaxSize;
+        private long compiledQueries;       // 통계 구간 안에서 한 번 이상 컴파일된(플랜 캐시 miss) 쿼리 문자열 수 => 지금 캐시에 있는 플랜 수 X
+        private List<String> thrashingPlans;    // 두 번 이상 컴파일된 쿼리 => 플랜 캐시가 작거나 쿼리 모양이 너무 많음
+        private List<QueryStatisticsDto> queries;
+    }
+
+    @Data
+    public static class QueryStatisticsDto {
+        private String query;
+        private long executionCount;
+        private long avgTimeMs;
+        private long maxTimeMs;
+        private long totalTimeMs;
+        private long rowCount;
+        private double cacheHitRatio;
+        private long planCacheHitCount;
+        private long planCacheMissCount;
+        private long planCompilationMicros;
+
+        public QueryStatisticsDto(String query, QueryStatistics stats) {
+            this.query = query;
+            this.executionCount = stats.getExecutionCount();
+            this.avgTimeMs = stats.getExecutionAvgTime();
+            this.maxTimeMs = stats.getExecutionMaxTime();
+            this.totalTimeMs = stats.getExecutionTotalTime();
+            this.rowCount = stats.getExecutionRowCount();
+            this.cacheHitRatio = ratio(stats.getCacheHitCount(), stats.getCacheMissCount());
+            this.planCacheHitCount = stats.getPlanCacheHitCount();
+            this.planCacheMissCount = stats.getPlanCacheMissCount();
+            this.planCompilationMicros = stats.getPlanCompilationTotalMicroseconds();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package mybook.mymarket.monitoring;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 메트릭 설정
+ * - 서비스 메소드의 @Timed 를 타이머로 기록 (TimedAspect)
+ * - 모든 메트릭에 application 태그
+ * 퍼센타일/히스토그램은 코드가 아니라 설정(management.metrics.distribution.*)에서 메트릭 이름별로 켬
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> commonTags() {
+        return registry -> registry.config().commonTags("application", "mymarket");
+    }
+}
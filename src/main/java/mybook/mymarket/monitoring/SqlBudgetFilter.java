@@ -0,0 +1,68 @@
+package mybook.mymarket.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 단위 SQL 예산 검사 (N + 1 감지)
+ * 요청마다 statement 수, row 수, DB 시간을 기록하고
+ * 예산(SqlBudgetProperties)을 넘으면 경고 로그 + sql.budget.exceeded 카운터 증가
+ * 요청에서 쓴 페치 플랜도 같이 모아서 FetchPlanReport 에 넘김
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final FetchPlanReport fetchPlanReport;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.start();
+        FetchPlanReport.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            record(request, SqlStatementCounter.stop(), FetchPlanReport.stop());
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementStats stats, Set<String> plans) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String endpoint = request.getMethod() + " " + uri;
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder("sql.statements").baseUnit("statements").tags(tags).register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("sql.rows").baseUnit("rows").tags(tags).register(meterRegistry)
+                .record(stats.getRows());
+        meterRegistry.timer("sql.time", tags).record(stats.getDbTimeNanos(), TimeUnit.NANOSECONDS);
+        fetchPlanReport.record(endpoint, plans, stats);
+
+        int budget = properties.budgetOf(endpoint);
+        if (stats.getStatements() > budget) {
+            meterRegistry.counter("sql.budget.exceeded", tags).increment();
+            log.warn("SQL budget exceeded: {} ({} > {}) {}", endpoint, stats.getStatements(), budget, stats);
+        }
+    }
+}
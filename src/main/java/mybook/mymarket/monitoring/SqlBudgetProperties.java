@@ -0,0 +1,26 @@
+package mybook.mymarket.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 요청 당 SQL statement 예산
+ * market.sql.budget.max-statements: 기본 예산
+ * market.sql.budget.endpoints."[GET /api/v4/orders]": 엔드포인트별 예산 (메소드 + URI 패턴)
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.sql.budget")
+public class SqlBudgetProperties {
+    private int maxStatements = 10;
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public int budgetOf(String endpoint) {
+        return endpoints.getOrDefault(endpoint, maxStatements);
+    }
+}
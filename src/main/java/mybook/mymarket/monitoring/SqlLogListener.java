@@ -0,0 +1,43 @@
+package mybook.mymarket.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 느린 쿼리 + 샘플링 SQL 로그 (p6spy 리스너)
+ * - 느린 쿼리: mymarket.sql.slow (WARN) => 바인딩 값 없이 SQL 만 (개인정보)
+ * - 샘플: mymarket.sql.sample (INFO) => sample-rate 비율로
+ * prod 프로필에서는 p6spy 전체 로그와 org.hibernate.SQL 로그를 끄고 이것만 남김
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlLogListener extends SimpleJdbcEventListener {
+    private static final Logger slowLog = LoggerFactory.getLogger("mymarket.sql.slow");
+    private static final Logger sampleLog = LoggerFactory.getLogger("mymarket.sql.sample");
+
+    private final SqlLogProperties properties;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        long thresholdNanos = properties.getSlowThreshold().toNanos();
+        if (thresholdNanos > 0 && timeElapsedNanos >= thresholdNanos) {
+            slowLog.warn("{}ms | {}", timeElapsedNanos / 1_000_000, oneLine(statementInformation.getSql()));
+            return;
+        }
+
+        double sampleRate = properties.getSampleRate();
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate && sampleLog.isInfoEnabled())
+            sampleLog.info("{}ms | {}", timeElapsedNanos / 1_000_000, oneLine(statementInformation.getSql()));
+    }
+
+    private static String oneLine(String sql) {
+        return sql == null ? "" : sql.replaceAll("\\s+", " ").trim();
+    }
+}
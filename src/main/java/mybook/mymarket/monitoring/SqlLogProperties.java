@@ -0,0 +1,21 @@
+package mybook.mymarket.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 운영용 SQL 로그 설정 (전체 statement 로그 대신)
+ * market.sql.log.slow-threshold: 이 시간보다 오래 걸린 statement 만 WARN 으로 남김 (0 이면 끔)
+ * market.sql.log.sample-rate: 나머지 statement 중 이 비율만큼만 INFO 로 남김 (0.001 => 천 개 중 하나)
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.sql.log")
+public class SqlLogProperties {
+    private Duration slowThreshold = Duration.ofMillis(500);
+    private double sampleRate = 0;
+}
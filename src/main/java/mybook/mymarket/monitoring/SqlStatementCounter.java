@@ -0,0 +1,88 @@
+package mybook.mymarket.monitoring;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 리스너 => 현재 스레드에서 측정 중인 구간(start ~ stop)이 있으면 statement, row, DB 시간을 누적
+ * JdbcEventListener 빈은 p6spy-spring-boot-starter 가 자동으로 등록해줌
+ * 측정 구간은 ThreadLocal => 요청 하나는 스레드 하나에서 처리되므로 요청 단위 집계가 됨
+ * 병렬 조회(ParallelQueries) 작업 스레드는 attach/detach 로 이어서 측정 => 요청의 통계에 합쳐짐
+ */
+@Component
+public class SqlStatementCounter extends SimpleJdbcEventListener {
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 측정 시작 (이미 측정 중이면 새로 시작)
+     */
+    public static SqlStatementStats start() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+
+        return stats;
+    }
+
+    /**
+     * 측정 종료 => 누적된 통계 반환
+     */
+    public static SqlStatementStats stop() {
+        SqlStatementStats stats = CURRENT.get();
+        CURRENT.remove();
+        if (stats == null)
+            return new SqlStatementStats();
+
+        stats.mergeWorkers();
+        return stats;
+    }
+
+    /**
+     * 지금 측정 중인 통계 (없으면 null) => 다른 스레드로 넘길 때
+     */
+    public static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 다른 스레드에서 parent 측정을 이어서 => 이 스레드는 따로 세고 detach 할 때 parent 에 넘김
+     * @return 이 스레드의 이전 측정 (detach 에 그대로 넘김)
+     */
+    public static SqlStatementStats attach(SqlStatementStats parent) {
+        SqlStatementStats previous = CURRENT.get();
+        if (parent != null)
+            CURRENT.set(new SqlStatementStats());
+        else
+            CURRENT.remove();
+
+        return previous;
+    }
+
+    public static void detach(SqlStatementStats parent, SqlStatementStats previous) {
+        SqlStatementStats worker = CURRENT.get();
+        if (parent != null && worker != null)
+            parent.addWorker(worker);
+
+        if (previous != null)
+            CURRENT.set(previous);
+        else
+            CURRENT.remove();
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null)
+            stats.statementExecuted(timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null)
+            stats.rowRead(timeElapsedNanos, hasNext);
+    }
+}
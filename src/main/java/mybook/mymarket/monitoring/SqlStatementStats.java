@@ -0,0 +1,58 @@
+package mybook.mymarket.monitoring;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 요청(또는 테스트 구간) 하나에서 실행된 SQL 통계
+ * - statements: 실행된 statement 수 (N + 1 이면 여기가 커짐)
+ * - rows: ResultSet 에서 읽은 row 수
+ * - dbTimeNanos: statement 실행 + ResultSet 읽기에 걸린 시간
+ * 병렬 조회 작업 스레드는 따로 세서 workers 에 넣음 => 측정 종료(stop) 때 요청 스레드에서 합침
+ */
+@Getter
+public class SqlStatementStats {
+    private int statements;
+    private long rows;
+    private long dbTimeNanos;
+    @Getter(AccessLevel.NONE)
+    private final Queue<SqlStatementStats> workers = new ConcurrentLinkedQueue<>();
+
+    void statementExecuted(long elapsedNanos) {
+        statements++;
+        dbTimeNanos += elapsedNanos;
+    }
+
+    void rowRead(long elapsedNanos, boolean hasNext) {
+        if (hasNext)
+            rows++;
+        dbTimeNanos += elapsedNanos;
+    }
+
+    /**
+     * 끝난 작업 스레드의 통계 (작업 스레드에서 호출)
+     */
+    void addWorker(SqlStatementStats worker) {
+        workers.add(worker);
+    }
+
+    /**
+     * 작업 스레드의 통계를 합침 (요청 스레드에서 호출)
+     */
+    void mergeWorkers() {
+        SqlStatementStats worker;
+        while ((worker = workers.poll()) != null) {
+            statements += worker.statements;
+            rows += worker.rows;
+            dbTimeNanos += worker.dbTimeNanos;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "statements=" + statements + ", rows=" + rows + ", dbTime=" + dbTimeNanos / 1_000_000 + "ms";
+    }
+}
@@ -0,0 +1,118 @@
+package mybook.mymarket.monitoring.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JFR 녹화 제어 엔드포인트 => /actuator/jfr (관리 포트)
+ * - GET  /actuator/jfr        : 현재 녹화 상태
+ * - POST /actuator/jfr/start  : 녹화 시작 {"settings": "default" | "profile", "maxAgeMinutes": 10}
+ * - POST /actuator/jfr/dump   : 녹화는 계속, 지금까지 내용을 파일로
+ * - POST /actuator/jfr/stop   : 녹화 종료 후 파일로
+ * 파일은 market.jfr.directory (기본: java.io.tmpdir) 에 mymarket-yyyyMMdd-HHmmss.jfr 로 저장
+ * => jfr print --events mymarket.OrderPlaced <파일> 또는 JDK Mission Control 로 확인
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private Recording recording;    // 한 번에 하나만
+
+    public JfrRecordingEndpoint(@Value("${market.jfr.directory:${java.io.tmpdir}}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording != null ? recording.getState() : RecordingState.CLOSED);
+        if (recording != null) {
+            status.put("name", recording.getName());
+            status.put("startTime", recording.getStartTime());
+            status.put("maxAge", recording.getMaxAge());
+            status.put("size", recording.getSize());
+        }
+        status.put("directory", directory.toAbsolutePath().toString());
+
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> control(@Selector String action, @Nullable String settings,
+                                                                        @Nullable Integer maxAgeMinutes) throws IOException, ParseException {
+        switch (action) {
+            case "start":
+                start(settings != null ? settings : "profile", maxAgeMinutes != null ? maxAgeMinutes : 10);
+                return new WebEndpointResponse<>(status());
+            case "dump":
+                if (recording == null)
+                    return error(WebEndpointResponse.STATUS_BAD_REQUEST, "녹화 중이 아님 => 먼저 start");
+                return new WebEndpointResponse<>(dumped(dump()));
+            case "stop":
+                if (recording == null)
+                    return error(WebEndpointResponse.STATUS_BAD_REQUEST, "녹화 중이 아님 => 먼저 start");
+                Path file = dump();
+                recording.close();  // stop + 버퍼 정리
+                recording = null;
+                return new WebEndpointResponse<>(dumped(file));
+            default:
+                return error(WebEndpointResponse.STATUS_NOT_FOUND, "start, dump, stop 중 하나: " + action);
+        }
+    }
+
+    private void start(String settings, int maxAgeMinutes) throws IOException, ParseException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING)
+            return;     // 이미 녹화 중
+
+        recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName("mymarket");
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofMinutes(maxAgeMinutes));     // 오래된 구간은 버림 => 디스크 사용량 제한
+        recording.start();
+    }
+
+    private Path dump() throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve("mymarket-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+        recording.dump(file);
+
+        return file;
+    }
+
+    private WebEndpointResponse<Map<String, Object>> error(int status, String message) {
+        Map<String, Object> body = status();
+        body.put("error", message);
+
+        return new WebEndpointResponse<>(body, status);
+    }
+
+    private Map<String, Object> dumped(Path file) throws IOException {
+        Map<String, Object> result = status();
+        result.put("file", file.toAbsolutePath().toString());
+        result.put("fileSize", Files.size(file));
+
+        return result;
+    }
+}
@@ -0,0 +1,22 @@
+package mybook.mymarket.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 로그인 JFR 이벤트 => LoginService.login() 구간
+ */
+@Name("mymarket.Login")
+@Label("Login")
+@Category({"MyMarket", "Member"})
+@StackTrace(false)
+public class LoginEvent extends Event {
+    @Label("Member Id")
+    public long memberId;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,43 @@
+package mybook.mymarket.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 주문 취소 JFR 이벤트 => Order.cancel() 의 연쇄 (주문 -> 주문상품 -> 상품 재고 -> 등록 상태)
+ */
+@Name("mymarket.OrderCancelled")
+@Label("Order Cancelled")
+@Category({"MyMarket", "Order"})
+@StackTrace(false)
+public class OrderCancelledEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(OrderCancelledEvent.class);
+
+    @Label("Order Id")
+    public long orderId;
+
+    @Label("Order Items")
+    public int orderItems;
+
+    @Label("Restored Stock")
+    public int restoredStock;
+
+    @Label("Reactivated Registers")
+    public int reactivatedRegisters;    // 재고 0 이었다가 다시 REGISTER 가 된 등록 수
+
+    /**
+     * 기록 중이 아니면 null => 취소마다 이벤트를 만들지 않음
+     */
+    public static OrderCancelledEvent beginIfEnabled() {
+        if (!TYPE.isEnabled())
+            return null;
+
+        OrderCancelledEvent event = new OrderCancelledEvent();
+        event.begin();
+        return event;
+    }
+}
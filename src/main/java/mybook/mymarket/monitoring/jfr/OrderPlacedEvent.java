@@ -0,0 +1,38 @@
+package mybook.mymarket.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 주문 JFR 이벤트 => OrderService.order() 구간 (begin ~ commit 이 duration)
+ * 재고 부족으로 실패한 주문도 기록 (failed = true, orderId = 0)
+ */
+@Name("mymarket.OrderPlaced")
+@Label("Order Placed")
+@Category({"MyMarket", "Order"})
+@StackTrace(false)
+public class OrderPlacedEvent extends Event {
+    @Label("Member Id")
+    public long memberId;
+
+    @Label("Register Id")
+    public long registerId;
+
+    @Label("Order Id")
+    public long orderId;
+
+    @Label("Count")
+    public int count;
+
+    @Label("Stock Before")
+    public int stockBefore;
+
+    @Label("Stock After")
+    public int stockAfter;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,31 @@
+package mybook.mymarket.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 상품 등록 JFR 이벤트 => RegisterService.register() 에서 기존 상품 재고 추가(merge) vs 새 등록(insert)
+ */
+@Name("mymarket.RegisterDecision")
+@Label("Register Decision")
+@Category({"MyMarket", "Register"})
+@StackTrace(false)
+public class RegisterDecisionEvent extends Event {
+    @Label("Member Id")
+    public long memberId;
+
+    @Label("Register Id")
+    public long registerId;
+
+    @Label("Item Type")
+    public String itemType;
+
+    @Label("Count")
+    public int count;
+
+    @Label("Merged")
+    public boolean merged;  // true: 같은 상품 재고 추가, false: 새 등록
+}
@@ -0,0 +1,45 @@
+package mybook.mymarket.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 재고 소진 JFR 이벤트 => 주문(Item.removeStock)으로 재고가 0 이 되거나(등록 CANCEL) 모자랄 때(rejected)
+ * 인기 상품에 주문이 몰릴 때 어느 상품이 언제 소진되는지 확인 (등록 취소로 재고를 비우는 것은 X)
+ */
+@Name("mymarket.StockExhausted")
+@Label("Stock Exhausted")
+@Category({"MyMarket", "Item"})
+@StackTrace(false)
+public class StockExhaustedEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(StockExhaustedEvent.class);
+
+    @Label("Item Id")
+    public long itemId;
+
+    @Label("Requested")
+    public int requested;
+
+    @Label("Stock Before")
+    public int stockBefore;
+
+    @Label("Rejected")
+    public boolean rejected;    // true: NotEnoughStockException
+
+    public static void emit(Long itemId, int requested, int stockBefore, boolean rejected) {
+        if (!TYPE.isEnabled())  // 기록 중이 아니면 이벤트를 만들지 않음
+            return;
+
+        StockExhaustedEvent event = new StockExhaustedEvent();
+
+        event.itemId = itemId != null ? itemId : 0;
+        event.requested = requested;
+        event.stockBefore = stockBefore;
+        event.rejected = rejected;
+        event.commit();
+    }
+}
@@ -0,0 +1,23 @@
+package mybook.mymarket.outbox;
+
+import mybook.mymarket.domain.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * outbox 이벤트를 받는 쪽 (캐시, 검색 색인, 카운터, 저널 ...) => 빈으로 등록하면 OutboxRelay 가 전달
+ * - 최소 한 번: 처리 후 offset 을 저장하기 전에 죽거나 예외가 나면 그 묶음을 다시 받음 => 같은 이벤트(id)를 두 번 받아도 되게
+ * - 예외를 던지면 offset 을 넘기지 않고 다음 주기에 같은 묶음부터 다시 (다른 consumer 는 계속 진행)
+ * - offset 은 이름으로 저장 => 모든 서버가 offset 하나를 같이 씀, 어느 서버든 전달할 수 있고 offset 은 앞으로만
+ *   (두 서버가 같은 묶음을 동시에 전달할 수 있음 => 최소 한 번과 같은 조건)
+ * - 서버마다 따로 받아야 하면(로컬 캐시, 메모리 색인) isNodeLocal() => offset 을 "이름@서버"(market.outbox.node-id)로
+ */
+public interface OutboxConsumer {
+    String getName();   // '@' 는 쓰지 않음 (서버 구분자)
+
+    default boolean isNodeLocal() {
+        return false;
+    }
+
+    void accept(List<OutboxEvent> events);
+}
@@ -0,0 +1,43 @@
+package mybook.mymarket.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+
+/**
+ * 도메인 이벤트 outbox 전달 => market.outbox.*
+ * - batch-size: consumer 에게 한 번에 넘기는 이벤트 수 (클수록 처리량, consumer 한 번의 처리 시간도 길어짐)
+ * - poll-interval: 이 서버에서 커밋된 이벤트가 있거나 밀려 있을 때 확인 주기
+ * - idle-poll-interval: 그 외 확인 주기 => 다른 서버가 쓴 이벤트
+ * - settle: 기록된 지 이 시간이 지난 이벤트만 전달 => id 를 먼저 받고 늦게 커밋된 트랜잭션의 이벤트를 건너뛰지 않음
+ *   (전달 지연 = settle + poll-interval)
+ * - retention: 모든 consumer 가 받은 뒤에도 남겨두는 기간 (purge-interval 마다 삭제)
+ *   이 기간 동안 offset 이 움직이지 않은 서버는 삭제 기준에서 빠짐
+ * - node-id: 서버마다 따로 받는 consumer 의 offset 구분 (기본: 호스트 이름) => 서버마다 달라야 함
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.outbox")
+public class OutboxProperties {
+    private boolean enabled = true;
+    private int batchSize = 500;
+    private Duration pollInterval = Duration.ofMillis(200);
+    private Duration idlePollInterval = Duration.ofSeconds(10);
+    private Duration settle = Duration.ofSeconds(1);
+    private Duration retention = Duration.ofDays(1);
+    private Duration purgeInterval = Duration.ofMinutes(1);
+    private String nodeId = hostName();
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "local";
+        }
+    }
+}
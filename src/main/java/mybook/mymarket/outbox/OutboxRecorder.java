@@ -0,0 +1,76 @@
+package mybook.mymarket.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mybook.mymarket.domain.OutboxEvent;
+import mybook.mymarket.domain.event.DomainEvent;
+import mybook.mymarket.domain.event.DomainEvents;
+import mybook.mymarket.repository.OutboxRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 트랜잭션에서 일어난 도메인 이벤트 => 커밋 직전에 outbox 에 저장 (같은 트랜잭션, 같은 커넥션)
+ * => 변경이 커밋되면 이벤트도 반드시 남고, 롤백되면 같이 사라짐
+ * 커밋 후에는 OutboxRelay 를 깨움 => 다음 확인 주기를 기다리지 않음
+ */
+@Component
+public class OutboxRecorder implements DomainEvents.Sink {
+    private final EntityManagerFactory emf;
+    private final OutboxRepository outboxRepository;
+    private final OutboxRelay outboxRelay;
+    private final ObjectMapper objectMapper;
+
+    public OutboxRecorder(EntityManagerFactory emf, OutboxRepository outboxRepository, OutboxRelay outboxRelay,
+                          ObjectMapper objectMapper) {
+        this.emf = emf;
+        this.outboxRepository = outboxRepository;
+        this.outboxRelay = outboxRelay;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void register() {
+        DomainEvents.register(this);
+    }
+
+    @PreDestroy
+    public void unregister() {
+        DomainEvents.unregister(this);
+    }
+
+    /**
+     * 이 EntityManagerFactory 의 JPA 트랜잭션 안인지
+     */
+    @Override
+    public boolean isActive() {
+        return TransactionSynchronizationManager.hasResource(emf);
+    }
+
+    @Override
+    public void record(List<DomainEvent> events) {
+        LocalDateTime now = LocalDateTime.now();    // id 를 받는 시점 => 커밋까지 짧음 (OutboxProperties.settle)
+        for (DomainEvent event : events)
+            outboxRepository.save(new OutboxEvent(event.getType(), event.getAggregateType(), event.getAggregateId(),
+                    json(event), now));
+    }
+
+    @Override
+    public void committed() {
+        outboxRelay.signal();
+    }
+
+    private String json(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event.getPayload());
+        } catch (JsonProcessingException e) {   // Map, 숫자, 문자열, enum 뿐 => 일어나지 않음
+            throw new IllegalStateException("domain event serialization failed: " + event.getType(), e);
+        }
+    }
+}
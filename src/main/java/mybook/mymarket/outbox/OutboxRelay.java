@@ -0,0 +1,204 @@
+package mybook.mymarket.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import mybook.mymarket.domain.OutboxEvent;
+import mybook.mymarket.repository.OutboxRepository;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * outbox => consumer 별 offset 이후의 이벤트를 batch-size 만큼씩 전달 (스레드 하나)
+ * - settle 이 지난 이벤트까지만 (OutboxProperties.settle), 묶음이 꽉 차면 밀린 게 없을 때까지 이어서
+ * - consumer 가 성공하면 offset 저장 => 최소 한 번 전달, 실패한 consumer 만 idle-poll-interval 뒤에 다시
+ * - offset 키: 같이 쓰는 consumer 는 이름, 서버별 consumer(isNodeLocal)는 "이름@node-id"
+ *   다른 서버가 같은 consumer 의 offset 을 더 멀리 옮겼으면 그 위치부터 이어서
+ * - 이 서버의 커밋(signal)이나 밀린 이벤트가 있으면 poll-interval, 아니면 idle-poll-interval 마다 확인
+ * 조회, offset 저장은 짧은 트랜잭션으로 나눔 (readOnly X => 복제 지연이 없는 primary) => consumer 처리 동안 커넥션을 잡지 않음
+ * 메트릭 (consumer 태그): market.outbox.lag.events (head - offset), market.outbox.lag.seconds (가장 오래 기다린 이벤트),
+ * market.outbox.dispatched, market.outbox.failures, market.outbox.batch (consumer 처리 시간)
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    private final OutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties properties;
+    private final Map<String, Cursor> cursors = new LinkedHashMap<>();
+    private final AtomicBoolean signalled = new AtomicBoolean(true);    // 시작하자마자 한 번
+    private final ScheduledThreadPoolExecutor relay;
+    private volatile long head;
+    private long lastPoll;
+
+    public OutboxRelay(OutboxRepository outboxRepository, PlatformTransactionManager transactionManager,
+                       OutboxProperties properties, List<OutboxConsumer> consumers, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        for (OutboxConsumer consumer : consumers) {
+            if (consumer.getName().indexOf('@') >= 0)
+                throw new IllegalStateException("outbox consumer name must not contain '@': " + consumer.getName());
+            String key = consumer.isNodeLocal() ? consumer.getName() + "@" + properties.getNodeId() : consumer.getName();
+            if (cursors.put(consumer.getName(), new Cursor(consumer, key, meterRegistry)) != null)
+                throw new IllegalStateException("duplicate outbox consumer: " + consumer.getName());
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("outbox-");
+        threadFactory.setDaemon(true);
+        this.relay = new ScheduledThreadPoolExecutor(1, threadFactory);
+        if (properties.isEnabled() && !cursors.isEmpty()) {
+            long poll = properties.getPollInterval().toMillis();
+            long purge = properties.getPurgeInterval().toMillis();
+            relay.scheduleWithFixedDelay(this::poll, poll, poll, TimeUnit.MILLISECONDS);
+            relay.scheduleWithFixedDelay(this::purge, purge, purge, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relay.shutdownNow();
+    }
+
+    /**
+     * 새 이벤트가 커밋됨 => 다음 poll-interval 에 확인
+     */
+    public void signal() {
+        signalled.set(true);
+    }
+
+    void poll() {
+        long now = System.nanoTime();
+        boolean behind = cursors.values().stream().anyMatch(cursor -> cursor.pendingSince != null);
+        if (!signalled.getAndSet(false) && !behind
+                && now - lastPoll < properties.getIdlePollInterval().toNanos())
+            return;
+
+        lastPoll = now;
+        try {
+            head = transactionTemplate.execute(status -> outboxRepository.findHead());
+            for (Cursor cursor : cursors.values())
+                relay(cursor);
+        } catch (RuntimeException e) {     // 스케줄이 멈추지 않게 => 다음 주기에 다시
+            log.warn("outbox relay failed", e);
+        }
+    }
+
+    /**
+     * 한 consumer 에게 밀린 이벤트를 전달
+     */
+    private void relay(Cursor cursor) {
+        if (System.nanoTime() - cursor.retryAt < 0)
+            return;
+        if (cursor.offset < 0)
+            cursor.offset = transactionTemplate.execute(status -> outboxRepository.findOffset(cursor.key));
+
+        while (true) {
+            long offset = cursor.offset;
+            List<OutboxEvent> batch = transactionTemplate.execute(
+                    status -> outboxRepository.findAfter(offset, properties.getBatchSize()));
+            List<OutboxEvent> settled = settled(batch);
+            cursor.pendingSince = settled.size() < batch.size() ? batch.get(settled.size()).getRecordedAt() : null;
+            if (settled.isEmpty())
+                return;
+
+            try {
+                cursor.batch.record(() -> cursor.consumer.accept(settled));
+            } catch (RuntimeException e) {
+                cursor.failures.increment();
+                cursor.pendingSince = settled.get(0).getRecordedAt();
+                cursor.retryAt = System.nanoTime() + properties.getIdlePollInterval().toNanos();
+                log.warn("outbox consumer {} failed at id {}", cursor.consumer.getName(), settled.get(0).getId(), e);
+                return;
+            }
+
+            long last = settled.get(settled.size() - 1).getId();
+            boolean moved = transactionTemplate.execute(status -> outboxRepository.saveOffset(cursor.key, last));
+            cursor.offset = moved ? last    // 아니면 다른 서버가 더 멀리 => 그 위치부터
+                    : transactionTemplate.execute(status -> outboxRepository.findOffset(cursor.key));
+            cursor.dispatched.increment(settled.size());
+
+            if (settled.size() < properties.getBatchSize())
+                return;
+        }
+    }
+
+    /**
+     * 앞에서부터 settle 이 지난 이벤트 => 그 뒤는 늦게 커밋된 앞 id 가 있을 수 있으므로 다음에
+     */
+    private List<OutboxEvent> settled(List<OutboxEvent> batch) {
+        LocalDateTime settledBefore = LocalDateTime.now().minus(properties.getSettle());
+        List<OutboxEvent> settled = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            if (event.getRecordedAt().isAfter(settledBefore))
+                break;
+            settled.add(event);
+        }
+
+        return settled;
+    }
+
+    void purge() {
+        try {
+            LocalDateTime recordedBefore = LocalDateTime.now().minus(properties.getRetention());
+            List<String> keys = new ArrayList<>();
+            cursors.values().forEach(cursor -> keys.add(cursor.key));
+            int deleted = transactionTemplate.execute(
+                    status -> outboxRepository.deleteDelivered(keys, recordedBefore));
+            if (deleted > 0)
+                log.debug("outbox purged {} events", deleted);
+        } catch (RuntimeException e) {
+            log.warn("outbox purge failed", e);
+        }
+    }
+
+    /**
+     * consumer 하나의 진행 상태 (relay 스레드만 씀, 메트릭은 다른 스레드에서 읽음)
+     */
+    private class Cursor {
+        private final OutboxConsumer consumer;
+        private final String key;   // offset 키
+        private volatile long offset = -1;  // -1: 아직 DB 에서 읽지 않음
+        private volatile LocalDateTime pendingSince;    // 전달하지 못한 가장 오래된 이벤트 (null: 없음)
+        private long retryAt = System.nanoTime();   // 실패하면 idle-poll-interval 뒤에 다시
+        private final Counter dispatched;
+        private final Counter failures;
+        private final Timer batch;
+
+        Cursor(OutboxConsumer consumer, String key, MeterRegistry meterRegistry) {
+            this.consumer = consumer;
+            this.key = key;
+            String name = consumer.getName();
+            this.dispatched = meterRegistry.counter("market.outbox.dispatched", "consumer", name);
+            this.failures = meterRegistry.counter("market.outbox.failures", "consumer", name);
+            this.batch = meterRegistry.timer("market.outbox.batch", "consumer", name);
+            Gauge.builder("market.outbox.lag.events", this, cursor -> cursor.offset < 0 ? 0 : Math.max(0, head - cursor.offset))
+                    .tag("consumer", name)
+                    .register(meterRegistry);
+            Gauge.builder("market.outbox.lag.seconds", this, Cursor::lagSeconds)
+                    .tag("consumer", name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+
+        double lagSeconds() {
+            LocalDateTime since = pendingSince;
+            return since != null ? Duration.between(since, LocalDateTime.now()).toMillis() / 1000.0 : 0;
+        }
+    }
+}
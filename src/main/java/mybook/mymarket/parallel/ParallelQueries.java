@@ -0,0 +1,114 @@
+package mybook.mymarket.parallel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import mybook.mymarket.datasource.ReadYourWrites;
+import mybook.mymarket.deadline.RequestDeadline;
+import mybook.mymarket.monitoring.ConnectionHoldStats;
+import mybook.mymarket.monitoring.ConnectionHoldTracker;
+import mybook.mymarket.monitoring.SqlStatementCounter;
+import mybook.mymarket.monitoring.SqlStatementStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 서로 의존하지 않는 조회를 각자 읽기 전용 트랜잭션(커넥션)에서 동시에 실행
+ * - 호출한 스레드가 트랜잭션 안이면 병렬 X => 다른 커넥션에서는 커밋 안 된 변경이 안 보이고, 한 스냅샷이어야 할 수도 있음
+ *   (컨트롤러에서 트랜잭션 밖으로 도는 조회는 원래도 statement 마다 따로 커밋되므로 병렬로 해도 보이는 것은 같음)
+ * - read-your-writes 상태(회원, 이 요청이 쓰기를 커밋했는지)도 작업 스레드에 넘겨줌 => 방금 쓴 회원, 요청의 조회는 병렬로도 primary 로
+ * - 요청 마감(RequestDeadline)도 넘겨줌 => 작업 스레드의 쿼리도 남은 시간만큼만, 마감이 되면 같이 취소
+ * - SQL, 커넥션 측정(SqlStatementCounter, ConnectionHoldTracker)도 이어서 => 작업 스레드의 statement, 커넥션도 요청에 집계
+ * - 작업 큐가 차면 호출한 스레드가 직접 실행 => 부하가 높을 때는 직렬과 같아짐
+ * 메트릭: executor.* (name=query.parallel)
+ */
+@Component
+public class ParallelQueries {
+    private final ParallelQueryProperties properties;
+    private final ObjectProvider<ReadYourWrites> readYourWrites;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService executor;
+
+    public ParallelQueries(ParallelQueryProperties properties, PlatformTransactionManager transactionManager,
+                           ObjectProvider<ReadYourWrites> readYourWrites, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.readYourWrites = readYourWrites;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("query-"), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "query.parallel");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 지금 병렬로 실행해도 되는지
+     */
+    public boolean isUsable() {
+        return properties.isEnabled() && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /**
+     * 읽기 전용 트랜잭션에서 실행 => 결과는 트랜잭션 안에서 DTO 로 다 만들어서 돌려줘야 함 (엔티티 X)
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        ReadYourWrites ryw = readYourWrites.getIfAvailable();
+        ReadYourWrites.State state = ryw != null ? ryw.current() : null;
+
+        RequestDeadline deadline = RequestDeadline.current();
+        SqlStatementStats sql = SqlStatementCounter.current();
+        ConnectionHoldStats hold = ConnectionHoldTracker.current();
+
+        return CompletableFuture.supplyAsync(() -> {
+            RequestDeadline previousDeadline = RequestDeadline.attach(deadline);
+            SqlStatementStats previousSql = SqlStatementCounter.attach(sql);
+            ConnectionHoldStats previousHold = ConnectionHoldTracker.attach(hold);
+            ReadYourWrites.State previousState = ryw != null ? ryw.attach(state) : null;  // 큐가 차서 호출한 스레드가 직접 실행하면 같은 상태
+            try {
+                return readOnlyTx.execute(status -> query.get());
+            } finally {
+                if (ryw != null)
+                    ryw.attach(previousState);
+                ConnectionHoldTracker.detach(hold, previousHold);
+                SqlStatementCounter.detach(sql, previousSql);
+                RequestDeadline.attach(previousDeadline);
+            }
+        }, executor);
+    }
+
+    /**
+     * 결과 기다림 => 조회 중 예외는 그대로 던짐
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package mybook.mymarket.parallel;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 조회 병렬 실행 설정 => market.query.parallel.*
+ * - threads: 병렬 조회 스레드 수 => 스레드마다 커넥션을 하나씩 쓰므로 커넥션 풀(또는 replica 풀) 여유만큼
+ * - queue-capacity: 밀린 조회 수 상한 => 넘으면 호출한 스레드가 직접 실행 (직렬로 돌아감)
+ * in 절 덩어리 크기는 market.query.in-list (InListExecutor)
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.query.parallel")
+public class ParallelQueryProperties {
+    private boolean enabled = false;
+    private int threads = 4;
+    private int queueCapacity = 64;
+}
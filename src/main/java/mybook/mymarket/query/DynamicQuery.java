@@ -0,0 +1,293 @@
+package mybook.mymarket.query;
+
+import mybook.mymarket.deadline.QueryTimeouts;
+import mybook.mymarket.monitoring.FetchPlanReport;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.AttributeNode;
+import javax.persistence.EntityManager;
+import javax.persistence.Subgraph;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 조건 객체(S)로 만드는 동적 JPQL 정의 + 페치 플랜(엔티티 그래프) 선택
+ * 검색 조건은 정의에 filter(조건, 값 꺼내는 함수)로 한 번만 선언 => 조건 추가는 한 줄
+ * - 값이 null 이거나 빈 문자열인 필터는 빠짐 => 쓰인 필터 조합(비트) + 그래프가 쿼리 모양(shape)
+ * - 필터는 항상 선언 순서대로 붙음 => 같은 모양이면 글자 하나 다르지 않은 같은 JPQL
+ *   => 모양별 JPQL 은 처음 한 번만 만들어 두고, Hibernate 플랜 캐시(HQL 파싱, SQL 변환)도 모양마다 한 번만 miss
+ * - 그래프는 loadgraph 힌트 대신 fetch join 으로 JPQL 에 펼침
+ *   Hibernate 5.4 는 loadgraph 힌트가 붙은 쿼리를 플랜 캐시를 거치지 않고 실행할 때마다 새로 변환하기 때문
+ *   선언된 join 과 경로가 같으면 그 join 에 fetch 만 붙이고, 없으면 left join fetch 추가
+ *   => ToOne 만 (컬렉션을 fetch join 하면 row 가 늘어나고 maxResults 가 메모리에서 적용됨)
+ * 만든 쿼리에는 요청의 남은 시간이 timeout 힌트로 붙음 (QueryTimeouts)
+ * 정의는 static final 로 두고 여러 스레드에서 같이 씀 (선언이 끝난 뒤에는 모양 캐시만 바뀜)
+ * 예) DynamicQuery.entity(OrderSearch.class, Order.class, "o").join("o.member", "m")
+ *         .filter("m.nickName like :name", OrderSearch::getNickName).readOnly();
+ *     => ORDER_SEARCH.create(em, orderSearch, Order.WITH_MEMBER_DEAL).getResultList()
+ *        ORDER_SEARCH.create(em, orderSearch) => 그래프 없이 매핑대로 (지연 로딩)
+ */
+public final class DynamicQuery<S, T> {
+    private static final int MAX_FILTERS = 16;  // 모양 수 2^16 까지
+    private static final Pattern PARAMETER = Pattern.compile(":(\\w+)");
+
+    private final Class<T> resultType;
+    private final Class<?> rootType;
+    private final String rootAlias;
+    private final String select;
+    private final List<Join> joins = new ArrayList<>();
+    private final List<Filter<S>> filters = new ArrayList<>();
+    private boolean readOnly;
+
+    // 그래프 이름("": 없음) => 필터 조합별 모양
+    private final ConcurrentHashMap<String, AtomicReferenceArray<Shape>> shapes = new ConcurrentHashMap<>();
+
+    private DynamicQuery(Class<T> resultType, Class<?> rootType, String rootAlias, String select) {
+        this.resultType = resultType;
+        this.rootType = rootType;
+        this.rootAlias = rootAlias;
+        this.select = select;
+    }
+
+    /**
+     * select alias from Entity alias
+     */
+    public static <S, T> DynamicQuery<S, T> entity(Class<S> criteriaType, Class<T> entityType, String alias) {
+        return entity(entityType, alias);
+    }
+
+    /**
+     * 조건 타입을 클래스로 쓸 수 없을 때 (예: DynamicQuery.<List<Long>, Register>entity(Register.class, "r"))
+     */
+    public static <S, T> DynamicQuery<S, T> entity(Class<T> entityType, String alias) {
+        return new DynamicQuery<>(entityType, entityType, alias, "select " + alias);
+    }
+
+    /**
+     * select new Dto(arguments) from Root alias => 그래프는 쓸 수 없음 (Dto 로 직접 조회 시 Fetch join 불가능)
+     */
+    public static <S, T> DynamicQuery<S, T> dto(Class<S> criteriaType, Class<T> dtoType, String arguments,
+                                                Class<?> rootType, String alias) {
+        return new DynamicQuery<>(dtoType, rootType, alias, "select new " + dtoType.getName() + "(" + arguments + ")");
+    }
+
+    /**
+     * inner join path alias => 그래프에 같은 경로가 있으면 join fetch
+     */
+    public DynamicQuery<S, T> join(String path, String alias) {
+        joins.add(new Join(path, alias));
+        return this;
+    }
+
+    /**
+     * @param condition 파라미터가 하나인 조건 (예: "m.nickName like :name")
+     * @param value 조건 객체에서 값을 꺼냄, null 이거나 빈 문자열이면 이 조건은 빠짐
+     */
+    public DynamicQuery<S, T> filter(String condition, Function<S, ?> value) {
+        if (filters.size() == MAX_FILTERS)
+            throw new IllegalStateException("필터는 최대 " + MAX_FILTERS + "개");
+
+        Matcher matcher = PARAMETER.matcher(condition);
+        if (!matcher.find())
+            throw new IllegalArgumentException("파라미터가 없는 조건: " + condition);
+        String parameter = matcher.group(1);
+        if (matcher.find())
+            throw new IllegalArgumentException("파라미터는 하나만: " + condition);
+
+        filters.add(new Filter<>(condition, parameter, value));
+        return this;
+    }
+
+    /**
+     * 목록 조회용 힌트 (ReadOnlyQueries)
+     */
+    public DynamicQuery<S, T> readOnly() {
+        this.readOnly = true;
+        return this;
+    }
+
+    /**
+     * 그래프 없이 매핑대로 (연관관계는 지연 로딩)
+     * @param criteria 조건 객체 (null: 조건 없음)
+     */
+    public TypedQuery<T> create(EntityManager em, @Nullable S criteria) {
+        return build(em, criteria, null);
+    }
+
+    /**
+     * @param criteria 조건 객체 (null: 조건 없음)
+     * @param graph 엔티티에 선언된 @NamedEntityGraph 이름
+     */
+    public TypedQuery<T> create(EntityManager em, @Nullable S criteria, String graph) {
+        return build(em, criteria, Objects.requireNonNull(graph, "graph"));
+    }
+
+    private TypedQuery<T> build(EntityManager em, @Nullable S criteria, @Nullable String graph) {
+        Object[] values = new Object[filters.size()];
+        int mask = 0;
+        if (criteria != null) {
+            for (int i = 0; i < values.length; i++) {
+                Object value = filters.get(i).value.apply(criteria);
+                if (value != null && !(value instanceof String && !StringUtils.hasText((String) value))) {
+                    values[i] = value;
+                    mask |= 1 << i;
+                }
+            }
+        }
+
+        Shape shape = shape(em, graph, mask);
+        TypedQuery<T> query = QueryTimeouts.timed(em.createQuery(shape.jpql, resultType));
+        if (readOnly)
+            ReadOnlyQueries.readOnly(query);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null)
+                query.setParameter(filters.get(i).parameter, values[i]);
+        }
+
+        FetchPlanReport.used(shape.plan);
+
+        return query;
+    }
+
+    /**
+     * 지금까지 만들어진 모양 수
+     */
+    public int shapeCount() {
+        int count = 0;
+        for (AtomicReferenceArray<Shape> byMask : shapes.values()) {
+            for (int i = 0; i < byMask.length(); i++) {
+                if (byMask.get(i) != null)
+                    count++;
+            }
+        }
+
+        return count;
+    }
+
+    private Shape shape(EntityManager em, @Nullable String graph, int mask) {
+        AtomicReferenceArray<Shape> byMask = shapes.computeIfAbsent(graph != null ? graph : "",
+                k -> new AtomicReferenceArray<>(1 << filters.size()));
+        Shape shape = byMask.get(mask);
+        if (shape == null) {    // 경쟁해도 같은 모양 => 먼저 들어간 것을 씀
+            byMask.compareAndSet(mask, null, render(em, graph, mask));
+            shape = byMask.get(mask);
+        }
+
+        return shape;
+    }
+
+    private Shape render(EntityManager em, @Nullable String graph, int mask) {
+        Set<String> fetched = new HashSet<>();
+        StringBuilder graphJoins = new StringBuilder();
+        String plan;
+        if (graph != null) {
+            if (!rootType.equals(resultType))
+                throw new IllegalArgumentException("Dto 조회에는 그래프를 쓸 수 없음: " + graph);
+
+            Metamodel metamodel = em.getMetamodel();
+            expand(metamodel, metamodel.managedType(rootType), rootAlias,
+                    em.getEntityGraph(graph).getAttributeNodes(), fetched, graphJoins, new int[1]);
+            plan = graph;
+        } else {
+            plan = resultType.getSimpleName() + (rootType.equals(resultType) ? " (lazy)" : " (dto)");
+        }
+
+        StringBuilder jpql = new StringBuilder(select)
+                .append(" from ").append(em.getMetamodel().entity(rootType).getName()).append(' ').append(rootAlias);
+        for (Join join : joins)
+            jpql.append(fetched.contains(join.path) ? " join fetch " : " join ").append(join.path).append(' ').append(join.alias);
+        jpql.append(graphJoins);
+
+        boolean hasWhere = false;
+        for (int i = 0; i < filters.size(); i++) {
+            if ((mask & (1 << i)) == 0)
+                continue;
+            jpql.append(hasWhere ? " and " : " where ").append(filters.get(i).condition);
+            hasWhere = true;
+        }
+
+        return new Shape(jpql.toString(), plan);
+    }
+
+    /**
+     * 그래프 노드 => fetch join (하위 그래프는 그 join 의 alias 밑으로), 이름 순서로 => 같은 그래프면 같은 JPQL
+     */
+    private void expand(Metamodel metamodel, ManagedType<?> type, String alias, List<AttributeNode<?>> nodes,
+                        Set<String> fetched, StringBuilder graphJoins, int[] aliases) {
+        List<AttributeNode<?>> sorted = new ArrayList<>(nodes);
+        sorted.sort(Comparator.comparing(AttributeNode::getAttributeName));
+        for (AttributeNode<?> node : sorted) {
+            Attribute<?, ?> attribute = type.getAttribute(node.getAttributeName());
+            if (attribute.isCollection())
+                throw new IllegalArgumentException("컬렉션은 그래프로 fetch join 하지 않음: " + attribute);
+
+            String path = alias + "." + node.getAttributeName();
+            String childAlias = aliasOf(path);
+            if (childAlias != null) {
+                fetched.add(path);
+            } else {
+                childAlias = "g" + (++aliases[0]);
+                graphJoins.append(" left join fetch ").append(path).append(' ').append(childAlias);
+            }
+
+            for (Subgraph<?> subgraph : node.getSubgraphs().values())
+                expand(metamodel, metamodel.managedType(attribute.getJavaType()), childAlias,
+                        subgraph.getAttributeNodes(), fetched, graphJoins, aliases);
+        }
+    }
+
+    private String aliasOf(String path) {
+        for (Join join : joins) {
+            if (join.path.equals(path))
+                return join.alias;
+        }
+
+        return null;
+    }
+
+    private static class Join {
+        final String path;
+        final String alias;
+
+        Join(String path, String alias) {
+            this.path = path;
+            this.alias = alias;
+        }
+    }
+
+    private static class Filter<S> {
+        final String condition;
+        final String parameter;
+        final Function<S, ?> value;
+
+        Filter(String condition, String parameter, Function<S, ?> value) {
+            this.condition = condition;
+            this.parameter = parameter;
+            this.value = value;
+        }
+    }
+
+    private static class Shape {
+        final String jpql;
+        final String plan;      // FetchPlanReport 에 남는 이름: 그래프 이름 / "Order (lazy)" / "OrderQueryDto (dto)"
+
+        Shape(String jpql, String plan) {
+            this.jpql = jpql;
+            this.plan = plan;
+        }
+    }
+}
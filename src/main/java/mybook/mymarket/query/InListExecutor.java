@@ -0,0 +1,96 @@
+package mybook.mymarket.query;
+
+import mybook.mymarket.parallel.ParallelQueries;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 부모 id 목록으로 자식을 조회하는 in 절 실행 (in :ids)
+ * - id 를 max-chunk-size 씩 나눠서 실행 => 거대한 statement, 드라이버 파라미터 수 제한 방지
+ * - 덩어리 크기를 2의 거듭제곱으로 채움 (마지막 id 반복) => 쿼리 모양(in 절 파라미터 수)이 몇 개로 고정
+ *   => Hibernate 쿼리 플랜 캐시, DB statement 캐시를 계속 재사용 (목록 크기마다 새 플랜 X)
+ * - 덩어리 결과는 바로 넘겨줌(sink) => 전체 결과 리스트를 한 번 더 만들지 않음 (부모에 붙이는 건 ParentChildAssembler)
+ * - 덩어리가 여러 개이고 병렬 조회(ParallelQueries)를 쓸 수 있으면 동시에
+ * - id 가 없으면 쿼리 자체를 안 보냄
+ */
+@Component
+public class InListExecutor {
+    private final int maxChunkSize;
+    private final int minChunkSize;
+    private final ParallelQueries parallelQueries;
+
+    public InListExecutor(InListProperties properties, ParallelQueries parallelQueries) {
+        this.maxChunkSize = Integer.highestOneBit(Math.max(1, properties.getMaxChunkSize()));
+        this.minChunkSize = Math.min(maxChunkSize, Integer.highestOneBit(Math.max(1, properties.getMinChunkSize())));
+        this.parallelQueries = parallelQueries;
+    }
+
+    /**
+     * 덩어리 결과를 차례로 sink 에 넘김
+     * 병렬이면 덩어리마다 다른 트랜잭션에서 실행되므로 query 는 DTO 를 돌려줘야 함 (엔티티 X)
+     * sink 는 호출한 스레드에서만 불림
+     */
+    public <T> void forEach(List<Long> ids, Function<List<Long>, List<T>> query, Consumer<List<T>> sink) {
+        execute(ids, query, sink, true);
+    }
+
+    /**
+     * 엔티티 조회 => 지금 영속성 컨텍스트에서 덩어리를 차례로 (병렬 X)
+     */
+    public <T> List<T> entities(List<Long> ids, Function<List<Long>, List<T>> query) {
+        List<T> result = new ArrayList<>(ids.size());
+        execute(ids, query, result::addAll, false);
+
+        return result;
+    }
+
+    private <T> void execute(List<Long> ids, Function<List<Long>, List<T>> query, Consumer<List<T>> sink, boolean parallel) {
+        List<List<Long>> chunks = chunks(ids, maxChunkSize, minChunkSize);
+        if (chunks.size() <= 1 || !parallel || !parallelQueries.isUsable()) {
+            for (List<Long> chunk : chunks)
+                sink.accept(query.apply(chunk));
+            return;
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(chunks.size());
+        for (List<Long> chunk : chunks)
+            futures.add(parallelQueries.submit(() -> query.apply(chunk)));
+        for (CompletableFuture<List<T>> future : futures)
+            sink.accept(ParallelQueries.join(future));
+    }
+
+    /**
+     * 중복 제거 후 maxChunkSize 씩 나누고, 모자란 덩어리는 마지막 id 를 반복해서
+     * minChunkSize 이상의 2의 거듭제곱 크기로 채움 (in 절에 같은 값이 여러 번 있어도 결과는 같음)
+     */
+    static List<List<Long>> chunks(List<Long> ids, int maxChunkSize, int minChunkSize) {
+        if (ids.isEmpty())
+            return Collections.emptyList();
+
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Long>> chunks = new ArrayList<>(distinct.size() / maxChunkSize + 1);
+        for (int from = 0; from < distinct.size(); from += maxChunkSize) {
+            int to = Math.min(from + maxChunkSize, distinct.size());
+            List<Long> chunk = new ArrayList<>(distinct.subList(from, to));
+            int padded = Math.max(minChunkSize, paddedSize(chunk.size()));
+            Long last = chunk.get(chunk.size() - 1);
+            while (chunk.size() < padded)
+                chunk.add(last);
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+
+    private static int paddedSize(int size) {
+        int highest = Integer.highestOneBit(size);
+        return highest == size ? size : highest << 1;
+    }
+}
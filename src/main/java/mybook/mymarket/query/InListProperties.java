@@ -0,0 +1,19 @@
+package mybook.mymarket.query;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * in 절 실행 설정 => market.query.in-list.*
+ * - max-chunk-size: 한 번에 바인딩할 id 수 상한 (2의 거듭제곱으로 맞춤)
+ * - min-chunk-size: 남은 id 를 채워 맞출 가장 작은 크기 => 8 이면 in 절 모양은 8, 16, ..., max 만
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.query.in-list")
+public class InListProperties {
+    private int maxChunkSize = 512;
+    private int minChunkSize = 8;
+}
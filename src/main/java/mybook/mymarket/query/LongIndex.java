@@ -0,0 +1,67 @@
+package mybook.mymarket.query;
+
+import java.util.Arrays;
+
+/**
+ * long 키 -> int 값(0 이상) 해시 인덱스 (open addressing, 선형 탐색)
+ * HashMap<Long, ...> 과 달리 키 박싱, Entry 노드 할당이 없음 => 배열 두 개가 전부
+ * 크기는 처음에 정함 (넣을 개수의 2배 이상, 2의 거듭제곱) => 리사이즈 X
+ */
+public final class LongIndex {
+    private static final int EMPTY = -1;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+    private final int maxSize;
+    private int size;
+
+    public LongIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        this.maxSize = Math.max(expectedSize, capacity / 2);
+        Arrays.fill(values, EMPTY);
+    }
+
+    public void put(long key, int value) {
+        if (value < 0)
+            throw new IllegalArgumentException("value 는 0 이상");
+
+        int i = slot(key);
+        while (values[i] != EMPTY && keys[i] != key)
+            i = (i + 1) & mask;
+
+        if (values[i] == EMPTY) {
+            if (size == maxSize)
+                throw new IllegalStateException("LongIndex 가 가득 참 (" + maxSize + ")");
+            size++;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    /**
+     * 없으면 -1
+     */
+    public int get(long key) {
+        int i = slot(key);
+        while (values[i] != EMPTY) {
+            if (keys[i] == key)
+                return values[i];
+            i = (i + 1) & mask;
+        }
+
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;     // 연속된 id 도 골고루 퍼지게
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
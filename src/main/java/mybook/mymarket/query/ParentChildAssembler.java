@@ -0,0 +1,64 @@
+package mybook.mymarket.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * 부모 DTO 목록에 자식 DTO 를 붙임 (주문 - 주문상품)
+ * Collectors.groupingBy(Map<Long, List>) 대신
+ * - 부모 id -> 부모 위치는 LongIndex (키 박싱 X, Entry 노드 X)
+ * - 자식 덩어리(in 절 결과)는 받은 리스트를 그대로 들고 있고 부모별 개수(int[])만 셈
+ * - 마지막에 부모마다 정확한 크기의 리스트를 한 번에 만듦 => 리스트 리사이즈 X
+ * 자식마다 인덱스를 두 번 찾지만(개수, 채우기) 배열 탐색이라 자식 위치를 따로 저장하는 것보다 쌈
+ */
+public class ParentChildAssembler<P, C> {
+    private final List<P> parents;
+    private final ToLongFunction<C> parentKey;
+    private final LongIndex index;
+    private final int[] counts;
+    private final List<List<C>> chunks = new ArrayList<>(4);
+
+    public ParentChildAssembler(List<P> parents, ToLongFunction<P> key, ToLongFunction<C> parentKey) {
+        this.parents = parents;
+        this.parentKey = parentKey;
+        this.index = new LongIndex(parents.size());
+        for (int i = 0; i < parents.size(); i++)
+            index.put(key.applyAsLong(parents.get(i)), i);
+
+        this.counts = new int[parents.size()];
+    }
+
+    /**
+     * 자식 추가 (받은 리스트는 assemble 때까지 바꾸면 안 됨) => 부모 목록에 없는 자식은 버림
+     */
+    public void accept(List<C> rows) {
+        for (C child : rows) {
+            int parent = index.get(parentKey.applyAsLong(child));
+            if (parent >= 0)
+                counts[parent]++;
+        }
+        chunks.add(rows);
+    }
+
+    /**
+     * 부모마다 자식 리스트를 넘겨줌 => 자식이 없으면 null (Map.get 과 같음)
+     */
+    public void assemble(BiConsumer<P, List<C>> setter) {
+        List<List<C>> grouped = new ArrayList<>(counts.length);
+        for (int count : counts)
+            grouped.add(count > 0 ? new ArrayList<>(count) : null);
+
+        for (List<C> rows : chunks) {
+            for (C child : rows) {
+                int parent = index.get(parentKey.applyAsLong(child));
+                if (parent >= 0)
+                    grouped.get(parent).add(child);
+            }
+        }
+
+        for (int i = 0; i < grouped.size(); i++)
+            setter.accept(parents.get(i), grouped.get(i));
+    }
+}
@@ -0,0 +1,32 @@
+package mybook.mymarket.query;
+
+import org.hibernate.FlushMode;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.TypedQuery;
+
+/**
+ * 화면(DTO)으로 바꾸기만 하는 목록 조회용 힌트
+ * - org.hibernate.readOnly: 읽어온 엔티티를 읽기 전용으로 영속화 => 변경 감지용 스냅샷(loadedState)을 만들지 않음
+ *   => 요청 당 메모리 절약, 커밋/flush 때 dirty checking 대상에서 빠짐
+ * - flushMode MANUAL: 조회 전에 auto flush 하지 않음
+ * 읽기 전용 트랜잭션 안이나 트랜잭션 밖에서만 => 쓰기 트랜잭션 안에서는 힌트 X
+ * (같은 트랜잭션에서 쓴 변경을 flush 하지 않고 조회하거나, 목록으로 읽은 엔티티를 바꿔도 반영이 안 되는 일이 없게)
+ * @Transactional(readOnly = true) 서비스는 이미 같은 효과 (Spring 이 세션을 기본 읽기 전용으로)
+ * => 트랜잭션 없이 컨트롤러에서 바로 조회하는 경로를 위한 것
+ */
+public final class ReadOnlyQueries {
+
+    private ReadOnlyQueries() {
+    }
+
+    public static <T> TypedQuery<T> readOnly(TypedQuery<T> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+            return query;   // 쓰기 트랜잭션
+
+        return query.setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.FLUSH_MODE, FlushMode.MANUAL);
+    }
+}
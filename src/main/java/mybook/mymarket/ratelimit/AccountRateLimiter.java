@@ -0,0 +1,48 @@
+package mybook.mymarket.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import mybook.mymarket.exception.TooManyRequestsException;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 대상 계정별 토큰 버킷 (rules.<이름>.account) => 키(로그인 닉네임)가 요청 본문에 있으므로 필터가 아니라 서비스에서
+ * - IP 를 바꿔가며 한 계정의 비밀번호를 맞춰보는 시도를 막음 (IP 제한은 RateLimitFilter)
+ * - 성공/실패와 관계없이 시도마다 토큰 하나, 거절되면 인증(DB 조회) 전에 TooManyRequestsException (429 + Retry-After)
+ * - account 가 없는 규칙, market.ratelimit.enabled=false 면 제한 X
+ * 메트릭: market.ratelimit.rejected, market.ratelimit.keys (rule, key=account 태그)
+ */
+@Component
+public class AccountRateLimiter {
+    private final boolean enabled;
+    private final Map<String, KeyLimit> limits = new HashMap<>();   // 규칙 이름 -> 계정 제한
+
+    public AccountRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        properties.getRules().forEach((name, rule) -> {
+            KeyLimit account = KeyLimit.of(name, "account", rule.getAccount(), properties.getMaxKeys(), meterRegistry);
+            if (account != null)
+                limits.put(name, account);
+        });
+    }
+
+    /**
+     * 계정의 토큰 하나 사용
+     * @throws TooManyRequestsException 토큰이 없음
+     */
+    public void acquire(String rule, String account) {
+        KeyLimit limit = limits.get(rule);
+        if (!enabled || limit == null || account == null)
+            return;
+
+        long now = System.nanoTime();
+        long remaining = limit.bucket(account, now).tryAcquire(now);
+        if (remaining >= 0)
+            return;
+
+        limit.rejected();
+        throw new TooManyRequestsException("Too many attempts for this account", KeyLimit.toSeconds(-remaining - 1));
+    }
+}
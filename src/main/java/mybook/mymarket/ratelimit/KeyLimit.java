@@ -0,0 +1,87 @@
+package mybook.mymarket.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 규칙 하나의 한 기준(회원, IP, 계정) => 키별 버킷 + 거절 카운터
+ * 응답 헤더 값은 요청마다 만들지 않게 미리 => X-RateLimit-Limit, 작은 남은 토큰 수, 초 단위 시간(period 까지)
+ */
+class KeyLimit {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_CACHED = 4096;
+
+    private final RateLimiter limiter;
+    private final Counter rejected;
+    private final String capacity;
+    private final String[] counts;      // 0 ~ capacity (MAX_CACHED 까지)
+    private final String[] seconds;     // 0 ~ period 초 (MAX_CACHED 까지)
+
+    private KeyLimit(RateLimiter limiter, Counter rejected, long periodNanos) {
+        this.limiter = limiter;
+        this.rejected = rejected;
+        this.capacity = String.valueOf(limiter.getCapacity());
+        this.counts = numbers(Math.min(limiter.getCapacity(), MAX_CACHED));
+        this.seconds = numbers((int) Math.min(toSeconds(periodNanos), MAX_CACHED));
+    }
+
+    /**
+     * @return limit 이 없으면 null
+     * @throws IllegalStateException capacity, period 가 잘못됨 => 설정 키를 붙여서 (시작 실패)
+     */
+    static KeyLimit of(String rule, String key, RateLimitProperties.Limit limit, int maxKeys, MeterRegistry meterRegistry) {
+        if (limit == null)
+            return null;
+
+        RateLimiter limiter;
+        try {
+            limiter = new RateLimiter(limit.getCapacity(), limit.getPeriod(), maxKeys);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("market.ratelimit.rules." + rule + "." + key + ": " + e.getMessage(), e);
+        }
+        Gauge.builder("market.ratelimit.keys", limiter, RateLimiter::size)
+                .tags("rule", rule, "key", key).register(meterRegistry);
+
+        return new KeyLimit(limiter, meterRegistry.counter("market.ratelimit.rejected", "rule", rule, "key", key),
+                limit.getPeriod().toNanos());
+    }
+
+    TokenBucket bucket(String key, long nowNanos) {
+        return limiter.bucket(key, nowNanos);
+    }
+
+    void rejected() {
+        rejected.increment();
+    }
+
+    String capacity() {
+        return capacity;
+    }
+
+    String count(long count) {
+        return count < counts.length ? counts[(int) count] : String.valueOf(count);
+    }
+
+    /**
+     * 나노초 => 초 (올림) 문자열
+     */
+    String seconds(long nanos) {
+        long seconds = toSeconds(nanos);
+        return seconds < this.seconds.length ? this.seconds[(int) seconds] : String.valueOf(seconds);
+    }
+
+    static long toSeconds(long nanos) {
+        return (nanos + SECOND - 1) / SECOND;     // 올림
+    }
+
+    private static String[] numbers(int max) {
+        String[] numbers = new String[max + 1];
+        for (int i = 0; i <= max; i++)
+            numbers[i] = String.valueOf(i);
+
+        return numbers;
+    }
+}
@@ -0,0 +1,127 @@
+package mybook.mymarket.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import mybook.mymarket.route.RouteMatcher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+
+/**
+ * 회원별, IP별 토큰 버킷으로 주문/등록/로그인 요청 제한
+ * - 회원 키: 세션의 memberId, 없으면 경로 변수 {memberId}
+ * - IP 키: request.getRemoteAddr() (프록시 헤더는 믿지 않음)
+ * - 로그인 대상 계정(rules.<이름>.account)은 요청 본문에 있으므로 여기서 X => AccountRateLimiter (LoginService)
+ * 응답 헤더: X-RateLimit-Limit, X-RateLimit-Remaining, X-RateLimit-Reset(가득 찰 때까지 초), 거절 시 429 + Retry-After
+ *   회원, IP 둘 다 있으면 남은 토큰이 적은 쪽(먼저 걸리는 쪽) 기준
+ * 요청마다 비용 (RateLimiterBenchmark.filterLimited, 1us 미만): 헤더 값은 미리 만든 문자열, 회원 키는 파싱한 경로의 세그먼트 그대로
+ * 메트릭: market.ratelimit.rejected (rule, key 태그), market.ratelimit.keys (기억 중인 키 수)
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 12)     // 적응형 제한, 벌크헤드보다 먼저 => 한 계정이 자리를 차지하지 못하게
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String FILTERED = RateLimitFilter.class.getName() + ".FILTERED";
+
+    private final boolean enabled;
+    private final RouteMatcher<Rule> rules = new RouteMatcher<>();
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        properties.getRules().forEach((name, rule) -> {
+            KeyLimit member = KeyLimit.of(name, "member", rule.getMember(), properties.getMaxKeys(), meterRegistry);
+            KeyLimit ip = KeyLimit.of(name, "ip", rule.getIp(), properties.getMaxKeys(), meterRegistry);
+            if (member == null && ip == null)
+                return;     // 계정 제한만 있는 규칙
+
+            Rule matched = new Rule(member, ip);
+            rule.getRoutes().forEach(route -> rules.add(route, matched));
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return FILTERED;    // 기본은 요청마다 이름을 이어붙임
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RouteMatcher.Match<Rule> match = rules.match(request);
+        if (match == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Rule rule = match.getValue();
+
+        long now = System.nanoTime();
+        KeyLimit limit = null;
+        TokenBucket bucket = null;
+        long remaining = Long.MAX_VALUE;
+        if (rule.member != null) {
+            String memberId = memberId(request, match);
+            if (memberId != null) {
+                limit = rule.member;
+                bucket = limit.bucket(memberId, now);
+                remaining = bucket.tryAcquire(now);
+            }
+        }
+        if (remaining >= 0 && rule.ip != null) {
+            TokenBucket ipBucket = rule.ip.bucket(request.getRemoteAddr(), now);
+            long ipRemaining = ipBucket.tryAcquire(now);
+            if (ipRemaining < remaining) {
+                limit = rule.ip;
+                bucket = ipBucket;
+                remaining = ipRemaining;
+            }
+        }
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader("X-RateLimit-Limit", limit.capacity());
+        response.setHeader("X-RateLimit-Remaining", limit.count(Math.max(0, remaining)));
+        response.setHeader("X-RateLimit-Reset", limit.seconds(bucket.resetNanos(now)));
+        if (remaining < 0) {
+            limit.rejected();
+            response.setHeader(HttpHeaders.RETRY_AFTER, limit.seconds(-remaining - 1));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static String memberId(HttpServletRequest request, RouteMatcher.Match<Rule> match) {
+        HttpSession session = request.getSession(false);
+        Object memberId = session != null ? session.getAttribute("memberId") : null;
+        if (memberId != null)
+            return memberId.toString();     // 로그인할 때 문자열로 넣음
+
+        return match.variable("memberId");
+    }
+
+    private static class Rule {
+        private final KeyLimit member;
+        private final KeyLimit ip;
+
+        Rule(KeyLimit member, KeyLimit ip) {
+            this.member = member;
+            this.ip = ip;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package mybook.mymarket.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 회원별, IP별 요청 제한 => market.ratelimit.*
+ * - max-keys: 한 제한(규칙 + 회원/IP) 당 기억할 키 수
+ * - rules.<이름>.routes: "메소드 경로패턴" ({memberId} 경로 변수가 있으면 세션이 없을 때 회원 키로 사용)
+ * - rules.<이름>.member / ip: capacity(버킷 크기), period(capacity 만큼 다시 차는 시간), 없으면 그 기준은 제한 X
+ * - rules.<이름>.account: 대상 계정별 (요청 본문의 값 => 서비스에서 AccountRateLimiter, 지금은 login 규칙의 로그인 닉네임)
+ *   capacity 는 1 이상, period 는 capacity 나노초 이상 (토큰 하나가 다시 차는 시간이 1ns 이상) => 아니면 시작 실패
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "market.ratelimit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private int maxKeys = 100_000;
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+
+    @Getter @Setter
+    public static class Rule {
+        private List<String> routes = new ArrayList<>();
+        private Limit member;
+        private Limit ip;
+        private Limit account;
+    }
+
+    @Getter @Setter
+    public static class Limit {
+        private int capacity = 10;
+        private Duration period = Duration.ofSeconds(10);
+    }
+}
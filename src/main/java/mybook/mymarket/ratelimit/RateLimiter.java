@@ -0,0 +1,66 @@
+package mybook.mymarket.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 키(회원 id, IP)별 토큰 버킷 모음 => 크기 제한 + 만료
+ * - 가득 찬(쉬고 있는) 버킷은 새 버킷과 같으므로 정리 때 지움 => 만료
+ * - 정리해도 maxKeys 를 넘으면 새 키는 공용 overflow 버킷을 같이 씀 => 키를 바꿔가며 메모리를 채우는 공격 방지
+ * 정리는 키가 추가될 때 maxKeys 를 넘었거나 sweepEvery 번마다, 한 스레드만 (락 없이 AtomicBoolean)
+ * capacity, period 가 잘못되면 만들 때 IllegalArgumentException (overflow 버킷) => 설정 오류는 시작할 때
+ */
+public class RateLimiter {
+    private final int capacity;
+    private final long periodNanos;
+    private final int maxKeys;
+    private final int sweepEvery;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final TokenBucket overflow;
+    private int insertsSinceSweep;   // 정확할 필요 없음 (정리 주기용)
+
+    public RateLimiter(int capacity, Duration period, int maxKeys) {
+        this.capacity = capacity;
+        this.periodNanos = period.toNanos();
+        this.maxKeys = maxKeys;
+        this.sweepEvery = Math.max(1024, maxKeys / 16);
+        this.overflow = new TokenBucket(capacity, periodNanos, System.nanoTime());
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * 키의 버킷 => 없으면 만들어서 넣음 (꽉 찼으면 overflow 버킷)
+     */
+    public TokenBucket bucket(String key, long nowNanos) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null)
+            return bucket;
+
+        if (buckets.size() >= maxKeys || ++insertsSinceSweep >= sweepEvery)
+            sweep(nowNanos);
+        if (buckets.size() >= maxKeys)
+            return overflow;
+
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, periodNanos, nowNanos));
+    }
+
+    private void sweep(long nowNanos) {
+        if (!sweeping.compareAndSet(false, true))
+            return;     // 다른 스레드가 정리 중
+        try {
+            insertsSinceSweep = 0;
+            buckets.values().removeIf(bucket -> bucket.isIdle(nowNanos));
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package mybook.mymarket.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * 락 없는 토큰 버킷 (GCRA: 다음 토큰이 "이론상 도착할 시각" tat 하나로 상태 표현)
+ * - interval = period / capacity: 토큰 하나가 다시 차는 시간
+ * - 요청 시각 now 에 tat 가 now + (capacity - 1) * interval 을 넘으면 토큰이 없음 => 거절
+ * - 허용이면 tat += interval (CAS 한 번, 객체 할당 없음)
+ * tat <= now 이면 버킷이 가득 찬 상태 => 새 버킷과 같으므로 맵에서 지워도 됨 (RateLimiter 정리)
+ */
+public class TokenBucket {
+    private static final AtomicLongFieldUpdater<TokenBucket> TAT =
+            AtomicLongFieldUpdater.newUpdater(TokenBucket.class, "tat");
+
+    private final long intervalNanos;
+    private final long toleranceNanos;  // (capacity - 1) * interval => 한 번에 몰아 쓸 수 있는 양(burst)
+    private volatile long tat;
+
+    public TokenBucket(int capacity, long periodNanos, long nowNanos) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity 는 1 이상: " + capacity);
+        if (periodNanos / capacity < 1)     // interval 이 0 이면 토큰 수 계산에서 0 으로 나눔
+            throw new IllegalArgumentException("period 는 capacity 나노초 이상: " + periodNanos + "ns / " + capacity);
+
+        this.intervalNanos = periodNanos / capacity;
+        this.toleranceNanos = intervalNanos * (capacity - 1);
+        this.tat = nowNanos;
+    }
+
+    /**
+     * 토큰 하나 사용
+     * @return 허용이면 남은 토큰 수(0 이상), 거절이면 -(다음 토큰까지 남은 나노초) - 1
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = tat;
+            long start = current - nowNanos > 0 ? current : nowNanos;   // max(tat, now), nanoTime 오버플로 고려
+            long wait = start - nowNanos - toleranceNanos;
+            if (wait > 0)
+                return -wait - 1;
+
+            long next = start + intervalNanos;
+            if (TAT.compareAndSet(this, current, next))
+                return (toleranceNanos - (next - nowNanos - intervalNanos)) / intervalNanos;
+        }
+    }
+
+    /**
+     * 버킷이 다시 가득 차기까지 남은 나노초 (X-RateLimit-Reset)
+     */
+    public long resetNanos(long nowNanos) {
+        return Math.max(0, tat - nowNanos);
+    }
+
+    /**
+     * 가득 찬 상태 => 지워도 새로 만든 버킷과 같음
+     */
+    boolean isIdle(long nowNanos) {
+        return tat - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,48 @@
+package mybook.mymarket.repository;
+
+import lombok.RequiredArgsConstructor;
+import mybook.mymarket.deadline.QueryTimeouts;
+import mybook.mymarket.domain.ChangeLog;
+import mybook.mymarket.domain.ChangeType;
+import mybook.mymarket.query.ReadOnlyQueries;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class ChangeLogRepository {
+    private final EntityManager em;
+
+    /**
+     * seq 이후의 변경 => (member_id, type, seq) 인덱스 범위 조회, 전체 이력 크기와 상관없이 limit 건만 읽음
+     */
+    public List<ChangeLog> findChanges(Long memberId, ChangeType type, long afterSeq, int limit) {
+        return ReadOnlyQueries.readOnly(QueryTimeouts.timed(em.createQuery(
+                        "select c from ChangeLog c " +
+                                "where c.memberId = :memberId and c.type = :type and c.seq > :seq " +
+                                "order by c.seq", ChangeLog.class)))
+                .setParameter("memberId", memberId)
+                .setParameter("type", type)
+                .setParameter("seq", afterSeq)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * settledBefore 전에 기록된 마지막 seq (없으면 0) => 처음 동기화(전체 목록)의 cursor
+     */
+    public long findSettledHead(Long memberId, ChangeType type, LocalDateTime settledBefore) {
+        Long head = QueryTimeouts.timed(em.createQuery(
+                        "select max(c.seq) from ChangeLog c " +
+                                "where c.memberId = :memberId and c.type = :type and c.recordedAt <= :settledBefore", Long.class))
+                .setParameter("memberId", memberId)
+                .setParameter("type", type)
+                .setParameter("settledBefore", settledBefore)
+                .getSingleResult();
+
+        return head != null ? head : 0;
+    }
+}
@@ -1,7 +1,9 @@
 package mybook.mymarket.repository;
 
 import lombok.RequiredArgsConstructor;
+import mybook.mymarket.deadline.QueryTimeouts;
 import mybook.mymarket.domain.item.Item;
+import mybook.mymarket.query.ReadOnlyQueries;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -34,23 +36,23 @@ public class ItemRepository {
      * 상품 등록 시 같은 회원이 같은 상품을 등록하면 수량만 업데이트하게끔
      */
     public Optional<Item> findByMemberAndItem(Long id, String name) { // 해당 id로 같은 상품을 등록했는지
-        return em.createQuery("select i from Register r " +
+        return QueryTimeouts.timed(em.createQuery("select i from Register r " +
                         "join r.item i join r.member m " +
                         "where m.id = :id and " +
-                        "i.name like :name", Item.class)
+                        "i.name like :name", Item.class))
                 .setParameter("id", id)
                 .setParameter("name", name)
                 .getResultList().stream().findAny();
     }
 
     public Optional<Item> findByName(String name) {
-        return em.createQuery("select i from Item i where i.name = :name", Item.class)
+        return QueryTimeouts.timed(em.createQuery("select i from Item i where i.name = :name", Item.class))
                 .setParameter("name", name)
                 .getResultList().stream().findAny();
     }
 
     public List<Item> findAll() {   // 상품 조회 (리스트 조회)
-        return em.createQuery("select i from Item i", Item.class)  // (JPQL, ClassType)
+        return ReadOnlyQueries.readOnly(QueryTimeouts.timed(em.createQuery("select i from Item i", Item.class)))  // (JPQL, ClassType)
                 .getResultList();
     }
 }
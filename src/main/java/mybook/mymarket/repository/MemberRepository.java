@@ -1,7 +1,9 @@
 package mybook.mymarket.repository;
 
 import lombok.RequiredArgsConstructor;
+import mybook.mymarket.deadline.QueryTimeouts;
 import mybook.mymarket.domain.Member;
+import mybook.mymarket.query.ReadOnlyQueries;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -27,20 +29,20 @@ public class MemberRepository {
     }
 
     public List<Member> findAll() {     // 회원 찾기(리스트 조회) => JPQL
-        return em.createQuery("select m from Member m", Member.class)
+        return ReadOnlyQueries.readOnly(QueryTimeouts.timed(em.createQuery("select m from Member m", Member.class)))
                 .getResultList();   // from 의 대상은 엔티티 객체: m
     }
 
     // 회원가입, 회원 정보 수정 => 단순 중복 체크
     public List<Member> findByName(String nickName) {   // 닉네임으로 특정 회원 찾기
-        return em.createQuery("select m from Member m where m.nickName = :nickName", Member.class)
+        return QueryTimeouts.timed(em.createQuery("select m from Member m where m.nickName = :nickName", Member.class))
                 .setParameter("nickName", nickName)
                 .getResultList();
     }
 
     // 로그인 => NullPointException 발생 가능 => Optional 클래스
     public Optional<Member> findByNickName(String nickName) {
-        return em.createQuery("select m from Member m where m.nickName = :nickName", Member.class)
+        return QueryTimeouts.timed(em.createQuery("select m from Member m where m.nickName = :nickName", Member.class))
                 .setParameter("nickName", nickName)
                 .getResultList().stream().findAny();
     }
@@ -1,10 +1,12 @@
 package mybook.mymarket.repository;
 
 import lombok.RequiredArgsConstructor;
+import mybook.mymarket.deadline.QueryTimeouts;
 import mybook.mymarket.domain.Order;
 import mybook.mymarket.domain.OrderItem;
+import mybook.mymarket.query.DynamicQuery;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
@@ -25,8 +27,8 @@ public class OrderRepository {
     }
 
     public Order findOrderMember(Long id) {
-        return em.createQuery("select o from Order o join fetch o.member m " +
-                "where o.id = :id", Order.class)
+        return QueryTimeouts.timed(em.createQuery("select o from Order o join fetch o.member m " +
+                "where o.id = :id", Order.class))
                 .setParameter("id", id)
                 .getSingleResult();
 
@@ -34,188 +36,77 @@ public class OrderRepository {
 
     public Order findOrderDeal(Long id) {
         // 특정 주문과 관련된 거래 찾기 (fetch join, ToOne 관계)
-        return em.createQuery(
+        return QueryTimeouts.timed(em.createQuery(
                 "select o from Order o join fetch o.deal d " +
-                        "where o.id = :id", Order.class)
+                        "where o.id = :id", Order.class))
                 .setParameter("id", id)
                 .getSingleResult();
     }
 
     /**
-     * 일반 join - v2
+     * 주문 검색 조건 => 엔티티 조회(여기)와 Dto 조회(OrderQueryRepository)가 같이 씀
+     * 검색 조건이 늘어나면 여기에 filter 한 줄
      */
-    public List<Order> findAllWithMemberDeal() { // ToOne 관계 (M, D)
-        // Order 를 조회하는데 Member 와 Delivery 를 from 절에서 join
-        return em.createQuery(
-                        "select o from Order o " +
-                                "join o.member m " +
-                                "join o.deal d", Order.class)
-                .getResultList();
+    public static <T> DynamicQuery<OrderSearch, T> searchConditions(DynamicQuery<OrderSearch, T> query) {
+        return query.join("o.member", "m")
+                .join("o.deal", "d")
+                .filter("o.status = :status", OrderSearch::getOrderStatus)     // 주문 상태 검색
+                .filter("d.status = :dStatus", OrderSearch::getDealStatus)     // 거래 상태 검색
+                .filter("m.nickName like :name", OrderSearch::getNickName);    // 회원 이름 검색
     }
 
-    public List<Order> findAllWithMemberDealByString(OrderSearch orderSearch) {
-        String jpql = "select o from Order o join o.member m join o.deal d";
-        boolean isFirstCondition = true;
-
-        // 주문 상태 검색
-        if (orderSearch.getOrderStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " o.status = :status";
-        }
-
-        // 거래 상태 검색
-        if (orderSearch.getDealStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " d.status = :dStatus";
-        }
-
-        // 회원 이름 검색
-        if (StringUtils.hasText(orderSearch.getNickName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " m.nickName like :name";
-        }
-
-        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
-                .setMaxResults(1000); //최대 1000건
-
-        if (orderSearch.getOrderStatus() != null)
-            query = query.setParameter("status", orderSearch.getOrderStatus());
-
-        if (orderSearch.getDealStatus() != null)
-            query = query.setParameter("dStatus", orderSearch.getDealStatus());
-
-        if (StringUtils.hasText(orderSearch.getNickName()))
-            query = query.setParameter("name", orderSearch.getNickName());
-
-        return query.getResultList();
-    }
+    private static final DynamicQuery<OrderSearch, Order> ORDER_SEARCH =
+            searchConditions(DynamicQuery.entity(OrderSearch.class, Order.class, "o")).readOnly();
 
-    public List<Order> findMyOrders(Long memberId) {    // 나의 주문 정보
-        return em.createQuery(
-                        "select o from Order o " +
-                                "join o.member m " +
-                                "join o.deal d " +
-                                "where m.id = :memberId", Order.class)
-                .setParameter("memberId", memberId)
-                .getResultList();
+    private static final DynamicQuery<Long, Order> MY_ORDERS = DynamicQuery.entity(Long.class, Order.class, "o")
+            .join("o.member", "m")
+            .join("o.deal", "d")
+            .filter("m.id = :memberId", memberId -> memberId)
+            .readOnly();
+
+    private static final DynamicQuery<Long, OrderItem> ORDER_ITEMS = DynamicQuery.entity(Long.class, OrderItem.class, "oi")
+            .filter("oi.order.id = :orderId", orderId -> orderId);
+
+    /**
+     * 주문 목록 (조건 검색) - v2, v3, Web Layer
+     * orderSearch 가 null 이면 전체, 조건이 있으면 최대 1000건
+     * 그래프 없이: 일반 join (v2), 회원과 거래는 Proxy => 꺼낼 때마다 쿼리
+     */
+    public List<Order> findOrders(@Nullable OrderSearch orderSearch) {
+        return limit(orderSearch, ORDER_SEARCH.create(em, orderSearch)).getResultList();
     }
 
     /**
-     * Fetch Join - v3
-     * 성능 최적화 => N + 1 문제 성능 문제의 90프로 해결
+     * graph: 화면이 그리는 연관관계만 같이 조회
+     * => Order.WITH_MEMBER_DEAL: 회원, 거래까지 한 방 쿼리 (v3, N + 1 문제 해결)
+     * 검색 조건 때문에 회원, 거래는 항상 (inner) join => 그래프는 그 join 에 fetch 만 더함
      */
-    public List<Order> findAllWithMemberDeal_fetch() {
-        // Order 를 조회하는데 Member 와 Delivery 를 from 절에서 join 하여
-        // Select 절에서 같이 한 번에 가져오게 됨
-        // => 한방 쿼리로 O, M, D 조인하여 Select 절에 넣어서 가져오는 것
-        // M, D Lazy 로딩이여도 무시하고 Proxy 가 아닌 진짜 객체의 값을 한 번에 다 채워서 가져오게 함
-        return em.createQuery(
-                        "select o from Order o " +
-                                "join fetch o.member m " +
-                                "join fetch o.deal d", Order.class)
-                .getResultList();
-        // SQL 에는 fetch 라는 말이 없음 => JPA 에서 나온 것
+    public List<Order> findOrders(@Nullable OrderSearch orderSearch, String graph) {
+        return limit(orderSearch, ORDER_SEARCH.create(em, orderSearch, graph)).getResultList();
     }
 
-    public List<Order> findAllWithMemberDealByString_fetch(OrderSearch orderSearch) {
-        String jpql = "select o from Order o join fetch o.member m join fetch o.deal d";
-        boolean isFirstCondition = true;
-
-        // 주문 상태 검색
-        if (orderSearch.getOrderStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " o.status = :status";
-        }
-
-        // 거래 상태 검색
-        if (orderSearch.getDealStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " d.status = :dStatus";
-        }
-
-        // 회원 이름 검색
-        if (StringUtils.hasText(orderSearch.getNickName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " m.nickName like :name";
-        }
-
-        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
-                .setMaxResults(1000); //최대 1000건
-
-        if (orderSearch.getOrderStatus() != null)
-            query = query.setParameter("status", orderSearch.getOrderStatus());
-
-        if (orderSearch.getDealStatus() != null)
-            query = query.setParameter("dStatus", orderSearch.getDealStatus());
-
-        if (StringUtils.hasText(orderSearch.getNickName()))
-            query = query.setParameter("name", orderSearch.getNickName());
-
-        return query.getResultList();
+    private static TypedQuery<Order> limit(@Nullable OrderSearch orderSearch, TypedQuery<Order> query) {
+        if (orderSearch != null)
+            query.setMaxResults(1000);  //최대 1000건
+
+        return query;
+    }
+
+    public List<Order> findMyOrders(Long memberId) {    // 나의 주문 정보
+        return MY_ORDERS.create(em, memberId).getResultList();
     }
 
-    public List<Order> findMyOrders_fetch(Long memberId) {
-        return em.createQuery(
-                        "select o from Order o " +
-                                "join fetch o.member m " +
-                                "join fetch o.deal d " +
-                                "where m.id = :memberId", Order.class)
-                .setParameter("memberId", memberId)
-                .getResultList();
+    public List<Order> findMyOrders(Long memberId, String graph) {
+        return MY_ORDERS.create(em, memberId, graph).getResultList();
     }
 
     /**
      * (주문 취소), (주문 거래 완료 API)에서 사용
      * 특정 주문과 관련된 주문상품, 상품, 등록, 회원 정보를 가져옴
      * => OI - I (ToOne 관계), I - R (ToOne 관계), R - M (ToOne 관계)
-     * => Fetch join: 엔티티 영속화
+     * => 엔티티 그래프(OrderItem.WITH_ITEM_REGISTER_MEMBER)로 한 번에: 엔티티 영속화 (수정할 엔티티 => 읽기 전용 X)
      */
     public List<OrderItem> findOrderItems_fetch(Long orderId) {
-        List<OrderItem> orderItems = em.createQuery(
-                        "select oi from OrderItem oi " +
-                                "join fetch oi.item i " +
-                                "join fetch i.register r " +
-                                "join fetch r.member m " +
-                                "where oi.order.id in :orderId", OrderItem.class)
-                .setParameter("orderId", orderId)  // 파라미터 바인딩
-                .getResultList();
-
-        return orderItems;
+        return ORDER_ITEMS.create(em, orderId, OrderItem.WITH_ITEM_REGISTER_MEMBER).getResultList();
     }
 }
@@ -1,13 +1,16 @@
 package mybook.mymarket.repository;
 
 
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import mybook.mymarket.domain.DealStatus;
 import mybook.mymarket.domain.OrderStatus;
+import org.springframework.util.StringUtils;
 
 
 @Getter @Setter
+@EqualsAndHashCode  // 조건 값이 같으면 같은 검색 => 조회 합치기(QueryCoalescer) 키
 public class OrderSearch {
     /**
      * where 문에서 검색될 조건들
@@ -15,4 +18,16 @@ public class OrderSearch {
     private String nickName;     // 회원 닉네임
     private DealStatus dealStatus; // 거래 상태 [WAIT, COMP]
     private OrderStatus orderStatus;    // 주문 상태 [ORDER, CANCEL]
+
+    /**
+     * 정규화된 복사본 => 빈 문자열은 조건이 없는 것과 같으므로 null 로
+     */
+    public OrderSearch normalize() {
+        OrderSearch normalized = new OrderSearch();
+        normalized.setNickName(StringUtils.hasText(nickName) ? nickName : null);
+        normalized.setDealStatus(dealStatus);
+        normalized.setOrderStatus(orderStatus);
+
+        return normalized;
+    }
 }
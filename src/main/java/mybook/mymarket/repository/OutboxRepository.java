@@ -0,0 +1,108 @@
+package mybook.mymarket.repository;
+
+import lombok.RequiredArgsConstructor;
+import mybook.mymarket.deadline.QueryTimeouts;
+import mybook.mymarket.domain.OutboxEvent;
+import mybook.mymarket.domain.OutboxOffset;
+import mybook.mymarket.query.ReadOnlyQueries;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+    private final EntityManager em;
+
+    public void save(OutboxEvent event) {
+        em.persist(event);
+    }
+
+    /**
+     * id 이후의 이벤트 => PK 범위 조회, 쌓인 양과 상관없이 limit 건만 읽음
+     */
+    public List<OutboxEvent> findAfter(long afterId, int limit) {
+        return ReadOnlyQueries.readOnly(QueryTimeouts.timed(em.createQuery(
+                        "select o from OutboxEvent o where o.id > :id order by o.id", OutboxEvent.class)))
+                .setParameter("id", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 마지막 id (없으면 0) => consumer 가 밀린 이벤트 수
+     */
+    public long findHead() {
+        Long head = QueryTimeouts.timed(em.createQuery("select max(o.id) from OutboxEvent o", Long.class))
+                .getSingleResult();
+
+        return head != null ? head : 0;
+    }
+
+    public long findOffset(String consumer) {
+        OutboxOffset offset = em.find(OutboxOffset.class, consumer);
+
+        return offset != null ? offset.getLastId() : 0;
+    }
+
+    /**
+     * offset 은 앞으로만 => 같은 consumer 를 다른 서버가 더 멀리 옮겼으면 그대로 두고 false
+     * 처음이면 insert (두 서버가 동시에 처음 저장하면 한쪽은 PK 중복으로 실패 => 다음 주기에 update)
+     */
+    public boolean saveOffset(String consumer, long lastId) {
+        int moved = em.createQuery("update OutboxOffset o set o.lastId = :id, o.updatedAt = :now " +
+                        "where o.consumer = :consumer and o.lastId < :id")
+                .setParameter("id", lastId)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("consumer", consumer)
+                .executeUpdate();
+        if (moved > 0)
+            return true;
+        if (em.find(OutboxOffset.class, consumer) != null)
+            return false;
+
+        em.persist(new OutboxOffset(consumer, lastId, LocalDateTime.now()));
+        return true;
+    }
+
+    /**
+     * 모든 consumer 가 받았고 보관 기간이 지난 이벤트 삭제
+     * @param consumers 이 서버의 offset 키 (서버별 consumer 는 "이름@서버")
+     * - 같은 consumer 의 다른 서버 offset 도 봄 => 가장 뒤처진 서버 기준
+     * - 보관 기간 동안 움직이지 않은 다른 서버의 offset, 등록되지 않은(멈춘) consumer 의 offset 은 보지 않음
+     *   => 보관 기간 안에 다시 붙어야 빠짐없이 받음
+     */
+    public int deleteDelivered(Collection<String> consumers, LocalDateTime recordedBefore) {
+        if (consumers.isEmpty())
+            return 0;
+
+        Set<String> names = consumers.stream().map(OutboxRepository::consumerName).collect(Collectors.toSet());
+        List<OutboxOffset> offsets = QueryTimeouts.timed(em.createQuery(
+                        "select o from OutboxOffset o", OutboxOffset.class))     // consumer 수 x 서버 수
+                .getResultList();
+        long mine = offsets.stream().filter(o -> consumers.contains(o.getConsumer())).count();
+        if (mine < consumers.size())    // 아직 한 번도 받지 않은 consumer
+            return 0;
+
+        long delivered = offsets.stream()
+                .filter(o -> names.contains(consumerName(o.getConsumer())))
+                .filter(o -> consumers.contains(o.getConsumer()) || !o.getUpdatedAt().isBefore(recordedBefore))
+                .mapToLong(OutboxOffset::getLastId)
+                .min().orElse(0);
+
+        return em.createQuery("delete from OutboxEvent o where o.id <= :id and o.recordedAt < :recordedBefore")
+                .setParameter("id", delivered)
+                .setParameter("recordedBefore", recordedBefore)
+                .executeUpdate();
+    }
+
+    private static String consumerName(String key) {
+        int at = key.indexOf('@');
+        return at < 0 ? key : key.substring(0, at);
+    }
+}
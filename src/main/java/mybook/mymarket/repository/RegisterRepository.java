@@ -2,13 +2,24 @@ package mybook.mymarket.repository;
 
 
 import lombok.RequiredArgsConstructor;
+import mybook.mymarket.cache.Footprint;
+import mybook.mymarket.cache.SearchCaches;
+import mybook.mymarket.cache.SearchResultCache;
+import mybook.mymarket.deadline.QueryTimeouts;
 import mybook.mymarket.domain.Register;
+import mybook.mymarket.query.InListExecutor;
+import mybook.mymarket.query.DynamicQuery;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Repository // 스프링빈에 등록
 @RequiredArgsConstructor    // final 키워드의 필드(em)를 가지고 생성자 만들어줌
@@ -16,6 +27,8 @@ public class RegisterRepository {
     // @Autowired  // 스프링데이터 JPA 가 지원해줌, 한 개일 때는 생략 가능
     private final EntityManager em;
     // @RequiredArgsConstructor => 생성자를 통해 엔티티매니저를 주입받게됨
+    private final SearchCaches searchCaches;
+    private final InListExecutor inListExecutor;
 
     public void save(Register register) {   // 등록 저장 -> 상품 저장, Cascade
         em.persist(register);
@@ -27,193 +40,118 @@ public class RegisterRepository {
 
     public Register findRegisterItem(Long id) {
         // 상품 취소 시 해당 등록과 관련된 상품 찾기 (fetch join, ToOne 관계)
-        return em.createQuery(
+        return QueryTimeouts.timed(em.createQuery(
                 "select r from Register r join fetch r.item i " +
-                        "where r.id = :id", Register.class)
+                        "where r.id = :id", Register.class))
                 .setParameter("id", id)
                 .getSingleResult();
     }
 
     public Register findRegisterItemMember(Long id) {
         // 상품 주문 시 해당 등록과 관련된 상품, 회원 찾기 (fetch join, ToOne 관계)
-        return em.createQuery(
+        return QueryTimeouts.timed(em.createQuery(
                 "select r from Register r join fetch r.item i join fetch r.member m " +
-                        "where r.id = :id", Register.class)
+                        "where r.id = :id", Register.class))
                 .setParameter("id", id)
                 .getSingleResult();
     }
 
     public Register findOneByItem(Long id) {
         // 상품 수정 시 특정 상품으로 해당 등록 가져오기
-        return em.createQuery("select r from Register r join fetch r.item i join fetch r.member m " +
-                        "where i.id = :id", Register.class)
+        return QueryTimeouts.timed(em.createQuery("select r from Register r join fetch r.item i join fetch r.member m " +
+                        "where i.id = :id", Register.class))
                 .setParameter("id", id)
                 .getSingleResult();
     }
 
+    private static final DynamicQuery<RegisterSearch, Register> REGISTER_SEARCH =
+            DynamicQuery.entity(RegisterSearch.class, Register.class, "r")
+                    .join("r.member", "m")
+                    .join("r.item", "i")
+                    .filter("r.status = :status", RegisterSearch::getRegisterStatus)    // 등록 상태 검색
+                    .filter("m.nickName like :name", RegisterSearch::getNickName)       // 회원 이름 검색
+                    .filter("i.name like :iName", RegisterSearch::getItemName)          // 상품명 검색
+                    .readOnly();
+
+    private static final DynamicQuery<Long, Register> MY_REGISTERS = DynamicQuery.entity(Long.class, Register.class, "r")
+            .join("r.member", "m")
+            .join("r.item", "i")
+            .filter("m.id = :memberId", memberId -> memberId)
+            .readOnly();
+
+    private static final DynamicQuery<List<Long>, Register> REGISTERS_BY_IDS =
+            DynamicQuery.<List<Long>, Register>entity(Register.class, "r")
+                    .filter("r.id in :ids", ids -> ids)
+                    .readOnly();
+
     /**
-     * v2: 일반 join - 엔티티
-     * 연관 엔티티에 일반 join 을 하게되면 Select 대상의 엔티티는 영속화하여 가져오지만,
-     * 조인의 대상은 영속화하여 가져오지 않는다.
+     * 등록 목록 (조건 검색) - v2, v3, Web Layer
+     * registerSearch 가 null 이면 전체, 조건이 있으면 최대 1000건
+     * 그래프 없이: 일반 join (v2), select 대상의 엔티티는 영속화하여 가져오지만 조인의 대상은 영속화하여 가져오지 않는다.
      */
-    public List<Register> findAllByRegister() { // 모든 아이템과 주문한 회원을 가져오기 위해
-        return em.createQuery("select r from Register r " +
-                        "join r.item i join r.member m", Register.class)
-                .getResultList();
+    public List<Register> findRegisters(@Nullable RegisterSearch registerSearch) {
+        return limit(registerSearch, REGISTER_SEARCH.create(em, registerSearch)).getResultList();
     }
 
-    public List<Register> findMyRegisters(Long memberId) {  // 회원으로 해당 등록 가져오기
-        return em.createQuery(
-                        "select r from Register r " +
-                                "join r.member m " +
-                                "join r.item i " +
-                                "where m.id = :memberId", Register.class)
-                .setParameter("memberId", memberId)
-                .getResultList();
+    /**
+     * graph: 화면이 그리는 연관관계만 같이 조회
+     * => Register.WITH_MEMBER_ITEM: 회원, 상품까지 한 방 쿼리 (v3, Web Layer)
+     *    연관 엔티티에 fetch join 을 하게되면 select 대상의 엔티티 뿐만 아니라 조인의 대상까지 영속화하여 가져온다.
+     *    성능 최적화 => N + 1 문제 성능 문제의 90프로 해결
+     * 검색 조건 때문에 회원, 상품은 항상 (inner) join => 그래프는 그 join 에 fetch 만 더함
+     * 조건 검색은 엔티티가 요청(영속성 컨텍스트)마다 따로 있어야 하므로 결과의 id 만 캐시 (SearchCaches.registerIds)
+     * => 캐시에 있으면 조건 검색(like) 대신 id 로 한 번에 조회
+     */
+    public List<Register> findRegisters(@Nullable RegisterSearch registerSearch, String graph) {
+        if (registerSearch == null || !searchCaches.isUsable())
+            return limit(registerSearch, REGISTER_SEARCH.create(em, registerSearch, graph)).getResultList();
+
+        RegisterSearch normalized = registerSearch.normalize();
+        SearchResultCache<RegisterSearch, List<Long>> cache = searchCaches.getRegisterIds();
+        List<Long> ids = cache.getIfPresent(normalized);
+        if (ids != null)
+            return findRegisters(ids, graph);
+
+        long stamp = cache.stamp();
+        List<Register> registers = limit(normalized, REGISTER_SEARCH.create(em, normalized, graph)).getResultList();
+        Footprint footprint = new Footprint();
+        registers.forEach(r -> footprint.member(r.getMember().getId()).item(r.getItem().getId()));
+        cache.put(normalized, registers.stream().map(Register::getId).collect(Collectors.toUnmodifiableList()),
+                footprint, registers.size(), stamp);
+
+        return registers;
     }
 
-    public List<Register> findAllByString(RegisterSearch registerSearch) {  // where 절 조건에 맞는 등록 정보 가져오기
-        // 등록 - (등록)상품, (등록)회원 => fetch join (ToOne 관계)
-        String jpql = "select r from Register r join r.member m join r.item i";
-        boolean isFirstCondition = true;
-
-        //주문 상태 검색
-        if (registerSearch.getRegisterStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " r.status = :status";
-        }
-
-        //회원 이름 검색
-        if (StringUtils.hasText(registerSearch.getNickName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " m.nickName like :name";
-        }
-
-        // 상품명 검색
-        if (StringUtils.hasText(registerSearch.getItemName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " i.name like :iName";
-        }
-
-        TypedQuery<Register> query = em.createQuery(jpql, Register.class)
-                .setMaxResults(1000); //최대 1000건
-
-        if (registerSearch.getRegisterStatus() != null)
-            query = query.setParameter("status", registerSearch.getRegisterStatus());
-
-        if (StringUtils.hasText(registerSearch.getNickName()))
-            query = query.setParameter("name", registerSearch.getNickName());
-
-        if (StringUtils.hasText(registerSearch.getItemName()))
-            query = query.setParameter("iName", registerSearch.getItemName());
-
-        return query.getResultList();
+    private static TypedQuery<Register> limit(@Nullable RegisterSearch registerSearch, TypedQuery<Register> query) {
+        if (registerSearch != null)
+            query.setMaxResults(1000);  //최대 1000건
+
+        return query;
     }
 
     /**
-     * Fetch Join (한 방 쿼리)
-     * 연관 엔티티에 fetch join 을 하게되면 select 대상의 엔티티 뿐만 아니라 조인의 대상까지 영속화하여 가져온다.
-     * 연관 엔티티까지 select 의 대상일 때, N + 1의 문제를 해결하여 가져올 수 있는 좋은 방법이다.
-     * 성능 최적화 => N + 1 문제 성능 문제의 90프로 해결
-     * /api/v3/registers 와 Web Layer(주문 시 해당 등록 가져오기)에서 사용
+     * id 목록으로 조회 (id 목록 순서대로)
      */
-    public List<Register> findAllWithMemberItem_fetch() {
-        // SQL 에는 fetch 라는 말이 없음 => JPA 에서 나온 것
-        return em.createQuery(
-                  "select r from Register r " +
-                            "join fetch r.member m " +
-                            "join fetch r.item i", Register.class)
-                .getResultList();
+    private List<Register> findRegisters(List<Long> ids, String graph) {
+        if (ids.isEmpty())
+            return Collections.emptyList();
+
+        Map<Long, Integer> order = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++)
+            order.put(ids.get(i), i);
+
+        List<Register> registers = inListExecutor.entities(ids,
+                chunk -> REGISTERS_BY_IDS.create(em, chunk, graph).getResultList());
+        registers.sort(Comparator.comparing(r -> order.get(r.getId())));
+
+        return registers;
     }
 
-    /**
-     * /api/v3/registers 와 Web Layer(등록 시 검색 조건)에서 사용
-     */
-    public List<Register> findAllWithMemberItem_fetch(RegisterSearch registerSearch) {
-        // Register 를 조회하는데 Member 와 Item 을 from 절에서 join 하여
-        // Select 절에서 같이 한 번에 가져오게 됨
-        // => 한방 쿼리로 R, M, I 조인하여 Select 절에 넣어서 가져오는 것
-        // M, I Lazy 로딩이여도 무시하고 Proxy 가 아닌 진짜 객체의 값을 한 번에 다 채워서 가져옴
-        // 등록 - (등록)상품, (등록)회원 => fetch join
-        String jpql = "select r from Register r join fetch r.member m join fetch r.item i";
-        boolean isFirstCondition = true;
-
-        //주문 상태 검색
-        if (registerSearch.getRegisterStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " r.status = :status";
-        }
-
-        //회원 이름 검색
-        if (StringUtils.hasText(registerSearch.getNickName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " m.nickName like :name";
-        }
-
-        // 상품명 검색
-        if (StringUtils.hasText(registerSearch.getItemName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " i.name like :iName";
-        }
-
-        TypedQuery<Register> query = em.createQuery(jpql, Register.class)
-                .setMaxResults(1000); //최대 1000건
-
-        if (registerSearch.getRegisterStatus() != null)
-            query = query.setParameter("status", registerSearch.getRegisterStatus());
-
-        if (StringUtils.hasText(registerSearch.getNickName()))
-            query = query.setParameter("name", registerSearch.getNickName());
-
-        if (StringUtils.hasText(registerSearch.getItemName()))
-            query = query.setParameter("iName", registerSearch.getItemName());
-
-        return query.getResultList();
+    public List<Register> findMyRegisters(Long memberId) {  // 회원으로 해당 등록 가져오기
+        return MY_REGISTERS.create(em, memberId).getResultList();
     }
 
-    public List<Register> findMyRegisters_fetch(Long memberId) {
-        return em.createQuery(
-                        "select r from Register r " +
-                                "join fetch r.member m " +
-                                "join fetch r.item i " +
-                                "where m.id = :memberId", Register.class)
-                .setParameter("memberId", memberId)
-                .getResultList();
+    public List<Register> findMyRegisters(Long memberId, String graph) {
+        return MY_REGISTERS.create(em, memberId, graph).getResultList();
     }
 }
@@ -1,11 +1,14 @@
 package mybook.mymarket.repository;
 
 
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import mybook.mymarket.domain.RegisterStatus;
+import org.springframework.util.StringUtils;
 
 @Getter @Setter
+@EqualsAndHashCode  // 조건 값이 같으면 같은 검색 => 조회 합치기(QueryCoalescer) 키
 public class RegisterSearch {
     /**
      * where 문에서 검색될 조건들
@@ -13,4 +16,17 @@ public class RegisterSearch {
     private String nickName;    // 등록한 사람
     private String itemName;    // 상품명
     private RegisterStatus registerStatus;  // 등록 상태 [REGISTER, CANCEL]
+
+    /**
+     * 정규화된 복사본 => 빈 문자열은 조건이 없는 것과 같으므로 null 로
+     * ("" 와 null 로 들어온 검색이 같은 키가 되게)
+     */
+    public RegisterSearch normalize() {
+        RegisterSearch normalized = new RegisterSearch();
+        normalized.setNickName(StringUtils.hasText(nickName) ? nickName : null);
+        normalized.setItemName(StringUtils.hasText(itemName) ? itemName : null);
+        normalized.setRegisterStatus(registerStatus);
+
+        return normalized;
+    }
 }
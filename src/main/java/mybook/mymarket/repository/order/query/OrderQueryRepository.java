@@ -2,17 +2,26 @@ package mybook.mymarket.repository.order.query;
 
 
 import lombok.RequiredArgsConstructor;
+import mybook.mymarket.cache.SearchCaches;
+import mybook.mymarket.coalesce.QueryCoalescer;
+import mybook.mymarket.deadline.QueryTimeouts;
+import mybook.mymarket.parallel.ParallelQueries;
+import mybook.mymarket.query.InListExecutor;
+import mybook.mymarket.query.ParentChildAssembler;
 import mybook.mymarket.domain.Order;
 import mybook.mymarket.domain.OrderItem;
+import mybook.mymarket.query.DynamicQuery;
+import mybook.mymarket.repository.OrderRepository;
 import mybook.mymarket.repository.OrderSearch;
 import org.springframework.stereotype.Repository;
-import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
-import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Repository
 @RequiredArgsConstructor
@@ -23,7 +32,24 @@ import java.util.stream.Collectors;
 // 장점: 화면과 관련된 것들은 쿼리들과 밀접하기때문에 따로 디렉토리를 두어서 관리하면
 // 관심사 분리도 가능하고 두 개가 서로 라이프사이클이 다르기때문에 유지보수도 편함
 public class OrderQueryRepository {
+    public static final String SEARCH = "orderSearch";     // QueryCoalescer 그룹
+
     private final EntityManager em;
+    private final OrderRepository orderRepository;
+    private final QueryCoalescer queryCoalescer;
+    private final SearchCaches searchCaches;
+    private final ParallelQueries parallelQueries;
+    private final InListExecutor inListExecutor;
+
+    // 검색 조건은 주문 엔티티 조회와 같이 씀 (OrderRepository.searchConditions)
+    private static final DynamicQuery<OrderSearch, OrderQueryDto> ORDER_SEARCH_DTO = OrderRepository.searchConditions(
+            DynamicQuery.dto(OrderSearch.class, OrderQueryDto.class,
+                    "o.id, m.id, m.nickName, o.orderDate, o.status, d.status, d.type, d.address", Order.class, "o"));
+
+    private static final DynamicQuery<List<Long>, OrderItem> ORDER_ITEMS_IN =
+            DynamicQuery.<List<Long>, OrderItem>entity(OrderItem.class, "oi")
+                    .filter("oi.order.id in :orderIds", orderIds -> orderIds)  // 파라미터 바인딩
+                    .readOnly();
 
     // OrderDto 안쓰고 별도로 findOrderQueryDtos 만든 이유
     // 1. Repository (OrderQueryRepository) 가 Controller 에 있는 OrderDto 를 참조를 하는 꼴이 됨
@@ -42,93 +68,72 @@ public class OrderQueryRepository {
      * 전체 주문 조회
      * Dto 직접 조회 (일반 join) - v4
      * => Dto 로 직접 조회 시 Fetch join 불가능
+     * 병렬 조회를 쓸 수 있으면(ParallelQueries) 주문과 주문상품을 각자 커넥션에서 동시에 조회해서 합침
+     * => 전체 조회라서 주문상품 쿼리가 주문 id 를 기다릴 필요가 없음
      */
     public List<OrderQueryDto> findAllByDto_optimization() {
+        if (parallelQueries.isUsable())
+            return findAllByDto_parallel();
+
         List<OrderQueryDto> result = findOrders();
 
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
+        attachOrderItems(result, this::findOrderItems);
+
+        return result;
+    }
+
+    private List<OrderQueryDto> findAllByDto_parallel() {
+        CompletableFuture<List<OrderQueryDto>> orders = parallelQueries.submit(this::findOrders);
+        CompletableFuture<List<OrderItemQueryDto>> orderItems = parallelQueries.submit(this::findAllOrderItems);
 
-        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        List<OrderQueryDto> result = ParallelQueries.join(orders);
+        List<OrderItemQueryDto> allOrderItems = ParallelQueries.join(orderItems);
+
+        ParentChildAssembler<OrderQueryDto, OrderItemQueryDto> assembler = orderItemAssembler(result);
+        assembler.accept(allOrderItems);
+        assembler.assemble(OrderQueryDto::setOrderItems);
 
         return result;
     }
 
     private List<OrderQueryDto> findOrders() {
-        return em.createQuery(
+        return QueryTimeouts.timed(em.createQuery(
                         "select new mybook.mymarket.repository.order.query." +
                                 "OrderQueryDto(o.id, m.id, m.nickName, o.orderDate, o.status, d.status, d.type, d.address) " +
                                 "from Order o " +
                                 "join o.member m " +
-                                "join o.deal d", OrderQueryDto.class)
+                                "join o.deal d", OrderQueryDto.class))
                 .getResultList();
     }
 
+    /**
+     * 같은 조건(정규화된 OrderSearch)으로 동시에 들어온 검색은 한 번만 조회 (QueryCoalescer)
+     * => orderItems 까지 채운 뒤 공유하므로 결과는 읽기 전용
+     * 결과는 검색 캐시(SearchCaches.orderSearch)에 => 관련된 변경이 커밋되면 그 결과만 무효화
+     */
     public List<OrderQueryDto> findAllByStringByDto_optimization(OrderSearch orderSearch) {
-        List<OrderQueryDto> result = findOrders(orderSearch);
+        OrderSearch normalized = orderSearch.normalize();
+        Supplier<List<OrderQueryDto>> load = () -> queryCoalescer.execute(SEARCH, normalized,
+                () -> Collections.unmodifiableList(searchByDto(normalized)));
+        if (!searchCaches.isUsable())
+            return load.get();
 
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
+        return searchCaches.getOrderSearch().get(normalized, load, SearchCaches::orderFootprint, List::size);
+    }
 
-        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+    private List<OrderQueryDto> searchByDto(OrderSearch orderSearch) {
+        List<OrderQueryDto> result = findOrders(orderSearch);
+
+        attachOrderItems(result, this::findOrderItems);
 
         return result;
     }
 
     // ToOne 관계 (M, D) => SQL 직접 조인 (fetch join 아님)
     private List<OrderQueryDto> findOrders(OrderSearch orderSearch) {
-        String jpql = "select new mybook.mymarket.repository.order.query." +
-                "OrderQueryDto(o.id, m.id, m.nickName, o.orderDate, o.status, d.status, d.type, d.address) " +
-                "from Order o join o.member m join o.deal d";
-        boolean isFirstCondition = true;
-
-        // 주문 상태 검색
-        if (orderSearch.getOrderStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " o.status = :status";
-        }
-
-        // 거래 상태 검색
-        if (orderSearch.getDealStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " d.status = :dStatus";
-        }
-
-        // 회원 이름 검색
-        if (StringUtils.hasText(orderSearch.getNickName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " m.nickName like :name";
-        }
-
-        TypedQuery<OrderQueryDto> query = em.createQuery(jpql, OrderQueryDto.class)
-                .setMaxResults(1000); //최대 1000건
-
-        if (orderSearch.getOrderStatus() != null)
-            query = query.setParameter("status", orderSearch.getOrderStatus());
-
-        if (orderSearch.getDealStatus() != null)
-            query = query.setParameter("dStatus", orderSearch.getDealStatus());
-
-        if (StringUtils.hasText(orderSearch.getNickName()))
-            query = query.setParameter("name", orderSearch.getNickName());
-
-        return query.getResultList();
+        return ORDER_SEARCH_DTO.create(em, orderSearch)
+                .setMaxResults(1000) //최대 1000건
+                .getResultList();
     }
 
     /**
@@ -139,56 +144,87 @@ public class OrderQueryRepository {
     public List<OrderQueryDto> findMyAllByDto_optimization(Long memberId) {
         List<OrderQueryDto> result = findMyOrders(memberId);
 
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
-
-        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        attachOrderItems(result, this::findOrderItems);
 
         return result;
     }
 
     private List<OrderQueryDto> findMyOrders(Long memberId) {
-        return em.createQuery(
+        return QueryTimeouts.timed(em.createQuery(
                         "select new mybook.mymarket.repository.order.query." +
                                 "OrderQueryDto(o.id, m.id, m.nickName, o.orderDate, o.status, d.status, d.type, d.address) " +
                                 "from Order o join o.member m join o.deal d " +
-                                "where m.id = :memberId", OrderQueryDto.class)
+                                "where m.id = :memberId", OrderQueryDto.class))
                 .setParameter("memberId", memberId)
                 .getResultList();
     }
 
+    /**
+     * 델타 동기화 => 바뀐 주문만 (id 는 한 페이지 크기 이하)
+     */
+    public List<OrderQueryDto> findByIdsByDto(List<Long> orderIds) {
+        List<OrderQueryDto> result = QueryTimeouts.timed(em.createQuery(
+                        "select new mybook.mymarket.repository.order.query." +
+                                "OrderQueryDto(o.id, m.id, m.nickName, o.orderDate, o.status, d.status, d.type, d.address) " +
+                                "from Order o join o.member m join o.deal d " +
+                                "where o.id in :orderIds", OrderQueryDto.class))
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        attachOrderItems(result, this::findOrderItems);
+
+        return result;
+    }
+
     private static List<Long> toOrderIds(List<OrderQueryDto> result) {
-        List<Long> orderIds = result.stream()
-                .map(o -> o.getOrderId())
-                .collect(Collectors.toList());
+        List<Long> orderIds = new ArrayList<>(result.size());
+        for (OrderQueryDto o : result)
+            orderIds.add(o.getOrderId());
 
         return orderIds;
     }
 
-    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        // 루프를 돌리지않고 컬렉션을 한 번에 가져옴 => orderId 의 리스트를 이용
-        // => orderId를 하나씩 하는 것이 아니라 In 절에 전부 포함 => in orderIds
-        // => orderIds 에 대한 orderItems 들이 뽑혀져나옴
-        List<OrderItemQueryDto> orderItems = em.createQuery(
+    /**
+     * 주문 DTO 에 주문상품 DTO 를 붙임
+     * 루프를 돌리지않고 컬렉션을 한 번에 가져옴 => orderId 의 리스트를 이용
+     * => orderId를 하나씩 하는 것이 아니라 In 절에 전부 포함 => in orderIds
+     * => orderIds 에 대한 orderItems 들이 뽑혀져나옴
+     * id 는 2의 거듭제곱 크기 덩어리로 나눠서 실행하고 (InListExecutor)
+     * 결과는 바로 orderId 로 주문 위치를 찾아 붙임 (ParentChildAssembler) => Map<Long, List> 를 만들지 않음
+     */
+    private void attachOrderItems(List<OrderQueryDto> result, Function<List<Long>, List<OrderItemQueryDto>> query) {
+        if (result.isEmpty())
+            return;
+
+        ParentChildAssembler<OrderQueryDto, OrderItemQueryDto> assembler = orderItemAssembler(result);
+        inListExecutor.forEach(toOrderIds(result), query, assembler::accept);
+        assembler.assemble(OrderQueryDto::setOrderItems);
+    }
+
+    private static ParentChildAssembler<OrderQueryDto, OrderItemQueryDto> orderItemAssembler(List<OrderQueryDto> result) {
+        return new ParentChildAssembler<>(result, OrderQueryDto::getOrderId, OrderItemQueryDto::getOrderId);
+    }
+
+    private List<OrderItemQueryDto> findOrderItems(List<Long> orderIds) {
+        return QueryTimeouts.timed(em.createQuery(
                         "select new mybook.mymarket.repository.order.query." +
                                 "OrderItemQueryDto(oi.order.id, r.member.id, i.id, i.name, r.member.nickName, oi.orderPrice, oi.count) " +
                                 "from OrderItem oi " +
                                 "join oi.item i " +
                                 "join i.register r " +
-                                "where oi.order.id in :orderIds", OrderItemQueryDto.class)
+                                "where oi.order.id in :orderIds", OrderItemQueryDto.class))
                 .setParameter("orderIds", orderIds)  // 파라미터 바인딩
                 .getResultList();
+    }
 
-        // orderItems 을 그냥 써도 좋지만 한 번 더 최적화시켜줌 (Map 으로 바꾸는 것)
-        // => 코드도 단순화시켜주고 성능도 최적화할 수 있게끔
-        // key: orderId, value: orderItems 로 매핑시켜줌
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
-                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
-
-//        람다식 표현
-//        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
-//                .collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
-
-        return orderItemMap;
+    private List<OrderItemQueryDto> findAllOrderItems() {
+        return QueryTimeouts.timed(em.createQuery(
+                        "select new mybook.mymarket.repository.order.query." +
+                                "OrderItemQueryDto(oi.order.id, r.member.id, i.id, i.name, r.member.nickName, oi.orderPrice, oi.count) " +
+                                "from OrderItem oi " +
+                                "join oi.item i " +
+                                "join i.register r", OrderItemQueryDto.class))
+                .getResultList();
     }
 
     /**
@@ -205,119 +241,51 @@ public class OrderQueryRepository {
      * => ToOne 관계 직접 조인하여 해결 필요 (v4)
      */
     public List<OrderQueryDto> findAllByString_optimization(OrderSearch orderSearch) {
-        // Order - Deal, Member => ToOne 관계 엔티티 Fetch join 하여 한 방 쿼리로 가져옴
+        OrderSearch normalized = orderSearch.normalize();
+
+        return queryCoalescer.execute("orderList", normalized,
+                () -> Collections.unmodifiableList(searchByFetch(normalized)));
+    }
+
+    private List<OrderQueryDto> searchByFetch(OrderSearch orderSearch) {
+        // Order - Deal, Member => ToOne 관계 엔티티 그래프(Order.WITH_MEMBER_DEAL)로 한 방 쿼리로 가져옴
         // where 문에서 검색될 조건들 포함시켜서
-        List<Order> orders = findAllByString_fetch(orderSearch);
+        List<Order> orders = orderRepository.findOrders(orderSearch, Order.WITH_MEMBER_DEAL);
 
         // 가져온 쿼리로 화면에 맞는 Dto 로 생성
-        List<OrderQueryDto> result = orders.stream().map(o -> new OrderQueryDto(o.getId(), o.getMember().getId(), o.getMember().getNickName(), o.getOrderDate(),
-                o.getStatus(), o.getDeal().getStatus(), o.getDeal().getType(), o.getDeal().getAddress())).collect(Collectors.toList());
-
-        // OrderItem - Item - Register => ToOne 관계 엔티티 Fetch join 하여 한 방 쿼리로 가져옴
-        // => 위에 Dto 의 order_id(PK)값을 In 절에 전부 포함시킴 => in orderIds (Map 으로 바꾸는 것)
-        // => 코드도 단순화시켜주고 성능도 최적화할 수 있게끔
-        // key: orderId, value: orderItems 로 매핑시켜줌
-        Map<Long, List<OrderItemQueryDto>> orderItemMap2 = findOrderItemMap2(toOrderIds(result));
+        List<OrderQueryDto> result = toOrderQueryDtos(orders);
 
-        // orderIds 에 대한 orderItems 들이 뽑혀져나옴
-        result.forEach(orderQueryDto -> orderQueryDto.setOrderItems(orderItemMap2.get(orderQueryDto.getOrderId())));
+        // OrderItem - Item - Register => ToOne 관계 엔티티 그래프(OrderItem.WITH_ITEM_REGISTER_MEMBER)로 한 방 쿼리로 가져옴
+        // => 위에 Dto 의 order_id(PK)값을 In 절에 전부 포함시킴 => in orderIds
+        // orderIds 에 대한 orderItems 들이 뽑혀져나와서 각 주문에 붙음
+        attachOrderItems(result, this::findOrderItemDtos_fetch2);
 
         return result;
     }
 
-    public List<Order> findAllByString_fetch(OrderSearch orderSearch) {
-        /** 파라미터가 null 이거나 필요하지 않은 경우 => 동적쿼리 필요
-         * JPQL 쿼리를 문자로 생성하기는 번거롭고, 실수로 인한 버그가 충분히 발생할 수 있다.*/
-
-        String jpql = "select o from Order o " +
-                "join fetch o.member m " +
-                "join fetch o.deal d";
-        boolean isFirstCondition = true;
-
-        // 주문 상태 검색
-        if (orderSearch.getOrderStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " o.status = :status";
-        }
-
-        // 거래 상태 검색
-        if (orderSearch.getDealStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " d.status = :dStatus";
-        }
-
-        // 회원 이름 검색
-        if (StringUtils.hasText(orderSearch.getNickName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-
-            jpql += " m.nickName like :name";
-        }
-
-        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
-                .setMaxResults(1000); //최대 1000건
-
-        if (orderSearch.getOrderStatus() != null)
-            query = query.setParameter("status", orderSearch.getOrderStatus());
-
-        if (orderSearch.getDealStatus() != null)
-            query = query.setParameter("dStatus", orderSearch.getDealStatus());
-
-        if (StringUtils.hasText(orderSearch.getNickName()))
-            query = query.setParameter("name", orderSearch.getNickName());
-
-        return query.getResultList();
+    private static List<OrderQueryDto> toOrderQueryDtos(List<Order> orders) {
+        List<OrderQueryDto> result = new ArrayList<>(orders.size());
+        for (Order o : orders)
+            result.add(new OrderQueryDto(o.getId(), o.getMember().getId(), o.getMember().getNickName(), o.getOrderDate(),
+                    o.getStatus(), o.getDeal().getStatus(), o.getDeal().getType(), o.getDeal().getAddress()));
+
+        return result;
     }
 
-    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap2(List<Long> orderIds) {
-        // orderIds 에 맞는 orderItemList 전부 가져옴 (엔티티 조회)
-        List<OrderItem> orderItemList = findOrderItems_fetch2(orderIds);
-
-        // 엔티티 List -> Dto List
-        List<OrderItemQueryDto> orderItems = orderItemList.stream()
-                .map(oi -> new OrderItemQueryDto(oi.getOrder().getId(), oi.getItem().getRegister().getId(), oi.getItem().getId(),
-                        oi.getItem().getName(), oi.getItem().getRegister().getMember().getNickName(), oi.getOrderPrice(), oi.getCount()))
-                .collect(Collectors.toList());
-
-        // orderItems 을 그냥 써도 좋지만 한 번 더 최적화시켜줌 (Map 으로 바꾸는 것)
-        // => 코드도 단순화시켜주고 성능도 최적화할 수 있게끔
-        // key: orderId, value: orderItems 로 매핑시켜줌
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
-                .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
-
-//        람다식 표현
-//        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
-//                .collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
-        return orderItemMap;
+    private List<OrderItemQueryDto> findOrderItemDtos_fetch2(List<Long> orderIds) {
+        // orderIds 에 맞는 orderItemList 전부 가져옴 (엔티티 조회) => 덩어리마다 (InListExecutor)
+        // 엔티티 List -> Dto List (병렬이면 각자 트랜잭션 안에서 Dto 까지 만들어서 넘김)
+        List<OrderItem> orderItems = findOrderItems_fetch2(orderIds);
+        List<OrderItemQueryDto> result = new ArrayList<>(orderItems.size());
+        for (OrderItem oi : orderItems)
+            result.add(new OrderItemQueryDto(oi.getOrder().getId(), oi.getItem().getRegister().getId(), oi.getItem().getId(),
+                    oi.getItem().getName(), oi.getItem().getRegister().getMember().getNickName(), oi.getOrderPrice(), oi.getCount()));
+
+        return result;
     }
 
     public List<OrderItem> findOrderItems_fetch2(List<Long> orderIds) {
-        List<OrderItem> orderItems = em.createQuery(
-                      "select oi from OrderItem oi " +
-                                "join fetch oi.item i " +
-                                "join fetch i.register r " +
-                                "join fetch r.member m " +
-                                "where oi.order.id in :orderIds", OrderItem.class)
-                .setParameter("orderIds", orderIds)  // 파라미터 바인딩
-                .getResultList();
-
-        return orderItems;
+        return ORDER_ITEMS_IN.create(em, orderIds, OrderItem.WITH_ITEM_REGISTER_MEMBER).getResultList();
     }
 
 
@@ -325,25 +293,12 @@ public class OrderQueryRepository {
      * Controller 계층에 이용하는 나의 주문 내역 로직
      */
     public List<OrderQueryDto> findMyOrders_optimization(Long memberId) {
-        List<Order> myOrders = findMyOrders_fetch(memberId);
+        List<Order> myOrders = orderRepository.findMyOrders(memberId, Order.WITH_MEMBER_DEAL);
 
-        List<OrderQueryDto> result = myOrders.stream().map(o -> new OrderQueryDto(o.getId(), o.getMember().getId(), o.getMember().getNickName(), o.getOrderDate(),
-                o.getStatus(), o.getDeal().getStatus(), o.getDeal().getType(), o.getDeal().getAddress())).collect(Collectors.toList());
+        List<OrderQueryDto> result = toOrderQueryDtos(myOrders);
 
-        Map<Long, List<OrderItemQueryDto>> orderItemMap2 = findOrderItemMap2(toOrderIds(result));
-
-        result.forEach(orderQueryDto -> orderQueryDto.setOrderItems(orderItemMap2.get(orderQueryDto.getOrderId())));
+        attachOrderItems(result, this::findOrderItemDtos_fetch2);
 
         return result;
     }
-
-    public List<Order> findMyOrders_fetch(Long memberId) {
-        return em.createQuery(
-                        "select o from Order o " +
-                                "join fetch o.member m " +
-                                "join fetch o.deal d " +
-                                "where m.id = :memberId", Order.class)
-                .setParameter("memberId", memberId)
-                .getResultList();
-    }
 }
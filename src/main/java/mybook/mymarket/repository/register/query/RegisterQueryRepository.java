@@ -1,13 +1,18 @@
 package mybook.mymarket.repository.register.query;
 
 import lombok.RequiredArgsConstructor;
+import mybook.mymarket.cache.SearchCaches;
+import mybook.mymarket.coalesce.QueryCoalescer;
+import mybook.mymarket.deadline.QueryTimeouts;
 import mybook.mymarket.repository.RegisterSearch;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Repository
 @RequiredArgsConstructor
@@ -18,7 +23,12 @@ import java.util.List;
 // 장점: 화면과 관련된 것들은 쿼리들과 밀접하기때문에 따로 디렉토리를 두어서 관리하면
 // 관심사 분리도 가능하고 두 개가 서로 라이프사이클이 다르기때문에 유지보수도 편함
 public class RegisterQueryRepository {
+    public static final String CATALOG = "registerCatalog";    // QueryCoalescer 그룹
+    public static final String SEARCH = "registerSearch";
+
     private final EntityManager em;
+    private final QueryCoalescer queryCoalescer;
+    private final SearchCaches searchCaches;
 
     // RegisterDto 안쓰고 별도로 RegisterQueryDto 만든 이유
     // 1. Repository (RegisterQueryRepository) 가 Controller 에 있는 RegisterDto 를 참조를 하는 꼴이 됨
@@ -31,13 +41,22 @@ public class RegisterQueryRepository {
         return registers;
     }
 
+    /**
+     * 전체 등록상품 목록 (카탈로그) => 동시에 들어온 조회는 한 번만 (QueryCoalescer)
+     * 그룹 ttl 동안 들고 있는 결과는 등록상품, 상품, 닉네임이 바뀌면 버림 (SearchCacheInvalidator)
+     */
     public List<RegisterQueryDto> findRegisters() {
-        return em.createQuery(
+        return queryCoalescer.execute(CATALOG, "all",
+                () -> Collections.unmodifiableList(selectRegisters()));
+    }
+
+    private List<RegisterQueryDto> selectRegisters() {
+        return QueryTimeouts.timed(em.createQuery(
                         "select new mybook.mymarket.repository.register.query." +
                                 "RegisterQueryDto(r.id, m.id, i.id, m.nickName, i.name, i.price, i.stockQuantity, r.registerDate, r.status)" +
                                 "from Register r " +
                                 "join r.member m " +
-                                "join r.item i", RegisterQueryDto.class)
+                                "join r.item i", RegisterQueryDto.class))
                 .getResultList();
     }
 
@@ -48,7 +67,22 @@ public class RegisterQueryRepository {
         return registers;
     }
 
+    /**
+     * 같은 조건(정규화된 RegisterSearch)으로 동시에 들어온 검색은 DB 조회 한 번의 결과를 같이 씀
+     * => 결과 리스트는 여러 요청이 공유하므로 읽기 전용
+     * 결과는 검색 캐시(SearchCaches.registerSearch)에 => 관련된 변경이 커밋되면 그 결과만 무효화
+     */
     public List<RegisterQueryDto> findRegisters_search(RegisterSearch registerSearch) {
+        RegisterSearch normalized = registerSearch.normalize();
+        Supplier<List<RegisterQueryDto>> load = () -> queryCoalescer.execute(SEARCH, normalized,
+                () -> Collections.unmodifiableList(searchRegisters(normalized)));
+        if (!searchCaches.isUsable())
+            return load.get();
+
+        return searchCaches.getRegisterSearch().get(normalized, load, SearchCaches::registerFootprint, List::size);
+    }
+
+    private List<RegisterQueryDto> searchRegisters(RegisterSearch registerSearch) {
         // 등록 - (등록)상품, (등록)회원 => join
         String jpql = "select new mybook.mymarket.repository.register.query." +
                 "RegisterQueryDto(r.id, m.id, i.id, m.nickName, i.name, i.price, i.stockQuantity, r.registerDate, r.status)" +
@@ -91,7 +125,7 @@ public class RegisterQueryRepository {
             jpql += " i.name like :iName";
         }
 
-        TypedQuery<RegisterQueryDto> query = em.createQuery(jpql, RegisterQueryDto.class)
+        TypedQuery<RegisterQueryDto> query = QueryTimeouts.timed(em.createQuery(jpql, RegisterQueryDto.class))
                 .setMaxResults(1000); //최대 1000건
 
         if (registerSearch.getRegisterStatus() != null)
@@ -113,12 +147,25 @@ public class RegisterQueryRepository {
     }
 
     public List<RegisterQueryDto> findMyRegistres(Long memberId) {
-        return em.createQuery(
+        return QueryTimeouts.timed(em.createQuery(
                 "select new mybook.mymarket.repository.register.query." +
                         "RegisterQueryDto(r.id, m.id, i.id, m.nickName, i.name, i.price, i.stockQuantity, r.registerDate, r.status)" +
                         "from Register r join r.member m join r.item i " +
-                        "where m.id = :memberId", RegisterQueryDto.class)
+                        "where m.id = :memberId", RegisterQueryDto.class))
                 .setParameter("memberId", memberId)
                 .getResultList();
     }
+
+    /**
+     * 델타 동기화 => 바뀐 등록상품만 (id 는 한 페이지 크기 이하)
+     */
+    public List<RegisterQueryDto> findByIds(List<Long> registerIds) {
+        return QueryTimeouts.timed(em.createQuery(
+                "select new mybook.mymarket.repository.register.query." +
+                        "RegisterQueryDto(r.id, m.id, i.id, m.nickName, i.name, i.price, i.stockQuantity, r.registerDate, r.status)" +
+                        "from Register r join r.member m join r.item i " +
+                        "where r.id in :registerIds", RegisterQueryDto.class))
+                .setParameter("registerIds", registerIds)
+                .getResultList();
+    }
 }
@@ -0,0 +1,133 @@
+package mybook.mymarket.route;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * application.yml 의 routes ("메소드 경로패턴") => 위에서부터 처음 맞는 라우트의 값
+ * - 메소드 * 는 모든 메소드
+ * - 경로 패턴은 시작할 때 한 번 PathPattern 으로 파싱 => 요청마다 패턴을 다시 나누지 않음, {변수} 추출
+ * - 요청 경로는 context path 를 뺀 request URI => 파싱한 경로는 요청 속성에 두고 다음 필터가 다시 씀
+ * - 라우트에 없는 메소드는 경로를 파싱하지 않고 바로 null
+ * - 앞쪽이 한 세그먼트씩만 맞는 패턴의 {변수} 세그먼트는 위치를 미리 => 값은 파싱한 경로의 세그먼트 그대로 (할당 X)
+ * 처리율 제한, 요청 마감, 적응형 제한, 벌크헤드 필터가 같이 씀 (만들 때만 add, 그 뒤로는 읽기만)
+ */
+public class RouteMatcher<T> {
+    private static final PathPatternParser PARSER = new PathPatternParser();
+    private static final String PATH_ATTRIBUTE = RouteMatcher.class.getName() + ".path";
+
+    private final List<Route<T>> routes = new ArrayList<>();
+    private final Set<String> methods = new HashSet<>();    // 대문자, * 포함
+
+    /**
+     * @throws IllegalArgumentException "메소드 경로패턴" 이 아니거나 패턴이 잘못됨
+     */
+    public RouteMatcher<T> add(String route, T value) {
+        String[] methodAndPattern = route.trim().split("\\s+", 2);
+        if (methodAndPattern.length < 2)
+            throw new IllegalArgumentException("\"메소드 경로패턴\" 이어야 함: " + route);
+
+        String method = methodAndPattern[0].toUpperCase(Locale.ROOT);
+        routes.add(new Route<>(method, PARSER.parse(methodAndPattern[1]), value));
+        methods.add(method);
+        return this;
+    }
+
+    /**
+     * 맞는 라우트의 값 (없으면 null)
+     */
+    public T find(HttpServletRequest request) {
+        Match<T> match = match(request);
+        return match != null ? match.getValue() : null;
+    }
+
+    /**
+     * 맞는 라우트 (없으면 null) => 경로 변수가 필요할 때
+     */
+    public Match<T> match(HttpServletRequest request) {
+        String method = request.getMethod().toUpperCase(Locale.ROOT);
+        if (!methods.contains("*") && !methods.contains(method))
+            return null;
+
+        PathContainer path = path(request);
+        for (Route<T> route : routes) {
+            if ((route.method.equals("*") || route.method.equals(method)) && route.pattern.matches(path))
+                return new Match<>(route, path);
+        }
+
+        return null;
+    }
+
+    private static PathContainer path(HttpServletRequest request) {
+        String value = request.getRequestURI().substring(request.getContextPath().length());
+        Object parsed = request.getAttribute(PATH_ATTRIBUTE);
+        if (parsed instanceof PathContainer && ((PathContainer) parsed).value().equals(value))
+            return (PathContainer) parsed;  // 앞 필터가 파싱한 경로 (forward 되면 다시)
+
+        PathContainer path = PathContainer.parsePath(value);
+        request.setAttribute(PATH_ATTRIBUTE, path);
+        return path;
+    }
+
+    private static class Route<T> {
+        private final String method;
+        private final PathPattern pattern;
+        private final T value;
+        private final Map<String, Integer> segments = new HashMap<>();  // 변수 이름 -> PathContainer.elements() 위치
+
+        Route(String method, PathPattern pattern, T value) {
+            this.method = method;
+            this.pattern = pattern;
+            this.value = value;
+
+            String[] parts = pattern.getPatternString().split("/", -1);
+            if (!parts[0].isEmpty())
+                return;
+            for (int i = 1; i < parts.length; i++) {
+                String part = parts[i];
+                if (part.contains("**") || part.startsWith("{*"))
+                    return;     // 여러 세그먼트에 맞음 => 뒤쪽 위치를 모름
+                if (part.length() > 2 && part.startsWith("{") && part.endsWith("}") && part.indexOf(':') < 0)
+                    segments.put(part.substring(1, part.length() - 1), 2 * i - 1);  // 구분자, 세그먼트 번갈아
+            }
+        }
+    }
+
+    public static class Match<T> {
+        private final Route<T> route;
+        private final PathContainer path;
+
+        Match(Route<T> route, PathContainer path) {
+            this.route = route;
+            this.path = path;
+        }
+
+        public T getValue() {
+            return route.value;
+        }
+
+        /**
+         * 경로 변수 값 (패턴에 없으면 null)
+         */
+        public String variable(String name) {
+            Integer index = route.segments.get(name);
+            List<PathContainer.Element> elements = path.elements();
+            if (index != null && index < elements.size() && elements.get(index) instanceof PathContainer.PathSegment)
+                return ((PathContainer.PathSegment) elements.get(index)).valueToMatch();
+
+            PathPattern.PathMatchInfo info = route.pattern.matchAndExtract(path);
+            Map<String, String> variables = info != null ? info.getUriVariables() : Map.of();
+            return variables.get(name);
+        }
+    }
+}
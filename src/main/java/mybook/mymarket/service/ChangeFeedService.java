@@ -0,0 +1,87 @@
+package mybook.mymarket.service;
+
+import lombok.RequiredArgsConstructor;
+import mybook.mymarket.changes.ChangeCursor;
+import mybook.mymarket.changes.ChangeFeedProperties;
+import mybook.mymarket.domain.ChangeLog;
+import mybook.mymarket.domain.ChangeType;
+import mybook.mymarket.repository.ChangeLogRepository;
+import mybook.mymarket.repository.order.query.OrderQueryDto;
+import mybook.mymarket.repository.order.query.OrderQueryRepository;
+import mybook.mymarket.repository.register.query.RegisterQueryDto;
+import mybook.mymarket.repository.register.query.RegisterQueryRepository;
+import mybook.mymarket.service.dto.ChangeFeedDto;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 델타 동기화: 나의 주문/등록상품 중 cursor 이후에 바뀐 것만
+ * - cursor 없음: 전체 목록 + 지금까지의 cursor (처음 한 번)
+ * - cursor 있음: 그 뒤의 변경 기록(ChangeLog) 한 페이지 => 바뀐 id 의 현재 상태만 조회
+ *   => 읽는 양, 응답 크기가 전체 이력이 아니라 변경 수에 비례
+ * cursor 는 settle 이 지난 변경까지만 앞으로 감 => 늦게 커밋된 변경을 건너뛰지 않는 대신 같은 것을 두 번 받을 수 있음 (id 로 덮어쓰면 됨)
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ChangeFeedService {
+    private final ChangeLogRepository changeLogRepository;
+    private final OrderQueryRepository orderQueryRepository;
+    private final RegisterQueryRepository registerQueryRepository;
+    private final ChangeFeedProperties properties;
+
+    public ChangeFeedDto<OrderQueryDto> myOrderChanges(Long memberId, @Nullable String cursor) {
+        return changes(memberId, ChangeType.ORDER, cursor,
+                () -> orderQueryRepository.findMyAllByDto_optimization(memberId),
+                orderQueryRepository::findByIdsByDto);
+    }
+
+    public ChangeFeedDto<RegisterQueryDto> myRegisterChanges(Long memberId, @Nullable String cursor) {
+        return changes(memberId, ChangeType.REGISTER, cursor,
+                () -> registerQueryRepository.findMyAllByDto(memberId),
+                registerQueryRepository::findByIds);
+    }
+
+    private <T> ChangeFeedDto<T> changes(Long memberId, ChangeType type, @Nullable String cursor,
+                                         Supplier<List<T>> all, Function<List<Long>, List<T>> byIds) {
+        LocalDateTime settledBefore = LocalDateTime.now().minus(properties.getSettle());
+        if (cursor == null) {   // cursor 를 먼저 => 목록을 읽는 사이의 변경은 다음 요청에서 다시 받음
+            long head = changeLogRepository.findSettledHead(memberId, type, settledBefore);
+            List<T> result = all.get();
+
+            return new ChangeFeedDto<>(ChangeCursor.encode(head), false, true, result.size(), result);
+        }
+
+        long after = ChangeCursor.decode(cursor);
+        int pageSize = properties.getPageSize();
+        List<ChangeLog> changes = changeLogRepository.findChanges(memberId, type, after, pageSize + 1);
+        boolean more = changes.size() > pageSize;
+        if (more)
+            changes = changes.subList(0, pageSize);
+
+        long next = after;
+        boolean settled = true;
+        Set<Long> ids = new LinkedHashSet<>();
+        for (ChangeLog change : changes) {
+            ids.add(change.getEntityId());
+            settled = settled && !change.getRecordedAt().isAfter(settledBefore);
+            if (settled)
+                next = change.getSeq();
+        }
+
+        List<T> result = ids.isEmpty() ? Collections.emptyList() : byIds.apply(new ArrayList<>(ids));
+
+        // 한 페이지가 전부 settle 전이면 cursor 가 그대로 => 이어서 받지 않고 다음 새로고침에
+        return new ChangeFeedDto<>(ChangeCursor.encode(next), more && next > after, false, result.size(), result);
+    }
+}
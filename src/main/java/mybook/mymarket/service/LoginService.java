@@ -1,8 +1,11 @@
 package mybook.mymarket.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import mybook.mymarket.domain.Member;
 import mybook.mymarket.exception.NotCorrespondingEmailException;
+import mybook.mymarket.monitoring.jfr.LoginEvent;
+import mybook.mymarket.ratelimit.AccountRateLimiter;
 import mybook.mymarket.repository.MemberRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,11 +18,29 @@ import java.util.Optional;
 public class LoginService {
     // Member 개체에 접근하기 위해서 MemberRepository 를 생성한 후 의존성 주입(DI)을 해준다
     private final MemberRepository memberRepository;     // final: 변경할 일 X, 컴파일 시점에 오류검사가능
+    private final AccountRateLimiter accountRateLimiter;
 
     /**
      * 로그인
      */
+    @Timed(value = "market.login", description = "로그인")
     public Member login(String nickName, String password) {
+        accountRateLimiter.acquire("login", nickName);  // 계정별 시도 제한 => 넘으면 429 (인증 전에)
+
+        LoginEvent event = new LoginEvent();    // JFR: 로그인 구간 측정 (실패도 기록)
+        event.begin();
+        try {
+            Member member = authenticate(nickName, password);
+            event.memberId = member.getId();
+            event.success = true;
+
+            return member;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private Member authenticate(String nickName, String password) {
         //Optional 클래스는 반환값이 Null 이 발생할 수도 있는 메서드에 사용하면 NPE 를 피할 수 있고,
         // 다양한 Optional 의 메서드를 통해 Null 이 발생했을 때 문제를 해결할 수 있다.
         Optional<Member> findMember = memberRepository.findByNickName(nickName);
@@ -1,17 +1,24 @@
 package mybook.mymarket.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 import mybook.mymarket.domain.*;
 import mybook.mymarket.exception.NotCorrectAccess;
+import mybook.mymarket.exception.NotEnoughStockException;
+import mybook.mymarket.monitoring.jfr.OrderPlacedEvent;
 import mybook.mymarket.repository.ItemRepository;
 import mybook.mymarket.repository.OrderRepository;
+import mybook.mymarket.repository.OrderSearch;
 import mybook.mymarket.repository.MemberRepository;
 import mybook.mymarket.repository.RegisterRepository;
+import mybook.mymarket.service.dto.OrderDto;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service    // 스프링빈에 등록
 @Transactional(readOnly = true) // 읽기전용: 리소스 낭비 X, default: false
@@ -25,8 +32,11 @@ public class OrderService {
     /**
      * 주문 => 데이터 변경 필요 => Transactional
      */
+    @Timed(value = "market.order.place", description = "주문")
     @Transactional
     public Long order(Long memberId, Long registerId, int count, String type) {
+        OrderPlacedEvent event = new OrderPlacedEvent();    // JFR: 주문 구간 측정 시작
+        event.begin();
         // 상품 id, 수량만 넘어오게 => 값을 꺼내야 함 => 해당 repository 필요 => 주입받아 사용 => 주입받기 위해 생성자 injection
 
         //엔티티 조회
@@ -52,7 +62,14 @@ public class OrderService {
         deal.setStatus(DealStatus.WAIT);    // 거래 상태 WAIT
 
         // 주문상품 생성 => 생성 메소드 이용(static)
-        OrderItem orderItem = OrderItem.createOrderItem(register.getItem(), register.getItem().getPrice(), count);
+        int stockBefore = register.getItem().getStockQuantity();
+        OrderItem orderItem;
+        try {
+            orderItem = OrderItem.createOrderItem(register.getItem(), register.getItem().getPrice(), count);
+        } catch (NotEnoughStockException e) {   // 재고 부족 => 실패한 주문도 기록
+            commitOrderEvent(event, memberId, registerId, null, count, stockBefore, stockBefore, true);
+            throw e;
+        }
 
         // 주문 생성 => 생성 메소드 이용(static)
         Order order = Order.createOrder(member, deal, orderItem);
@@ -65,12 +82,16 @@ public class OrderService {
          즉, 다른 곳에서 deal, orderItem 을 사용하지 않으므로 가능한 것 */
         orderRepository.save(order);
 
+        commitOrderEvent(event, memberId, registerId, order.getId(), count,
+                stockBefore, register.getItem().getStockQuantity(), false);
+
         return order.getId();
     }
 
     /**
      * 거래 확정 => 데이터 변경 필요 => Transactional
      */
+    @Timed(value = "market.order.complete", description = "거래 확정")
     @Transactional
     public void completeDeal(Long orderId) {    // 거래 완료
         // 엔티티 조회
@@ -88,6 +109,7 @@ public class OrderService {
     /**
      * 주문 취소 => 데이터 변경 필요 => Transactional
      */
+    @Timed(value = "market.order.cancel", description = "주문 취소")
     @Transactional
     public void cancelOrder(Long orderId) { // 취소 시 id 값만 넘어옴 => 찾아야함 => 엔티티 조회
         // 엔티티 조회
@@ -121,6 +143,54 @@ public class OrderService {
          업데이트 쿼리가 전부 날라감 */
     }
 
+    private static void commitOrderEvent(OrderPlacedEvent event, Long memberId, Long registerId, Long orderId,
+                                         int count, int stockBefore, int stockAfter, boolean failed) {
+        if (!event.shouldCommit())  // 기록 중이 아니면 바로 리턴
+            return;
+
+        event.memberId = memberId;
+        event.registerId = registerId;
+        event.orderId = orderId != null ? orderId : 0;
+        event.count = count;
+        event.stockBefore = stockBefore;
+        event.stockAfter = stockAfter;
+        event.failed = failed;
+        event.commit();
+    }
+
+    /**
+     * API 응답용 Dto 조회 => 엔티티 -> Dto 변환(지연 로딩)까지 읽기 전용 트랜잭션 안에서 끝냄
+     * open-in-view: false => 컨트롤러는 트랜잭션 없이 Dto 만 받음, 커넥션은 여기서 반납
+     */
+    public OrderDto findOrderDto(Long orderId) {
+        // 특정 주문과 관련된 주문상품, 상품, 등록, 회원 정보를 먼저 영속화 (fetch join) => Dto 변환 시 추가 쿼리 X
+        orderRepository.findOrderItems_fetch(orderId);
+
+        return new OrderDto(orderRepository.findOrderMember(orderId));
+    }
+
+    public List<OrderDto> findOrderDtos(@Nullable OrderSearch orderSearch) {    // v2: 회원, 거래는 지연 로딩
+        return toDtos(orderRepository.findOrders(orderSearch));
+    }
+
+    public List<OrderDto> findOrderDtos(@Nullable OrderSearch orderSearch, String graph) {
+        return toDtos(orderRepository.findOrders(orderSearch, graph));
+    }
+
+    public List<OrderDto> findMyOrderDtos(Long memberId) {
+        return toDtos(orderRepository.findMyOrders(memberId));
+    }
+
+    public List<OrderDto> findMyOrderDtos(Long memberId, String graph) {
+        return toDtos(orderRepository.findMyOrders(memberId, graph));
+    }
+
+    private static List<OrderDto> toDtos(List<Order> orders) {  // 엔티티 List -> Dto List
+        return orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(Collectors.toList());
+    }
+
     /**
      * 검색
      * Repository 에서 단순히 위임만 받으므로 굳이 서비스 계층을 안타도 됨
@@ -1,5 +1,6 @@
 package mybook.mymarket.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import mybook.mymarket.domain.Member;
 import mybook.mymarket.domain.Register;
@@ -9,16 +10,20 @@ import mybook.mymarket.domain.item.Magazine;
 import mybook.mymarket.domain.item.Novel;
 import mybook.mymarket.domain.item.Reference;
 import mybook.mymarket.exception.NotEnoughStockException;
+import mybook.mymarket.monitoring.jfr.RegisterDecisionEvent;
 import mybook.mymarket.repository.ItemRepository;
 import mybook.mymarket.repository.MemberRepository;
 import mybook.mymarket.repository.RegisterRepository;
 import mybook.mymarket.repository.RegisterSearch;
+import mybook.mymarket.service.dto.RegisterDto;
 import mybook.mymarket.service.dto.RegisterItemDto;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service    // 스프링빈에 등록
 @Transactional(readOnly = true) // 읽기전용: 리소스 낭비 X, default: false
@@ -33,16 +38,51 @@ public class RegisterService {
     }
 
     public List<Register> findRegisters() { // 모든 등록 조회
-        return registerRepository.findAllWithMemberItem_fetch();
+        return registerRepository.findRegisters(null, Register.WITH_MEMBER_ITEM);
     }
 
     public List<Register> findRegistersSearch(RegisterSearch registerSearch) {  // where 절 조건에 맞는 정보
-        return registerRepository.findAllWithMemberItem_fetch(registerSearch);
+        return registerRepository.findRegisters(registerSearch, Register.WITH_MEMBER_ITEM);
     }
 
     public List<Register> findMyRegisters(Long memberId) {
         // 회원으로 해당 등록 가져오기
-        return registerRepository.findMyRegisters_fetch(memberId);
+        return registerRepository.findMyRegisters(memberId, Register.WITH_MEMBER_ITEM);
+    }
+
+    /**
+     * API 응답용 Dto 조회 => 엔티티 -> Dto 변환(지연 로딩)까지 읽기 전용 트랜잭션 안에서 끝냄
+     * open-in-view: false => 컨트롤러는 트랜잭션 없이 Dto 만 받음, 커넥션은 여기서 반납
+     */
+    public RegisterDto findRegisterDto(Long registerId) {
+        // 특정 등록과 관련된 상품, 회원 찾기 (fetch join, ToOne 관계)
+        return new RegisterDto(registerRepository.findRegisterItemMember(registerId));
+    }
+
+    public RegisterDto findRegisterDtoByItem(Long itemId) {
+        return new RegisterDto(registerRepository.findOneByItem(itemId));
+    }
+
+    public List<RegisterDto> findRegisterDtos(@Nullable RegisterSearch registerSearch) {    // v2: 회원, 상품은 지연 로딩
+        return toDtos(registerRepository.findRegisters(registerSearch));
+    }
+
+    public List<RegisterDto> findRegisterDtos(@Nullable RegisterSearch registerSearch, String graph) {
+        return toDtos(registerRepository.findRegisters(registerSearch, graph));
+    }
+
+    public List<RegisterDto> findMyRegisterDtos(Long memberId) {
+        return toDtos(registerRepository.findMyRegisters(memberId));
+    }
+
+    public List<RegisterDto> findMyRegisterDtos(Long memberId, String graph) {
+        return toDtos(registerRepository.findMyRegisters(memberId, graph));
+    }
+
+    private static List<RegisterDto> toDtos(List<Register> registers) {    // 엔티티 List -> Dto List
+        return registers.stream()
+                .map(r -> new RegisterDto(r))
+                .collect(Collectors.toList());
     }
 
     @Transactional
@@ -63,6 +103,7 @@ public class RegisterService {
      * 등록 => 데이터 변경 필요 => Transactional
      * - 등록상품이 겹치는지 유무 -
      */
+    @Timed(value = "market.register.create", description = "상품 등록")
     @Transactional
     public Long register(Long memberId, RegisterItemDto itemDto) {
         // 등록 수량 <= 0 이면 NotEnoughStockException("need more stock") 발생
@@ -80,11 +121,11 @@ public class RegisterService {
             Optional<Item> findItem = itemRepository.findByMemberAndItem(memberId, novel.getName());
             if (findItem.isPresent()) {  // 같은 상품이 등록되어있을 때 => update
                 findItem.get().addStock(count); // 변경감지
-                return findItem.get().getRegister().getId();    // 원래 있던 등록 id 리턴
+                return registered(memberId, itemDto, findItem.get().getRegister().getId(), true);    // 원래 있던 등록 id 리턴
              } else {    // 다른 상품인 경우 (null) => insert
                 Register register = Register.createRegister(member, novel);  // 등록 => 생성 메소드 이용 (static)
                 registerRepository.save(register);  // 등록 저장 -> 상품 저장 (Cascade)
-                return register.getId();    // 등록 id 값 반환
+                return registered(memberId, itemDto, register.getId(), false);    // 등록 id 값 반환
             }
         }
         // Magazine
@@ -93,11 +134,11 @@ public class RegisterService {
             Optional<Item> findItem = itemRepository.findByMemberAndItem(memberId, magazine.getName());
             if (findItem.isPresent()) {
                 findItem.get().addStock(count);
-                return findItem.get().getRegister().getId();
+                return registered(memberId, itemDto, findItem.get().getRegister().getId(), true);
             } else {
                 Register register = Register.createRegister(member, magazine);
                 registerRepository.save(register);
-                return register.getId();
+                return registered(memberId, itemDto, register.getId(), false);
             }
         }
         // Reference
@@ -106,15 +147,32 @@ public class RegisterService {
             Optional<Item> findItem = itemRepository.findByMemberAndItem(memberId, reference.getName());
             if (findItem.isPresent()) {  // 같은 상품이 등록되어있을 때 => update
                 findItem.get().addStock(count); // 변경감지
-                return findItem.get().getRegister().getId();    // 원래 있던 등록 id 리턴
+                return registered(memberId, itemDto, findItem.get().getRegister().getId(), true);    // 원래 있던 등록 id 리턴
             } else {    // 다른 상품인 경우 (null) => insert
                 Register register = Register.createRegister(member, reference);  // 등록 => 생성 메소드 이용 (static)
                 registerRepository.save(register);  // 등록 저장
-                return register.getId();    // 등록 id 값 반환
+                return registered(memberId, itemDto, register.getId(), false);    // 등록 id 값 반환
             }
         }
     }
 
+    /**
+     * JFR: 기존 상품 재고 추가(merge) vs 새 등록(insert) 기록 후 등록 id 반환
+     */
+    private static Long registered(Long memberId, RegisterItemDto itemDto, Long registerId, boolean merged) {
+        RegisterDecisionEvent event = new RegisterDecisionEvent();
+        if (event.isEnabled()) {
+            event.memberId = memberId;
+            event.registerId = registerId;
+            event.itemType = itemDto.getType();
+            event.count = itemDto.getStockQuantity();
+            event.merged = merged;
+            event.commit();
+        }
+
+        return registerId;
+    }
+
     /**
      * 등록 취소 => 데이터 변경 필요 => Transactional
      */
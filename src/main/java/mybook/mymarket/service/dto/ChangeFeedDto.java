@@ -0,0 +1,16 @@
+package mybook.mymarket.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ChangeFeedDto<T> {
+    private String cursor;      // 다음 요청에 그대로 넘김
+    private boolean hasMore;    // 바로 이어서 받을 변경이 더 있음
+    private boolean full;       // true: 전체 목록 (cursor 없이 요청) => 목록 교체, false: 바뀐 것만 => id 로 덮어씀
+    private int count;
+    private List<T> data;
+}
@@ -1,4 +1,4 @@
-package mybook.mymarket.controller.dto;
+package mybook.mymarket.service.dto;
 
 
 import lombok.Getter;
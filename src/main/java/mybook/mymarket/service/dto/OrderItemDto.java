@@ -1,4 +1,4 @@
-package mybook.mymarket.controller.dto;
+package mybook.mymarket.service.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
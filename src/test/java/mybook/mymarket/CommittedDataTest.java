@@ -0,0 +1,66 @@
+package mybook.mymarket;
+
+import mybook.mymarket.cache.SearchCaches;
+import mybook.mymarket.coalesce.QueryCoalescer;
+import mybook.mymarket.domain.Address;
+import mybook.mymarket.domain.Member;
+import mybook.mymarket.outbox.RecordingConsumer;
+import mybook.mymarket.service.MemberService;
+import mybook.mymarket.service.dto.MemberDto;
+import org.junit.After;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+
+/**
+ * 테스트 트랜잭션(롤백) 없이 커밋해야 확인할 수 있는 테스트의 공통 설정
+ * (커밋 후 캐시 무효화, 변경 기록, outbox, 알림, 커넥션 반납, 병렬 조회)
+ * - 설정이 같으므로 스프링 컨텍스트(메모리 DB 하나)를 같이 씀 => 테스트가 끝날 때마다 데이터와 결과 캐시를 지움
+ * - 예약된 전달/전송은 끄고 테스트에서 직접 (outbox: OutboxRelay.poll(), 알림: EventStreamHub.flush())
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:committed",
+        "market.outbox.enabled=false",
+        "market.outbox.settle=0s",
+        "market.outbox.idle-poll-interval=0s",
+        "market.changes.settle=0s",     // 기록되자마자 cursor 를 넘김
+        "market.events.coalesce-window=1h",     // 예약된 전송이 끼어들지 않게
+        "market.coalesce.groups.registerCatalog=1h"})   // 카탈로그 무효화가 빠지면 바로 드러나게
+@AutoConfigureMockMvc
+@Import(RecordingConsumer.class)
+@RunWith(SpringRunner.class)
+public abstract class CommittedDataTest {
+    @Autowired
+    protected MemberService memberService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    SearchCaches searchCaches;
+    @Autowired
+    QueryCoalescer queryCoalescer;
+
+    @After
+    public void deleteAll() {
+        List<String> tables = jdbcTemplate.queryForList(
+                "select table_name from information_schema.tables where table_schema = 'PUBLIC'", String.class);
+        jdbcTemplate.execute("set referential_integrity false");
+        try {
+            tables.forEach(table -> jdbcTemplate.execute("truncate table " + table));
+        } finally {
+            jdbcTemplate.execute("set referential_integrity true");
+        }
+
+        searchCaches.invalidateAll();
+        queryCoalescer.invalidateAll();
+    }
+
+    protected Long createMember(String nickName) {
+        return memberService.join(new MemberDto(new Member(nickName, "1234", nickName, new Address("city", "street", "11111"))));
+    }
+}
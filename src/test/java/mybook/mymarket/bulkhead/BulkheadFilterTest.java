@@ -0,0 +1,131 @@
+package mybook.mymarket.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 자리 1개짜리 write 벌크헤드 (max-wait 0 => 자리가 없으면 바로 503)
+ * 포화는 첫 요청의 chain 안에서 두 번째 요청을 보내서 만듦 (스레드 X)
+ */
+public class BulkheadFilterTest {
+    private MeterRegistry meterRegistry;
+    private BulkheadProperties.Pool pool;
+    private BulkheadFilter filter;
+
+    @Before
+    public void setUp() {
+        pool = new BulkheadProperties.Pool();
+        pool.setMaxConcurrent(1);
+        pool.setRetryAfter(Duration.ofSeconds(2));
+        pool.setRoutes(List.of("POST /api/order/*"));
+        filter = create();
+    }
+
+    @Test
+    public void 자리가_없으면_503_과_Retry_After() throws Exception {
+        MockHttpServletResponse[] second = new MockHttpServletResponse[1];
+        double[] saturation = new double[1];
+
+        MockHttpServletResponse first = order((req, res) -> {
+            saturation[0] = gauge("market.bulkhead.saturation");
+            second[0] = order(new MockFilterChain());
+        });
+
+        assertEquals(200, first.getStatus());
+        assertEquals("첫 요청이 자리를 차지한 동안 포화", 1.0, saturation[0], 0);
+        assertEquals(503, second[0].getStatus());
+        assertEquals("2", second[0].getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.find("market.bulkhead.rejected").tag("bulkhead", "write").counter().count(), 0);
+        assertEquals("끝나면 자리 반납", 0, gauge("market.bulkhead.active"), 0);
+        assertEquals(1, gauge("market.bulkhead.max"), 0);
+    }
+
+    @Test
+    public void 예외가_나도_자리를_돌려줌() throws Exception {
+        try {
+            order((req, res) -> {
+                throw new IllegalStateException("controller 실패");
+            });
+            fail("chain 의 예외는 그대로");
+        } catch (IllegalStateException e) {
+            assertEquals("controller 실패", e.getMessage());
+        }
+
+        assertEquals(0, gauge("market.bulkhead.active"), 0);
+        assertNull(Bulkhead.currentName());
+        MockFilterChain chain = new MockFilterChain();
+        assertEquals(200, order(chain).getStatus());
+        assertNotNull("다음 요청은 들어감", chain.getRequest());
+    }
+
+    @Test
+    public void 처리하는_동안_현재_벌크헤드() throws Exception {
+        String[] current = new String[1];
+
+        order((req, res) -> current[0] = Bulkhead.currentName());
+
+        assertEquals("write", current[0]);
+        assertNull(Bulkhead.currentName());
+    }
+
+    @Test
+    public void Retry_After_는_최소_1초() throws Exception {
+        pool.setRetryAfter(Duration.ofMillis(200));
+        filter = create();
+        MockHttpServletResponse[] second = new MockHttpServletResponse[1];
+
+        order((req, res) -> second[0] = order(new MockFilterChain()));
+
+        assertEquals("1", second[0].getHeader("Retry-After"));
+    }
+
+    @Test
+    public void 라우트에_없는_요청은_벌크헤드_밖() throws Exception {
+        MockHttpServletResponse[] inside = new MockHttpServletResponse[1];
+
+        order((req, res) -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/login"), response, new MockFilterChain());
+            inside[0] = response;
+        });
+
+        assertEquals("자리가 없어도 그대로", 200, inside[0].getStatus());
+        assertEquals(0, meterRegistry.find("market.bulkhead.rejected").counter().count(), 0);
+    }
+
+    private BulkheadFilter create() {
+        BulkheadProperties properties = new BulkheadProperties();
+        properties.getPools().put("write", pool);
+        meterRegistry = new SimpleMeterRegistry();
+
+        return new BulkheadFilter(properties, meterRegistry);
+    }
+
+    private MockHttpServletResponse order(FilterChain chain) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/order/7"), response, chain);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+
+        return response;
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.find(name).tag("bulkhead", "write").gauge().value();
+    }
+}
@@ -0,0 +1,156 @@
+package mybook.mymarket.cache;
+
+import mybook.mymarket.CommittedDataTest;
+import mybook.mymarket.coalesce.QueryCoalescer;
+import mybook.mymarket.repository.RegisterSearch;
+import mybook.mymarket.repository.register.query.RegisterQueryDto;
+import mybook.mymarket.repository.register.query.RegisterQueryRepository;
+import mybook.mymarket.service.ItemService;
+import mybook.mymarket.service.RegisterService;
+import mybook.mymarket.service.dto.RegisterItemDto;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 캐시는 쓰기 트랜잭션 밖에서만 쓰이므로 @Transactional(롤백) 대신 커밋
+ */
+public class SearchCacheTest extends CommittedDataTest {
+    @Autowired
+    RegisterService registerService;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    RegisterQueryRepository registerQueryRepository;
+    @Autowired
+    SearchCaches searchCaches;
+    @Autowired
+    QueryCoalescer queryCoalescer;
+
+    @Test
+    public void 변경된_상품이_들어있는_검색결과만_무효화() throws Exception {
+        // given: 두 회원의 등록상품을 각각 검색해서 캐시
+        Long itemA = registerItem("cacheA", "bookA");
+        registerItem("cacheB", "bookB");
+        RegisterSearch searchA = search("cacheA");
+        RegisterSearch searchB = search("cacheB");
+        registerQueryRepository.findRegisters_search(searchA);
+        registerQueryRepository.findRegisters_search(searchB);
+        assertNotNull(searchCaches.getRegisterSearch().getIfPresent(searchA));
+        assertNotNull(searchCaches.getRegisterSearch().getIfPresent(searchB));
+
+        // when: 회원 A 의 상품 수정 (커밋)
+        itemService.updateItem(itemA, "bookA2", 20000, 5);
+
+        // then
+        assertNull("A 상품이 들어있는 결과는 무효화", searchCaches.getRegisterSearch().getIfPresent(searchA));
+        assertNotNull("관계없는 B 결과는 그대로", searchCaches.getRegisterSearch().getIfPresent(searchB));
+
+        List<RegisterQueryDto> registers = registerQueryRepository.findRegisters_search(searchA);
+        assertEquals("다시 조회하면 바뀐 값", "bookA2", registers.get(0).getItemName());
+    }
+
+    @Test
+    public void 새로_조건에_맞게된_검색결과도_무효화() throws Exception {
+        // given: 아직 등록상품이 없는 회원 검색 => 빈 결과 캐시
+        RegisterSearch searchC = search("cacheC");
+        Long memberC = createMember("cacheC");
+        assertTrue(registerQueryRepository.findRegisters_search(searchC).isEmpty());
+        assertNotNull(searchCaches.getRegisterSearch().getIfPresent(searchC));
+
+        // when: 그 회원이 상품 등록
+        registerService.register(memberC, new RegisterItemDto("bookC", "author", 10000, 10, "Novel", "etc"));
+
+        // then: 결과에 없던 상품이라도 조건(닉네임)에 맞으므로 무효화
+        assertNull(searchCaches.getRegisterSearch().getIfPresent(searchC));
+        assertEquals(1, registerQueryRepository.findRegisters_search(searchC).size());
+    }
+
+    @Test
+    public void 카탈로그는_등록_상품_닉네임이_바뀌면_다시_조회() throws Exception {
+        Long itemId = registerItem("catalogSeller", "catalogBook");
+        assertSame("ttl 동안 같은 결과", registerQueryRepository.findRegisters(), registerQueryRepository.findRegisters());
+
+        itemService.updateItem(itemId, "catalogBook", 20000, 3);
+        assertEquals(3, registerQueryRepository.findRegisters().get(0).getStockQuantity());
+
+        registerItem("catalogSeller2", "catalogBook2");
+        assertEquals(2, registerQueryRepository.findRegisters().size());
+    }
+
+    @Test
+    public void 커밋_전에_시작된_조회에는_합류하지_않고_캐시도_X() throws Exception {
+        // given: 커밋 전의 결과를 읽은 느린 leader
+        Long itemId = registerItem("slowLeader", "before");
+        RegisterSearch search = search("slowLeader");
+        List<RegisterQueryDto> before = registerQueryRepository.findRegisters_search(search);
+        searchCaches.invalidateAll();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<RegisterQueryDto>> leader = executor.submit(() ->
+                    queryCoalescer.execute(RegisterQueryRepository.SEARCH, search.normalize(), () -> {
+                        started.countDown();
+                        await(release);
+                        return before;
+                    }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // when: 상품 수정 커밋 뒤에 같은 검색 (합류했다면 leader 가 풀릴 때까지 기다렸다가 옛 결과)
+            itemService.updateItem(itemId, "after", 20000, 5);
+            executor.submit(() -> {
+                Thread.sleep(200);
+                release.countDown();
+                return null;
+            });
+            List<RegisterQueryDto> after = registerQueryRepository.findRegisters_search(search);
+
+            // then
+            assertEquals("after", after.get(0).getItemName());
+            assertSame(before, leader.get(5, TimeUnit.SECONDS));
+            assertEquals("캐시에도 새 결과", "after",
+                    searchCaches.getRegisterSearch().getIfPresent(search.normalize()).get(0).getItemName());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void like_조건() throws Exception {
+        assertTrue(SearchCacheInvalidator.like("book%", "Book1"));
+        assertTrue(SearchCacheInvalidator.like("b_ok", "book"));
+        assertFalse(SearchCacheInvalidator.like("book", "book1"));
+        assertTrue("값을 모르면 맞는 것으로", SearchCacheInvalidator.like("book", null));
+    }
+
+    private Long registerItem(String nickName, String itemName) {
+        Long memberId = createMember(nickName);
+        registerService.register(memberId, new RegisterItemDto(itemName, "author", 10000, 10, "Novel", "etc"));
+
+        return registerQueryRepository.findMyRegistres(memberId).get(0).getItemId();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RegisterSearch search(String nickName) {
+        RegisterSearch search = new RegisterSearch();
+        search.setNickName(nickName);
+        return search;
+    }
+}
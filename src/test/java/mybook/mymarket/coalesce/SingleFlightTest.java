@@ -0,0 +1,204 @@
+package mybook.mymarket.coalesce;
+
+import mybook.mymarket.deadline.RequestDeadline;
+import mybook.mymarket.deadline.RequestDeadlines;
+import mybook.mymarket.repository.RegisterSearch;
+import org.junit.Test;
+
+import javax.persistence.QueryTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void 동시에_같은_키는_한번만_실행() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(0, 100);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return 42;
+                })));
+            }
+
+            // 전부 leader 를 기다리는 상태가 될 때까지
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (singleFlight.getShared() < callers - 1 && System.nanoTime() < deadline)
+                Thread.sleep(1);
+            release.countDown();
+
+            for (Future<Integer> result : results)
+                assertEquals(Integer.valueOf(42), result.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("실제 실행은 한 번", 1, loads.get());
+        assertEquals("ttl 0 => 끝나면 바로 비움", 0, singleFlight.size());
+    }
+
+    @Test
+    public void ttl_동안은_결과_재사용() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(TimeUnit.MINUTES.toNanos(1), 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("key", loads::incrementAndGet);
+        Integer second = singleFlight.execute("key", loads::incrementAndGet);
+
+        assertEquals(Integer.valueOf(1), second);
+        assertEquals(1, singleFlight.getCached());
+
+        singleFlight.invalidateAll();
+        assertEquals("비우면 다시 조회", Integer.valueOf(2), singleFlight.execute("key", loads::incrementAndGet));
+    }
+
+    @Test
+    public void 무효화하면_진행_중인_조회에도_합류하지_않음() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(TimeUnit.MINUTES.toNanos(1), 100);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // given: 커밋 전에 시작된 조회
+            Future<Integer> stale = executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                return 1;
+            }));
+            while (singleFlight.size() == 0)
+                Thread.sleep(1);
+
+            // when: 커밋 => 무효화
+            singleFlight.invalidateAll();
+
+            // then: 새 호출은 기다리지 않고 새로 조회, 옛 결과는 끝나도 ttl 동안 남지 않음
+            assertEquals(Integer.valueOf(2), singleFlight.execute("key", () -> 2));
+            release.countDown();
+            assertEquals(Integer.valueOf(1), stale.get(5, TimeUnit.SECONDS));
+            assertEquals(Integer.valueOf(2), singleFlight.execute("key", () -> 3));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, singleFlight.getShared());
+    }
+
+    @Test
+    public void 예외는_캐시하지_않음() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(TimeUnit.MINUTES.toNanos(1), 100);
+
+        try {
+            singleFlight.execute("key", () -> {
+                throw new IllegalStateException("DB 오류");
+            });
+            fail("예외가 발생해야 한다.");
+        } catch (IllegalStateException e) {
+            assertEquals("DB 오류", e.getMessage());
+        }
+
+        assertEquals("다음 호출은 다시 실행", Integer.valueOf(1), singleFlight.execute("key", () -> 1));
+    }
+
+    @Test
+    public void follower_는_자기_마감까지만_기다림() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(0, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        RequestDeadlines deadlines = new RequestDeadlines();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                return 42;
+            }));
+            while (singleFlight.size() == 0)
+                Thread.sleep(1);
+
+            RequestDeadline deadline = deadlines.start(Duration.ofMillis(100));
+            long start = System.nanoTime();
+            try {
+                singleFlight.execute("key", () -> 0);
+                fail("마감이 지나면 기다리지 않음");
+            } catch (QueryTimeoutException e) {
+                assertTrue(deadline.isExpired());
+                assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 3000);
+            } finally {
+                deadlines.stop(deadline);
+            }
+
+            release.countDown();
+            assertEquals("leader 는 그대로", Integer.valueOf(42), leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+            deadlines.shutdown();
+        }
+    }
+
+    @Test
+    public void leader_가_시간초과면_follower_는_다시_실행() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(0, 100);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                await(release);
+                throw new QueryTimeoutException("Request deadline exceeded");
+            }));
+            while (singleFlight.size() == 0)
+                Thread.sleep(1);
+            Future<Integer> follower = executor.submit(() -> singleFlight.execute("key", () -> 42));
+            while (singleFlight.getShared() == 0)
+                Thread.sleep(1);
+
+            release.countDown();
+
+            assertEquals("자기 마감으로 다시", Integer.valueOf(42), follower.get(5, TimeUnit.SECONDS));
+            try {
+                leader.get(5, TimeUnit.SECONDS);
+                fail("leader 는 자기 예외");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof QueryTimeoutException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, singleFlight.getLoads());
+    }
+
+    @Test
+    public void 빈_검색조건은_조건없음과_같은_키() throws Exception {
+        RegisterSearch blank = new RegisterSearch();
+        blank.setNickName("");
+        blank.setItemName(" ");
+
+        assertEquals(new RegisterSearch().normalize(), blank.normalize());
+        assertEquals(new RegisterSearch().normalize().hashCode(), blank.normalize().hashCode());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package mybook.mymarket.datasource;
+
+import mybook.mymarket.parallel.ParallelQueries;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+
+@SpringBootTest(properties = {
+        "market.datasource.replica.jdbc-url=jdbc:h2:mem:replica",  // 복제본 대신 두 번째 메모리 DB
+        "market.datasource.replica.username=sa",
+        "market.datasource.read-your-writes=3s",
+        "decorator.datasource.exclude-beans=routingDataSource"})
+@RunWith(SpringRunner.class)
+public class RoutingDataSourceTest {
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    ReadYourWrites readYourWrites;
+    @Autowired
+    ParallelQueries parallelQueries;
+
+    @After
+    public void clear() {
+        readYourWrites.clear();
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_replica() throws Exception {
+        assertEquals("읽기 전용 => replica", "REPLICA", databaseIn(true));
+    }
+
+    @Test
+    public void 쓰기_트랜잭션은_primary() throws Exception {
+        assertEquals("쓰기 => primary", "TEST", databaseIn(false));
+    }
+
+    @Test
+    public void 쓰기_직후_같은회원_읽기는_primary() throws Exception {
+        // given: 회원 1 이 쓰기 트랜잭션 커밋
+        readYourWrites.setCurrentMember(1L);
+        databaseIn(false);
+
+        // when, then
+        assertEquals("쓰기한 회원은 잠시 primary 에서 읽음", "TEST", databaseIn(true));
+
+        readYourWrites.setCurrentMember(2L);
+        assertEquals("다른 회원은 replica", "REPLICA", databaseIn(true));
+    }
+
+    @Test
+    public void 쓰기를_커밋한_요청의_남은_읽기는_primary() throws Exception {
+        // given: 로그인하지 않은 요청(API)
+        readYourWrites.startRequest();
+        assertEquals("REPLICA", databaseIn(true));
+
+        // when: 쓰기 후 결과를 읽기 전용 트랜잭션으로 다시 조회
+        databaseIn(false);
+
+        // then
+        assertEquals("TEST", databaseIn(true));
+        readYourWrites.clear();
+        assertEquals("요청이 끝나면 replica", "REPLICA", databaseIn(true));
+    }
+
+    @Test
+    public void 병렬_조회도_쓰기를_커밋한_요청은_primary() throws Exception {
+        // given: 로그인하지 않은 요청(API) => 회원 없이 요청 상태만
+        readYourWrites.startRequest();
+        assertEquals("REPLICA", parallelDatabase());
+
+        // when
+        databaseIn(false);
+
+        // then: 작업 스레드에서도
+        assertEquals("TEST", parallelDatabase());
+        assertTrue("호출한 스레드의 상태는 그대로", readYourWrites.isSticky());
+    }
+
+    @Test
+    public void 병렬_조회도_쓰기한_회원은_primary() throws Exception {
+        readYourWrites.setCurrentMember(3L);
+        databaseIn(false);
+        readYourWrites.clear();     // 다음 요청
+
+        readYourWrites.setCurrentMember(3L);
+        assertEquals("TEST", parallelDatabase());
+        readYourWrites.setCurrentMember(4L);
+        assertEquals("REPLICA", parallelDatabase());
+    }
+
+    private String parallelDatabase() {
+        return ParallelQueries.join(parallelQueries.submit(
+                () -> jdbcTemplate.queryForObject("select database()", String.class)));
+    }
+
+    private String databaseIn(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+
+        return template.execute(status -> jdbcTemplate.queryForObject("select database()", String.class));
+    }
+}
@@ -0,0 +1,116 @@
+package mybook.mymarket.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import mybook.mymarket.domain.Address;
+import mybook.mymarket.domain.Member;
+import mybook.mymarket.monitoring.SqlStatementCounter;
+import mybook.mymarket.monitoring.SqlStatementStats;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.QueryTimeoutException;
+import javax.persistence.TypedQuery;
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:deadline",
+        "market.deadline.budgets.expired.timeout=0s",   // 시작하자마자 마감
+        "market.deadline.budgets.expired.routes=GET /api/v3/orders"})
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class RequestDeadlineTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    RequestDeadlines deadlines;
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    /**
+     * 트랜잭션 밖에서 => 취소된 커넥션은 Hikari 가 버리므로(SQLTimeoutException) 롤백할 커넥션이 없음
+     */
+    @Test
+    public void 마감이_되면_실행_중인_쿼리를_취소() throws Exception {
+        // given: 회원 150명 => 4중 cross join 은 5억 row
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 150; i++)
+                em.persist(new Member("slow" + i, "1234", "slow" + i, new Address("a", "b", "c")));
+        });
+
+        // when
+        RequestDeadline deadline = deadlines.start(Duration.ofMillis(300));
+        long start = System.nanoTime();
+        try {
+            QueryTimeouts.timed(em.createQuery(
+                    "select count(m1) from Member m1, Member m2, Member m3, Member m4", Long.class))
+                    .getSingleResult();
+            fail("마감이 지나면 취소");
+        } catch (QueryTimeoutException e) {
+            // then: statement timeout(1초)보다 먼저 watchdog 이 취소
+            assertTrue(deadline.isExpired());
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 3000);
+        } finally {
+            deadlines.stop(deadline);
+        }
+        assertNull("요청이 끝나면 마감도 해제", RequestDeadline.current());
+    }
+
+    @Test
+    public void 마감이_지난_요청은_쿼리를_시작하지_않음() throws Exception {
+        RequestDeadline deadline = deadlines.start(Duration.ZERO);
+        SqlStatementCounter.start();
+        try {
+            QueryTimeouts.timed(em.createQuery("select m from Member m", Member.class)).getResultList();
+            fail();
+        } catch (QueryTimeoutException e) {
+            assertTrue(deadline.isExpired());
+        } finally {
+            deadlines.stop(deadline);
+        }
+
+        SqlStatementStats stats = SqlStatementCounter.stop();
+        assertEquals(0, stats.getStatements());
+    }
+
+    @Test
+    public void 남은_시간을_초_단위로_올려서_timeout_힌트로() throws Exception {
+        TypedQuery<Member> outside = QueryTimeouts.timed(em.createQuery("select m from Member m", Member.class));
+        assertFalse("요청 밖에서는 힌트 X", outside.getHints().containsKey("javax.persistence.query.timeout"));
+
+        RequestDeadline deadline = deadlines.start(Duration.ofMillis(2500));
+        try {
+            TypedQuery<Member> query = QueryTimeouts.timed(em.createQuery("select m from Member m", Member.class));
+            assertEquals(3000, query.getHints().get("javax.persistence.query.timeout"));
+        } finally {
+            deadlines.stop(deadline);
+        }
+    }
+
+    @Test
+    public void 시간_초과는_503_과_별도_메트릭으로() throws Exception {
+        mockMvc.perform(get("/api/v3/orders")).andExpect(status().isServiceUnavailable());
+        mockMvc.perform(get("/api/v2/orders")).andExpect(status().isOk());
+
+        Counter timeouts = meterRegistry.find("market.query.timeouts")
+                .tags("budget", "expired", "uri", "/api/v3/orders", "reason", "deadline").counter();
+        assertNotNull(timeouts);
+        assertEquals(1, timeouts.count(), 0);
+    }
+}
@@ -0,0 +1,132 @@
+package mybook.mymarket.events;
+
+import mybook.mymarket.CommittedDataTest;
+import mybook.mymarket.domain.item.Item;
+import mybook.mymarket.service.ItemService;
+import mybook.mymarket.service.OrderService;
+import mybook.mymarket.service.RegisterService;
+import mybook.mymarket.service.dto.RegisterItemDto;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * 알림은 커밋 후에 나감 => 테스트 트랜잭션(롤백) 없이
+ * 전송은 flush() 를 직접 불러서 => 그 사이의 변경이 어떻게 합쳐지는지 확인 (coalesce-window=1h: 예약된 전송 X)
+ */
+public class EventStreamHubTest extends CommittedDataTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    EventStreamHub hub;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    RegisterService registerService;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 판매자에게_새_주문과_재고_변경() throws Exception {
+        Long seller = createMember("streamSeller");
+        Long buyer = createMember("streamBuyer");
+        Long registerId = registerService.register(seller, new RegisterItemDto("streamItem", "a", 1000, 10, "Novel", "etc"));
+        MockHttpServletResponse sellerStream = connect(seller);
+        MockHttpServletResponse buyerStream = connect(buyer);
+        assertTrue(sellerStream.getContentAsString().contains("event:ready"));
+
+        Long orderId = orderService.order(buyer, registerId, 2, "DIRECT");
+        hub.flush();
+
+        String sellerEvents = sellerStream.getContentAsString();
+        assertTrue(sellerEvents.contains("event:order\ndata:{\"orderId\":" + orderId));
+        assertTrue(sellerEvents.contains("\"stockQuantity\":8"));
+        assertFalse("주문 알림은 판매자에게만", buyerStream.getContentAsString().contains("event:order"));
+        assertTrue("재고는 모두에게", buyerStream.getContentAsString().contains("\"stockQuantity\":8"));
+
+        // 거래 확정 => 구매자, 판매자 모두
+        orderService.completeDeal(orderId);
+        hub.flush();
+        assertTrue(buyerStream.getContentAsString().contains("event:deal\ndata:{\"orderId\":" + orderId + ",\"dealStatus\":\"COMP\"}"));
+        assertTrue(sellerStream.getContentAsString().contains("event:deal"));
+    }
+
+    @Test
+    public void 짧은_시간의_재고_변경은_마지막_것만() throws Exception {
+        Long seller = createMember("coalesceSeller");
+        Long registerId = registerService.register(seller, new RegisterItemDto("coalesceItem", "a", 1000, 10, "Novel", "etc"));
+        Long itemId = registerService.findOne(registerId).getItem().getId();
+        MockHttpServletResponse stream = connect(seller);
+
+        for (int stock = 9; stock >= 5; stock--)
+            itemService.updateItem(itemId, "coalesceItem", 1000, stock);
+        hub.flush();
+
+        String events = stream.getContentAsString();
+        assertEquals(1, count(events, "event:stock"));
+        assertTrue(events.contains("\"stockQuantity\":5"));
+    }
+
+    @Test
+    public void 품절과_재입고() throws Exception {
+        Long seller = createMember("soldOutSeller");
+        Long buyer = createMember("soldOutBuyer");
+        Long registerId = registerService.register(seller, new RegisterItemDto("soldOutItem", "a", 1000, 3, "Novel", "etc"));
+        MockHttpServletResponse stream = connect(buyer);
+
+        Long orderId = orderService.order(buyer, registerId, 3, "DIRECT");
+        hub.flush();
+        assertTrue(stream.getContentAsString().contains("event:sold-out"));
+
+        orderService.cancelOrder(orderId);
+        hub.flush();
+        assertTrue(stream.getContentAsString().contains("event:restock"));
+    }
+
+    @Test
+    public void 롤백된_변경은_알리지_않음() throws Exception {
+        Long seller = createMember("rollbackSeller");
+        Long registerId = registerService.register(seller, new RegisterItemDto("rollbackItem", "a", 1000, 10, "Novel", "etc"));
+        Long itemId = registerService.findOne(registerId).getItem().getId();
+        MockHttpServletResponse stream = connect(seller);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.find(Item.class, itemId).changeItem("rollbackItem", 1000, 1);
+            em.flush();
+            status.setRollbackOnly();
+        });
+        hub.flush();
+
+        assertFalse(stream.getContentAsString().contains("event:stock"));
+    }
+
+    private MockHttpServletResponse connect(Long memberId) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v4/members/{id}/events", memberId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return result.getResponse();
+    }
+
+    private static int count(String text, String token) {
+        int count = 0;
+        for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + 1))
+            count++;
+
+        return count;
+    }
+}
@@ -0,0 +1,117 @@
+package mybook.mymarket.limiter;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 지연은 update() 로 직접 넣음 => 시계와 상관없이 같은 결과
+ * smoothing 1.0 => 새 한도를 그대로 반영 (계산을 따라가기 쉽게)
+ */
+public class GradientLimiterTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void 지연이_그대로면_sqrt_만큼_늘림() throws Exception {
+        GradientLimiter limiter = new GradientLimiter(20, 10, 200, 1.0, 1.5);
+
+        limiter.update(MS, 20, false);
+
+        assertEquals("20 + sqrt(20)", 24, limiter.getLimit());
+    }
+
+    @Test
+    public void 한도의_절반도_안_쓰면_그대로() throws Exception {
+        GradientLimiter limiter = new GradientLimiter(20, 10, 200, 1.0, 1.5);
+
+        limiter.update(MS, 9, false);
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    public void 허용_범위_안의_지연은_정상() throws Exception {
+        GradientLimiter limiter = new GradientLimiter(100, 10, 200, 1.0, 1.5);
+        limiter.update(MS, 100, false);     // 110
+
+        limiter.update(MS * 14 / 10, 110, false);
+
+        assertEquals("1.5 * 장기 / 단기 > 1 => 110 + sqrt(110)", 120, limiter.getLimit());
+    }
+
+    @Test
+    public void 지연이_길어지면_기울기만큼_줄임() throws Exception {
+        GradientLimiter limiter = new GradientLimiter(100, 10, 200, 1.0, 1.0);
+        limiter.update(MS, 100, false);     // 110
+
+        limiter.update(10 * MS, 110, false);
+
+        // 장기 1 + 9/600 = 1.015ms, 단기 1 + 9/10 = 1.9ms => 110 * 0.534 + sqrt(110)
+        assertEquals(69, limiter.getLimit());
+    }
+
+    @Test
+    public void 기울기는_절반까지만() throws Exception {
+        GradientLimiter limiter = new GradientLimiter(100, 10, 200, 1.0, 1.0);
+        limiter.update(MS, 100, false);     // 110
+
+        limiter.update(100 * MS, 110, false);
+
+        assertEquals("110 * 0.5 + sqrt(110)", 65, limiter.getLimit());
+    }
+
+    @Test
+    public void 거절되면_곱셈_감소() throws Exception {
+        GradientLimiter limiter = new GradientLimiter(100, 10, 200, 1.0, 1.5);
+
+        limiter.update(0, 100, true);
+
+        assertEquals(90, limiter.getLimit());
+    }
+
+    @Test
+    public void smoothing_만큼만_반영() throws Exception {
+        GradientLimiter limiter = new GradientLimiter(100, 10, 200, 0.5, 1.5);
+
+        limiter.update(0, 100, true);
+
+        assertEquals("100 * 0.5 + 90 * 0.5", 95, limiter.getLimit());
+    }
+
+    @Test
+    public void min_limit_아래로_내려가지_않음() throws Exception {
+        GradientLimiter limiter = new GradientLimiter(20, 10, 200, 1.0, 1.5);
+
+        for (int i = 0; i < 50; i++)
+            limiter.update(0, 20, true);
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void max_limit_위로_올라가지_않음() throws Exception {
+        GradientLimiter limiter = new GradientLimiter(20, 10, 200, 1.0, 1.5);
+
+        for (int i = 0; i < 100; i++)
+            limiter.update(MS, 1000, false);
+
+        assertEquals(200, limiter.getLimit());
+    }
+
+    @Test
+    public void 한도만큼_자리가_차면_거절() throws Exception {
+        GradientLimiter limiter = new GradientLimiter(2, 1, 10, 1.0, 1.5);
+
+        long first = limiter.acquire();
+        assertNotEquals(-1, first);
+        assertNotEquals(-1, limiter.acquire());
+        assertEquals(-1, limiter.acquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(first, false);
+        assertEquals(1, limiter.getInFlight());
+        assertNotEquals(-1, limiter.acquire());
+    }
+}
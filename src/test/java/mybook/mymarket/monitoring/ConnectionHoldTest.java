@@ -0,0 +1,79 @@
+package mybook.mymarket.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import mybook.mymarket.CommittedDataTest;
+import mybook.mymarket.service.OrderService;
+import mybook.mymarket.service.RegisterService;
+import mybook.mymarket.service.dto.RegisterItemDto;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * open-in-view: false => 화면 렌더링, JSON 변환 전에 커넥션을 반납하는지
+ * 화면/API 가 Dto 만 쓰는지도 같이 확인 (지연 로딩이 남아있으면 LazyInitializationException)
+ */
+public class ConnectionHoldTest extends CommittedDataTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    RegisterService registerService;
+    @Autowired
+    OrderService orderService;
+
+    private Long memberId;
+    private Long registerId;
+
+    @Before
+    public void setUp() {
+        Long sellerId = createMember("holdSeller");
+        memberId = createMember("holdBuyer");
+        registerId = registerService.register(sellerId, new RegisterItemDto("holdItem", "author", 10000, 10, "Novel", "etc"));
+        orderService.order(memberId, registerId, 1, "DIRECT");
+    }
+
+    @Test
+    public void 화면은_커넥션을_반납한_뒤에_렌더링() throws Exception {
+        for (String uri : new String[]{"/order", "/orders", "/myOrders", "/registers", "/myRegisters", "/members"})
+            mockMvc.perform(get(uri).sessionAttr("memberId", memberId)).andExpect(status().isOk());
+
+        assertNull("렌더링 중에 커넥션을 잡은 요청 없음", meterRegistry.find("db.connection.held.at.render").counter());
+        Timer hold = meterRegistry.find("db.connection.hold").tag("uri", "/orders").timer();
+        assertNotNull(hold);
+        assertEquals(1, hold.count());
+    }
+
+    @Test
+    public void 엔티티를_Dto_로_바꾸는_API_는_트랜잭션_안에서() throws Exception {
+        for (String uri : new String[]{"/api/v2/orders", "/api/v3/orders", "/api/v2/registers", "/api/v3/registers",
+                "/api/v2/my-orders/" + memberId, "/api/v3/my-registers/" + memberId})
+            mockMvc.perform(get(uri)).andExpect(status().isOk());
+
+        assertNull(meterRegistry.find("db.connection.held.at.render").counter());
+    }
+
+    @Test
+    public void 변경_API_는_결과를_읽기_전용_트랜잭션에서_Dto_로() throws Exception {
+        mockMvc.perform(post("/api/order/" + memberId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"registerId\": " + registerId + ", \"count\": 1, \"type\": \"DIRECT\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.orderItems[0].itemName").value("holdItem"));
+        mockMvc.perform(get("/api/registers/cancel/" + registerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("CANCEL"));
+
+        assertNull(meterRegistry.find("db.connection.held.at.render").counter());
+    }
+}
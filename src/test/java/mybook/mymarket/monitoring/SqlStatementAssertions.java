@@ -0,0 +1,33 @@
+package mybook.mymarket.monitoring;
+
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 테스트에서 쿼리 개수를 고정시키기 위한 검증
+ * assertStatements(2, () -> orderQueryRepository.findAllByDto_optimization());
+ * => 2번보다 많이 나가면 실패 => N + 1 으로 돌아가는 것을 막음
+ * 주의: 1차 캐시에 엔티티가 남아있으면 쿼리가 안 나가므로 em.flush(), em.clear() 후에 사용
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static <T> T assertStatements(int maxStatements, Supplier<T> action) {
+        SqlStatementCounter.start();
+        T result;
+        SqlStatementStats stats;
+        try {
+            result = action.get();
+        } finally {
+            stats = SqlStatementCounter.stop();
+        }
+
+        assertTrue("SQL statement 는 최대 " + maxStatements + "번 (" + stats + ")",
+                stats.getStatements() <= maxStatements);
+
+        return result;
+    }
+}
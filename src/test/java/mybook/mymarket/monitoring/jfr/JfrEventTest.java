@@ -0,0 +1,108 @@
+package mybook.mymarket.monitoring.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import mybook.mymarket.domain.Address;
+import mybook.mymarket.domain.Member;
+import mybook.mymarket.service.OrderService;
+import mybook.mymarket.service.RegisterService;
+import mybook.mymarket.service.dto.RegisterItemDto;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * 도메인 JFR 이벤트 => 테스트 안에서 기록을 켜고, 끝나면 파일로 남겨서 읽음
+ */
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@Transactional
+public class JfrEventTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    RegisterService registerService;
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    public void 주문으로_재고가_소진되면_기록() throws Exception {
+        Long memberId = createMember("jfrBuyer");
+        Long registerId = registerService.register(memberId, new RegisterItemDto("jfrItem", "a", 1000, 2, "Novel", "etc"));
+
+        List<RecordedEvent> events = record(() -> orderService.order(memberId, registerId, 2, "DIRECT"));
+
+        List<RecordedEvent> exhausted = named(events, "mymarket.StockExhausted");
+        assertEquals(1, exhausted.size());
+        assertEquals(2, exhausted.get(0).getInt("stockBefore"));
+        assertFalse(exhausted.get(0).getBoolean("rejected"));
+    }
+
+    @Test
+    public void 등록_취소로_재고를_비우는_것은_재고_소진_X() throws Exception {
+        Long memberId = createMember("jfrSeller");
+        Long registerId = registerService.register(memberId, new RegisterItemDto("jfrCancel", "a", 1000, 5, "Novel", "etc"));
+
+        List<RecordedEvent> events = record(() -> registerService.cancelRegister(registerId));
+
+        assertTrue(named(events, "mymarket.StockExhausted").isEmpty());
+    }
+
+    @Test
+    public void 주문_취소는_연쇄를_기록() throws Exception {
+        Long memberId = createMember("jfrCanceller");
+        Long registerId = registerService.register(memberId, new RegisterItemDto("jfrOrder", "a", 1000, 3, "Novel", "etc"));
+        Long orderId = orderService.order(memberId, registerId, 3, "DIRECT");   // 재고 0
+
+        List<RecordedEvent> events = record(() -> orderService.cancelOrder(orderId));
+
+        List<RecordedEvent> cancelled = named(events, "mymarket.OrderCancelled");
+        assertEquals(1, cancelled.size());
+        assertEquals(orderId.longValue(), cancelled.get(0).getLong("orderId"));
+        assertEquals(3, cancelled.get(0).getInt("restoredStock"));
+        assertEquals(1, cancelled.get(0).getInt("reactivatedRegisters"));
+    }
+
+    @Test
+    public void 기록_중이_아니면_취소_이벤트를_만들지_않음() throws Exception {
+        assertNull(OrderCancelledEvent.beginIfEnabled());
+    }
+
+    private List<RecordedEvent> record(Runnable action) throws Exception {
+        Path file = Files.createTempFile("market", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(StockExhaustedEvent.class);
+            recording.enable(OrderCancelledEvent.class);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    private Long createMember(String nickName) {
+        Member member = new Member(nickName, "1234", nickName, new Address("a", "b", "c"));
+        em.persist(member);
+        return member.getId();
+    }
+}
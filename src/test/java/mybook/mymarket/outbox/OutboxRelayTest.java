@@ -0,0 +1,178 @@
+package mybook.mymarket.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import mybook.mymarket.CommittedDataTest;
+import mybook.mymarket.domain.OutboxEvent;
+import mybook.mymarket.domain.OutboxOffset;
+import mybook.mymarket.domain.item.Item;
+import mybook.mymarket.repository.OutboxRepository;
+import mybook.mymarket.service.ItemService;
+import mybook.mymarket.service.OrderService;
+import mybook.mymarket.service.RegisterService;
+import mybook.mymarket.service.dto.RegisterItemDto;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * 이벤트는 커밋 직전에 outbox 에 저장 => 테스트 트랜잭션(롤백) 없이
+ * 전달은 poll() 을 직접 불러서 (enabled=false: 예약된 전달 X)
+ */
+public class OutboxRelayTest extends CommittedDataTest {
+    @Autowired
+    OutboxRelay relay;
+    @Autowired
+    OutboxProperties properties;
+    @Autowired
+    OutboxRepository outboxRepository;
+    @Autowired
+    RecordingConsumer consumer;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    RegisterService registerService;
+    @Autowired
+    ItemService itemService;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Before
+    public void drain() {
+        relay.poll();   // 앞 테스트의 이벤트
+        consumer.batches.clear();
+        consumer.failing = false;
+    }
+
+    @Test
+    public void 엔티티의_비지니스_로직이_outbox_로() throws Exception {
+        Long seller = createMember("outboxSeller");
+        Long buyer = createMember("outboxBuyer");
+        Long registerId = registerService.register(seller, new RegisterItemDto("outboxItem", "a", 1000, 10, "Novel", "etc"));
+        Long orderId = orderService.order(buyer, registerId, 2, "DIRECT");
+        orderService.completeDeal(orderId);
+
+        relay.poll();
+
+        assertEquals(List.of("RegisterCreated", "OrderPlaced", "DealCompleted"), consumer.types());
+        OutboxEvent placed = consumer.batches.get(0).get(1);
+        assertEquals("Order", placed.getAggregateType());
+        assertEquals(orderId, placed.getAggregateId());
+        assertTrue("저장 후의 id, 주문상품까지", placed.getPayload().contains("\"orderId\":" + orderId)
+                && placed.getPayload().contains("\"count\":2"));
+    }
+
+    @Test
+    public void 롤백되면_이벤트도_없음() throws Exception {
+        Long seller = createMember("rollbackOutbox");
+        Long registerId = registerService.register(seller, new RegisterItemDto("rollbackOutbox", "a", 1000, 10, "Novel", "etc"));
+        Long itemId = registerService.findOne(registerId).getItem().getId();
+        relay.poll();
+        consumer.batches.clear();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.find(Item.class, itemId).changeItem("rollbackOutbox", 2000, 1);
+            em.flush();
+            status.setRollbackOnly();
+        });
+        relay.poll();
+
+        assertTrue(consumer.batches.isEmpty());
+    }
+
+    @Test
+    public void batch_size_만큼씩_나눠서_offset_저장() throws Exception {
+        Long seller = createMember("batchSeller");
+        Long registerId = registerService.register(seller, new RegisterItemDto("batchItem", "a", 1000, 10, "Novel", "etc"));
+        Long itemId = registerService.findOne(registerId).getItem().getId();
+        for (int stock = 9; stock >= 6; stock--)
+            itemService.updateItem(itemId, "batchItem", 1000, stock);
+
+        int batchSize = properties.getBatchSize();
+        properties.setBatchSize(2);
+        try {
+            relay.poll();
+        } finally {
+            properties.setBatchSize(batchSize);
+        }
+
+        // 등록 1 + 수정 4 => 2, 2, 1
+        assertEquals(3, consumer.batches.size());
+        assertEquals(5, consumer.types().size());
+        long last = consumer.batches.get(2).get(0).getId();
+        assertEquals(last, (long) new TransactionTemplate(transactionManager).execute(s -> outboxRepository.findOffset("test")));
+
+        relay.poll();
+        assertEquals("offset 이후만", 3, consumer.batches.size());
+    }
+
+    @Test
+    public void 실패하면_offset_을_넘기지_않고_다시() throws Exception {
+        Long seller = createMember("failSeller");
+        registerService.register(seller, new RegisterItemDto("failItem", "a", 1000, 10, "Novel", "etc"));
+
+        consumer.failing = true;
+        relay.poll();
+        assertTrue(consumer.batches.isEmpty());
+        assertEquals(1, meterRegistry.find("market.outbox.lag.events").tag("consumer", "test").gauge().value(), 0);
+        assertEquals("다른 consumer 는 계속", 0,
+                meterRegistry.find("market.outbox.lag.events").tag("consumer", "metrics").gauge().value(), 0);
+
+        consumer.failing = false;
+        relay.poll();
+        assertEquals(List.of("RegisterCreated"), consumer.types());
+        assertEquals(0, meterRegistry.find("market.outbox.lag.events").tag("consumer", "test").gauge().value(), 0);
+    }
+
+    @Test
+    public void offset_은_앞으로만() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        assertTrue(tx.execute(s -> outboxRepository.saveOffset("forward", 100)));
+        assertFalse("다른 서버가 더 멀리 옮김", tx.execute(s -> outboxRepository.saveOffset("forward", 50)));
+        assertTrue(tx.execute(s -> outboxRepository.saveOffset("forward", 120)));
+
+        assertEquals(120, (long) tx.execute(s -> outboxRepository.findOffset("forward")));
+    }
+
+    @Test
+    public void 서버별_offset_은_가장_뒤처진_서버_기준으로_삭제() throws Exception {
+        // given: 보관 기간이 지난 이벤트 3건, cache 를 서버 a, b, c 가 따로 받음
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Long> saved = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                OutboxEvent event = new OutboxEvent("ItemChanged", "Item", 1L, "{}", now.minusDays(2));
+                outboxRepository.save(event);
+                saved.add(event.getId());
+            }
+            em.persist(new OutboxOffset("cache@a", saved.get(2), now));
+            em.persist(new OutboxOffset("cache@b", saved.get(0), now));            // 가장 뒤처진 서버
+            em.persist(new OutboxOffset("cache@c", 0L, now.minusDays(3)));      // 보관 기간 동안 멈춘 서버
+            return saved;
+        });
+
+        // when: 서버 a 가 삭제
+        int deleted = new TransactionTemplate(transactionManager).execute(
+                status -> outboxRepository.deleteDelivered(List.of("cache@a"), now.minusDays(1)));
+
+        // then: b 가 받은 것까지만
+        assertEquals(1, deleted);
+        List<Long> left = new TransactionTemplate(transactionManager).execute(status ->
+                outboxRepository.findAfter(ids.get(0) - 1, 10).stream().map(OutboxEvent::getId).collect(Collectors.toList()));
+        assertEquals(ids.subList(1, 3), left.subList(0, 2));
+    }
+}
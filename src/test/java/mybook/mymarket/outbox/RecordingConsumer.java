@@ -0,0 +1,31 @@
+package mybook.mymarket.outbox;
+
+import mybook.mymarket.domain.OutboxEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 받은 이벤트를 그대로 모아두는 consumer (CommittedDataTest 가 등록)
+ */
+public class RecordingConsumer implements OutboxConsumer {
+    final List<List<OutboxEvent>> batches = new ArrayList<>();
+    boolean failing;
+
+    @Override
+    public String getName() {
+        return "test";
+    }
+
+    @Override
+    public void accept(List<OutboxEvent> events) {
+        if (failing)
+            throw new IllegalStateException("consumer down");
+        batches.add(events);
+    }
+
+    List<String> types() {
+        return batches.stream().flatMap(List::stream).map(OutboxEvent::getType).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,88 @@
+package mybook.mymarket.parallel;
+
+import mybook.mymarket.CommittedDataTest;
+import mybook.mymarket.monitoring.ConnectionHoldStats;
+import mybook.mymarket.monitoring.ConnectionHoldTracker;
+import mybook.mymarket.monitoring.SqlStatementCounter;
+import mybook.mymarket.monitoring.SqlStatementStats;
+import mybook.mymarket.repository.order.query.OrderItemQueryDto;
+import mybook.mymarket.repository.order.query.OrderQueryDto;
+import mybook.mymarket.repository.order.query.OrderQueryRepository;
+import mybook.mymarket.service.OrderService;
+import mybook.mymarket.service.RegisterService;
+import mybook.mymarket.service.dto.RegisterItemDto;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 병렬 조회는 트랜잭션 밖에서만 => 테스트 트랜잭션(롤백) 없이
+ * 병렬 실행은 설정(enabled)을 테스트 안에서 켜고 끔
+ */
+public class ParallelQueriesTest extends CommittedDataTest {
+    @Autowired
+    ParallelQueryProperties properties;
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+    @Autowired
+    RegisterService registerService;
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    public void 병렬_조회도_결과와_SQL_커넥션_집계는_직렬과_같음() throws Exception {
+        Long seller = createMember("parallelSeller");
+        Long buyer = createMember("parallelBuyer");
+        Long registerId = registerService.register(seller, new RegisterItemDto("parallelItem", "a", 1000, 10, "Novel", "etc"));
+        for (int count = 1; count <= 3; count++)
+            orderService.order(buyer, registerId, count, "DIRECT");
+
+        Measured serial = measure(false);
+        Measured parallel = measure(true);
+
+        assertEquals(3, serial.result.size());
+        assertEquals(orderItems(serial.result), orderItems(parallel.result));
+        assertEquals("주문 + 주문상품", 2, serial.sql.getStatements());
+        assertEquals("작업 스레드의 statement 도 요청에", serial.sql.getStatements(), parallel.sql.getStatements());
+        assertEquals(serial.sql.getRows(), parallel.sql.getRows());
+        assertEquals("작업 스레드의 커넥션도 요청에", serial.hold.getCheckouts(), parallel.hold.getCheckouts());
+        assertTrue(parallel.hold.getHeldNanos() > 0);
+    }
+
+    private static Map<Long, List<OrderItemQueryDto>> orderItems(List<OrderQueryDto> orders) {   // Address 는 equals X
+        Map<Long, List<OrderItemQueryDto>> orderItems = new LinkedHashMap<>();
+        orders.forEach(order -> orderItems.put(order.getOrderId(), order.getOrderItems()));
+
+        return orderItems;
+    }
+
+    private Measured measure(boolean enabled) {
+        boolean previous = properties.isEnabled();
+        properties.setEnabled(enabled);
+        SqlStatementCounter.start();
+        ConnectionHoldTracker.start();
+        try {
+            List<OrderQueryDto> result = orderQueryRepository.findAllByDto_optimization();
+            return new Measured(result, SqlStatementCounter.stop(), ConnectionHoldTracker.stop());
+        } finally {
+            properties.setEnabled(previous);
+        }
+    }
+
+    private static class Measured {
+        final List<OrderQueryDto> result;
+        final SqlStatementStats sql;
+        final ConnectionHoldStats hold;
+
+        Measured(List<OrderQueryDto> result, SqlStatementStats sql, ConnectionHoldStats hold) {
+            this.result = result;
+            this.sql = sql;
+            this.hold = hold;
+        }
+    }
+}
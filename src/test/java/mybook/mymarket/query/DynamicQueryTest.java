@@ -0,0 +1,176 @@
+package mybook.mymarket.query;
+
+import mybook.mymarket.domain.Address;
+import mybook.mymarket.domain.Member;
+import mybook.mymarket.domain.Order;
+import mybook.mymarket.domain.OrderItem;
+import mybook.mymarket.domain.OrderStatus;
+import mybook.mymarket.domain.Register;
+import mybook.mymarket.monitoring.FetchPlanReport;
+import mybook.mymarket.monitoring.SqlStatementStats;
+import mybook.mymarket.repository.OrderRepository;
+import mybook.mymarket.repository.OrderSearch;
+import mybook.mymarket.repository.RegisterRepository;
+import mybook.mymarket.service.OrderService;
+import mybook.mymarket.service.RegisterService;
+import mybook.mymarket.service.dto.RegisterItemDto;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.Set;
+
+import static mybook.mymarket.monitoring.SqlStatementAssertions.assertStatements;
+import static org.junit.Assert.*;
+
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@Transactional
+public class DynamicQueryTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    RegisterService registerService;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    RegisterRepository registerRepository;
+    @Autowired
+    OrderRepository orderRepository;
+    @Autowired
+    FetchPlanReport fetchPlanReport;
+
+    @Test
+    public void 값이_없는_조건은_빠지고_조합마다_같은_JPQL() throws Exception {
+        DynamicQuery<OrderSearch, Order> definition =
+                OrderRepository.searchConditions(DynamicQuery.entity(OrderSearch.class, Order.class, "o"));
+        OrderSearch first = new OrderSearch();
+        first.setNickName("a");
+        OrderSearch second = new OrderSearch();
+        second.setNickName("b");
+
+        String lazy = queryString(definition.create(em, first));
+        String fetched = queryString(definition.create(em, first, Order.WITH_MEMBER_DEAL));
+
+        assertEquals("select o from Order o join o.member m join o.deal d where m.nickName like :name", lazy);
+        assertEquals("그래프는 선언된 join 에 fetch",
+                "select o from Order o join fetch o.member m join fetch o.deal d where m.nickName like :name", fetched);
+        assertSame("같은 모양이면 만들어 둔 JPQL", fetched, queryString(definition.create(em, second, Order.WITH_MEMBER_DEAL)));
+        assertEquals(2, definition.shapeCount());
+        assertEquals("select o from Order o join o.member m join o.deal d", queryString(definition.create(em, null)));
+    }
+
+    @Test
+    public void 선언되지_않은_경로는_left_join_fetch() throws Exception {
+        DynamicQuery<Long, OrderItem> definition = DynamicQuery.entity(Long.class, OrderItem.class, "oi")
+                .filter("oi.order.id = :orderId", orderId -> orderId);
+
+        assertEquals("select oi from OrderItem oi left join fetch oi.item g1 left join fetch g1.register g2 " +
+                        "left join fetch g2.member g3 where oi.order.id = :orderId",
+                queryString(definition.create(em, 1L, OrderItem.WITH_ITEM_REGISTER_MEMBER)));
+    }
+
+    @Test
+    public void 같은_모양은_플랜_캐시에서_재사용() throws Exception {
+        createOrder();
+        em.flush();
+        em.clear();
+        OrderSearch search = new OrderSearch();
+        search.setNickName("dqBuyer");
+        search.setOrderStatus(OrderStatus.ORDER);
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        boolean enabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            orderRepository.findOrders(search, Order.WITH_MEMBER_DEAL);
+            long misses = statistics.getQueryPlanCacheMissCount();
+            long hits = statistics.getQueryPlanCacheHitCount();
+
+            search.setNickName("dqSeller");
+            orderRepository.findOrders(search, Order.WITH_MEMBER_DEAL);
+
+            assertEquals("HQL 파싱, 변환 X", misses, statistics.getQueryPlanCacheMissCount());
+            assertTrue(statistics.getQueryPlanCacheHitCount() > hits);
+        } finally {
+            statistics.setStatisticsEnabled(enabled);
+        }
+    }
+
+    @Test
+    public void 그래프에_있는_연관관계만_같이_조회() throws Exception {
+        // given
+        Long orderId = createOrder();
+        em.flush();
+        em.clear();
+        OrderSearch search = new OrderSearch();
+        search.setNickName("dqBuyer");
+
+        // when
+        List<Order> fetched = assertStatements(1, () -> orderRepository.findOrders(search, Order.WITH_MEMBER_DEAL));
+        em.clear();
+        List<Order> lazy = orderRepository.findOrders(search);
+
+        // then: 같은 JPQL 이어도 그래프에 있는 연관관계만 초기화
+        assertEquals(1, fetched.size());
+        assertTrue(Hibernate.isInitialized(fetched.get(0).getMember()));
+        assertTrue(Hibernate.isInitialized(fetched.get(0).getDeal()));
+        assertFalse("그래프에 없는 컬렉션은 LAZY", Hibernate.isInitialized(fetched.get(0).getOrderItems()));
+        assertFalse(Hibernate.isInitialized(lazy.get(0).getMember()));
+
+        em.clear();
+        List<OrderItem> orderItems = assertStatements(1, () -> orderRepository.findOrderItems_fetch(orderId));
+        assertEquals("seller 닉네임까지 한 번에", "dqSeller",
+                orderItems.get(0).getItem().getRegister().getMember().getNickName());
+    }
+
+    @Test
+    public void 요청에서_쓴_플랜을_엔드포인트별로_기록() throws Exception {
+        // given
+        createOrder();
+        em.flush();
+        em.clear();
+
+        // when
+        FetchPlanReport.start();
+        orderRepository.findOrders(null, Order.WITH_MEMBER_DEAL);
+        registerRepository.findRegisters(null);
+        Set<String> plans = FetchPlanReport.stop();
+        fetchPlanReport.record("GET /test/plans", plans, new SqlStatementStats());
+
+        // then
+        FetchPlanReport.EndpointPlanDto endpoint = fetchPlanReport.report().getEndpoints().stream()
+                .filter(e -> e.getEndpoint().equals("GET /test/plans"))
+                .findFirst().orElseThrow();
+        assertEquals(List.of("Order.withMemberDeal", "Register (lazy)"), endpoint.getPlans());
+        assertEquals(1, endpoint.getRequests());
+        assertEquals(List.of("item(register(member))"),
+                fetchPlanReport.report().getGraphs().get(OrderItem.WITH_ITEM_REGISTER_MEMBER));
+        assertEquals(List.of("item", "member"), fetchPlanReport.report().getGraphs().get(Register.WITH_MEMBER_ITEM));
+    }
+
+    private static String queryString(TypedQuery<?> query) {
+        return query.unwrap(org.hibernate.query.Query.class).getQueryString();
+    }
+
+    private Long createOrder() {
+        Member registerMember = new Member("dqSeller", "1234", "dqSeller", new Address("a", "b", "c"));
+        Member orderMember = new Member("dqBuyer", "1234", "dqBuyer", new Address("1", "2", "3"));
+        em.persist(registerMember);
+        em.persist(orderMember);
+
+        Long registerId = registerService.register(registerMember.getId(),
+                new RegisterItemDto("dqItem", "author", 10000, 10, "Novel", "etc"));
+
+        return orderService.order(orderMember.getId(), registerId, 1, "DIRECT");
+    }
+}
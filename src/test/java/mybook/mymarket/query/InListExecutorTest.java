@@ -0,0 +1,54 @@
+package mybook.mymarket.query;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.*;
+
+public class InListExecutorTest {
+
+    @Test
+    public void 덩어리는_2의_거듭제곱_크기로_채움() throws Exception {
+        List<List<Long>> chunks = InListExecutor.chunks(ids(1000), 512, 8);
+
+        assertEquals(2, chunks.size());
+        assertEquals(512, chunks.get(0).size());
+        assertEquals("488 => 512 로 채움", 512, chunks.get(1).size());
+        assertEquals("마지막 id 반복", Long.valueOf(1000), chunks.get(1).get(511));
+    }
+
+    @Test
+    public void 작은_목록은_최소_크기로() throws Exception {
+        assertEquals(Collections.singletonList(Arrays.asList(1L, 2L, 3L, 3L, 3L, 3L, 3L, 3L)),
+                InListExecutor.chunks(ids(3), 512, 8));
+        assertEquals(16, InListExecutor.chunks(ids(9), 512, 8).get(0).size());
+    }
+
+    @Test
+    public void 쿼리_모양은_몇개로_고정() throws Exception {
+        long shapes = LongStream.rangeClosed(1, 2000)
+                .mapToObj(n -> InListExecutor.chunks(ids((int) n), 512, 8))
+                .flatMap(List::stream)
+                .map(List::size)
+                .distinct()
+                .count();
+
+        assertEquals("8, 16, 32, 64, 128, 256, 512", 7, shapes);
+    }
+
+    @Test
+    public void 중복_제거_빈_목록() throws Exception {
+        assertEquals(Arrays.asList(5L, 7L, 7L, 7L, 7L, 7L, 7L, 7L),
+                InListExecutor.chunks(Arrays.asList(5L, 7L, 5L), 512, 8).get(0));
+        assertTrue("id 가 없으면 쿼리 X", InListExecutor.chunks(Collections.emptyList(), 512, 8).isEmpty());
+    }
+
+    private static List<Long> ids(int count) {
+        return LongStream.rangeClosed(1, count).boxed().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,66 @@
+package mybook.mymarket.query;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ParentChildAssemblerTest {
+
+    @Test
+    public void 자식은_부모마다_들어온_순서대로() throws Exception {
+        List<long[]> parents = Arrays.asList(new long[]{10}, new long[]{20}, new long[]{30});
+        ParentChildAssembler<long[], long[]> assembler = new ParentChildAssembler<>(parents, p -> p[0], c -> c[0]);
+
+        // 덩어리 두 개로 나눠서 들어옴, 부모에 없는 자식(99)은 버림
+        assembler.accept(Arrays.asList(new long[]{20, 1}, new long[]{10, 2}, new long[]{99, 3}));
+        assembler.accept(Arrays.asList(new long[]{20, 4}));
+
+        Map<Long, List<long[]>> assembled = new HashMap<>();
+        assembler.assemble((parent, children) -> assembled.put(parent[0], children));
+
+        assertEquals(1, assembled.get(10L).size());
+        assertEquals(2, assembled.get(20L).size());
+        assertEquals(1, assembled.get(20L).get(0)[1]);
+        assertEquals(4, assembled.get(20L).get(1)[1]);
+        assertTrue("자식이 없으면 null (Map.get 과 같음)", assembled.containsKey(30L));
+        assertNull(assembled.get(30L));
+    }
+
+    @Test
+    public void 빈_부모_목록() throws Exception {
+        ParentChildAssembler<long[], long[]> assembler = new ParentChildAssembler<>(
+                Collections.emptyList(), p -> p[0], c -> c[0]);
+        assembler.accept(Collections.singletonList(new long[]{1, 1}));
+        assembler.assemble((parent, children) -> fail("부모가 없으면 호출 X"));
+    }
+
+    @Test
+    public void LongIndex_충돌과_0_음수_키() throws Exception {
+        int size = 10_000;
+        LongIndex index = new LongIndex(size);
+        for (int i = 0; i < size; i++)
+            index.put((i - 5_000) * 1024L, i);  // 같은 하위 비트 => 충돌이 많은 키
+
+        assertEquals(size, index.size());
+        for (int i = 0; i < size; i++)
+            assertEquals(i, index.get((i - 5_000) * 1024L));
+        assertEquals("없으면 -1", -1, index.get(1));
+
+        index.put(0, 7);
+        assertEquals("같은 키는 덮어씀", size, index.size());
+        assertEquals(7, index.get(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void LongIndex_정한_크기를_넘으면_예외() throws Exception {
+        LongIndex index = new LongIndex(2);
+        for (int i = 0; i < 100; i++)
+            index.put(i, i);
+    }
+}
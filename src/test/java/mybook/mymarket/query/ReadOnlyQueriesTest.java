@@ -0,0 +1,136 @@
+package mybook.mymarket.query;
+
+import mybook.mymarket.domain.Address;
+import mybook.mymarket.domain.Member;
+import mybook.mymarket.domain.Order;
+import mybook.mymarket.domain.Register;
+import mybook.mymarket.repository.OrderRepository;
+import mybook.mymarket.repository.RegisterRepository;
+import mybook.mymarket.repository.RegisterSearch;
+import mybook.mymarket.service.OrderService;
+import mybook.mymarket.service.RegisterService;
+import mybook.mymarket.service.dto.RegisterItemDto;
+import org.hibernate.FlushMode;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 목록 조회 힌트는 읽기 전용 트랜잭션이나 트랜잭션 밖에서만
+ * => 쓰기 트랜잭션(@Transactional) 안에서 읽은 엔티티는 그대로 변경 감지 대상
+ */
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@Transactional
+public class ReadOnlyQueriesTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    RegisterService registerService;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    RegisterRepository registerRepository;
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Test
+    public void 쓰기_트랜잭션_안의_목록_조회는_스냅샷_유지() throws Exception {
+        // given
+        createOrder();
+        em.flush();
+        em.clear();
+
+        // when
+        List<Register> registers = registerRepository.findRegisters(null, Register.WITH_MEMBER_ITEM);
+        List<Register> searched = registerRepository.findRegisters(new RegisterSearch(), Register.WITH_MEMBER_ITEM);
+        List<Order> orders = orderRepository.findOrders(null, Order.WITH_MEMBER_DEAL);
+
+        // then: fetch join 으로 같이 읽은 엔티티까지
+        assertFalse(registers.isEmpty());
+        assertFalse(orders.isEmpty());
+        for (Register register : registers)
+            assertSnapshot(register, register.getMember(), register.getItem());
+        for (Register register : searched)
+            assertSnapshot(register, register.getMember(), register.getItem());
+        for (Order order : orders)
+            assertSnapshot(order, order.getMember(), order.getDeal());
+    }
+
+    @Test
+    public void 쓰기_트랜잭션_안에서_목록으로_읽은_엔티티도_변경감지() throws Exception {
+        // given
+        createOrder();
+        em.flush();
+        em.clear();
+
+        // when: 목록으로 읽은 엔티티를 바꾸고 flush
+        Member member = orderRepository.findOrders(null, Order.WITH_MEMBER_DEAL).get(0).getMember();
+        member.setNickName("changed");
+        em.flush();
+        em.clear();
+
+        // then
+        assertEquals("changed", em.find(Member.class, member.getId()).getNickName());
+    }
+
+    @Test
+    public void 쓰기_트랜잭션에서는_힌트_X() throws Exception {
+        assertFalse(hasReadOnlyHints());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void 읽기_전용_트랜잭션에서는_힌트() throws Exception {
+        assertTrue(hasReadOnlyHints());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void 트랜잭션_밖에서는_힌트() throws Exception {
+        assertTrue(hasReadOnlyHints());
+    }
+
+    private boolean hasReadOnlyHints() {
+        TypedQuery<Member> query = ReadOnlyQueries.readOnly(em.createQuery("select m from Member m", Member.class));
+
+        return Boolean.TRUE.equals(query.getHints().get(QueryHints.READ_ONLY))
+                && query.getHints().get(QueryHints.FLUSH_MODE) == FlushMode.MANUAL;
+    }
+
+    private Long createOrder() {
+        Member registerMember = new Member("roSeller", "1234", "roSeller", new Address("a", "b", "c"));
+        Member orderMember = new Member("roBuyer", "1234", "roBuyer", new Address("1", "2", "3"));
+        em.persist(registerMember);
+        em.persist(orderMember);
+
+        Long registerId = registerService.register(registerMember.getId(),
+                new RegisterItemDto("roItem", "author", 10000, 10, "Novel", "etc"));
+        orderService.order(orderMember.getId(), registerId, 1, "DIRECT");
+
+        return registerId;
+    }
+
+    private void assertSnapshot(Object... entities) {
+        for (Object entity : entities) {
+            EntityEntry entry = em.unwrap(SessionImplementor.class).getPersistenceContext().getEntry(entity);
+            assertNotNull(entity + " 영속 상태", entry);
+            assertEquals(Status.MANAGED, entry.getStatus());
+            assertNotNull(entity + " 스냅샷 O", entry.getLoadedState());
+        }
+    }
+}
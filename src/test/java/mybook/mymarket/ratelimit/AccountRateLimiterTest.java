@@ -0,0 +1,74 @@
+package mybook.mymarket.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mybook.mymarket.exception.TooManyRequestsException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+/**
+ * 계정 토큰 2개 / 1분 => 토큰 하나가 30초마다
+ */
+public class AccountRateLimiterTest {
+    private MeterRegistry meterRegistry;
+    private RateLimitProperties properties;
+
+    @Before
+    public void setUp() {
+        RateLimitProperties.Limit account = new RateLimitProperties.Limit();
+        account.setCapacity(2);
+        account.setPeriod(Duration.ofMinutes(1));
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setAccount(account);
+        properties = new RateLimitProperties();
+        properties.getRules().put("login", rule);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void 계정의_토큰이_없으면_429_와_Retry_After() throws Exception {
+        AccountRateLimiter limiter = new AccountRateLimiter(properties, meterRegistry);
+        limiter.acquire("login", "victim");
+        limiter.acquire("login", "victim");
+
+        try {
+            limiter.acquire("login", "victim");
+            fail("세 번째 시도는 거절");
+        } catch (TooManyRequestsException e) {
+            assertEquals(429, e.getRawStatusCode());
+            assertEquals("다음 토큰까지 30초 (올림)", "30", e.getResponseHeaders().getFirst("Retry-After"));
+        }
+        assertEquals(1, meterRegistry.find("market.ratelimit.rejected").tags("rule", "login", "key", "account")
+                .counter().count(), 0);
+
+        limiter.acquire("login", "other");     // 다른 계정은 따로
+    }
+
+    @Test
+    public void account_가_없는_규칙은_제한_X() throws Exception {
+        AccountRateLimiter limiter = new AccountRateLimiter(properties, meterRegistry);
+
+        for (int i = 0; i < 10; i++)
+            limiter.acquire("order", "victim");
+    }
+
+    @Test
+    public void 꺼져_있으면_제한_X() throws Exception {
+        properties.setEnabled(false);
+        AccountRateLimiter limiter = new AccountRateLimiter(properties, meterRegistry);
+
+        for (int i = 0; i < 10; i++)
+            limiter.acquire("login", "victim");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void 잘못된_설정은_시작할_때() throws Exception {
+        properties.getRules().get("login").getAccount().setCapacity(0);
+
+        new AccountRateLimiter(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,133 @@
+package mybook.mymarket.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 회원 토큰 2개 / 10초 => 토큰 하나가 5초마다
+ */
+public class RateLimitFilterTest {
+    private MeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @Before
+    public void setUp() {
+        RateLimitProperties.Limit member = new RateLimitProperties.Limit();
+        member.setCapacity(2);
+        member.setPeriod(Duration.ofSeconds(10));
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setRoutes(List.of("POST /api/order/{memberId}"));
+        rule.setMember(member);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRules().put("order", rule);
+
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(properties, meterRegistry);
+    }
+
+    @Test
+    public void 남은_토큰과_가득_찰_때까지_초() throws Exception {
+        MockHttpServletResponse first = order("7");
+        assertEquals("2", first.getHeader("X-RateLimit-Limit"));
+        assertEquals("1", first.getHeader("X-RateLimit-Remaining"));
+        assertEquals("5초 (올림)", "5", first.getHeader("X-RateLimit-Reset"));
+
+        MockHttpServletResponse second = order("7");
+        assertEquals("0", second.getHeader("X-RateLimit-Remaining"));
+        assertEquals("10", second.getHeader("X-RateLimit-Reset"));
+    }
+
+    @Test
+    public void 토큰이_없으면_429_와_Retry_After() throws Exception {
+        order("7");
+        order("7");
+
+        MockHttpServletResponse rejected = order("7");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("0", rejected.getHeader("X-RateLimit-Remaining"));
+        assertEquals("다음 토큰까지 5초 (올림)", "5", rejected.getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.find("market.ratelimit.rejected").tag("rule", "order").counter().count(), 0);
+        assertEquals("다른 회원은 따로", 200, order("8").getStatus());
+    }
+
+    @Test
+    public void 세션의_회원이_경로_변수보다_먼저() throws Exception {
+        for (String pathMember : new String[]{"1", "2"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/order/" + pathMember);
+            request.getSession().setAttribute("memberId", 7L);
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        assertEquals("세션 회원 7 의 토큰을 다 씀", 429, order("7").getStatus());
+    }
+
+    @Test
+    public void 회원과_IP_중_남은_토큰이_적은_쪽_헤더() throws Exception {
+        RateLimitProperties.Limit member = new RateLimitProperties.Limit();
+        member.setCapacity(5);
+        member.setPeriod(Duration.ofSeconds(10));
+        RateLimitProperties.Limit ip = new RateLimitProperties.Limit();
+        ip.setCapacity(3);
+        ip.setPeriod(Duration.ofSeconds(30));
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setRoutes(List.of("POST /api/order/{memberId}"));
+        rule.setMember(member);
+        rule.setIp(ip);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRules().put("order", rule);
+        filter = new RateLimitFilter(properties, meterRegistry);
+
+        MockHttpServletResponse first = order("7");
+        assertEquals("IP 가 먼저 걸림", "3", first.getHeader("X-RateLimit-Limit"));
+        assertEquals("2", first.getHeader("X-RateLimit-Remaining"));
+        assertEquals("10", first.getHeader("X-RateLimit-Reset"));
+
+        order("7");
+        order("8");     // 같은 IP 의 다른 회원
+        MockHttpServletResponse rejected = order("9");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("10", rejected.getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.find("market.ratelimit.rejected").tag("key", "ip").counter().count(), 0);
+    }
+
+    @Test
+    public void 규칙에_없는_경로는_그대로() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/order/7"), response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(response.getHeader("X-RateLimit-Limit"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void 잘못된_설정은_시작할_때() throws Exception {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(0);
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setIp(limit);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRules().put("login", rule);
+
+        new RateLimitFilter(properties, new SimpleMeterRegistry());
+    }
+
+    private MockHttpServletResponse order(String memberId) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/order/" + memberId), response, new MockFilterChain());
+
+        return response;
+    }
+}
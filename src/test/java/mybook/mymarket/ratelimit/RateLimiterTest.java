@@ -0,0 +1,100 @@
+package mybook.mymarket.ratelimit;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 시각은 직접 넣음 => capacity 10, period 10s: 토큰 하나가 1초마다, 한 번에 10개까지
+ */
+public class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long NOW = 1_000 * SECOND;
+
+    @Test
+    public void 남은_토큰_수() throws Exception {
+        TokenBucket bucket = new TokenBucket(10, 10 * SECOND, NOW);
+
+        assertEquals(9, bucket.tryAcquire(NOW));
+        assertEquals(8, bucket.tryAcquire(NOW));
+        for (int i = 0; i < 7; i++)
+            bucket.tryAcquire(NOW);
+        assertEquals("마지막 토큰", 0, bucket.tryAcquire(NOW));
+    }
+
+    @Test
+    public void 토큰이_없으면_다음_토큰까지_남은_시간() throws Exception {
+        TokenBucket bucket = new TokenBucket(10, 10 * SECOND, NOW);
+        for (int i = 0; i < 10; i++)
+            bucket.tryAcquire(NOW);
+
+        assertEquals("-(1초) - 1", -SECOND - 1, bucket.tryAcquire(NOW));
+        assertEquals(-SECOND / 4 - 1, bucket.tryAcquire(NOW + SECOND * 3 / 4));
+        assertEquals("1초 뒤에 하나", 0, bucket.tryAcquire(NOW + SECOND));
+    }
+
+    @Test
+    public void 가득_찰_때까지_남은_시간() throws Exception {
+        TokenBucket bucket = new TokenBucket(10, 10 * SECOND, NOW);
+        assertEquals(0, bucket.resetNanos(NOW));
+        assertTrue(bucket.isIdle(NOW));
+
+        bucket.tryAcquire(NOW);
+        bucket.tryAcquire(NOW);
+
+        assertEquals(2 * SECOND, bucket.resetNanos(NOW));
+        assertEquals(SECOND / 2, bucket.resetNanos(NOW + SECOND * 3 / 2));
+        assertFalse(bucket.isIdle(NOW + SECOND));
+        assertTrue(bucket.isIdle(NOW + 2 * SECOND));
+    }
+
+    @Test
+    public void 쉬는_동안_다시_채워짐() throws Exception {
+        TokenBucket bucket = new TokenBucket(10, 10 * SECOND, NOW);
+        for (int i = 0; i < 10; i++)
+            bucket.tryAcquire(NOW);
+
+        assertEquals("5초 => 5개 (하나 쓰고 4)", 4, bucket.tryAcquire(NOW + 5 * SECOND));
+        assertEquals("가득 찬 뒤로는 더 쌓이지 않음", 9, bucket.tryAcquire(NOW + 100 * SECOND));
+    }
+
+    @Test
+    public void nanoTime_이_넘쳐도() throws Exception {
+        long now = Long.MAX_VALUE - SECOND / 2;
+        TokenBucket bucket = new TokenBucket(1, SECOND, now);
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(-SECOND - 1, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now + SECOND));    // Long.MIN_VALUE 쪽으로 넘어감
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacity_는_1_이상() throws Exception {
+        new TokenBucket(0, 10 * SECOND, NOW);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 토큰_하나가_차는_시간이_0_이면_안됨() throws Exception {
+        new RateLimiter(1_000, Duration.ofNanos(999), 10);
+    }
+
+    @Test
+    public void 키가_꽉_차면_쉬는_버킷을_지우고_그래도_없으면_overflow() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, Duration.ofSeconds(1), 2);
+        limiter.bucket("a", NOW).tryAcquire(NOW);
+        limiter.bucket("b", NOW).tryAcquire(NOW);
+
+        TokenBucket overflow = limiter.bucket("c", NOW);
+        assertSame("쉬는 버킷 없음 => 공용 버킷", overflow, limiter.bucket("d", NOW));
+        assertEquals(2, limiter.size());
+
+        limiter.bucket("a", NOW + SECOND);  // 있는 키는 그대로
+        TokenBucket c = limiter.bucket("c", NOW + SECOND);
+        assertNotSame("1초 뒤 a, b 는 가득 참 => 지우고 새 키", overflow, c);
+        assertSame(c, limiter.bucket("c", NOW + SECOND));
+        assertEquals(1, limiter.size());
+    }
+}
@@ -0,0 +1,67 @@
+package mybook.mymarket.route;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.Assert.*;
+
+public class RouteMatcherTest {
+    private final RouteMatcher<String> routes = new RouteMatcher<String>()
+            .add("POST /api/order/{memberId}", "order")
+            .add("* /api/v*/orders", "search")
+            .add("GET /orders/*/*", "orders")
+            .add("  GET   /orders  ", "list");
+
+    @Test
+    public void 위에서부터_처음_맞는_라우트() throws Exception {
+        assertEquals("order", routes.find(request("POST", "/api/order/7")));
+        assertEquals("search", routes.find(request("GET", "/api/v4/orders")));
+        assertEquals("메소드 * 는 전부", "search", routes.find(request("POST", "/api/v2/orders")));
+        assertEquals("orders", routes.find(request("get", "/orders/1/cancel")));
+        assertEquals("앞뒤, 사이 공백은 무시", "list", routes.find(request("GET", "/orders")));
+    }
+
+    @Test
+    public void 맞는_라우트가_없으면_null() throws Exception {
+        assertNull("메소드가 다름", routes.find(request("GET", "/api/order/7")));
+        assertNull(routes.find(request("GET", "/orders/1")));
+        assertNull(new RouteMatcher<String>().find(request("GET", "/orders")));
+    }
+
+    @Test
+    public void context_path_를_뺀_경로() throws Exception {
+        MockHttpServletRequest request = request("POST", "/market/api/order/7");
+        request.setContextPath("/market");
+
+        assertEquals("order", routes.find(request));
+    }
+
+    @Test
+    public void 경로_변수() throws Exception {
+        RouteMatcher.Match<String> match = routes.match(request("POST", "/api/order/42"));
+
+        assertEquals("42", match.variable("memberId"));
+        assertNull("패턴에 없는 변수", match.variable("registerId"));
+    }
+
+    @Test
+    public void 미리_찾은_세그먼트는_PathPattern_추출과_같은_값() throws Exception {
+        RouteMatcher<String> variables = new RouteMatcher<String>()
+                .add("GET /api/v*/my-orders/{memberId}/changes", "changes")
+                .add("GET /files/{*rest}", "files");
+
+        assertEquals("디코딩, 끝 / 허용", "a b",
+                variables.match(request("GET", "/api/v4/my-orders/a%20b/changes/")).variable("memberId"));
+        assertEquals("여러 세그먼트 변수는 PathPattern 으로", "/a/b",
+                variables.match(request("GET", "/files/a/b")).variable("rest"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 메소드_없는_라우트는_시작할_때_실패() throws Exception {
+        new RouteMatcher<String>().add("/api/order/*", "order");
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+}
@@ -0,0 +1,110 @@
+package mybook.mymarket.service;
+
+import mybook.mymarket.CommittedDataTest;
+import mybook.mymarket.changes.ChangeFeedProperties;
+import mybook.mymarket.domain.DealStatus;
+import mybook.mymarket.domain.OrderStatus;
+import mybook.mymarket.exception.InvalidCursorException;
+import mybook.mymarket.repository.order.query.OrderQueryDto;
+import mybook.mymarket.repository.register.query.RegisterQueryDto;
+import mybook.mymarket.service.dto.ChangeFeedDto;
+import mybook.mymarket.service.dto.RegisterItemDto;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+/**
+ * 변경 기록은 커밋 직전에 저장됨 => 테스트 트랜잭션(롤백) 없이 서비스 트랜잭션마다 커밋 (settle=0s)
+ */
+public class ChangeFeedServiceTest extends CommittedDataTest {
+    @Autowired
+    ChangeFeedService changeFeedService;
+    @Autowired
+    ChangeFeedProperties properties;
+    @Autowired
+    OrderService orderService;
+    @Autowired
+    RegisterService registerService;
+
+    @Test
+    public void cursor_이후에_바뀐_주문만() throws Exception {
+        // given: 판매 회원의 등록상품 2개, 주문 회원의 주문 2개
+        Long seller = createMember("feedSeller");
+        Long buyer = createMember("feedBuyer");
+        Long registerA = registerService.register(seller, new RegisterItemDto("itemA", "a", 1000, 10, "Novel", "etc"));
+        Long registerB = registerService.register(seller, new RegisterItemDto("itemB", "b", 2000, 10, "Novel", "etc"));
+        Long orderA = orderService.order(buyer, registerA, 1, "DIRECT");
+        orderService.order(buyer, registerB, 1, "DIRECT");
+
+        // 처음 동기화: 전체 + cursor
+        ChangeFeedDto<OrderQueryDto> first = changeFeedService.myOrderChanges(buyer, null);
+        assertTrue(first.isFull());
+        assertEquals(2, first.getCount());
+
+        // 그 사이 변경 없음 => 빈 페이지, cursor 그대로
+        ChangeFeedDto<OrderQueryDto> none = changeFeedService.myOrderChanges(buyer, first.getCursor());
+        assertFalse(none.isFull());
+        assertEquals(0, none.getCount());
+        assertEquals(first.getCursor(), none.getCursor());
+
+        // when: 주문 하나 거래 완료
+        orderService.completeDeal(orderA);
+
+        // then: 그 주문만, 현재 상태로
+        ChangeFeedDto<OrderQueryDto> delta = changeFeedService.myOrderChanges(buyer, first.getCursor());
+        assertEquals(1, delta.getCount());
+        assertEquals(orderA, delta.getData().get(0).getOrderId());
+        assertEquals(OrderStatus.ORDER, delta.getData().get(0).getOrderStatus());
+        assertEquals(DealStatus.COMP, delta.getData().get(0).getDealStatus());
+        assertNotEquals(first.getCursor(), delta.getCursor());
+
+        // 받은 cursor 로 다시 => 더 없음
+        assertEquals(0, changeFeedService.myOrderChanges(buyer, delta.getCursor()).getCount());
+        // 다른 회원의 변경은 섞이지 않음
+        assertEquals(0, changeFeedService.myOrderChanges(seller, first.getCursor()).getCount());
+    }
+
+    @Test
+    public void 주문으로_바뀐_재고는_판매_회원의_등록상품_변경으로() throws Exception {
+        Long seller = createMember("stockSeller");
+        Long buyer = createMember("stockBuyer");
+        Long registerId = registerService.register(seller, new RegisterItemDto("stockItem", "a", 1000, 10, "Novel", "etc"));
+        ChangeFeedDto<RegisterQueryDto> first = changeFeedService.myRegisterChanges(seller, null);
+        assertEquals(1, first.getCount());
+
+        orderService.order(buyer, registerId, 3, "DIRECT");
+
+        ChangeFeedDto<RegisterQueryDto> delta = changeFeedService.myRegisterChanges(seller, first.getCursor());
+        assertEquals(1, delta.getCount());
+        assertEquals(registerId, delta.getData().get(0).getRegisterId());
+        assertEquals(7, delta.getData().get(0).getStockQuantity());
+    }
+
+    @Test
+    public void settle_전의_변경은_보내지만_cursor_는_멈춤() throws Exception {
+        Long seller = createMember("settleSeller");
+        Long buyer = createMember("settleBuyer");
+        Long registerId = registerService.register(seller, new RegisterItemDto("settleItem", "a", 1000, 10, "Novel", "etc"));
+        ChangeFeedDto<OrderQueryDto> first = changeFeedService.myOrderChanges(buyer, null);
+
+        Duration settle = properties.getSettle();
+        properties.setSettle(Duration.ofMinutes(1));
+        try {
+            orderService.order(buyer, registerId, 1, "DIRECT");
+
+            ChangeFeedDto<OrderQueryDto> delta = changeFeedService.myOrderChanges(buyer, first.getCursor());
+            assertEquals(1, delta.getCount());
+            assertEquals("늦게 커밋된 변경을 건너뛰지 않게", first.getCursor(), delta.getCursor());
+            assertFalse(delta.isHasMore());
+        } finally {
+            properties.setSettle(settle);
+        }
+    }
+
+    @Test(expected = InvalidCursorException.class)
+    public void 잘못된_cursor() throws Exception {
+        changeFeedService.myOrderChanges(1L, "not-a-cursor");
+    }
+}
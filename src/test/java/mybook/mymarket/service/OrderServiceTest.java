@@ -5,6 +5,8 @@ import mybook.mymarket.domain.item.Item;
 import mybook.mymarket.exception.NotEnoughStockException;
 import mybook.mymarket.repository.ItemRepository;
 import mybook.mymarket.repository.OrderRepository;
+import mybook.mymarket.repository.order.query.OrderQueryDto;
+import mybook.mymarket.repository.order.query.OrderQueryRepository;
 import mybook.mymarket.service.dto.RegisterItemDto;
 import org.junit.Assert;
 import org.junit.Test;
@@ -15,7 +17,9 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.List;
 
+import static mybook.mymarket.monitoring.SqlStatementAssertions.assertStatements;
 import static org.junit.Assert.*;
 
 
@@ -32,6 +36,8 @@ public class OrderServiceTest {
     @Autowired
     ItemRepository itemRepository;
     @Autowired
+    OrderQueryRepository orderQueryRepository;
+    @Autowired
     EntityManager em;
 
     /**
@@ -187,6 +193,34 @@ public class OrderServiceTest {
         assertEquals("거래 완료 시 거래 상태는 COMP", DealStatus.COMP, order.getDeal().getStatus());
     }
 
+    /**
+     * 주문 목록 조회 (v4) => 주문 수와 상관없이 쿼리 2번 (주문 + 주문상품 IN 쿼리)
+     */
+    @Test
+    public void 주문목록_v4_쿼리2번() throws Exception {
+        // given: 회원, 상품 세팅, 등록, 주문 여러 건
+        Member registerMember = createMember("testMember", new Address("a", "b", "c"));
+        em.persist(registerMember);
+        Member orderMember = createMember("orderMember", new Address("1", "2", "3"));
+        em.persist(orderMember);
+
+        int orderCount = 5;
+        for (int i = 0; i < orderCount; i++) {
+            RegisterItemDto itemDto = new RegisterItemDto("testItem" + i, "test", 10000, 10, "Novel", "test");
+            Long registerId = registerService.register(registerMember.getId(), itemDto);
+            orderService.order(orderMember.getId(), registerId, 1, "DELIVERY");
+        }
+
+        em.flush();
+        em.clear();     // 1차 캐시를 비워야 실제 쿼리가 나감
+
+        // when
+        List<OrderQueryDto> orders = assertStatements(2, () -> orderQueryRepository.findAllByDto_optimization());
+
+        // then
+        assertEquals("주문 수", orderCount, orders.size());
+    }
+
     private static Member createMember(String nickName, Address address) {
         Member member = new Member(nickName, "1234", "이정규", address);
 